@@ -0,0 +1,199 @@
+package io.github.universalnotifier.examples.bulk;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingestion en masse de notifications lues en flux dans le corps d'une requête.
+ * <p>
+ * Les notifications sont décodées une à une, sans charger le corps en mémoire, et remises aussitôt au service
+ * de notification par un pool de threads dédié : le thread de la requête ne fait que lire le corps. Au plus
+ * {@link #MAX_IN_FLIGHT} notifications, toutes ingestions confondues, sont en cours d'envoi : au-delà, la lecture
+ * des corps attend, et les clients qui envoient les requêtes sont ralentis par TCP plutôt que les corps ne
+ * s'accumulent en mémoire.
+ */
+@Service
+public class BulkIngestionService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestionService.class);
+
+    /**
+     * Nombre maximal de notifications en cours d'envoi, toutes ingestions confondues.
+     */
+    static final int MAX_IN_FLIGHT = 10_000;
+
+    /**
+     * Nombre de threads qui remettent les notifications au service de notification.
+     */
+    static final int SEND_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Nombre d'ingestions terminées conservées pour être consultées ; les plus anciennes sont oubliées.
+     */
+    static final int MAX_FINISHED_JOBS = 1_000;
+
+    private final NotificationService notificationService;
+    private final ObjectReader jsonLines;
+    private final ObjectReader csv;
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<BulkJob> finished = new ConcurrentLinkedQueue<>();
+    // Partagée par toutes les ingestions : plusieurs requêtes simultanées ne multiplient pas les envois en cours
+    private final Semaphore window = new Semaphore(MAX_IN_FLIGHT);
+    // File non bornée, mais jamais plus de MAX_IN_FLIGHT tâches grâce à la fenêtre
+    private final ExecutorService sender;
+
+    /**
+     * Constructeur avec injection du service de notification.
+     *
+     * @param notificationService Service utilisé pour envoyer les notifications
+     * @param objectMapper Mapper JSON de l'application, qui sait lire les dates des notifications planifiées
+     */
+    @Autowired
+    public BulkIngestionService(NotificationService notificationService, ObjectMapper objectMapper) {
+        this.notificationService = notificationService;
+        this.jsonLines = objectMapper.readerFor(NotificationRequest.class);
+        this.csv = new CsvMapper().findAndRegisterModules()
+                .readerFor(NotificationRequest.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        AtomicInteger count = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(SEND_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-ingestion-send-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Crée une ingestion, consultable dès avant la lecture du corps.
+     *
+     * @return L'ingestion
+     */
+    public BulkJob start() {
+        BulkJob job = new BulkJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Lit des notifications au format JSON Lines (un objet {@link NotificationRequest} par ligne) et les envoie.
+     *
+     * @param job Ingestion
+     * @param body Corps de la requête
+     */
+    public void ingestJsonLines(BulkJob job, InputStream body) {
+        ingest(job, jsonLines, body);
+    }
+
+    /**
+     * Lit des notifications au format CSV, dont la ligne d'en-tête nomme les champs de
+     * {@link NotificationRequest} (par exemple {@code type,to,subject,message}), et les envoie.
+     *
+     * @param job Ingestion
+     * @param body Corps de la requête
+     */
+    public void ingestCsv(BulkJob job, InputStream body) {
+        ingest(job, csv, body);
+    }
+
+    /**
+     * @param id Identifiant d'une ingestion
+     * @return L'ingestion, si elle est en cours ou fait partie des dernières terminées
+     */
+    public Optional<BulkJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Arrête le pool d'envoi : les notifications déjà lues sont remises au service, les suivantes échouent.
+     */
+    @Override
+    public void close() {
+        sender.shutdown();
+    }
+
+    private void ingest(BulkJob job, ObjectReader reader, InputStream body) {
+        String failure = null;
+        try (MappingIterator<NotificationRequest> requests = reader.readValues(body)) {
+            while (requests.hasNextValue()) {
+                NotificationRequest request = requests.nextValue();
+                window.acquire();
+                job.received.increment();
+                job.pending.incrementAndGet();
+                send(job, request);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Lecture interrompue de l'ingestion {} après {} notification(s)", job.getId(), job.received.sum(), e);
+            failure = e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Lecture interrompue";
+        }
+        job.bodyRead(failure);
+        release(job);
+    }
+
+    private void send(BulkJob job, NotificationRequest request) {
+        try {
+            sender.execute(() -> {
+                CompletableFuture<Void> result;
+                try {
+                    result = notificationService.sendAsync(request);
+                } catch (RuntimeException e) {
+                    result = CompletableFuture.failedFuture(e);
+                }
+                result.whenComplete((ignored, error) -> complete(job, error == null));
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Pool d'envoi arrêté : notification de l'ingestion {} abandonnée", job.getId());
+            complete(job, false);
+        }
+    }
+
+    private void complete(BulkJob job, boolean succeeded) {
+        if (succeeded) {
+            job.succeeded.increment();
+        } else {
+            job.failed.increment();
+        }
+        window.release();
+        release(job);
+    }
+
+    private void release(BulkJob job) {
+        if (!job.release()) {
+            return;
+        }
+        logger.info("Ingestion {} terminée : {} envoyée(s), {} en échec", job.getId(), job.succeeded.sum(), job.failed.sum());
+        finished.add(job);
+        while (finished.size() > MAX_FINISHED_JOBS) {
+            BulkJob oldest = finished.poll();
+            if (oldest != null) {
+                jobs.remove(oldest.getId());
+            }
+        }
+    }
+}
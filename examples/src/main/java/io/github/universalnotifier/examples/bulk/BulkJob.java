@@ -0,0 +1,126 @@
+package io.github.universalnotifier.examples.bulk;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suivi d'une ingestion en masse : les compteurs sont mis à jour sans verrou par le thread qui lit le corps
+ * de la requête et par les threads qui terminent les envois, et peuvent être lus à tout moment.
+ */
+public class BulkJob {
+
+    /**
+     * État d'une ingestion.
+     */
+    public enum Status {
+        /** Le corps de la requête est en cours de lecture */
+        RECEIVING,
+        /** La lecture du corps est terminée, avec ou sans erreur ; des envois sont encore en cours */
+        SENDING,
+        /** Le corps a été lu et toutes les notifications ont été envoyées ou ont échoué */
+        COMPLETED,
+        /** La lecture du corps a échoué et toutes les notifications déjà lues ont été envoyées ou ont échoué */
+        FAILED
+    }
+
+    /**
+     * Vue d'une ingestion à un instant donné.
+     *
+     * @param id Identifiant de l'ingestion
+     * @param status État de l'ingestion
+     * @param received Nombre de notifications lues dans le corps de la requête
+     * @param succeeded Nombre de notifications envoyées avec succès
+     * @param failed Nombre de notifications dont l'envoi a échoué
+     * @param inFlight Nombre de notifications en cours d'envoi
+     * @param startedAt Début de l'ingestion
+     * @param completedAt Fin du dernier envoi, ou null
+     * @param error Cause de l'échec de la lecture du corps, ou null ; renseignée dès la fin de la lecture
+     */
+    public record Snapshot(String id, Status status, long received, long succeeded, long failed, long inFlight,
+                           Instant startedAt, Instant completedAt, String error) {
+    }
+
+    /**
+     * Avancement d'une ingestion.
+     *
+     * @param received Nombre de notifications lues dans le corps de la requête
+     * @param succeeded Nombre de notifications envoyées avec succès
+     * @param failed Nombre de notifications dont l'envoi a échoué
+     * @param inFlight Nombre de notifications en cours d'envoi
+     * @param done true si tous les envois sont terminés
+     */
+    public record Progress(long received, long succeeded, long failed, long inFlight, boolean done) {
+    }
+
+    private final String id;
+    private final Instant startedAt = Instant.now();
+    final LongAdder received = new LongAdder();
+    final LongAdder succeeded = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    // Envois en cours, plus un tant que le corps est lu
+    final AtomicLong pending = new AtomicLong(1);
+    private volatile boolean bodyRead;
+    private volatile String error;
+    private volatile Instant completedAt;
+
+    BulkJob(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return Identifiant de l'ingestion
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return État de l'ingestion
+     */
+    public Status getStatus() {
+        // La cause d'un échec est connue dès la fin de la lecture, mais l'état ne change qu'après le dernier envoi
+        if (completedAt != null) {
+            return error != null ? Status.FAILED : Status.COMPLETED;
+        }
+        return bodyRead ? Status.SENDING : Status.RECEIVING;
+    }
+
+    /**
+     * @return Vue complète de l'ingestion
+     */
+    public Snapshot snapshot() {
+        Progress progress = progress();
+        return new Snapshot(id, getStatus(), progress.received(), progress.succeeded(), progress.failed(),
+                progress.inFlight(), startedAt, completedAt, error);
+    }
+
+    /**
+     * @return Avancement de l'ingestion
+     */
+    public Progress progress() {
+        // Les envois terminés sont lus avant les notifications reçues : le nombre d'envois en cours n'est jamais négatif
+        long sent = succeeded.sum();
+        long rejected = failed.sum();
+        long total = received.sum();
+        return new Progress(total, sent, rejected, total - sent - rejected, completedAt != null);
+    }
+
+    void bodyRead(String failure) {
+        this.error = failure;
+        this.bodyRead = true;
+    }
+
+    /**
+     * Retire un envoi, ou la lecture du corps, des opérations en cours.
+     *
+     * @return true si c'était la dernière
+     */
+    boolean release() {
+        if (pending.decrementAndGet() == 0) {
+            completedAt = Instant.now();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.universalnotifier.examples.bulk;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.function.BiConsumer;
+
+/**
+ * Contrôleur REST d'ingestion en masse, référence pour les intégrations à fort volume.
+ *
+ * Le corps de la requête, au format JSON Lines ou CSV, est lu en flux et chaque notification est remise au
+ * pipeline d'envoi dès qu'elle est décodée. La réponse 202 n'attend pas les fournisseurs : elle est renvoyée
+ * dès le corps lu, avec l'identifiant de l'ingestion dont l'état et l'avancement restent consultables.
+ */
+@RestController
+@RequestMapping("/api/notifications/bulk")
+public class BulkNotificationController {
+
+    /**
+     * Type de contenu JSON Lines : un objet JSON par ligne.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Type de contenu CSV, avec une ligne d'en-tête.
+     */
+    public static final String TEXT_CSV = "text/csv";
+
+    private final BulkIngestionService ingestionService;
+
+    /**
+     * Constructeur avec injection du service d'ingestion.
+     *
+     * @param ingestionService Service d'ingestion en masse
+     */
+    @Autowired
+    public BulkNotificationController(BulkIngestionService ingestionService) {
+        this.ingestionService = ingestionService;
+    }
+
+    /**
+     * Endpoint pour envoyer des notifications au format JSON Lines.
+     *
+     * @param body Corps de la requête, lu en flux
+     * @return Réponse HTTP 202 avec l'état de l'ingestion et son adresse
+     */
+    @PostMapping(consumes = APPLICATION_NDJSON)
+    public ResponseEntity<BulkJob.Snapshot> ingestJsonLines(InputStream body) {
+        return ingest(body, ingestionService::ingestJsonLines);
+    }
+
+    /**
+     * Endpoint pour envoyer des notifications au format CSV.
+     *
+     * @param body Corps de la requête, lu en flux
+     * @return Réponse HTTP 202 avec l'état de l'ingestion et son adresse
+     */
+    @PostMapping(consumes = TEXT_CSV)
+    public ResponseEntity<BulkJob.Snapshot> ingestCsv(InputStream body) {
+        return ingest(body, ingestionService::ingestCsv);
+    }
+
+    /**
+     * Endpoint pour consulter l'état d'une ingestion.
+     *
+     * @param id Identifiant de l'ingestion
+     * @return Réponse HTTP avec l'état de l'ingestion, ou 404 si elle est inconnue
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BulkJob.Snapshot> getStatus(@PathVariable String id) {
+        return ResponseEntity.of(ingestionService.find(id).map(BulkJob::snapshot));
+    }
+
+    /**
+     * Endpoint pour suivre l'avancement d'une ingestion.
+     *
+     * @param id Identifiant de l'ingestion
+     * @return Réponse HTTP avec les compteurs de l'ingestion, ou 404 si elle est inconnue
+     */
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<BulkJob.Progress> getProgress(@PathVariable String id) {
+        return ResponseEntity.of(ingestionService.find(id).map(BulkJob::progress));
+    }
+
+    private ResponseEntity<BulkJob.Snapshot> ingest(InputStream body, BiConsumer<BulkJob, InputStream> reader) {
+        BulkJob job = ingestionService.start();
+        reader.accept(job, body);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/notifications/bulk/" + job.getId()))
+                .body(job.snapshot());
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.universalnotifier.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.universalnotifier.core.codec.NotificationCodec;
+import io.github.universalnotifier.core.codec.StringDictionary;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare l'encodage et la lecture d'une notification par le {@link NotificationCodec}
+ * (avec et sans dictionnaire) et en JSON avec Jackson.
+ * <p>
+ * Les tailles des enregistrements sont affichées au démarrage de chaque fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationCodecBenchmark {
+
+    private NotificationRequest request;
+    private NotificationCodec codec;
+    private NotificationCodec dictionaryCodec;
+    private ObjectMapper mapper;
+
+    private byte[] encoded;
+    private byte[] dictionaryEncoded;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, Object> additionalData = new LinkedHashMap<>();
+        additionalData.put("templateId", "d-8f2c1e0b7a6d4c3b");
+        additionalData.put("orderId", 1_234_567);
+        additionalData.put("total", 89.9);
+        additionalData.put("express", true);
+        request = NotificationRequest.builder()
+                .type("EMAIL")
+                .to("jeanne.dupont@example.com")
+                .subject("Votre commande a été expédiée")
+                .message("Bonjour Jeanne, votre commande n°1234567 a été remise au transporteur "
+                        + "et vous sera livrée demain avant 13h.")
+                .additionalData(additionalData)
+                .priority(NotificationPriority.HIGH)
+                .deadline(Instant.parse("2026-10-19T12:00:00Z"))
+                .build();
+
+        codec = new NotificationCodec();
+        dictionaryCodec = new NotificationCodec(new StringDictionary(1024));
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        encoded = codec.encode(request);
+        dictionaryEncoded = dictionaryCodec.encode(request);
+        json = mapper.writeValueAsBytes(request);
+
+        System.out.printf("%nTaille: codec %d octets, codec avec dictionnaire %d octets, JSON %d octets%n",
+                encoded.length, dictionaryEncoded.length, json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() {
+        return codec.encode(request);
+    }
+
+    @Benchmark
+    public byte[] encodeCodecWithDictionary() {
+        return dictionaryCodec.encode(request);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public NotificationRequest decodeCodec() {
+        return codec.decodeRequest(encoded);
+    }
+
+    @Benchmark
+    public NotificationRequest decodeCodecWithDictionary() {
+        return dictionaryCodec.decodeRequest(dictionaryEncoded);
+    }
+
+    @Benchmark
+    public NotificationRequest decodeJson() throws Exception {
+        return mapper.readValue(json, NotificationRequest.class);
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.universalnotifier.core.broadcast;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Suivi d'une diffusion lancée par le {@link NotificationBroadcaster}.
+ */
+public class Broadcast {
+
+    private final NotificationRequest template;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    final AtomicLong submitted = new AtomicLong();
+    final AtomicLong succeeded = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    volatile RuntimeException failure;
+    private volatile boolean cancelled;
+
+    Broadcast(NotificationRequest template) {
+        this.template = template;
+    }
+
+    /**
+     * @return Notification diffusée, dont seul le destinataire change d'un envoi à l'autre
+     */
+    public NotificationRequest getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return Nombre de destinataires dont la notification a été remise au service de notification
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return Nombre de notifications envoyées avec succès
+     */
+    public long getSucceededCount() {
+        return succeeded.get();
+    }
+
+    /**
+     * @return Nombre de notifications dont l'envoi a échoué
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return Nombre de notifications remises au service dont l'envoi n'est pas encore terminé
+     */
+    public long getInFlightCount() {
+        return submitted.get() - succeeded.get() - failed.get();
+    }
+
+    /**
+     * @return Un futur complété une fois les destinataires épuisés et leurs envois terminés, ou complété
+     *         exceptionnellement avec une {@link io.github.universalnotifier.core.service.NotificationException}
+     *         si la lecture des destinataires a échoué
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * @return true si la diffusion est terminée ou annulée
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Interrompt la diffusion : les destinataires pas encore lus ne sont pas notifiés, les envois en cours se terminent.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+}
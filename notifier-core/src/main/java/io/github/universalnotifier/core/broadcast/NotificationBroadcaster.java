@@ -0,0 +1,228 @@
+package io.github.universalnotifier.core.broadcast;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Diffuse une même notification à un grand nombre de destinataires sans les charger tous en mémoire.
+ * <p>
+ * Les destinataires sont lus à la demande, par exemple depuis un curseur JDBC, au rythme auquel le service
+ * de notification termine les envois : au plus {@code window} notifications sont en cours à la fois, et un
+ * destinataire n'est lu qu'une fois une place libérée. Chaque notification reprend par référence le sujet,
+ * le message et les données de la notification diffusée ; seul le destinataire change. La mémoire consommée
+ * dépend ainsi de la fenêtre, non du nombre de destinataires. Les destinataires sont remis au service par lots,
+ * que les fournisseurs qui le permettent envoient en un seul appel.
+ */
+public class NotificationBroadcaster implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBroadcaster.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
+
+    /**
+     * Intervalle auquel l'attente d'une place dans la fenêtre vérifie l'annulation de la diffusion.
+     */
+    private static final long CANCELLATION_CHECK_MILLIS = 50;
+
+    private final NotificationService notificationService;
+    private final NotificationProperties.BroadcastConfig config;
+    private final ExecutorService executor;
+    private final Set<Broadcast> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param notificationService Service par lequel les notifications sont envoyées
+     * @param config Configuration des diffusions (fenêtre et taille des lots)
+     * @throws IllegalArgumentException Si la fenêtre ou la taille des lots n'est pas positive
+     */
+    public NotificationBroadcaster(NotificationService notificationService, NotificationProperties.BroadcastConfig config) {
+        if (config.getWindow() < 1 || config.getBatchSize() < 1) {
+            throw new IllegalArgumentException("La fenêtre et la taille des lots d'une diffusion doivent être positives");
+        }
+        this.notificationService = notificationService;
+        this.config = config;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "notifier-broadcast-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lance la diffusion d'une notification aux destinataires d'un flux, fermé une fois la diffusion terminée.
+     *
+     * @param template Notification à diffuser ; son destinataire est ignoré
+     * @param recipients Destinataires, lus à la demande
+     * @return Le suivi de la diffusion
+     * @throws NotificationException Si le service est arrêté
+     */
+    public Broadcast broadcast(NotificationRequest template, Stream<String> recipients) {
+        return start(template, recipients.iterator(), recipients);
+    }
+
+    /**
+     * Lance la diffusion d'une notification aux destinataires d'un itérateur.
+     *
+     * @param template Notification à diffuser ; son destinataire est ignoré
+     * @param recipients Destinataires, lus à la demande
+     * @return Le suivi de la diffusion
+     * @throws NotificationException Si le service est arrêté
+     */
+    public Broadcast broadcast(NotificationRequest template, Iterator<String> recipients) {
+        return start(template, recipients, null);
+    }
+
+    /**
+     * Interrompt les diffusions en cours ; les envois déjà remis au service se terminent.
+     */
+    @Override
+    public void close() {
+        running.forEach(Broadcast::cancel);
+        executor.shutdownNow();
+    }
+
+    private Broadcast start(NotificationRequest template, Iterator<String> recipients, AutoCloseable source) {
+        Broadcast broadcast = new Broadcast(template);
+        running.add(broadcast);
+        try {
+            executor.execute(() -> run(broadcast, recipients, source));
+        } catch (RejectedExecutionException e) {
+            running.remove(broadcast);
+            close(source);
+            throw new NotificationException("La diffusion des notifications est arrêtée", e);
+        }
+        return broadcast;
+    }
+
+    private void run(Broadcast broadcast, Iterator<String> recipients, AutoCloseable source) {
+        logger.info("Diffusion d'une notification {} démarrée", broadcast.getTemplate().getType());
+        Semaphore window = new Semaphore(config.getWindow());
+        // Envois en cours, plus un pour la lecture des destinataires
+        AtomicInteger pending = new AtomicInteger(1);
+        List<NotificationRequest> batch = new ArrayList<>(config.getBatchSize());
+        try {
+            while (true) {
+                // Le lot en cours occupe des places qui ne seraient jamais libérées s'il attendait la fenêtre
+                if (!batch.isEmpty() && window.availablePermits() == 0) {
+                    send(broadcast, batch, window, pending);
+                    batch = new ArrayList<>(config.getBatchSize());
+                }
+                if (!acquire(broadcast, window)) {
+                    break;
+                }
+                if (!recipients.hasNext()) {
+                    window.release();
+                    break;
+                }
+                batch.add(broadcast.getTemplate().toBuilder().to(recipients.next()).build());
+                if (batch.size() == config.getBatchSize()) {
+                    send(broadcast, batch, window, pending);
+                    batch = new ArrayList<>(config.getBatchSize());
+                }
+            }
+        } catch (RuntimeException e) {
+            errors.error("Échec de la lecture des destinataires de la diffusion", e);
+            broadcast.failure = e;
+        } finally {
+            close(source);
+        }
+
+        if (broadcast.isCancelled()) {
+            window.release(batch.size());
+        } else if (!batch.isEmpty()) {
+            send(broadcast, batch, window, pending);
+        }
+        done(broadcast, pending);
+    }
+
+    /**
+     * Attend une place dans la fenêtre.
+     *
+     * @return false si la diffusion a été annulée
+     */
+    private boolean acquire(Broadcast broadcast, Semaphore window) {
+        try {
+            while (!broadcast.isCancelled()) {
+                if (window.tryAcquire(CANCELLATION_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!broadcast.isCancelled()) {
+                        return true;
+                    }
+                    window.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            broadcast.cancel();
+        }
+        return false;
+    }
+
+    private void send(Broadcast broadcast, List<NotificationRequest> batch, Semaphore window, AtomicInteger pending) {
+        pending.addAndGet(batch.size());
+        broadcast.submitted.addAndGet(batch.size());
+        List<CompletableFuture<Void>> results;
+        try {
+            results = notificationService.sendBatchAsync(batch);
+        } catch (RuntimeException e) {
+            errors.error("Échec de l'envoi d'un lot de la diffusion", e);
+            results = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        for (CompletableFuture<Void> result : results) {
+            result.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    broadcast.succeeded.incrementAndGet();
+                } else {
+                    broadcast.failed.incrementAndGet();
+                }
+                window.release();
+                done(broadcast, pending);
+            });
+        }
+    }
+
+    private void done(Broadcast broadcast, AtomicInteger pending) {
+        if (pending.decrementAndGet() == 0) {
+            running.remove(broadcast);
+            logger.info("Diffusion terminée : {} envoyée(s), {} en échec{}", broadcast.getSucceededCount(),
+                    broadcast.getFailedCount(), broadcast.isCancelled() ? " (interrompue)" : "");
+            if (broadcast.failure != null) {
+                broadcast.getCompletion().completeExceptionally(new NotificationException(
+                        "Échec de la lecture des destinataires de la diffusion", broadcast.failure));
+            } else {
+                broadcast.getCompletion().complete(null);
+            }
+        }
+    }
+
+    private static void close(AutoCloseable source) {
+        if (source == null) {
+            return;
+        }
+        try {
+            source.close();
+        } catch (Exception e) {
+            errors.error("Échec de la fermeture des destinataires de la diffusion", e);
+        }
+    }
+}
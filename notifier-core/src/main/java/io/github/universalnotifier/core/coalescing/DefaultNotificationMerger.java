@@ -0,0 +1,47 @@
+package io.github.universalnotifier.core.coalescing;
+
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Fusion par défaut : les messages sont concaténés ligne par ligne sous le sujet de la première
+ * notification, et le résumé prend la priorité la plus haute et l'échéance la plus proche de ses notifications.
+ */
+public class DefaultNotificationMerger implements NotificationMerger {
+
+    @Override
+    public NotificationRequest merge(List<NotificationRequest> requests) {
+        if (requests.size() == 1) {
+            return requests.get(0);
+        }
+
+        NotificationRequest first = requests.get(0);
+        NotificationRequest last = requests.get(requests.size() - 1);
+        NotificationPriority priority = requests.stream()
+                .map(NotificationRequest::getPriority)
+                .min(Enum::compareTo)
+                .orElse(NotificationPriority.NORMAL);
+
+        return NotificationRequest.builder()
+                .type(first.getType())
+                .to(first.getTo())
+                .subject(first.getSubject())
+                .message(requests.stream()
+                        .map(NotificationRequest::getMessage)
+                        .collect(Collectors.joining("\n")))
+                .additionalData(last.getAdditionalData())
+                .priority(priority)
+                .coalescingKey(first.getCoalescingKey())
+                .deadline(requests.stream()
+                        .map(NotificationRequest::getDeadline)
+                        .filter(Objects::nonNull)
+                        .min(Instant::compareTo)
+                        .orElse(null))
+                .build();
+    }
+}
@@ -0,0 +1,313 @@
+package io.github.universalnotifier.core.coalescing;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.scheduler.HierarchicalTimingWheel;
+import io.github.universalnotifier.core.scheduler.TimerEntry;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Étape de regroupement des notifications en résumés, placée avant l'envoi.
+ * <p>
+ * Les notifications de même type, même destinataire et même {@link NotificationRequest#getCoalescingKey()
+ * clé de regroupement} reçues pendant la fenêtre configurée sont fusionnées par un {@link NotificationMerger}
+ * et envoyées en un seul appel au fournisseur. La fenêtre s'ouvre avec la première notification du résumé ;
+ * sa fermeture est gérée par une {@link HierarchicalTimingWheel} manipulée par un unique thread.
+ * <p>
+ * La mémoire est bornée : au-delà du nombre maximal de résumés ouverts, les notifications sont envoyées
+ * sans regroupement, et un résumé est envoyé immédiatement dès qu'il atteint sa taille maximale.
+ */
+public class NotificationCoalescer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private final NotificationMerger merger;
+    private final Executor dispatchExecutor;
+    private final ExecutorService ownedExecutor;
+    private final Clock clock;
+    private final long windowMillis;
+    private final long tickNanos;
+    private final int maxOpenDigests;
+    private final int maxDigestSize;
+    private final HierarchicalTimingWheel<Digest> wheel;
+
+    private final Map<DigestKey, Digest> open = new ConcurrentHashMap<>();
+    private final Queue<Digest> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Digest> cancellations = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    /**
+     * Crée un regroupeur disposant de son propre pool de threads d'envoi.
+     *
+     * @param config Configuration du regroupement
+     * @param merger Fonction de fusion des résumés
+     */
+    public NotificationCoalescer(NotificationProperties.CoalescingConfig config, NotificationMerger merger) {
+        this(config, merger, newDispatchExecutor(config.getDispatchThreads()), Clock.systemUTC(), true);
+    }
+
+    /**
+     * Crée un regroupeur utilisant l'exécuteur et l'horloge fournis.
+     *
+     * @param config Configuration du regroupement
+     * @param merger Fonction de fusion des résumés
+     * @param dispatchExecutor Exécuteur utilisé pour envoyer les résumés dont la fenêtre est close
+     * @param clock Horloge de référence
+     */
+    public NotificationCoalescer(NotificationProperties.CoalescingConfig config, NotificationMerger merger,
+                                 Executor dispatchExecutor, Clock clock) {
+        this(config, merger, dispatchExecutor, clock, false);
+    }
+
+    private NotificationCoalescer(NotificationProperties.CoalescingConfig config, NotificationMerger merger,
+                                  Executor dispatchExecutor, Clock clock, boolean ownsExecutor) {
+        this.merger = merger;
+        this.dispatchExecutor = dispatchExecutor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) dispatchExecutor : null;
+        this.clock = clock;
+        this.windowMillis = config.getWindow().toMillis();
+        this.tickNanos = config.getTick().toNanos();
+        this.maxOpenDigests = config.getMaxOpenDigests();
+        this.maxDigestSize = Math.max(config.getMaxDigestSize(), 1);
+        this.wheel = new HierarchicalTimingWheel<>(config.getTick().toMillis(), clock.millis());
+
+        this.worker = new Thread(this::run, "notifier-coalescer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+
+        logger.info("Regroupement des notifications démarré avec une fenêtre de {} ms", windowMillis);
+    }
+
+    /**
+     * Ajoute une notification au résumé correspondant, en ouvrant une fenêtre si nécessaire.
+     * Une notification sans clé de regroupement est transmise immédiatement.
+     *
+     * @param request Notification à regrouper
+     * @param sender Envoi effectif du résumé ; celui de la première notification du résumé est utilisé
+     * @return Un futur complété avec le résultat de l'envoi du résumé contenant la notification
+     */
+    public CompletableFuture<Void> submit(NotificationRequest request,
+                                          Function<NotificationRequest, CompletableFuture<Void>> sender) {
+        if (request.getCoalescingKey() == null) {
+            return send(sender, request);
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new NotificationException("Le regroupement des notifications est arrêté"));
+        }
+
+        DigestKey key = new DigestKey(request.getType(), request.getTo(), request.getCoalescingKey());
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Digest[] opened = new Digest[1];
+        Digest[] full = new Digest[1];
+        boolean[] overflow = new boolean[1];
+
+        open.compute(key, (k, digest) -> {
+            if (digest == null) {
+                if (open.size() >= maxOpenDigests) {
+                    overflow[0] = true;
+                    return null;
+                }
+                digest = new Digest(k, clock.millis() + windowMillis, sender);
+                opened[0] = digest;
+            }
+            digest.requests.add(request);
+            digest.results.add(result);
+            if (digest.requests.size() >= maxDigestSize) {
+                // Résumé complet : il quitte la table et part sans attendre la fin de la fenêtre
+                digest.closed = true;
+                full[0] = digest;
+                return null;
+            }
+            return digest;
+        });
+
+        if (overflow[0]) {
+            logger.debug("Nombre maximal de résumés ouverts atteint, envoi sans regroupement");
+            return send(sender, request);
+        }
+        if (full[0] != null) {
+            if (opened[0] == null) {
+                cancellations.add(full[0]);
+            }
+            flush(full[0]);
+        } else if (opened[0] != null) {
+            additions.add(opened[0]);
+        }
+        return result;
+    }
+
+    /**
+     * @return Nombre de résumés dont la fenêtre est ouverte
+     */
+    public int getOpenDigestCount() {
+        return open.size();
+    }
+
+    /**
+     * Arrête le regroupement et envoie immédiatement les résumés encore ouverts.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int flushed = 0;
+        for (DigestKey key : List.copyOf(open.keySet())) {
+            Digest digest = detach(key, null);
+            if (digest != null) {
+                dispatch(digest);
+                flushed++;
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        logger.info("Regroupement des notifications arrêté, {} résumé(s) envoyé(s) par anticipation", flushed);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Digest digest;
+                while ((digest = additions.poll()) != null) {
+                    // Un résumé fermé avant d'avoir été rangé n'entre jamais dans la roue
+                    if (!digest.closed) {
+                        wheel.add(digest);
+                    }
+                }
+                while ((digest = cancellations.poll()) != null) {
+                    wheel.remove(digest);
+                }
+                wheel.advanceTo(clock.millis(), this::expire);
+            } catch (RuntimeException e) {
+                logger.error("Erreur inattendue dans le regroupement des notifications", e);
+            }
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+
+    private void expire(Digest digest) {
+        if (detach(digest.key, digest) != null) {
+            dispatch(digest);
+        }
+    }
+
+    /**
+     * Retire un résumé de la table s'il y est encore (et s'il s'agit bien de celui attendu, lorsqu'il est précisé).
+     */
+    private Digest detach(DigestKey key, Digest expected) {
+        Digest[] detached = new Digest[1];
+        open.computeIfPresent(key, (k, digest) -> {
+            if (expected != null && digest != expected) {
+                return digest;
+            }
+            digest.closed = true;
+            detached[0] = digest;
+            return null;
+        });
+        return detached[0];
+    }
+
+    private void dispatch(Digest digest) {
+        try {
+            dispatchExecutor.execute(() -> flush(digest));
+        } catch (RejectedExecutionException e) {
+            logger.error("Impossible de remettre le résumé de {} notification(s) au pipeline d'envoi",
+                    digest.requests.size(), e);
+            completeAll(digest, new NotificationException("Impossible d'envoyer le résumé de notifications", e));
+        }
+    }
+
+    private void flush(Digest digest) {
+        CompletableFuture<Void> sent;
+        try {
+            NotificationRequest merged = merger.merge(digest.requests);
+            logger.debug("Envoi d'un résumé de {} notification(s) pour {}", digest.requests.size(), digest.key.to());
+            sent = send(digest.sender, merged);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((ignored, error) -> completeAll(digest,
+                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+    }
+
+    private static void completeAll(Digest digest, Throwable error) {
+        for (CompletableFuture<Void> result : digest.results) {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(null);
+            }
+        }
+    }
+
+    private static CompletableFuture<Void> send(Function<NotificationRequest, CompletableFuture<Void>> sender,
+                                                NotificationRequest request) {
+        try {
+            return sender.apply(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static ExecutorService newDispatchExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notifier-coalescer-dispatch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Identité d'un résumé : canal, destinataire et clé de regroupement.
+     */
+    private record DigestKey(String type, String to, String coalescingKey) {
+    }
+
+    /**
+     * Résumé en cours de constitution, rangé dans la roue temporelle jusqu'à la fin de sa fenêtre.
+     * Ses listes ne sont modifiées que sous le verrou de la table des résumés ouverts.
+     */
+    private static final class Digest extends TimerEntry {
+
+        private final DigestKey key;
+        private final Function<NotificationRequest, CompletableFuture<Void>> sender;
+        private final List<NotificationRequest> requests = new ArrayList<>();
+        private final List<CompletableFuture<Void>> results = new ArrayList<>();
+        private volatile boolean closed;
+
+        private Digest(DigestKey key, long deadlineMillis, Function<NotificationRequest, CompletableFuture<Void>> sender) {
+            super(deadlineMillis);
+            this.key = key;
+            this.sender = sender;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.universalnotifier.core.coalescing;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+
+import java.util.List;
+
+/**
+ * Fonction de fusion des notifications regroupées dans un même résumé.
+ * Déclarez un bean de ce type pour personnaliser le rendu des résumés.
+ */
+@FunctionalInterface
+public interface NotificationMerger {
+
+    /**
+     * Fusionne les notifications d'un résumé en une seule notification.
+     *
+     * @param requests Notifications du résumé, dans leur ordre d'arrivée (au moins une)
+     * @return La notification à envoyer à la place du résumé
+     */
+    NotificationRequest merge(List<NotificationRequest> requests);
+}
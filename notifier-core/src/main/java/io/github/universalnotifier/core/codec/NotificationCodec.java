@@ -0,0 +1,579 @@
+package io.github.universalnotifier.core.codec;
+
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec binaire compact et versionné des notifications et de leurs résultats.
+ * <p>
+ * Un enregistrement commence par la version du format et sa nature (notification ou résultat), suivies
+ * de champs étiquetés par leur numéro et leur type de codage. Un champ absent n'occupe aucun octet et
+ * un champ inconnu est ignoré à la lecture : des champs peuvent être ajoutés sans rompre la lecture des
+ * enregistrements existants. Les entiers sont codés sur une longueur variable et les chaînes en UTF-8.
+ * Avec un {@link StringDictionary}, les chaînes répétées d'une notification à l'autre (type, sujet,
+ * clé de regroupement, clés des données supplémentaires et leur entrée {@code templateId}) sont remplacées
+ * par leur indice dans le dictionnaire.
+ * <p>
+ * Les données supplémentaires sont encodables lorsqu'elles se composent de chaînes, d'entiers, de décimaux
+ * ({@code Double}), de booléens, de listes et de maps à clés chaînes : l'arbre obtenu à la lecture d'un
+ * document JSON. La lecture se fait directement dans un {@link ByteBuffer}, y compris hors tas, sans copie
+ * préalable de l'enregistrement. Le codec peut être partagé entre threads.
+ */
+public final class NotificationCodec {
+
+    /**
+     * Version courante du format
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Clé des données supplémentaires dont la valeur est également remplacée par son indice dans le dictionnaire
+     */
+    public static final String TEMPLATE_ID = "templateId";
+
+    private static final int REQUEST = 1;
+    private static final int RESULT = 2;
+    private static final int END = 0;
+
+    // Types de codage d'un champ
+    private static final int VARINT = 0;
+    private static final int STRING = 1;
+    private static final int DICTIONARY = 2;
+    private static final int INSTANT = 3;
+    private static final int VALUE = 4;
+
+    // Champs d'une notification
+    private static final int REQUEST_TYPE = 1;
+    private static final int REQUEST_TO = 2;
+    private static final int REQUEST_SUBJECT = 3;
+    private static final int REQUEST_MESSAGE = 4;
+    private static final int REQUEST_ADDITIONAL_DATA = 5;
+    private static final int REQUEST_SEND_AT = 6;
+    private static final int REQUEST_PRIORITY = 7;
+    private static final int REQUEST_COALESCING_KEY = 8;
+    private static final int REQUEST_DEADLINE = 9;
+
+    // Champs d'un résultat
+    private static final int RESULT_SUCCESS = 1;
+    private static final int RESULT_ERROR_CODE = 2;
+    private static final int RESULT_ERROR_MESSAGE = 3;
+    private static final int RESULT_ATTEMPT = 4;
+    private static final int RESULT_COMPLETED_AT = 5;
+
+    // Types des valeurs des données supplémentaires
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_DICTIONARY = 2;
+    private static final int VALUE_INT = 3;
+    private static final int VALUE_LONG = 4;
+    private static final int VALUE_DOUBLE = 5;
+    private static final int VALUE_TRUE = 6;
+    private static final int VALUE_FALSE = 7;
+    private static final int VALUE_LIST = 8;
+    private static final int VALUE_MAP = 9;
+
+    // Profondeur maximale des données supplémentaires, pour borner la récursion
+    private static final int MAX_DEPTH = 32;
+
+    private static final NotificationPriority[] PRIORITIES = NotificationPriority.values();
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(Output::new);
+
+    private final StringDictionary dictionary;
+
+    /**
+     * Crée un codec sans dictionnaire : chaque enregistrement se suffit à lui-même.
+     */
+    public NotificationCodec() {
+        this(null);
+    }
+
+    /**
+     * Crée un codec remplaçant les chaînes répétées par leur indice dans un dictionnaire.
+     *
+     * @param dictionary Dictionnaire partagé par l'encodage et la lecture des enregistrements
+     */
+    public NotificationCodec(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @param request Notification à encoder
+     * @return true si ses données supplémentaires sont encodables
+     */
+    public static boolean isEncodable(NotificationRequest request) {
+        return isEncodableValue(request.getAdditionalData(), 0);
+    }
+
+    /**
+     * Encode une notification.
+     *
+     * @param request Notification à encoder
+     * @return L'enregistrement
+     * @throws IllegalArgumentException Si les données supplémentaires ne sont pas encodables
+     */
+    public byte[] encode(NotificationRequest request) {
+        Output out = OUTPUT.get();
+        out.reset();
+        out.write(FORMAT_VERSION);
+        out.write(REQUEST);
+        writeDictionaryString(out, REQUEST_TYPE, request.getType());
+        writeString(out, REQUEST_TO, request.getTo());
+        writeDictionaryString(out, REQUEST_SUBJECT, request.getSubject());
+        writeString(out, REQUEST_MESSAGE, request.getMessage());
+        if (request.getAdditionalData() != null) {
+            out.writeVarInt(key(REQUEST_ADDITIONAL_DATA, VALUE));
+            writeValue(out, request.getAdditionalData(), false, 0);
+        }
+        writeInstant(out, REQUEST_SEND_AT, request.getSendAt());
+        if (request.getPriority() != NotificationPriority.NORMAL) {
+            out.writeVarInt(key(REQUEST_PRIORITY, VARINT));
+            out.writeVarInt(request.getPriority().ordinal());
+        }
+        writeDictionaryString(out, REQUEST_COALESCING_KEY, request.getCoalescingKey());
+        writeInstant(out, REQUEST_DEADLINE, request.getDeadline());
+        out.write(END);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode le résultat d'une tentative d'envoi.
+     *
+     * @param result Résultat à encoder
+     * @return L'enregistrement
+     */
+    public byte[] encode(NotificationResult result) {
+        Output out = OUTPUT.get();
+        out.reset();
+        out.write(FORMAT_VERSION);
+        out.write(RESULT);
+        if (result.isSuccess()) {
+            out.writeVarInt(key(RESULT_SUCCESS, VARINT));
+            out.writeVarInt(1);
+        }
+        // Le nom de la catégorie, et non son rang, pour que l'ajout d'une catégorie ne décale pas les autres
+        writeDictionaryString(out, RESULT_ERROR_CODE, result.getErrorCode() != null ? result.getErrorCode().name() : null);
+        writeString(out, RESULT_ERROR_MESSAGE, result.getErrorMessage());
+        if (result.getAttempt() != 0) {
+            out.writeVarInt(key(RESULT_ATTEMPT, VARINT));
+            out.writeVarInt(result.getAttempt());
+        }
+        writeInstant(out, RESULT_COMPLETED_AT, result.getCompletedAt());
+        out.write(END);
+        return out.toByteArray();
+    }
+
+    /**
+     * Décode une notification.
+     *
+     * @param data Enregistrement produit par {@link #encode(NotificationRequest)}
+     * @return La notification
+     * @throws IllegalArgumentException Si l'enregistrement n'est pas une notification lisible par ce codec
+     */
+    public NotificationRequest decodeRequest(byte[] data) {
+        return decodeRequest(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Décode une notification à partir de la position courante du tampon, avancée jusqu'à la fin
+     * de l'enregistrement.
+     *
+     * @param buffer Tampon contenant l'enregistrement
+     * @return La notification
+     * @throws IllegalArgumentException Si l'enregistrement n'est pas une notification lisible par ce codec
+     */
+    public NotificationRequest decodeRequest(ByteBuffer buffer) {
+        readHeader(buffer, REQUEST);
+        NotificationRequest.NotificationRequestBuilder builder = NotificationRequest.builder();
+        for (int key = readVarInt(buffer); key != END; key = readVarInt(buffer)) {
+            int wireType = key & 7;
+            switch (key >>> 3) {
+                case REQUEST_TYPE -> builder.type(readString(buffer, wireType));
+                case REQUEST_TO -> builder.to(readString(buffer, wireType));
+                case REQUEST_SUBJECT -> builder.subject(readString(buffer, wireType));
+                case REQUEST_MESSAGE -> builder.message(readString(buffer, wireType));
+                case REQUEST_ADDITIONAL_DATA -> builder.additionalData(readAdditionalData(buffer, wireType));
+                case REQUEST_SEND_AT -> builder.sendAt(readInstant(buffer, wireType));
+                case REQUEST_PRIORITY -> builder.priority(priority(readVarInt(buffer, wireType)));
+                case REQUEST_COALESCING_KEY -> builder.coalescingKey(readString(buffer, wireType));
+                case REQUEST_DEADLINE -> builder.deadline(readInstant(buffer, wireType));
+                default -> skip(buffer, wireType);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Décode le résultat d'une tentative d'envoi.
+     *
+     * @param data Enregistrement produit par {@link #encode(NotificationResult)}
+     * @return Le résultat
+     * @throws IllegalArgumentException Si l'enregistrement n'est pas un résultat lisible par ce codec
+     */
+    public NotificationResult decodeResult(byte[] data) {
+        return decodeResult(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Décode le résultat d'une tentative d'envoi à partir de la position courante du tampon.
+     *
+     * @param buffer Tampon contenant l'enregistrement
+     * @return Le résultat
+     * @throws IllegalArgumentException Si l'enregistrement n'est pas un résultat lisible par ce codec
+     */
+    public NotificationResult decodeResult(ByteBuffer buffer) {
+        readHeader(buffer, RESULT);
+        NotificationResult.NotificationResultBuilder builder = NotificationResult.builder();
+        for (int key = readVarInt(buffer); key != END; key = readVarInt(buffer)) {
+            int wireType = key & 7;
+            switch (key >>> 3) {
+                case RESULT_SUCCESS -> builder.success(readVarInt(buffer, wireType) != 0);
+                case RESULT_ERROR_CODE -> builder.errorCode(errorCode(readString(buffer, wireType)));
+                case RESULT_ERROR_MESSAGE -> builder.errorMessage(readString(buffer, wireType));
+                case RESULT_ATTEMPT -> builder.attempt(readVarInt(buffer, wireType));
+                case RESULT_COMPLETED_AT -> builder.completedAt(readInstant(buffer, wireType));
+                default -> skip(buffer, wireType);
+            }
+        }
+        return builder.build();
+    }
+
+    private static int key(int field, int wireType) {
+        return field << 3 | wireType;
+    }
+
+    private static void expect(int wireType, int expected) {
+        if (wireType != expected) {
+            throw new IllegalArgumentException("Type de codage inattendu: " + wireType);
+        }
+    }
+
+    private static void readHeader(ByteBuffer buffer, int kind) {
+        int version = buffer.get() & 0xFF;
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Version du format non supportée: " + version);
+        }
+        int actualKind = buffer.get() & 0xFF;
+        if (actualKind != kind) {
+            throw new IllegalArgumentException("Nature d'enregistrement inattendue: " + actualKind);
+        }
+    }
+
+    private static NotificationPriority priority(int ordinal) {
+        if (ordinal < 0 || ordinal >= PRIORITIES.length) {
+            throw new IllegalArgumentException("Priorité inconnue: " + ordinal);
+        }
+        return PRIORITIES[ordinal];
+    }
+
+    private static NotificationErrorCode errorCode(String name) {
+        // Une catégorie ajoutée par une version plus récente est lue comme inconnue
+        try {
+            return NotificationErrorCode.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return NotificationErrorCode.UNKNOWN;
+        }
+    }
+
+    // Écriture
+
+    private static void writeString(Output out, int field, String value) {
+        if (value != null) {
+            out.writeVarInt(key(field, STRING));
+            out.writeUtf8(value);
+        }
+    }
+
+    private void writeDictionaryString(Output out, int field, String value) {
+        if (value == null) {
+            return;
+        }
+        int index = dictionary != null ? dictionary.indexOf(value) : -1;
+        if (index >= 0) {
+            out.writeVarInt(key(field, DICTIONARY));
+            out.writeVarInt(index);
+        } else {
+            writeString(out, field, value);
+        }
+    }
+
+    private static void writeInstant(Output out, int field, Instant value) {
+        if (value != null) {
+            out.writeVarInt(key(field, INSTANT));
+            out.writeVarLong(zigZag(value.getEpochSecond()));
+            out.writeVarInt(value.getNano());
+        }
+    }
+
+    private void writeValue(Output out, Object value, boolean dictionaryString, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Données supplémentaires trop imbriquées");
+        }
+        if (value == null) {
+            out.write(VALUE_NULL);
+        } else if (value instanceof String string) {
+            int index = dictionaryString && dictionary != null ? dictionary.indexOf(string) : -1;
+            if (index >= 0) {
+                out.write(VALUE_DICTIONARY);
+                out.writeVarInt(index);
+            } else {
+                out.write(VALUE_STRING);
+                out.writeUtf8(string);
+            }
+        } else if (value instanceof Integer number) {
+            out.write(VALUE_INT);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Long number) {
+            out.write(VALUE_LONG);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Double number) {
+            out.write(VALUE_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(number));
+        } else if (value instanceof Boolean bool) {
+            out.write(bool ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof List<?> list) {
+            out.write(VALUE_LIST);
+            out.writeVarInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element, false, depth + 1);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.write(VALUE_MAP);
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new IllegalArgumentException("Clé de données supplémentaires non chaîne: " + entry.getKey());
+                }
+                writeValue(out, key, true, depth + 1);
+                writeValue(out, entry.getValue(), TEMPLATE_ID.equals(key), depth + 1);
+            }
+        } else {
+            throw new IllegalArgumentException("Données supplémentaires non encodables: " + value.getClass().getName());
+        }
+    }
+
+    private static boolean isEncodableValue(Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            return false;
+        }
+        if (value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Boolean) {
+            return true;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().allMatch(element -> isEncodableValue(element, depth + 1));
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.entrySet().stream().allMatch(entry ->
+                    entry.getKey() instanceof String && isEncodableValue(entry.getValue(), depth + 1));
+        }
+        return false;
+    }
+
+    // Lecture
+
+    private String readString(ByteBuffer buffer, int wireType) {
+        return switch (wireType) {
+            case STRING -> readUtf8(buffer);
+            case DICTIONARY -> dictionary().get(readVarInt(buffer));
+            default -> throw new IllegalArgumentException("Type de codage inattendu: " + wireType);
+        };
+    }
+
+    private static String readUtf8(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private Object readAdditionalData(ByteBuffer buffer, int wireType) {
+        expect(wireType, VALUE);
+        return readValue(buffer, 0);
+    }
+
+    private static Instant readInstant(ByteBuffer buffer, int wireType) {
+        expect(wireType, INSTANT);
+        long seconds = unZigZag(readVarLong(buffer));
+        return Instant.ofEpochSecond(seconds, readVarInt(buffer));
+    }
+
+    private static int readVarInt(ByteBuffer buffer, int wireType) {
+        expect(wireType, VARINT);
+        return readVarInt(buffer);
+    }
+
+    private Object readValue(ByteBuffer buffer, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Données supplémentaires trop imbriquées");
+        }
+        int type = buffer.get();
+        return switch (type) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> readUtf8(buffer);
+            case VALUE_DICTIONARY -> dictionary().get(readVarInt(buffer));
+            case VALUE_INT -> (int) unZigZag(readVarLong(buffer));
+            case VALUE_LONG -> unZigZag(readVarLong(buffer));
+            case VALUE_DOUBLE -> Double.longBitsToDouble(buffer.getLong());
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_LIST -> {
+                int size = readVarInt(buffer);
+                List<Object> list = new ArrayList<>(Math.min(size, buffer.remaining()));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer, depth + 1));
+                }
+                yield list;
+            }
+            case VALUE_MAP -> {
+                int size = readVarInt(buffer);
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put((String) readValue(buffer, depth + 1), readValue(buffer, depth + 1));
+                }
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("Type de valeur inconnu: " + type);
+        };
+    }
+
+    private void skip(ByteBuffer buffer, int wireType) {
+        switch (wireType) {
+            case VARINT -> readVarLong(buffer);
+            case STRING -> {
+                int length = readVarInt(buffer);
+                buffer.position(buffer.position() + length);
+            }
+            case DICTIONARY -> readVarInt(buffer);
+            case INSTANT -> {
+                readVarLong(buffer);
+                readVarInt(buffer);
+            }
+            case VALUE -> readValue(buffer, 0);
+            default -> throw new IllegalArgumentException("Type de codage inconnu: " + wireType);
+        }
+    }
+
+    private StringDictionary dictionary() {
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Enregistrement encodé avec un dictionnaire, absent de ce codec");
+        }
+        return dictionary;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Entier de longueur variable mal formé");
+    }
+
+    /**
+     * Tampon d'écriture réutilisé par chaque thread.
+     */
+    private static final class Output {
+
+        private static final int INITIAL_CAPACITY = 256;
+        // Un tampon agrandi par un très long message n'est pas conservé
+        private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+        private int size;
+
+        private void reset() {
+            if (bytes.length > MAX_RETAINED_CAPACITY) {
+                bytes = new byte[INITIAL_CAPACITY];
+            }
+            size = 0;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+
+        private void write(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeUtf8(String value) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80) {
+                    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(encoded.length);
+                    ensureCapacity(encoded.length);
+                    System.arraycopy(encoded, 0, bytes, size, encoded.length);
+                    size += encoded.length;
+                    return;
+                }
+            }
+            // Chaîne ASCII : un octet par caractère, sans tableau intermédiaire
+            writeVarInt(length);
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                bytes[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
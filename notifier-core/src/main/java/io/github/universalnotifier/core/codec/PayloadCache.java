@@ -0,0 +1,152 @@
+package io.github.universalnotifier.core.codec;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache borné de la partie commune d'une charge utile de fournisseur (JSON SendGrid, formulaire Twilio,
+ * notification FCM...), encodée une seule fois par contenu.
+ * <p>
+ * Lors d'une campagne, un même sujet et un même message partent vers de nombreux destinataires : le
+ * fournisseur encode leur partie de la charge utile au premier envoi, puis n'y ajoute que la partie propre au
+ * destinataire. La clé d'un contenu compare ses chaînes par {@link String#equals}, avec le code de hachage
+ * mémorisé par chaque instance de {@link String} ; les notifications d'une diffusion partageant les mêmes
+ * instances, {@code equals} conclut dès la comparaison des références, sans relire le texte.
+ * <p>
+ * Un contenu n'est conservé qu'à sa deuxième rencontre : une notification isolée (un code à usage unique, un
+ * message personnalisé) est encodée sans écarter du cache le contenu d'une diffusion en cours. Les contenus
+ * rencontrés une fois sont seulement mémorisés, dans la même limite de taille. Une fois le cache plein, une
+ * entrée quelconque est écartée pour chaque contenu admis.
+ *
+ * @param <V> Type de la partie encodée
+ */
+public final class PayloadCache<V> {
+
+    /**
+     * Nombre d'entrées d'un cache par défaut.
+     */
+    public static final int DEFAULT_MAX_SIZE = 128;
+
+    /**
+     * Contenu commun à tous les destinataires d'une notification.
+     *
+     * @param subject Sujet, ou null
+     * @param message Message, ou null
+     */
+    public record Content(String subject, String message) {
+
+        /**
+         * @param request Notification
+         * @return Le contenu de la notification, sans son destinataire
+         */
+        public static Content of(NotificationRequest request) {
+            return new Content(request.getSubject(), request.getMessage());
+        }
+    }
+
+    private final Map<Content, V> entries = new ConcurrentHashMap<>();
+    // Contenus rencontrés une seule fois, pas encore admis dans le cache
+    private final Map<Content, Boolean> seenOnce = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize Nombre maximal de contenus encodés conservés ; 0 désactive le cache
+     * @throws IllegalArgumentException Si la taille est négative
+     */
+    public PayloadCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("La taille du cache des charges utiles ne peut pas être négative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Crée un cache dont la taille est lue dans les propriétés d'un fournisseur.
+     *
+     * @param value Valeur de la propriété, ou null pour la taille par défaut
+     * @param property Nom complet de la propriété, pour les messages d'erreur
+     * @return Le cache
+     * @throws IllegalArgumentException Si la valeur n'est pas un entier positif ou nul
+     */
+    public static <V> PayloadCache<V> parse(String value, String property) {
+        if (value == null || value.isEmpty()) {
+            return new PayloadCache<>(DEFAULT_MAX_SIZE);
+        }
+        try {
+            return new PayloadCache<>(Integer.parseInt(value.trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("La propriété '" + property + "' doit être un entier positif ou nul: " + value, e);
+        }
+    }
+
+    /**
+     * Retourne la partie encodée du contenu d'une notification, conservée à partir de la deuxième rencontre
+     * du contenu.
+     *
+     * @param request Notification
+     * @param encoder Encodage du contenu, appelé hors de tout verrou ; deux appels simultanés pour un contenu
+     *                nouveau peuvent l'encoder chacun
+     * @return La partie encodée
+     */
+    public V get(NotificationRequest request, Function<Content, V> encoder) {
+        Content content = Content.of(request);
+        if (maxSize == 0) {
+            return encoder.apply(content);
+        }
+        V encoded = entries.get(content);
+        if (encoded != null) {
+            hits.increment();
+            return encoded;
+        }
+        misses.increment();
+        encoded = encoder.apply(content);
+        if (seenOnce.remove(content) == null) {
+            if (seenOnce.size() >= maxSize) {
+                evictOne(seenOnce);
+            }
+            seenOnce.put(content, Boolean.TRUE);
+            return encoded;
+        }
+        if (entries.size() >= maxSize) {
+            evictOne(entries);
+        }
+        entries.put(content, encoded);
+        return encoded;
+    }
+
+    /**
+     * @return Nombre de contenus encodés conservés
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Nombre de charges utiles construites à partir d'un contenu déjà encodé
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Nombre de contenus encodés faute d'être dans le cache
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static void evictOne(Map<Content, ?> map) {
+        Iterator<Content> keys = map.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.universalnotifier.core.codec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire des chaînes répétées d'une notification à l'autre (type, sujet, identifiant de modèle...).
+ * <p>
+ * Le {@link NotificationCodec} remplace une chaîne présente dans le dictionnaire par son indice. Les entrées
+ * ne sont jamais retirées : un enregistrement reste décodable tant que le dictionnaire qui l'a encodé l'est.
+ * Un dictionnaire extensible ajoute les chaînes au fil de l'eau, jusqu'à sa taille maximale ; il ne convient
+ * qu'aux enregistrements relus dans le même processus. Un dictionnaire figé, construit à l'identique sur
+ * chaque nœud, convient aussi aux enregistrements échangés ou persistés.
+ */
+public final class StringDictionary {
+
+    // Au-delà, une chaîne est propre à une notification et l'indexer ne ferait qu'occuper le dictionnaire
+    private static final int MAX_ENTRY_LENGTH = 256;
+
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final boolean extensible;
+    private volatile String[] entries;
+
+    private StringDictionary(List<String> initialEntries, int maxSize, boolean extensible) {
+        this.maxSize = maxSize;
+        this.extensible = extensible;
+        this.entries = new String[Math.max(initialEntries.size(), 16)];
+        initialEntries.forEach(this::add);
+    }
+
+    /**
+     * Crée un dictionnaire extensible.
+     *
+     * @param maxSize Nombre maximal d'entrées
+     */
+    public StringDictionary(int maxSize) {
+        this(List.of(), maxSize, true);
+    }
+
+    /**
+     * Crée un dictionnaire figé : les indices ne dépendent que de l'ordre des entrées fournies.
+     *
+     * @param entries Entrées du dictionnaire
+     * @return Le dictionnaire
+     */
+    public static StringDictionary of(String... entries) {
+        return new StringDictionary(Arrays.asList(entries), entries.length, false);
+    }
+
+    /**
+     * Recherche une chaîne, en l'ajoutant si le dictionnaire est extensible et non plein.
+     *
+     * @param value Chaîne recherchée
+     * @return Son indice, ou -1 si elle n'est pas dans le dictionnaire
+     */
+    public int indexOf(String value) {
+        Integer index = indexes.get(value);
+        if (index != null) {
+            return index;
+        }
+        if (!extensible || value.length() > MAX_ENTRY_LENGTH || indexes.size() >= maxSize) {
+            return -1;
+        }
+        return add(value);
+    }
+
+    /**
+     * @param index Indice d'une entrée
+     * @return La chaîne correspondante
+     * @throws IllegalArgumentException Si l'indice est inconnu
+     */
+    public String get(int index) {
+        String[] current = entries;
+        if (index < 0 || index >= current.length || current[index] == null) {
+            throw new IllegalArgumentException("Indice absent du dictionnaire: " + index);
+        }
+        return current[index];
+    }
+
+    /**
+     * @return Nombre d'entrées du dictionnaire
+     */
+    public int size() {
+        return indexes.size();
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = indexes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int index = indexes.size();
+        if (index >= maxSize) {
+            return -1;
+        }
+        String[] current = entries;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, Math.min(current.length * 2, Math.max(maxSize, 1)));
+        }
+        current[index] = value;
+        // L'entrée est publiée avant son indice : un lecteur qui obtient l'indice trouve la chaîne
+        entries = current;
+        indexes.put(value, index);
+        return index;
+    }
+}
@@ -1,9 +1,17 @@
 package io.github.universalnotifier.core.config;
 
+import io.github.universalnotifier.core.dispatch.LaneSchedulingPolicy;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.routing.ShardingStrategy;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -40,6 +48,105 @@ public class NotificationProperties {
      */
     private ProviderConfig telegram = new ProviderConfig();
 
+    /**
+     * Configuration du planificateur de notifications différées
+     */
+    private SchedulerConfig scheduler = new SchedulerConfig();
+
+    /**
+     * Configuration du dispatcher à couloirs de priorité
+     */
+    private DispatchConfig dispatch = new DispatchConfig();
+
+    /**
+     * Configuration du regroupement des notifications en résumés
+     */
+    private CoalescingConfig coalescing = new CoalescingConfig();
+
+    /**
+     * Configuration du préchauffage des fournisseurs au démarrage
+     */
+    private WarmUpConfig warmUp = new WarmUpConfig();
+
+    /**
+     * Configuration de l'ordonnancement des envois par destinataire
+     */
+    private OrderingConfig ordering = new OrderingConfig();
+
+    /**
+     * Configuration du contrôle d'admission en cas de saturation
+     */
+    private AdmissionConfig admission = new AdmissionConfig();
+
+    /**
+     * Configuration des limites de concurrence adaptatives par fournisseur
+     */
+    private ConcurrencyConfig concurrency = new ConcurrencyConfig();
+
+    /**
+     * Configuration de la file de travail partagée en base de données
+     */
+    private QueueConfig queue = new QueueConfig();
+
+    /**
+     * Configuration des lettres mortes, les notifications abandonnées après un échec
+     */
+    private DeadLetterConfig deadLetter = new DeadLetterConfig();
+
+    /**
+     * Configuration de l'arrêt progressif de l'application
+     */
+    private ShutdownConfig shutdown = new ShutdownConfig();
+
+    /**
+     * Configuration des diffusions d'une notification à de nombreux destinataires
+     */
+    private BroadcastConfig broadcast = new BroadcastConfig();
+
+    /**
+     * Configuration des appels aux fournisseurs bloquants
+     */
+    private BlockingConfig blocking = new BlockingConfig();
+
+    /**
+     * Retourne la configuration d'un canal à partir de son nom.
+     *
+     * @param channel Nom du canal (email, sms, push, whatsapp, telegram)
+     * @return La configuration du canal
+     * @throws IllegalArgumentException Si le canal est inconnu
+     */
+    public ProviderConfig getChannel(String channel) {
+        return switch (channel) {
+            case "email" -> email;
+            case "sms" -> sms;
+            case "push" -> push;
+            case "whatsapp" -> whatsapp;
+            case "telegram" -> telegram;
+            default -> throw new IllegalArgumentException("Canal de notification inconnu: " + channel);
+        };
+    }
+
+    /**
+     * Construit la configuration d'une instance nommée d'un canal, utilisable pour créer le fournisseur
+     * de cette instance. Seul le canal indiqué est renseigné.
+     *
+     * @param channel Nom du canal (email, sms, push, whatsapp, telegram)
+     * @param instance Nom de l'instance
+     * @return Une nouvelle configuration dont le canal pointe sur l'instance
+     */
+    public NotificationProperties forInstance(String channel, String instance) {
+        NotificationProperties properties = new NotificationProperties();
+        ProviderConfig config = getChannel(channel).forInstance(instance);
+        switch (channel) {
+            case "email" -> properties.setEmail(config);
+            case "sms" -> properties.setSms(config);
+            case "push" -> properties.setPush(config);
+            case "whatsapp" -> properties.setWhatsapp(config);
+            default -> properties.setTelegram(config);
+        }
+        return properties;
+    }
+
     /**
      * Classe de configuration pour un type de fournisseur spécifique
      */
@@ -56,6 +163,18 @@ public class NotificationProperties {
          */
         private Map<String, Map<String, String>> properties = new HashMap<>();
 
+        /**
+         * Instances nommées du fournisseur actif (sous-comptes, clés d'API...).
+         * La clé est le nom de l'instance, la valeur ses propriétés, qui complètent ou remplacent
+         * celles du fournisseur actif. Si aucune instance n'est déclarée, le fournisseur actif est utilisé seul.
+         */
+        private Map<String, Map<String, String>> instances = new LinkedHashMap<>();
+
+        /**
+         * Stratégie de répartition des notifications entre les instances nommées
+         */
+        private ShardingStrategy sharding = ShardingStrategy.CONSISTENT_HASH;
+
         /**
          * Récupère les propriétés de configuration pour le fournisseur actif
          *
@@ -67,5 +186,548 @@ public class NotificationProperties {
             }
             return properties.getOrDefault(provider, new HashMap<>());
         }
+
+        /**
+         * Construit la configuration d'une instance nommée : le fournisseur actif avec les propriétés de l'instance.
+         *
+         * @param name Nom de l'instance
+         * @return La configuration de l'instance, sans instances nommées
+         * @throws IllegalArgumentException Si l'instance n'est pas déclarée
+         */
+        public ProviderConfig forInstance(String name) {
+            Map<String, String> instanceProperties = instances.get(name);
+            if (instanceProperties == null) {
+                throw new IllegalArgumentException("Instance de fournisseur inconnue: " + name);
+            }
+
+            Map<String, String> merged = new HashMap<>(getActiveProviderProperties());
+            merged.putAll(instanceProperties);
+
+            ProviderConfig instance = new ProviderConfig();
+            instance.setProvider(provider);
+            instance.getProperties().put(provider, merged);
+            return instance;
+        }
+    }
+
+    /**
+     * Classe de configuration du planificateur de notifications différées
+     */
+    @Data
+    public static class SchedulerConfig {
+        /**
+         * Active le planificateur de notifications (NotificationScheduler)
+         */
+        private boolean enabled = false;
+
+        /**
+         * Résolution de la roue temporelle : une notification est envoyée au plus tard un tick après son échéance
+         */
+        private Duration tick = Duration.ofMillis(100);
+
+        /**
+         * Nombre de threads utilisés pour remettre les notifications échues au service d'envoi
+         */
+        private int dispatchThreads = 4;
+    }
+
+    /**
+     * Classe de configuration du dispatcher à couloirs de priorité
+     */
+    @Data
+    public static class DispatchConfig {
+        /**
+         * Active le dispatcher : les envois passent par une file par priorité
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre de threads qui consomment les files et appellent les fournisseurs
+         */
+        private int workers = 8;
+
+        /**
+         * Nombre maximal d'envois en cours auprès des fournisseurs, toutes priorités confondues
+         */
+        private int maxInFlight = 256;
+
+        /**
+         * Politique de choix de la prochaine file à servir
+         */
+        private LaneSchedulingPolicy policy = LaneSchedulingPolicy.WEIGHTED;
+
+        /**
+         * File des notifications critiques
+         */
+        private LaneConfig critical = new LaneConfig(1_000, 8);
+
+        /**
+         * File des notifications de haute priorité
+         */
+        private LaneConfig high = new LaneConfig(10_000, 4);
+
+        /**
+         * File des notifications de priorité normale
+         */
+        private LaneConfig normal = new LaneConfig(100_000, 2);
+
+        /**
+         * File du trafic de masse
+         */
+        private LaneConfig low = new LaneConfig(1_000_000, 1);
+
+        /**
+         * Débordement hors tas des notifications déposées sans suivi de résultat
+         */
+        private SpillConfig spill = new SpillConfig();
+
+        /**
+         * Retourne la configuration de la file associée à une priorité.
+         *
+         * @param priority Priorité de la file
+         * @return La configuration de la file
+         */
+        public LaneConfig getLane(NotificationPriority priority) {
+            return switch (priority) {
+                case CRITICAL -> critical;
+                case HIGH -> high;
+                case NORMAL -> normal;
+                case LOW -> low;
+            };
+        }
+    }
+
+    /**
+     * Classe de configuration d'une file du dispatcher
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneConfig {
+        /**
+         * Nombre maximal de notifications en attente dans la file
+         */
+        private int capacity = 10_000;
+
+        /**
+         * Poids de la file pour la politique WEIGHTED
+         */
+        private int weight = 1;
+    }
+
+    /**
+     * Classe de configuration du débordement hors tas des files du dispatcher
+     */
+    @Data
+    public static class SpillConfig {
+        /**
+         * Active le débordement : au-delà de la capacité d'une file, les notifications sont encodées hors tas
+         */
+        private boolean enabled = false;
+
+        /**
+         * Mémoire hors tas maximale de chaque file
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+
+        /**
+         * Taille d'un segment de mémoire, alloué à la demande et libéré une fois lu
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(4);
+    }
+
+    /**
+     * Classe de configuration du regroupement des notifications en résumés
+     */
+    @Data
+    public static class CoalescingConfig {
+        /**
+         * Active le regroupement des notifications portant une clé de regroupement
+         */
+        private boolean enabled = false;
+
+        /**
+         * Fenêtre de regroupement, ouverte par la première notification d'un résumé
+         */
+        private Duration window = Duration.ofSeconds(60);
+
+        /**
+         * Résolution de la roue temporelle qui ferme les fenêtres
+         */
+        private Duration tick = Duration.ofMillis(100);
+
+        /**
+         * Nombre maximal de résumés ouverts simultanément ; au-delà, les notifications sont envoyées sans regroupement
+         */
+        private int maxOpenDigests = 100_000;
+
+        /**
+         * Nombre maximal de notifications par résumé ; le résumé est envoyé dès que ce nombre est atteint
+         */
+        private int maxDigestSize = 50;
+
+        /**
+         * Nombre de threads utilisés pour remettre les résumés au pipeline d'envoi
+         */
+        private int dispatchThreads = 2;
+    }
+
+    /**
+     * Classe de configuration du préchauffage des fournisseurs au démarrage
+     */
+    @Data
+    public static class WarmUpConfig {
+        /**
+         * Initialise les fournisseurs au démarrage plutôt qu'au premier envoi
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre de connexions à ouvrir par fournisseur
+         */
+        private int connections = 2;
+
+        /**
+         * Durée maximale du préchauffage, au-delà de laquelle l'application est déclarée prête malgré tout
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        /**
+         * Intervalle de renouvellement du préchauffage, pour garder les connexions ouvertes (désactivé si null)
+         */
+        private Duration refreshInterval;
+    }
+
+    /**
+     * Classe de configuration de l'ordonnancement des envois par destinataire
+     */
+    @Data
+    public static class OrderingConfig {
+        /**
+         * Garantit que les notifications d'un même destinataire sont envoyées dans l'ordre de soumission
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre de bandes série entre lesquelles les destinataires sont répartis par hachage
+         */
+        private int stripes = 256;
+
+        /**
+         * Nombre de threads utilisés pour démarrer les envois
+         */
+        private int threads = 4;
+    }
+
+    /**
+     * Classe de configuration du contrôle d'admission, qui refuse les notifications les moins prioritaires
+     * lorsque le système de notification est saturé
+     */
+    @Data
+    public static class AdmissionConfig {
+        /**
+         * Active le contrôle d'admission
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre d'envois en cours à partir duquel le système est considéré comme saturé
+         */
+        private int maxInFlight = 10_000;
+
+        /**
+         * Nombre de notifications en attente dans le dispatcher à partir duquel le système est considéré comme saturé
+         */
+        private int maxQueueDepth = 500_000;
+
+        /**
+         * Latence d'envoi au-delà de laquelle le système est toujours considéré comme saturé
+         */
+        private Duration maxLatency = Duration.ofSeconds(10);
+
+        /**
+         * Facteur appliqué à la latence habituelle observée : une latence récente supérieure à ce multiple
+         * indique une saturation, même en dessous de max-latency
+         */
+        private double latencyTolerance = 4.0;
+
+        /**
+         * Latence en dessous de laquelle le système n'est jamais considéré comme saturé
+         */
+        private Duration minLatency = Duration.ofMillis(200);
+
+        /**
+         * Charge (entre 0 et 1) à partir de laquelle les notifications de priorité LOW sont refusées
+         */
+        private double lowThreshold = 0.6;
+
+        /**
+         * Charge (entre 0 et 1) à partir de laquelle les notifications de priorité NORMAL sont refusées
+         */
+        private double normalThreshold = 0.8;
+
+        /**
+         * Charge (entre 0 et 1) à partir de laquelle les notifications de priorité HIGH sont refusées ;
+         * les notifications CRITICAL ne sont jamais refusées
+         */
+        private double highThreshold = 0.95;
+
+        /**
+         * Délai conseillé à l'appelant avant une nouvelle tentative
+         */
+        private Duration retryAfter = Duration.ofSeconds(5);
+
+        /**
+         * Nombre maximal de notifications différées au lieu d'être refusées, en attendant que la charge baisse ;
+         * 0 refuse immédiatement les notifications au-delà de leur seuil
+         */
+        private int maxDeferred = 0;
+
+        /**
+         * Attente maximale d'une notification différée, au-delà de laquelle elle est refusée
+         */
+        private Duration maxDeferral = Duration.ofSeconds(5);
+
+        /**
+         * Retourne la charge à partir de laquelle les notifications d'une priorité sont refusées.
+         *
+         * @param priority Priorité de la notification
+         * @return Le seuil de refus, supérieur à 1 pour une priorité jamais refusée
+         */
+        public double getThreshold(NotificationPriority priority) {
+            return switch (priority) {
+                case CRITICAL -> Double.POSITIVE_INFINITY;
+                case HIGH -> highThreshold;
+                case NORMAL -> normalThreshold;
+                case LOW -> lowThreshold;
+            };
+        }
+    }
+
+    /**
+     * Classe de configuration des limites de concurrence adaptatives, découvertes pour chaque fournisseur
+     * à partir des latences et des erreurs observées
+     */
+    @Data
+    public static class ConcurrencyConfig {
+        /**
+         * Active les limites de concurrence adaptatives
+         */
+        private boolean enabled = false;
+
+        /**
+         * Limite de départ, avant toute mesure
+         */
+        private int initialLimit = 20;
+
+        /**
+         * Limite minimale
+         */
+        private int minLimit = 1;
+
+        /**
+         * Limite maximale
+         */
+        private int maxLimit = 500;
+
+        /**
+         * Hausse de latence tolérée par rapport à la latence de référence avant de réduire la limite
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * Facteur appliqué à la limite après un envoi en échec
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Nombre maximal d'envois en attente d'une place ; au-delà, ils sont refusés
+         */
+        private int maxQueued = 10_000;
+
+        /**
+         * Délai conseillé à l'appelant avant une nouvelle tentative, après un refus
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Classe de configuration de la file de travail partagée en base de données (module notifier-jdbc)
+     */
+    @Data
+    public static class QueueConfig {
+        /**
+         * Active la file : les notifications déposées sont écrites en base puis envoyées par les nœuds
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nom de la table de la file
+         */
+        private String table = "notifier_queue";
+
+        /**
+         * Identifiant de ce nœud dans les baux, nom d'hôte et PID par défaut
+         */
+        private String nodeId;
+
+        /**
+         * Crée la table et son index au démarrage s'ils n'existent pas
+         */
+        private boolean initializeSchema = false;
+
+        /**
+         * Nombre maximal de notifications réclamées à la fois
+         */
+        private int batchSize = 100;
+
+        /**
+         * Nombre maximal de notifications réclamées par ce nœud et en cours d'envoi
+         */
+        private int maxInFlight = 500;
+
+        /**
+         * Durée du bail d'une notification réclamée ; passé ce délai, un autre nœud peut la reprendre
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Attente avant de réinterroger la table lorsqu'elle ne contient rien à envoyer
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * Nombre maximal de tentatives d'une notification
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Délai avant une nouvelle tentative, multiplié par le nombre de tentatives déjà faites
+         */
+        private Duration retryDelay = Duration.ofSeconds(30);
+
+        /**
+         * Durée d'une tranche de la table : les notifications sont rangées par tranche de leur date de dépôt
+         */
+        private Duration bucket = Duration.ofHours(1);
+
+        /**
+         * Intervalle entre deux suppressions des notifications envoyées
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(1);
+
+        /**
+         * Nombre maximal de lignes supprimées par requête
+         */
+        private int cleanupBatchSize = 10_000;
+    }
+
+    /**
+     * Classe de configuration des lettres mortes
+     */
+    @Data
+    public static class DeadLetterConfig {
+        /**
+         * Conserve les notifications abandonnées après un échec pour pouvoir les renvoyer
+         */
+        private boolean enabled = false;
+
+        /**
+         * Stockage des lettres mortes
+         */
+        private StoreType store = StoreType.MEMORY;
+
+        /**
+         * Nombre maximal de lettres mortes conservées en mémoire ou dans le journal ; les plus anciennes sont écartées
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Fichier du journal des lettres mortes, pour le stockage FILE
+         */
+        private String file = "notifier-dead-letters.log";
+
+        /**
+         * Nom de la table des lettres mortes, pour le stockage JDBC (module notifier-jdbc)
+         */
+        private String table = "notifier_dead_letter";
+
+        /**
+         * Crée la table des lettres mortes au démarrage si elle n'existe pas
+         */
+        private boolean initializeSchema = false;
+
+        /**
+         * Nombre de lettres mortes renvoyées par seconde lors d'un renvoi
+         */
+        private double replayRate = 50;
+
+        /**
+         * Nombre de lettres mortes lues à la fois lors d'un renvoi
+         */
+        private int replayBatchSize = 100;
+
+        /**
+         * Stockages de lettres mortes disponibles
+         */
+        public enum StoreType {
+            MEMORY, FILE, JDBC
+        }
+    }
+
+    /**
+     * Classe de configuration de l'arrêt progressif
+     */
+    @Data
+    public static class ShutdownConfig {
+        /**
+         * À l'arrêt de l'application, envoie les notifications en attente et attend les envois en cours
+         */
+        private boolean enabled = true;
+
+        /**
+         * Durée maximale de l'arrêt progressif ; au-delà, les notifications restantes sont conservées comme
+         * lettres mortes si ce stockage est activé. Elle doit rester inférieure à
+         * spring.lifecycle.timeout-per-shutdown-phase (30 secondes par défaut).
+         */
+        private Duration timeout = Duration.ofSeconds(25);
+    }
+
+    /**
+     * Classe de configuration des diffusions
+     */
+    @Data
+    public static class BroadcastConfig {
+        /**
+         * Nombre maximal de notifications d'une diffusion en cours d'envoi à la fois ; les destinataires
+         * suivants ne sont lus qu'une fois des envois terminés
+         */
+        private int window = 1_000;
+
+        /**
+         * Nombre de destinataires remis à la fois au service de notification
+         */
+        private int batchSize = 100;
+    }
+
+    /**
+     * Classe de configuration des appels aux fournisseurs bloquants, qui n'ont pas d'API non bloquante
+     */
+    @Data
+    public static class BlockingConfig {
+        /**
+         * Nombre maximal d'appels simultanés à des fournisseurs bloquants
+         */
+        private int threads = 64;
+
+        /**
+         * Nombre maximal d'appels en attente d'un thread ; au-delà, les notifications sont refusées
+         */
+        private int maxQueued = 10_000;
+
+        /**
+         * Délai conseillé avant une nouvelle tentative pour une notification refusée
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
     }
 }
@@ -0,0 +1,87 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Notification abandonnée après un échec définitif, conservée avec l'historique de ses tentatives
+ * pour pouvoir être analysée puis renvoyée.
+ */
+@Value
+@Builder(toBuilder = true)
+public class DeadLetter {
+
+    /**
+     * Identifiant attribué par le {@link DeadLetterStore}, croissant dans l'ordre d'enregistrement ; 0 avant
+     */
+    long id;
+
+    /**
+     * Notification abandonnée
+     */
+    NotificationRequest request;
+
+    /**
+     * Tentatives d'envoi, de la première à la dernière
+     */
+    List<NotificationResult> attempts;
+
+    /**
+     * Crée la lettre morte d'une notification dont l'unique tentative a échoué.
+     *
+     * @param request Notification abandonnée
+     * @param error Erreur de l'envoi
+     * @return La lettre morte, sans identifiant
+     */
+    public static DeadLetter of(NotificationRequest request, Throwable error) {
+        return of(request, List.of(NotificationResult.failure(1, error)));
+    }
+
+    /**
+     * Crée la lettre morte d'une notification à partir de l'historique de ses tentatives.
+     *
+     * @param request Notification abandonnée
+     * @param attempts Tentatives d'envoi, au moins une
+     * @return La lettre morte, sans identifiant
+     */
+    public static DeadLetter of(NotificationRequest request, List<NotificationResult> attempts) {
+        if (attempts.isEmpty()) {
+            throw new IllegalArgumentException("Une lettre morte comporte au moins une tentative");
+        }
+        return new DeadLetter(0, request, List.copyOf(attempts));
+    }
+
+    /**
+     * @return Canal de la notification (EMAIL, SMS, PUSH...)
+     */
+    public String getChannel() {
+        return request.getType();
+    }
+
+    /**
+     * @return Dernière tentative d'envoi
+     */
+    public NotificationResult getLastAttempt() {
+        return attempts.get(attempts.size() - 1);
+    }
+
+    /**
+     * @return Catégorie de l'erreur de la dernière tentative
+     */
+    public NotificationErrorCode getErrorCode() {
+        return getLastAttempt().getErrorCode();
+    }
+
+    /**
+     * @return Instant de l'abandon de la notification
+     */
+    public Instant getFailedAt() {
+        return getLastAttempt().getCompletedAt();
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.codec.NotificationCodec;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec des lettres mortes pour les stockages persistants : la notification puis ses tentatives, chacune
+ * encodée par le {@link NotificationCodec} sans dictionnaire. L'identifiant n'est pas encodé ; il est conservé
+ * par le stockage.
+ */
+public final class DeadLetterCodec {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_ATTEMPTS = 255;
+
+    private final NotificationCodec codec = new NotificationCodec();
+
+    /**
+     * Encode une lettre morte.
+     *
+     * @param deadLetter Lettre morte à encoder
+     * @return L'enregistrement
+     * @throws NotificationException Si les données supplémentaires de la notification ne sont pas encodables
+     */
+    public byte[] encode(DeadLetter deadLetter) {
+        if (!NotificationCodec.isEncodable(deadLetter.getRequest())) {
+            throw new NotificationException("Données supplémentaires non encodables : la lettre morte ne peut pas être enregistrée");
+        }
+        byte[] request = codec.encode(deadLetter.getRequest());
+        // Seules les dernières tentatives d'un historique exceptionnellement long sont conservées
+        List<NotificationResult> history = deadLetter.getAttempts();
+        history = history.subList(Math.max(history.size() - MAX_ATTEMPTS, 0), history.size());
+        List<byte[]> attempts = new ArrayList<>(history.size());
+        int size = 2 + request.length;
+        for (NotificationResult attempt : history) {
+            byte[] encoded = codec.encode(attempt);
+            attempts.add(encoded);
+            size += encoded.length;
+        }
+
+        // Les enregistrements du codec se délimitent eux-mêmes : ils sont simplement mis bout à bout
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) FORMAT_VERSION);
+        buffer.put((byte) attempts.size());
+        buffer.put(request);
+        attempts.forEach(buffer::put);
+        return buffer.array();
+    }
+
+    /**
+     * Décode une lettre morte.
+     *
+     * @param id Identifiant attribué par le stockage
+     * @param data Enregistrement produit par {@link #encode(DeadLetter)}
+     * @return La lettre morte
+     * @throws IllegalArgumentException Si l'enregistrement n'est pas lisible par ce codec
+     */
+    public DeadLetter decode(long id, byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            int version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Version de lettre morte non supportée: " + version);
+            }
+            int count = Byte.toUnsignedInt(buffer.get());
+            NotificationRequest request = codec.decodeRequest(buffer);
+            List<NotificationResult> attempts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                attempts.add(codec.decodeResult(buffer));
+            }
+            return new DeadLetter(id, request, List.copyOf(attempts));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Lettre morte tronquée", e);
+        }
+    }
+}
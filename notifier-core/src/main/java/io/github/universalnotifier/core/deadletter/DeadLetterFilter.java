@@ -0,0 +1,57 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Critères de sélection des lettres mortes. Un critère null est ignoré.
+ */
+@Value
+@Builder(toBuilder = true)
+public class DeadLetterFilter {
+
+    private static final DeadLetterFilter ALL = DeadLetterFilter.builder().build();
+
+    /**
+     * Canal des notifications (EMAIL, SMS, PUSH...)
+     */
+    String channel;
+
+    /**
+     * Catégories d'erreur retenues
+     */
+    Set<NotificationErrorCode> errorCodes;
+
+    /**
+     * Début de la période d'abandon, inclus
+     */
+    Instant from;
+
+    /**
+     * Fin de la période d'abandon, exclue
+     */
+    Instant to;
+
+    /**
+     * @return Un filtre retenant toutes les lettres mortes
+     */
+    public static DeadLetterFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @param deadLetter Lettre morte à tester
+     * @return true si la lettre morte satisfait tous les critères
+     */
+    public boolean matches(DeadLetter deadLetter) {
+        Instant failedAt = deadLetter.getFailedAt();
+        return (channel == null || channel.equalsIgnoreCase(deadLetter.getChannel()))
+                && (errorCodes == null || errorCodes.contains(deadLetter.getErrorCode()))
+                && (from == null || !failedAt.isBefore(from))
+                && (to == null || failedAt.isBefore(to));
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.universalnotifier.core.deadletter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Suivi d'un renvoi de lettres mortes lancé par le {@link DeadLetterReplayer}.
+ */
+public class DeadLetterReplay {
+
+    private final DeadLetterFilter filter;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    final AtomicLong submitted = new AtomicLong();
+    final AtomicLong succeeded = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicLong expired = new AtomicLong();
+    private volatile boolean cancelled;
+
+    DeadLetterReplay(DeadLetterFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * @return Critères des lettres mortes renvoyées
+     */
+    public DeadLetterFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return Nombre de lettres mortes remises au service de notification
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return Nombre de lettres mortes renvoyées avec succès, et retirées du stockage
+     */
+    public long getSucceededCount() {
+        return succeeded.get();
+    }
+
+    /**
+     * @return Nombre de lettres mortes dont le renvoi a échoué, conservées dans le stockage avec cette tentative
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return Nombre de lettres mortes non renvoyées car leur échéance est dépassée, conservées dans le stockage
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * @return Un futur complété une fois toutes les lettres mortes renvoyées et leurs envois terminés
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * @return true si le renvoi est terminé ou annulé
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Interrompt le renvoi : les lettres mortes pas encore remises restent dans le stockage.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+}
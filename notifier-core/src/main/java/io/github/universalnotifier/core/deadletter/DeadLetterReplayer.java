@@ -0,0 +1,211 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Renvoie des lettres mortes dans le pipeline d'envoi, à débit limité.
+ * <p>
+ * Après une panne d'un fournisseur, les lettres mortes accumulées sont renvoyées au rythme indiqué plutôt
+ * que d'un bloc : la reprise ne provoque pas à son tour un pic de charge. Les lettres mortes sont lues par
+ * pages dans l'ordre de leur enregistrement. Chacune est retirée du stockage une fois renvoyée avec succès ;
+ * celles dont le renvoi échoue y sont enregistrées à nouveau, la tentative de renvoi ajoutée à leur historique.
+ * Celles dont l'échéance est dépassée ne sont pas renvoyées et restent dans le stockage. Sauf borne explicite,
+ * seules les lettres mortes enregistrées avant le lancement du renvoi sont concernées.
+ */
+public class DeadLetterReplayer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayer.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
+
+    private final NotificationService notificationService;
+    private final DeadLetterStore store;
+    private final NotificationProperties.DeadLetterConfig config;
+    private final Clock clock;
+    private final ExecutorService executor;
+    private final Set<DeadLetterReplay> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param notificationService Service par lequel les lettres mortes sont renvoyées
+     * @param store Stockage des lettres mortes
+     * @param config Configuration des lettres mortes (débit et taille des pages du renvoi)
+     */
+    public DeadLetterReplayer(NotificationService notificationService, DeadLetterStore store,
+                              NotificationProperties.DeadLetterConfig config) {
+        this(notificationService, store, config, Clock.systemUTC());
+    }
+
+    DeadLetterReplayer(NotificationService notificationService, DeadLetterStore store,
+                       NotificationProperties.DeadLetterConfig config, Clock clock) {
+        this.notificationService = notificationService;
+        this.store = store;
+        this.config = config;
+        this.clock = clock;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "notifier-dead-letter-replay-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lance le renvoi des lettres mortes satisfaisant le filtre, au débit configuré.
+     *
+     * @param filter Critères de sélection
+     * @return Le suivi du renvoi
+     * @throws NotificationException Si le service est arrêté
+     */
+    public DeadLetterReplay replay(DeadLetterFilter filter) {
+        return replay(filter, config.getReplayRate());
+    }
+
+    /**
+     * Lance le renvoi des lettres mortes satisfaisant le filtre.
+     *
+     * @param filter Critères de sélection
+     * @param ratePerSecond Nombre maximal de lettres mortes renvoyées par seconde
+     * @return Le suivi du renvoi
+     * @throws NotificationException Si le débit n'est pas positif ou si le service est arrêté
+     */
+    public DeadLetterReplay replay(DeadLetterFilter filter, double ratePerSecond) {
+        if (!(ratePerSecond > 0)) {
+            throw new NotificationException("Le débit de renvoi des lettres mortes doit être positif");
+        }
+        DeadLetterFilter bounded = filter.getTo() != null ? filter : filter.toBuilder().to(clock.instant()).build();
+        DeadLetterReplay replay = new DeadLetterReplay(bounded);
+        running.add(replay);
+        try {
+            executor.execute(() -> run(replay, (long) (1_000_000_000L / ratePerSecond)));
+        } catch (RejectedExecutionException e) {
+            running.remove(replay);
+            throw new NotificationException("Le renvoi des lettres mortes est arrêté", e);
+        }
+        return replay;
+    }
+
+    /**
+     * Interrompt les renvois en cours.
+     */
+    @Override
+    public void close() {
+        running.forEach(DeadLetterReplay::cancel);
+        executor.shutdownNow();
+    }
+
+    private void run(DeadLetterReplay replay, long intervalNanos) {
+        logger.info("Renvoi des lettres mortes démarré ({})", replay.getFilter());
+        // Envois en cours, plus un pour la lecture du stockage
+        AtomicInteger pending = new AtomicInteger(1);
+        long next = System.nanoTime() - intervalNanos;
+        long afterId = 0;
+        try {
+            List<DeadLetter> page;
+            while (!replay.isCancelled() && !(page = store.find(replay.getFilter(), afterId, config.getReplayBatchSize())).isEmpty()) {
+                for (DeadLetter deadLetter : page) {
+                    if (replay.isCancelled()) {
+                        break;
+                    }
+                    afterId = deadLetter.getId();
+                    // Renvoyée, elle échouerait aussitôt : elle reste dans le stockage, sans nouvelle tentative
+                    if (hasExpired(deadLetter)) {
+                        replay.expired.incrementAndGet();
+                        continue;
+                    }
+                    // Une lecture lente ne donne pas droit à une rafale pour rattraper le retard
+                    next = Math.max(next, System.nanoTime() - intervalNanos) + intervalNanos;
+                    for (long wait; (wait = next - System.nanoTime()) > 0 && !replay.isCancelled(); ) {
+                        LockSupport.parkNanos(this, wait);
+                    }
+                    pending.incrementAndGet();
+                    replay.submitted.incrementAndGet();
+                    send(replay, deadLetter, pending);
+                }
+            }
+        } catch (RuntimeException e) {
+            errors.error("Échec de la lecture des lettres mortes", e);
+            replay.cancel();
+        }
+        done(replay, pending);
+    }
+
+    private void send(DeadLetterReplay replay, DeadLetter deadLetter, AtomicInteger pending) {
+        try {
+            notificationService.sendAsync(deadLetter.getRequest())
+                    .whenComplete((ignored, error) -> {
+                        if (error == null) {
+                            replay.succeeded.incrementAndGet();
+                            remove(deadLetter);
+                        } else {
+                            replay.failed.incrementAndGet();
+                            recordFailure(deadLetter, error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error);
+                        }
+                        done(replay, pending);
+                    });
+        } catch (RuntimeException e) {
+            replay.failed.incrementAndGet();
+            recordFailure(deadLetter, e);
+            done(replay, pending);
+        }
+    }
+
+    private boolean hasExpired(DeadLetter deadLetter) {
+        Instant deadline = deadLetter.getRequest().getDeadline();
+        return deadline != null && !clock.instant().isBefore(deadline);
+    }
+
+    /**
+     * Ajoute l'échec du renvoi à l'historique de la lettre morte. Le stockage ne modifiant pas ses entrées, elle
+     * y est enregistrée à nouveau avant que l'ancienne entrée soit retirée : un arrêt entre les deux la laisse
+     * en double plutôt que de la perdre.
+     */
+    private void recordFailure(DeadLetter deadLetter, Throwable error) {
+        List<NotificationResult> attempts = new ArrayList<>(deadLetter.getAttempts());
+        // Horodatée par l'horloge du renvoi : postérieure à sa borne, la nouvelle entrée n'est pas renvoyée à nouveau
+        attempts.add(NotificationResult.failure(attempts.size() + 1, error).toBuilder().completedAt(clock.instant()).build());
+        try {
+            store.add(DeadLetter.of(deadLetter.getRequest(), attempts));
+        } catch (RuntimeException e) {
+            errors.error("Échec de l'enregistrement de l'échec du renvoi d'une lettre morte", e);
+            return;
+        }
+        remove(deadLetter);
+    }
+
+    private void remove(DeadLetter deadLetter) {
+        try {
+            store.remove(deadLetter.getId());
+        } catch (RuntimeException e) {
+            errors.error("Échec de la suppression d'une lettre morte renvoyée", e);
+        }
+    }
+
+    private void done(DeadLetterReplay replay, AtomicInteger pending) {
+        if (pending.decrementAndGet() == 0) {
+            running.remove(replay);
+            logger.info("Renvoi des lettres mortes terminé : {} renvoyée(s), {} en échec, {} expirée(s){}",
+                    replay.getSucceededCount(), replay.getFailedCount(), replay.getExpiredCount(),
+                    replay.isCancelled() ? " (interrompu)" : "");
+            replay.getCompletion().complete(null);
+        }
+    }
+}
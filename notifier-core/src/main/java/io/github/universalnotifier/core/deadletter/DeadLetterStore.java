@@ -0,0 +1,43 @@
+package io.github.universalnotifier.core.deadletter;
+
+import java.util.List;
+
+/**
+ * Stockage des lettres mortes.
+ * <p>
+ * Les identifiants attribués sont croissants : {@link #find(DeadLetterFilter, long, int)} parcourt les lettres
+ * mortes par pages successives, sans être perturbé par les ajouts et suppressions concurrents.
+ */
+public interface DeadLetterStore {
+
+    /**
+     * Enregistre une lettre morte et lui attribue un identifiant.
+     *
+     * @param deadLetter Lettre morte à enregistrer
+     * @throws io.github.universalnotifier.core.service.NotificationException Si elle ne peut pas être enregistrée
+     */
+    void add(DeadLetter deadLetter);
+
+    /**
+     * Recherche les lettres mortes satisfaisant le filtre, par identifiant croissant.
+     *
+     * @param filter Critères de sélection
+     * @param afterId Identifiant à partir duquel chercher, exclu (0 pour partir du début)
+     * @param limit Nombre maximal de lettres mortes retournées
+     * @return Les lettres mortes trouvées
+     */
+    List<DeadLetter> find(DeadLetterFilter filter, long afterId, int limit);
+
+    /**
+     * Supprime une lettre morte, par exemple une fois renvoyée avec succès.
+     *
+     * @param id Identifiant de la lettre morte
+     * @return true si elle existait
+     */
+    boolean remove(long id);
+
+    /**
+     * @return Nombre de lettres mortes enregistrées
+     */
+    long count();
+}
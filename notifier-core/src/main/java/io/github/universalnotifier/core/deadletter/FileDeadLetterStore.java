@@ -0,0 +1,290 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stockage des lettres mortes dans un journal en ajout seul, relu au démarrage.
+ * <p>
+ * Chaque ajout et chaque suppression ajoute un enregistrement en fin de fichier ; le journal est réécrit
+ * lorsque les suppressions y dominent. Les lettres mortes sont aussi conservées en mémoire, dans la limite
+ * de la capacité du stockage, au-delà de laquelle les plus anciennes sont écartées. Un enregistrement tronqué
+ * par un arrêt brutal est ignoré à la relecture ; un enregistrement interrompu par une erreur d'écriture (disque
+ * plein) est retiré du journal avant l'écriture suivante, pour ne jamais laisser d'enregistrement partiel au
+ * milieu du fichier.
+ * <p>
+ * Le journal réécrit se termine par le plus grand identifiant attribué, même si la lettre morte correspondante
+ * a été supprimée : les identifiants restent croissants après un redémarrage. Il est forcé sur le disque avant
+ * de remplacer l'ancien, ainsi qu'à la fermeture du stockage.
+ */
+public class FileDeadLetterStore implements DeadLetterStore, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileDeadLetterStore.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte LAST_ID = 3;
+    // Longueur, opération et identifiant
+    private static final int HEADER_SIZE = Integer.BYTES + 1 + Long.BYTES;
+    private static final int MIN_COMPACTION_REMOVALS = 1000;
+
+    private final Path file;
+    private final int maxSize;
+    private final DeadLetterCodec codec = new DeadLetterCodec();
+    private final ConcurrentNavigableMap<Long, DeadLetter> deadLetters = new ConcurrentSkipListMap<>();
+    private final UnaryOperator<FileChannel> channels;
+
+    private FileChannel channel;
+    // Début d'un enregistrement partiel qui n'a pas pu être retiré, ou -1
+    private long tornAt = -1;
+    private long lastId;
+    private long removals;
+    private long evicted;
+
+    /**
+     * Ouvre le journal, en le créant s'il n'existe pas.
+     *
+     * @param file Fichier du journal
+     * @param maxSize Nombre maximal de lettres mortes conservées
+     * @throws UncheckedIOException Si le journal ne peut pas être lu
+     */
+    public FileDeadLetterStore(Path file, int maxSize) {
+        this(file, maxSize, UnaryOperator.identity());
+    }
+
+    FileDeadLetterStore(Path file, int maxSize, UnaryOperator<FileChannel> channels) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La capacité du stockage des lettres mortes doit être positive");
+        }
+        this.file = file;
+        this.maxSize = maxSize;
+        this.channels = channels;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = channels.apply(
+                    FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal des lettres mortes " + file, e);
+        }
+        logger.info("Journal des lettres mortes {} ouvert avec {} entrée(s)", file, deadLetters.size());
+    }
+
+    @Override
+    public synchronized void add(DeadLetter deadLetter) {
+        byte[] payload = codec.encode(deadLetter);
+        long id = ++lastId;
+        write(ADD, id, payload);
+        deadLetters.put(id, deadLetter.toBuilder().id(id).build());
+        while (deadLetters.size() > maxSize) {
+            Map.Entry<Long, DeadLetter> oldest = deadLetters.firstEntry();
+            // Un seul avertissement par millier de lettres mortes écartées
+            if (evicted++ % 1000 == 0) {
+                logger.warn("Journal des lettres mortes plein ({} entrées) : les plus anciennes sont écartées ({} au total)",
+                        maxSize, evicted);
+            }
+            remove(oldest.getKey());
+        }
+    }
+
+    @Override
+    public List<DeadLetter> find(DeadLetterFilter filter, long afterId, int limit) {
+        List<DeadLetter> found = new ArrayList<>(Math.min(limit, 64));
+        for (DeadLetter deadLetter : deadLetters.tailMap(afterId, false).values()) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (filter.matches(deadLetter)) {
+                found.add(deadLetter);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized boolean remove(long id) {
+        if (deadLetters.remove(id) == null) {
+            return false;
+        }
+        write(REMOVE, id, new byte[0]);
+        if (++removals >= MIN_COMPACTION_REMOVALS && removals > deadLetters.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public long count() {
+        return deadLetters.size();
+    }
+
+    /**
+     * Ferme le journal.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Erreur lors de la fermeture du journal des lettres mortes {}", file, e);
+        }
+    }
+
+    private void write(byte operation, long id, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        record.putInt(1 + Long.BYTES + payload.length).put(operation).putLong(id).put(payload).flip();
+        long start = -1;
+        try {
+            if (tornAt >= 0) {
+                truncate(tornAt);
+                tornAt = -1;
+            }
+            start = channel.position();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            if (start >= 0) {
+                discard(start);
+            }
+            throw new NotificationException("Échec de l'écriture du journal des lettres mortes " + file, e);
+        }
+    }
+
+    /**
+     * Retire un enregistrement partiellement écrit : relu au démarrage, il ferait ignorer tous les suivants.
+     * Si le journal ne peut pas être tronqué, il le sera avant la prochaine écriture.
+     */
+    private void discard(long start) {
+        try {
+            truncate(start);
+        } catch (IOException e) {
+            tornAt = start;
+            errors.error("Impossible de retirer l'enregistrement partiel du journal des lettres mortes " + file, e);
+        }
+    }
+
+    private void truncate(long position) throws IOException {
+        channel.truncate(position);
+        channel.position(position);
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            byte operation = header.get();
+            long id = header.getLong();
+            int payloadLength = length - 1 - Long.BYTES;
+            if (payloadLength < 0 || position + Integer.BYTES + length > size) {
+                break;
+            }
+            if (operation == ADD) {
+                ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+                channel.read(payload, position + HEADER_SIZE);
+                try {
+                    deadLetters.put(id, codec.decode(id, payload.array()));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Lettre morte {} illisible ignorée dans le journal {}", id, file, e);
+                }
+            } else if (operation == REMOVE) {
+                deadLetters.remove(id);
+                removals++;
+            }
+            lastId = Math.max(lastId, id);
+            position += Integer.BYTES + length;
+        }
+        if (position < size) {
+            logger.warn("Fin tronquée du journal des lettres mortes {} ignorée ({} octets)", file, size - position);
+            channel.truncate(position);
+        }
+        channel.position(position);
+        while (deadLetters.size() > maxSize) {
+            deadLetters.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Réécrit le journal avec les seules lettres mortes conservées.
+     */
+    private void compact() {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                FileChannel current = channel;
+                channel = target;
+                try {
+                    deadLetters.forEach((id, deadLetter) -> write(ADD, id, codec.encode(deadLetter)));
+                    write(LAST_ID, lastId, new byte[0]);
+                } finally {
+                    // Un enregistrement partiel du journal compacté est abandonné avec lui
+                    channel = current;
+                    tornAt = -1;
+                }
+                target.force(true);
+            }
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory();
+            removals = 0;
+            logger.debug("Journal des lettres mortes {} compacté à {} entrée(s)", file, deadLetters.size());
+        } catch (IOException | RuntimeException e) {
+            // Le journal d'origine reste valide : le compactage sera retenté à la prochaine suppression
+            errors.error("Échec du compactage du journal des lettres mortes " + file, e);
+        } finally {
+            reopen();
+        }
+    }
+
+    /**
+     * Force sur le disque le renommage du journal compacté, là où le système le permet.
+     */
+    private void forceDirectory() {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Certains systèmes (Windows) n'ouvrent pas un répertoire : le renommage reste atomique
+            logger.debug("Impossible de forcer le répertoire du journal des lettres mortes {}", directory, e);
+        }
+    }
+
+    private void reopen() {
+        if (channel.isOpen()) {
+            return;
+        }
+        try {
+            channel = channels.apply(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            channel.position(channel.size());
+        } catch (IOException e) {
+            throw new NotificationException("Impossible de rouvrir le journal des lettres mortes " + file, e);
+        }
+    }
+}
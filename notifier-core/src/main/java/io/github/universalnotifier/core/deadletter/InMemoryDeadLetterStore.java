@@ -0,0 +1,83 @@
+package io.github.universalnotifier.core.deadletter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stockage des lettres mortes en mémoire, borné : au-delà de sa capacité, les plus anciennes sont écartées.
+ * Les lettres mortes sont perdues à l'arrêt de l'application.
+ */
+public class InMemoryDeadLetterStore implements DeadLetterStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryDeadLetterStore.class);
+
+    private final ConcurrentNavigableMap<Long, DeadLetter> deadLetters = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final int maxSize;
+
+    /**
+     * @param maxSize Nombre maximal de lettres mortes conservées
+     */
+    public InMemoryDeadLetterStore(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La capacité du stockage des lettres mortes doit être positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public void add(DeadLetter deadLetter) {
+        long id = ids.incrementAndGet();
+        deadLetters.put(id, deadLetter.toBuilder().id(id).build());
+        while (deadLetters.size() > maxSize) {
+            Map.Entry<Long, DeadLetter> oldest = deadLetters.pollFirstEntry();
+            if (oldest == null) {
+                break;
+            }
+            // Un seul avertissement par millier de lettres mortes écartées
+            if (evicted.incrementAndGet() % 1000 == 1) {
+                logger.warn("Stockage des lettres mortes plein ({} entrées) : les plus anciennes sont écartées ({} au total)",
+                        maxSize, evicted.get());
+            }
+        }
+    }
+
+    @Override
+    public List<DeadLetter> find(DeadLetterFilter filter, long afterId, int limit) {
+        List<DeadLetter> found = new ArrayList<>(Math.min(limit, 64));
+        for (DeadLetter deadLetter : deadLetters.tailMap(afterId, false).values()) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (filter.matches(deadLetter)) {
+                found.add(deadLetter);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean remove(long id) {
+        return deadLetters.remove(id) != null;
+    }
+
+    @Override
+    public long count() {
+        return deadLetters.size();
+    }
+
+    /**
+     * @return Nombre de lettres mortes écartées faute de place
+     */
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+}
@@ -0,0 +1,330 @@
+package io.github.universalnotifier.core.dispatch;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Contrôle d'admission qui déleste les notifications les moins prioritaires lorsque le système est saturé.
+ * <p>
+ * La charge est le maximum de trois ratios : envois en cours sur leur maximum, notifications en attente dans
+ * le dispatcher sur leur maximum, et latence récente sur la latence jugée acceptable. Cette dernière s'adapte
+ * au fournisseur : c'est un multiple de la latence habituelle observée, borné par la configuration. Chaque
+ * priorité a son seuil de charge ; au-delà, la notification est refusée par une
+ * {@link NotificationRejectedException} avant d'occuper de la mémoire, les notifications CRITICAL
+ * n'étant jamais refusées.
+ * <p>
+ * Avec {@code max-deferred}, une notification au-delà de son seuil est d'abord différée : elle attend, dans une
+ * file bornée par priorité, que la charge repasse sous son seuil. Les notifications différées sont admises les
+ * plus prioritaires d'abord, à la fin de chaque envoi et à intervalle régulier ; celles qui attendent depuis plus
+ * de {@code max-deferral}, ou qui ne trouvent pas de place, sont refusées. Une nouvelle notification attend
+ * derrière les notifications différées de même priorité ou plus prioritaires, pour ne pas les doubler.
+ * <p>
+ * Les latences sont suivies par des moyennes mobiles exponentielles mises à jour par CAS, sans verrou.
+ */
+public class AdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+
+    // Poids d'un nouvel échantillon dans la latence récente et dans la latence habituelle
+    private static final double RECENT_WEIGHT = 0.2;
+    private static final double BASELINE_WEIGHT = 0.01;
+    // Intervalle de réexamen des notifications différées lorsqu'aucun envoi ne se termine
+    private static final long RECHECK_INTERVAL_MILLIS = 50;
+
+    private final NotificationProperties.AdmissionConfig config;
+    private final IntSupplier queueDepth;
+    private final LongSupplier nanoClock;
+    private final double minLatencyNanos;
+    private final double maxLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong recentLatency = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+    private final AtomicLong baselineLatency = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+    private final LongAdder rejected = new LongAdder();
+    @SuppressWarnings("unchecked")
+    private final Queue<Deferred>[] deferred = new Queue[NotificationPriority.values().length];
+    private final AtomicInteger deferredCount = new AtomicInteger();
+    // Demandes d'admission des notifications différées : un seul thread les traite, sans récursion
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean recheckScheduled = new AtomicBoolean();
+    private final Executor recheck = CompletableFuture.delayedExecutor(RECHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+    /**
+     * Crée un contrôle d'admission.
+     *
+     * @param config Configuration du contrôle d'admission
+     * @param queueDepth Nombre de notifications en attente dans le dispatcher (toujours 0 sans dispatcher)
+     */
+    public AdmissionController(NotificationProperties.AdmissionConfig config, IntSupplier queueDepth) {
+        this(config, queueDepth, System::nanoTime);
+    }
+
+    AdmissionController(NotificationProperties.AdmissionConfig config, IntSupplier queueDepth, LongSupplier nanoClock) {
+        this.config = config;
+        this.queueDepth = queueDepth;
+        this.nanoClock = nanoClock;
+        this.minLatencyNanos = config.getMinLatency().toNanos();
+        this.maxLatencyNanos = config.getMaxLatency().toNanos();
+        for (int i = 0; i < deferred.length; i++) {
+            deferred[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Exécute un envoi s'il est admis, en mesurant sa latence. Au-delà de son seuil, l'envoi est différé si
+     * la configuration le permet, refusé sinon.
+     *
+     * @param priority Priorité de la notification
+     * @param task Envoi à exécuter
+     * @return Un futur complété avec le résultat de l'envoi, ou en erreur avec une
+     *         {@link NotificationRejectedException} si la notification est refusée
+     */
+    public CompletableFuture<Void> submit(NotificationPriority priority, Supplier<CompletableFuture<Void>> task) {
+        double load = getLoad();
+        if (load < config.getThreshold(priority) && hasDeferred(priority)) {
+            // Les notifications différées passent d'abord, si la charge le permet
+            drainDeferred();
+            load = getLoad();
+        }
+        if (load < config.getThreshold(priority) && !hasDeferred(priority)) {
+            return start(task);
+        }
+        Deferred entry = config.getMaxDeferred() > 0 ? defer(priority, task) : null;
+        if (entry == null) {
+            return CompletableFuture.failedFuture(rejection(priority, load));
+        }
+        scheduleRecheck();
+        // La charge a pu baisser entre-temps : la notification n'attend pas le prochain réexamen
+        drainDeferred();
+        return entry.result;
+    }
+
+    private CompletableFuture<Void> start(Supplier<CompletableFuture<Void>> task) {
+        inFlight.incrementAndGet();
+        long start = nanoClock.getAsLong();
+        CompletableFuture<Void> future;
+        try {
+            future = task.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((ignored, error) -> {
+            inFlight.decrementAndGet();
+            record(nanoClock.getAsLong() - start);
+            if (deferredCount.get() > 0) {
+                drainDeferred();
+            }
+        });
+    }
+
+    private NotificationRejectedException rejection(NotificationPriority priority, double load) {
+        rejected.increment();
+        logger.debug("Notification de priorité {} refusée: charge de {} %", priority, Math.round(load * 100));
+        return new NotificationRejectedException(
+                "Système de notification saturé: notification de priorité " + priority + " refusée",
+                priority, config.getRetryAfter());
+    }
+
+    /**
+     * @return true si des notifications de cette priorité, ou plus prioritaires, sont différées
+     */
+    private boolean hasDeferred(NotificationPriority priority) {
+        if (deferredCount.get() == 0) {
+            return false;
+        }
+        // Les priorités sont déclarées de la plus urgente à la moins urgente
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (!deferred[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Place un envoi dans la file des notifications différées de sa priorité.
+     *
+     * @return L'envoi différé, ou null si la file est pleine
+     */
+    private Deferred defer(NotificationPriority priority, Supplier<CompletableFuture<Void>> task) {
+        if (deferredCount.incrementAndGet() > config.getMaxDeferred()) {
+            deferredCount.decrementAndGet();
+            return null;
+        }
+        Deferred entry = new Deferred(task, nanoClock.getAsLong());
+        deferred[priority.ordinal()].add(entry);
+        return entry;
+    }
+
+    /**
+     * Admet les notifications différées tant que la charge le permet, les plus prioritaires d'abord, et refuse
+     * celles qui ont attendu trop longtemps.
+     */
+    void drainDeferred() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drainOnce();
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainOnce() {
+        long maxDeferralNanos = config.getMaxDeferral().toNanos();
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            Queue<Deferred> queue = deferred[priority.ordinal()];
+            for (Deferred head; (head = queue.peek()) != null; ) {
+                boolean expired = nanoClock.getAsLong() - head.deferredAt >= maxDeferralNanos;
+                double load = getLoad();
+                if (!expired && load >= config.getThreshold(priority)) {
+                    break;
+                }
+                Deferred entry = queue.poll();
+                deferredCount.decrementAndGet();
+                if (expired) {
+                    entry.result.completeExceptionally(rejection(priority, load));
+                } else {
+                    start(entry.task).whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            entry.result.completeExceptionally(error);
+                        } else {
+                            entry.result.complete(null);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Programme un réexamen des notifications différées, pour celles qu'aucune fin d'envoi ne libère.
+     */
+    private void scheduleRecheck() {
+        if (recheckScheduled.compareAndSet(false, true)) {
+            recheck.execute(() -> {
+                recheckScheduled.set(false);
+                drainDeferred();
+                if (deferredCount.get() > 0) {
+                    scheduleRecheck();
+                }
+            });
+        }
+    }
+
+    /**
+     * Calcule la charge courante du système de notification.
+     * La latence n'est prise en compte que tant que des envois sont en cours : une fois le trafic délesté
+     * et les envois terminés, les notifications suivantes sont de nouveau admises et mesurent la latence.
+     *
+     * @return La charge, 1 correspondant à la saturation
+     */
+    public double getLoad() {
+        int current = inFlight.get();
+        double load = Math.max((double) current / config.getMaxInFlight(),
+                (double) queueDepth.getAsInt() / config.getMaxQueueDepth());
+
+        double recent = Double.longBitsToDouble(recentLatency.get());
+        if (current > 0 && !Double.isNaN(recent)) {
+            load = Math.max(load, recent / latencyLimit());
+        }
+        return load;
+    }
+
+    /**
+     * @return Nombre d'envois admis et pas encore terminés
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Nombre de notifications différées en attente d'admission
+     */
+    public int getDeferredCount() {
+        return deferredCount.get();
+    }
+
+    /**
+     * @return Nombre total de notifications refusées
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return Latence récente des envois, ou {@link Duration#ZERO} si aucun envoi n'est encore terminé
+     */
+    public Duration getRecentLatency() {
+        double recent = Double.longBitsToDouble(recentLatency.get());
+        return Double.isNaN(recent) ? Duration.ZERO : Duration.ofNanos((long) recent);
+    }
+
+    /**
+     * @return Latence jugée acceptable, déduite de la latence habituelle et bornée par la configuration
+     */
+    public Duration getLatencyLimit() {
+        return Duration.ofNanos((long) latencyLimit());
+    }
+
+    private double latencyLimit() {
+        double baseline = Double.longBitsToDouble(baselineLatency.get());
+        if (Double.isNaN(baseline)) {
+            return maxLatencyNanos;
+        }
+        return Math.min(Math.max(baseline * config.getLatencyTolerance(), minLatencyNanos), maxLatencyNanos);
+    }
+
+    private void record(long latencyNanos) {
+        // La latence habituelle n'apprend que des envois non saturés, pour ne pas s'habituer à une dégradation
+        if (latencyNanos < latencyLimit()) {
+            update(baselineLatency, latencyNanos, BASELINE_WEIGHT);
+        }
+        update(recentLatency, latencyNanos, RECENT_WEIGHT);
+    }
+
+    private static void update(AtomicLong average, double sample, double weight) {
+        while (true) {
+            long current = average.get();
+            double value = Double.longBitsToDouble(current);
+            double next = Double.isNaN(value) ? sample : value + weight * (sample - value);
+            if (average.compareAndSet(current, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Envoi différé en attente d'admission.
+     */
+    private static final class Deferred {
+
+        private final Supplier<CompletableFuture<Void>> task;
+        private final long deferredAt;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private Deferred(Supplier<CompletableFuture<Void>> task, long deferredAt) {
+            this.task = task;
+            this.deferredAt = deferredAt;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.universalnotifier.core.dispatch;
+
+/**
+ * Politique de choix de la prochaine file à servir dans le {@link PriorityLaneDispatcher}.
+ */
+public enum LaneSchedulingPolicy {
+
+    /**
+     * Priorité stricte : une file n'est servie que si toutes les files plus prioritaires sont vides.
+     * Latence minimale pour les urgences, au risque d'affamer le trafic de masse.
+     */
+    STRICT,
+
+    /**
+     * Round-robin pondéré : chaque file non vide obtient une part du débit proportionnelle à son poids.
+     * Les files prioritaires gardent une latence bornée sans affamer les autres.
+     */
+    WEIGHTED
+}
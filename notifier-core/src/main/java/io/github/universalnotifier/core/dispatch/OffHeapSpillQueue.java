@@ -0,0 +1,164 @@
+package io.github.universalnotifier.core.dispatch;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * File FIFO d'enregistrements binaires stockés hors du tas Java.
+ * <p>
+ * Les enregistrements sont écrits à la suite dans des segments de mémoire directe de taille fixe,
+ * alloués à la demande et libérés dès qu'ils ont été entièrement lus ; un segment est conservé pour
+ * être réutilisé. La mémoire occupée est bornée par la taille maximale fournie, et par la mémoire directe
+ * disponible : un segment qui ne peut pas être alloué fait refuser l'enregistrement plutôt qu'échouer l'appelant.
+ */
+final class OffHeapSpillQueue {
+
+    private final int segmentSize;
+    private final int maxSegments;
+    private final IntFunction<ByteBuffer> allocator;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private Segment spare;
+    private volatile int size;
+
+    /**
+     * @param maxBytes Taille maximale de la mémoire occupée
+     * @param segmentSize Taille d'un segment
+     */
+    OffHeapSpillQueue(long maxBytes, int segmentSize) {
+        this(maxBytes, segmentSize, ByteBuffer::allocateDirect);
+    }
+
+    OffHeapSpillQueue(long maxBytes, int segmentSize, IntFunction<ByteBuffer> allocator) {
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.max(maxBytes / segmentSize, 1);
+        this.allocator = allocator;
+    }
+
+    /**
+     * Ajoute un enregistrement en fin de file.
+     *
+     * @param record Enregistrement à ajouter
+     * @return false si la mémoire maximale est atteinte, que la mémoire directe est épuisée ou que
+     *         l'enregistrement dépasse la taille d'un segment
+     */
+    synchronized boolean offer(byte[] record) {
+        int length = Integer.BYTES + record.length;
+        if (length > segmentSize) {
+            return false;
+        }
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.buffer.remaining() < length) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            tail = allocate();
+            if (tail == null) {
+                return false;
+            }
+            segments.addLast(tail);
+        }
+        tail.buffer.putInt(record.length).put(record);
+        size++;
+        return true;
+    }
+
+    /**
+     * Retire l'enregistrement en tête de file et le lit directement dans la mémoire hors tas.
+     * L'enregistrement est retiré même si sa lecture échoue : un enregistrement illisible ne bloque pas la file.
+     *
+     * @param reader Lecture de l'enregistrement, dans une vue du segment valable le temps de l'appel
+     * @param <T> Type de la valeur lue
+     * @return La valeur lue, ou null si la file est vide
+     */
+    synchronized <T> T poll(Function<ByteBuffer, T> reader) {
+        // Les segments entièrement lus sont retirés aussitôt : le segment de tête contient un enregistrement
+        Segment head = segments.peekFirst();
+        if (head == null) {
+            return null;
+        }
+
+        int length = head.buffer.getInt(head.readPosition);
+        ByteBuffer view = head.buffer.slice(head.readPosition + Integer.BYTES, length).asReadOnlyBuffer();
+        head.readPosition += Integer.BYTES + length;
+        size--;
+
+        try {
+            return reader.apply(view);
+        } finally {
+            // La vue est lue avant que le segment ne soit recyclé
+            if (head.readPosition == head.buffer.position()) {
+                segments.pollFirst();
+                release(head);
+            }
+        }
+    }
+
+    /**
+     * @return Nombre d'enregistrements en file
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true si la file est vide
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Mémoire hors tas actuellement allouée, en octets
+     */
+    synchronized long allocatedBytes() {
+        return (long) (segments.size() + (spare != null ? 1 : 0)) * segmentSize;
+    }
+
+    /**
+     * Abandonne les enregistrements en file et libère les segments.
+     */
+    synchronized void clear() {
+        segments.clear();
+        spare = null;
+        size = 0;
+    }
+
+    /**
+     * @return Un segment vide, ou null si la mémoire directe est épuisée
+     */
+    private Segment allocate() {
+        Segment segment = spare;
+        spare = null;
+        if (segment != null) {
+            return segment;
+        }
+        try {
+            return new Segment(allocator.apply(segmentSize));
+        } catch (OutOfMemoryError e) {
+            // "Direct buffer memory" : la limite -XX:MaxDirectMemorySize est atteinte
+            return null;
+        }
+    }
+
+    private void release(Segment segment) {
+        segment.buffer.clear();
+        segment.readPosition = 0;
+        spare = segment;
+    }
+
+    /**
+     * Segment de mémoire directe : les écritures avancent la position du tampon, les lectures leur propre position.
+     */
+    private static final class Segment {
+
+        private final ByteBuffer buffer;
+        private int readPosition;
+
+        private Segment(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package io.github.universalnotifier.core.dispatch;
+
+import io.github.universalnotifier.core.codec.NotificationCodec;
+import io.github.universalnotifier.core.codec.StringDictionary;
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Dispatcher à couloirs de priorité.
+ * <p>
+ * Chaque {@link NotificationPriority} dispose de sa propre file bornée. Un pool de threads consomme
+ * les files selon la {@link LaneSchedulingPolicy} configurée, dans la limite d'un nombre maximal
+ * d'envois en cours. La prochaine file à servir n'est choisie qu'au moment où une place se libère :
+ * une notification critique passe donc devant tout le trafic de masse déjà en attente, et sa latence
+ * reste bornée même lorsque les files de faible priorité sont saturées.
+ * <p>
+ * Les notifications déposées par {@link #enqueue(NotificationRequest)} peuvent déborder hors du tas :
+ * au-delà de la capacité de sa file, une notification est encodée dans un tampon de mémoire directe et
+ * n'est décodée qu'au moment d'être envoyée. La mémoire occupée par le tas reste ainsi bornée quelle que
+ * soit la taille d'une campagne en attente.
+ */
+public class PriorityLaneDispatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityLaneDispatcher.class);
+
+    // Les notifications ayant débordé sont relues par ce processus : le dictionnaire peut s'étendre
+    private static final int SPILL_DICTIONARY_SIZE = 4096;
+
+    private final LaneSchedulingPolicy policy;
+    private final Lane[] lanes;
+    private final Semaphore queued = new Semaphore(0);
+    private final Semaphore inFlight;
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final ReentrantLock selectionLock = new ReentrantLock();
+    private final List<Thread> workers;
+    private final NotificationCodec codec = new NotificationCodec(new StringDictionary(SPILL_DICTIONARY_SIZE));
+
+    private volatile Function<NotificationRequest, CompletableFuture<Void>> requestHandler;
+    private volatile DeadLetterStore deadLetters;
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    /**
+     * Crée et démarre un dispatcher selon la configuration fournie.
+     *
+     * @param config Configuration du dispatcher
+     */
+    public PriorityLaneDispatcher(NotificationProperties.DispatchConfig config) {
+        this.policy = config.getPolicy();
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+
+        NotificationProperties.SpillConfig spill = config.getSpill();
+        NotificationPriority[] priorities = NotificationPriority.values();
+        this.lanes = new Lane[priorities.length];
+        for (NotificationPriority priority : priorities) {
+            NotificationProperties.LaneConfig laneConfig = config.getLane(priority);
+            lanes[priority.ordinal()] = new Lane(priority, laneConfig.getCapacity(), laneConfig.getWeight(),
+                    spill.isEnabled()
+                            ? new OffHeapSpillQueue(spill.getMaxSize().toBytes(), (int) spill.getSegmentSize().toBytes())
+                            : null, codec);
+        }
+
+        this.workers = new ArrayList<>(config.getWorkers());
+        for (int i = 0; i < config.getWorkers(); i++) {
+            Thread worker = new Thread(this::runWorker, "notifier-dispatch-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        logger.info("Dispatcher à couloirs démarré: politique {}, {} threads, {} envois simultanés au plus",
+                policy, config.getWorkers(), config.getMaxInFlight());
+        if (spill.isEnabled()) {
+            logger.info("Débordement hors tas activé: {} au plus par file", spill.getMaxSize());
+        }
+    }
+
+    /**
+     * Définit le traitement des notifications déposées par {@link #enqueue(NotificationRequest)}.
+     * Il est appelé par un thread du dispatcher et se charge de journaliser les échecs.
+     *
+     * @param requestHandler Fonction d'envoi d'une notification
+     */
+    public void setRequestHandler(Function<NotificationRequest, CompletableFuture<Void>> requestHandler) {
+        this.requestHandler = requestHandler;
+    }
+
+    /**
+     * Conserve dans le stockage indiqué les notifications déposées qui n'ont pas pu être envoyées avant
+     * la fin de {@link #shutdown(Duration)}.
+     *
+     * @param deadLetters Stockage des lettres mortes, ou null pour les abandonner
+     */
+    public void setDeadLetterStore(DeadLetterStore deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Dépose une tâche d'envoi dans la file correspondant à sa priorité.
+     *
+     * @param priority Priorité de la notification
+     * @param task Tâche d'envoi, exécutée par un thread du dispatcher
+     * @return Un futur complété avec le résultat de la tâche, ou en erreur si la file est pleine
+     */
+    public CompletableFuture<Void> submit(NotificationPriority priority, Supplier<CompletableFuture<Void>> task) {
+        Lane lane = lanes[priority.ordinal()];
+        if (!accepting) {
+            return CompletableFuture.failedFuture(new NotificationException("Le dispatcher de notifications est arrêté"));
+        }
+        if (!lane.reserve()) {
+            return CompletableFuture.failedFuture(new NotificationException(
+                    "La file de priorité " + priority + " est pleine (" + lane.capacity + " notifications en attente)"));
+        }
+
+        Task queuedTask = new Task(task, new CompletableFuture<>());
+        lane.queue.add(queuedTask);
+        queued.release();
+        return queuedTask.result;
+    }
+
+    /**
+     * Dépose une notification dans la file de sa priorité sans en conserver de résultat.
+     * Elle sera transmise au traitement défini par {@link #setRequestHandler(Function)}.
+     * <p>
+     * Lorsque la file est pleine, ou que des notifications ont déjà débordé, la notification est encodée
+     * hors tas si le débordement est activé et que ses données supplémentaires sont encodables
+     * (voir {@link NotificationCodec}). Une notification non encodable est refusée tant que des notifications
+     * de sa priorité ont débordé : placée dans la tête de file, elle passerait devant elles.
+     *
+     * @param request Notification à envoyer
+     * @throws NotificationException Si le dispatcher est arrêté, si la file et son débordement sont pleins, ou si
+     *         la notification n'est pas encodable alors que des notifications de sa priorité ont débordé
+     */
+    public void enqueue(NotificationRequest request) {
+        if (!accepting) {
+            throw new NotificationException("Le dispatcher de notifications est arrêté");
+        }
+        if (requestHandler == null) {
+            throw new NotificationException("Aucun traitement défini pour les notifications déposées");
+        }
+
+        Lane lane = lanes[request.getPriority().ordinal()];
+        if (lane.spill != null && !lane.spill.isEmpty() && !NotificationCodec.isEncodable(request)) {
+            throw new NotificationException("Des notifications de priorité " + request.getPriority() + " attendent hors tas :"
+                    + " une notification dont les données supplémentaires ne sont pas encodables ne peut pas les suivre");
+        }
+        if (!lane.offer(request)) {
+            throw new NotificationException("La file de priorité " + request.getPriority() + " est pleine ("
+                    + lane.size() + " notifications en attente)");
+        }
+        queued.release();
+    }
+
+    /**
+     * @param priority Priorité de la file
+     * @return Nombre de notifications en attente dans la file
+     */
+    public int getQueuedCount(NotificationPriority priority) {
+        return lanes[priority.ordinal()].size();
+    }
+
+    /**
+     * @param priority Priorité de la file
+     * @return Nombre de notifications de la file en attente hors tas
+     */
+    public int getSpilledCount(NotificationPriority priority) {
+        OffHeapSpillQueue spill = lanes[priority.ordinal()].spill;
+        return spill != null ? spill.size() : 0;
+    }
+
+    /**
+     * @return Nombre total de notifications en attente, toutes files confondues
+     */
+    public int getQueuedCount() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return Nombre d'envois en cours auprès des fournisseurs
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * Arrête progressivement le dispatcher : les nouvelles notifications sont refusées, celles déjà en file
+     * continuent d'être envoyées jusqu'à ce que les files soient vides et les envois en cours terminés, ou
+     * jusqu'à l'expiration du délai. Les threads du dispatcher sont ensuite arrêtés.
+     * <p>
+     * Les envois suivis encore en file échouent ; les notifications déposées par
+     * {@link #enqueue(NotificationRequest)} sont conservées comme lettres mortes si un stockage est défini.
+     *
+     * @param timeout Durée maximale d'attente
+     */
+    public void shutdown(Duration timeout) {
+        DeadLetterStore store = deadLetters;
+        List<NotificationRequest> unsent = stop(timeout, store != null);
+        if (unsent.isEmpty()) {
+            return;
+        }
+        NotificationException interrupted = NotificationException.stackless(NotificationErrorCode.TRANSIENT,
+                "Dispatcher arrêté avant l'envoi de la notification", null);
+        int persisted = 0;
+        for (NotificationRequest request : unsent) {
+            try {
+                store.add(DeadLetter.of(request, interrupted));
+                persisted++;
+            } catch (RuntimeException e) {
+                logger.error("Impossible de conserver la notification non envoyée comme lettre morte", e);
+            }
+        }
+        logger.info("{} notification(s) non envoyée(s) conservée(s) comme lettres mortes", persisted);
+    }
+
+    /**
+     * Arrête immédiatement les threads du dispatcher. Les notifications encore en file ne sont pas envoyées :
+     * les envois suivis échouent, les notifications déposées sont perdues.
+     */
+    @Override
+    public void close() {
+        stop(Duration.ZERO, false);
+    }
+
+    /**
+     * Arrête le dispatcher après avoir attendu, au plus jusqu'au délai, que les files se vident et que les
+     * envois en cours se terminent, puis vide les files.
+     *
+     * @param collect true pour retourner les notifications déposées restantes, false pour les abandonner
+     */
+    private List<NotificationRequest> stop(Duration timeout, boolean collect) {
+        accepting = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while ((getQueuedCount() > 0 || getInFlightCount() > 0) && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        int queuedCount = getQueuedCount();
+        List<NotificationRequest> remaining = new ArrayList<>();
+        for (Lane lane : lanes) {
+            for (Task task; (task = lane.queue.poll()) != null; ) {
+                lane.size.decrementAndGet();
+                if (task.result != null) {
+                    task.result.completeExceptionally(NotificationException.stackless(NotificationErrorCode.TRANSIENT,
+                            "Le dispatcher de notifications est arrêté", null));
+                } else if (collect) {
+                    remaining.add(task.request);
+                }
+            }
+            if (lane.spill == null) {
+                continue;
+            }
+            if (collect) {
+                // Les notifications ayant débordé ne sont décodées que si elles doivent être conservées
+                while (!lane.spill.isEmpty()) {
+                    try {
+                        NotificationRequest request = lane.spill.poll(codec::decodeRequest);
+                        if (request != null) {
+                            remaining.add(request);
+                        }
+                    } catch (RuntimeException e) {
+                        logger.error("Notification hors tas illisible abandonnée à l'arrêt du dispatcher", e);
+                    }
+                }
+            }
+            lane.spill.clear();
+        }
+        logger.info("Dispatcher à couloirs arrêté avec {} notification(s) en attente et {} envoi(s) en cours",
+                queuedCount, getInFlightCount());
+        return remaining;
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                inFlight.acquire();
+                if (!queued.tryAcquire(1, TimeUnit.SECONDS)) {
+                    inFlight.release();
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Task task;
+            try {
+                task = nextTask();
+            } catch (RuntimeException e) {
+                // Notification hors tas illisible (déjà retirée de sa file) ou file vide de manière inattendue :
+                // la place d'envoi est rendue et le thread continue de servir les files
+                inFlight.release();
+                logger.error("Impossible de lire la prochaine notification en file, elle est abandonnée", e);
+                continue;
+            }
+            execute(task);
+        }
+    }
+
+    private void execute(Task task) {
+        inFlightCount.incrementAndGet();
+        CompletableFuture<Void> future;
+        try {
+            future = task.action != null ? task.action.get() : requestHandler.apply(task.request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((ignored, error) -> {
+            inFlightCount.decrementAndGet();
+            inFlight.release();
+            if (task.result == null) {
+                // Notification déposée sans suivi : son traitement a journalisé le résultat
+                return;
+            }
+            if (error != null) {
+                task.result.completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                task.result.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Choisit la prochaine tâche selon la politique configurée.
+     * L'appelant a réservé un élément sur {@link #queued} : au moins une file est donc non vide.
+     */
+    private Task nextTask() {
+        selectionLock.lock();
+        try {
+            Lane lane = policy == LaneSchedulingPolicy.STRICT ? firstNonEmptyLane() : nextWeightedLane();
+            return lane.take();
+        } finally {
+            selectionLock.unlock();
+        }
+    }
+
+    private Lane firstNonEmptyLane() {
+        for (Lane lane : lanes) {
+            if (!lane.isEmpty()) {
+                return lane;
+            }
+        }
+        throw new IllegalStateException("Aucune file non vide alors qu'un élément a été réservé");
+    }
+
+    /**
+     * Round-robin pondéré « lissé » : chaque file non vide gagne son poids à chaque tour,
+     * la file la plus créditée est servie puis débitée du poids total.
+     */
+    private Lane nextWeightedLane() {
+        Lane selected = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes) {
+            if (lane.isEmpty()) {
+                continue;
+            }
+            lane.credit += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.credit > selected.credit) {
+                selected = lane;
+            }
+        }
+        if (selected == null) {
+            throw new IllegalStateException("Aucune file non vide alors qu'un élément a été réservé");
+        }
+        selected.credit -= totalWeight;
+        return selected;
+    }
+
+    /**
+     * File bornée associée à une priorité : une tête en mémoire, suivie d'un éventuel débordement hors tas.
+     */
+    private static final class Lane {
+
+        private final NotificationPriority priority;
+        private final int capacity;
+        private final int weight;
+        private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+        // Places réservées (en file ou en cours d'ajout), pour le contrôle de capacité
+        private final AtomicInteger size = new AtomicInteger();
+        private final OffHeapSpillQueue spill;
+        private final NotificationCodec codec;
+        private int credit;
+
+        private Lane(NotificationPriority priority, int capacity, int weight, OffHeapSpillQueue spill,
+                     NotificationCodec codec) {
+            this.priority = priority;
+            this.capacity = capacity;
+            this.weight = Math.max(weight, 1);
+            this.spill = spill;
+            this.codec = codec;
+        }
+
+        private int size() {
+            return size.get() + (spill != null ? spill.size() : 0);
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty() && (spill == null || spill.isEmpty());
+        }
+
+        /**
+         * Ajoute une notification sans suivi de résultat. Tant que des notifications ont débordé,
+         * les suivantes débordent aussi pour qu'elles restent envoyées dans l'ordre de dépôt.
+         */
+        private boolean offer(NotificationRequest request) {
+            boolean spillable = spill != null && NotificationCodec.isEncodable(request);
+            if (!(spillable && !spill.isEmpty()) && reserve()) {
+                queue.add(new Task(request));
+                return true;
+            }
+            return spillable && spill.offer(codec.encode(request));
+        }
+
+        private boolean reserve() {
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private Task take() {
+            Task task = queue.poll();
+            if (task != null) {
+                size.decrementAndGet();
+                return task;
+            }
+            // La tête est vide : la notification la plus ancienne ayant débordé n'est décodée qu'à cet instant
+            NotificationRequest request = spill != null ? spill.poll(codec::decodeRequest) : null;
+            if (request == null) {
+                throw new IllegalStateException("File " + priority + " vide de manière inattendue");
+            }
+            return new Task(request);
+        }
+    }
+
+    /**
+     * Tâche d'envoi en attente dans une file : une action dont le résultat est suivi,
+     * ou une notification déposée sans suivi.
+     */
+    private static final class Task {
+
+        private final Supplier<CompletableFuture<Void>> action;
+        private final CompletableFuture<Void> result;
+        private final NotificationRequest request;
+
+        private Task(Supplier<CompletableFuture<Void>> action, CompletableFuture<Void> result) {
+            this.action = action;
+            this.result = result;
+            this.request = null;
+        }
+
+        private Task(NotificationRequest request) {
+            this.action = null;
+            this.result = null;
+            this.request = request;
+        }
+    }
+}
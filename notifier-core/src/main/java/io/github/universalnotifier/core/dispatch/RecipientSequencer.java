@@ -0,0 +1,152 @@
+package io.github.universalnotifier.core.dispatch;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Séquenceur garantissant l'ordre des envois par destinataire.
+ * <p>
+ * Chaque destinataire est associé par hachage à l'une des bandes (« stripes ») série, en nombre fixe.
+ * Un envoi ne démarre qu'une fois l'envoi précédent de sa bande terminé, avec succès ou non : deux
+ * notifications adressées au même destinataire partent donc dans l'ordre de soumission, tandis que les
+ * destinataires des autres bandes sont servis en parallèle.
+ * <p>
+ * Chaque bande n'est que la queue d'une chaîne de futurs, remplacée par {@code getAndSet} : aucun verrou
+ * n'est pris, ni global ni par bande. Les envois sont démarrés sur un exécuteur, pour que l'achèvement
+ * d'un envoi ne déclenche pas le suivant dans le thread du fournisseur.
+ */
+public class RecipientSequencer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipientSequencer.class);
+
+    private final AtomicReferenceArray<CompletableFuture<Void>> tails;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    private volatile boolean running = true;
+
+    /**
+     * Crée un séquenceur disposant de son propre pool de threads.
+     *
+     * @param config Configuration de l'ordonnancement par destinataire
+     */
+    public RecipientSequencer(NotificationProperties.OrderingConfig config) {
+        this(config.getStripes(), newExecutor(config.getThreads()), true);
+    }
+
+    /**
+     * Crée un séquenceur démarrant les envois sur l'exécuteur fourni.
+     *
+     * @param stripes Nombre de bandes série
+     * @param executor Exécuteur utilisé pour démarrer les envois
+     */
+    public RecipientSequencer(int stripes, Executor executor) {
+        this(stripes, executor, false);
+    }
+
+    private RecipientSequencer(int stripes, Executor executor, boolean ownsExecutor) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Le nombre de bandes doit être strictement positif");
+        }
+        this.tails = new AtomicReferenceArray<>(stripes);
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < stripes; i++) {
+            tails.set(i, done);
+        }
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+
+        logger.info("Ordonnancement par destinataire activé sur {} bandes", stripes);
+    }
+
+    /**
+     * Enchaîne un envoi derrière les envois précédents du même destinataire.
+     *
+     * @param recipient Destinataire de la notification
+     * @param task Envoi à exécuter une fois les envois précédents de la bande terminés
+     * @return Un futur complété avec le résultat de l'envoi
+     */
+    public CompletableFuture<Void> submit(String recipient, Supplier<CompletableFuture<Void>> task) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new NotificationException("L'ordonnancement par destinataire est arrêté"));
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        // La bande est libérée lorsque l'envoi se termine, quelle qu'en soit l'issue
+        CompletableFuture<Void> released = result.handle((ignored, error) -> null);
+        CompletableFuture<Void> previous = tails.getAndSet(stripe(recipient), released);
+
+        previous.whenComplete((ignored, error) -> {
+            try {
+                executor.execute(() -> start(task, result));
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(new NotificationException("L'ordonnancement par destinataire est arrêté", e));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return Nombre de bandes série
+     */
+    public int getStripes() {
+        return tails.length();
+    }
+
+    /**
+     * Arrête le séquenceur. Les envois déjà enchaînés sont abandonnés si le pool interne est arrêté avant eux.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        logger.info("Ordonnancement par destinataire arrêté");
+    }
+
+    int stripe(String recipient) {
+        int hash = recipient == null ? 0 : recipient.hashCode();
+        // Mélange des bits de poids fort, comme HashMap, avant la réduction modulo le nombre de bandes
+        return Math.floorMod(hash ^ (hash >>> 16), tails.length());
+    }
+
+    private static void start(Supplier<CompletableFuture<Void>> task, CompletableFuture<Void> result) {
+        CompletableFuture<Void> future;
+        try {
+            future = task.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(null);
+            }
+        });
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notifier-ordering-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
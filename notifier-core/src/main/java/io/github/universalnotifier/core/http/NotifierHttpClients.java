@@ -0,0 +1,42 @@
+package io.github.universalnotifier.core.http;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Point d'accès au client HTTP partagé par les fournisseurs de notification.
+ * Tous les fournisseurs qui appellent directement une API REST réutilisent
+ * le même {@link HttpClient} et donc le même pool de connexions, ce qui évite
+ * de refaire la négociation TCP/TLS à chaque envoi.
+ */
+public final class NotifierHttpClients {
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static volatile HttpClient shared;
+
+    private NotifierHttpClients() {
+    }
+
+    /**
+     * Retourne le client HTTP partagé, créé à la première utilisation.
+     *
+     * @return Le client HTTP partagé
+     */
+    public static HttpClient shared() {
+        HttpClient client = shared;
+        if (client == null) {
+            synchronized (NotifierHttpClients.class) {
+                client = shared;
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .connectTimeout(DEFAULT_CONNECT_TIMEOUT)
+                            .followRedirects(HttpClient.Redirect.NEVER)
+                            .build();
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+}
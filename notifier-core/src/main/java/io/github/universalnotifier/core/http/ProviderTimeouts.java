@@ -0,0 +1,104 @@
+package io.github.universalnotifier.core.http;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Délais de connexion et de lecture d'un fournisseur, lus dans ses propriétés
+ * ({@code connect-timeout} et {@code read-timeout}, par exemple {@code 5s} ou {@code 500ms}).
+ * <p>
+ * Sans eux, les SDK des fournisseurs peuvent attendre plusieurs minutes une API qui ne répond plus.
+ * Le délai d'une requête est en outre borné par le temps restant avant l'échéance de la notification.
+ */
+public final class ProviderTimeouts {
+
+    public static final String CONNECT_TIMEOUT = "connect-timeout";
+    public static final String READ_TIMEOUT = "read-timeout";
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+
+    private ProviderTimeouts(Duration connectTimeout, Duration readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Lit les délais dans les propriétés d'un fournisseur.
+     *
+     * @param config Propriétés du fournisseur
+     * @param prefix Préfixe des propriétés, pour les messages d'erreur (par exemple "notifier.sms.twilio")
+     * @return Les délais du fournisseur
+     * @throws IllegalArgumentException Si un délai n'est pas une durée valide
+     */
+    public static ProviderTimeouts from(Map<String, String> config, String prefix) {
+        return new ProviderTimeouts(
+                duration(config, CONNECT_TIMEOUT, prefix, DEFAULT_CONNECT_TIMEOUT),
+                duration(config, READ_TIMEOUT, prefix, DEFAULT_READ_TIMEOUT));
+    }
+
+    /**
+     * @return Délai maximal d'établissement d'une connexion
+     */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return Délai maximal d'attente de la réponse
+     */
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Calcule le délai total accordé à une requête : connexion et lecture, dans la limite du temps restant
+     * avant l'échéance de la notification.
+     *
+     * @param request Notification à envoyer
+     * @return Le délai de la requête
+     * @throws NotificationException Si l'échéance de la notification est déjà dépassée
+     */
+    public Duration requestTimeout(NotificationRequest request) {
+        Duration timeout = connectTimeout.plus(readTimeout);
+        Duration remaining = request.remainingTime();
+        if (remaining == null) {
+            return timeout;
+        }
+        if (remaining.isNegative() || remaining.isZero()) {
+            throw NotificationException.stackless(NotificationErrorCode.TIMEOUT,
+                    "Échéance de la notification dépassée avant son envoi", null);
+        }
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * Lit une durée dans les propriétés d'un fournisseur.
+     *
+     * @param config Propriétés du fournisseur
+     * @param key Nom de la propriété
+     * @param prefix Préfixe des propriétés, pour les messages d'erreur
+     * @param defaultValue Durée retenue si la propriété est absente
+     * @return La durée lue, ou la valeur par défaut
+     * @throws IllegalArgumentException Si la propriété n'est pas une durée valide
+     */
+    public static Duration duration(Map<String, String> config, String key, String prefix, Duration defaultValue) {
+        String value = config.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return DurationStyle.detectAndParse(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("La propriété '" + prefix + "." + key + "' doit être une durée: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.universalnotifier.core.limit;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concurrence découverte à partir des latences et des erreurs observées.
+ * <p>
+ * L'algorithme suit le gradient de latence : tant que la latence d'un envoi reste proche de la latence
+ * de référence (moyenne longue), la limite croît d'environ sa racine carrée ; lorsque la latence augmente,
+ * la limite est réduite dans le rapport des deux latences, signe qu'une file se forme chez le fournisseur.
+ * Une erreur la réduit de manière multiplicative (AIMD). La limite n'augmente que si elle est effectivement
+ * sollicitée, pour ne pas croître indéfiniment sous faible charge.
+ * <p>
+ * L'acquisition d'une place est sans verrou ; seule la mise à jour de la limite, à chaque fin d'envoi,
+ * est synchronisée.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    // Poids d'un échantillon dans la latence de référence, et lissage des nouvelles limites
+    private static final double REFERENCE_WEIGHT = 0.01;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double estimatedLimit;
+    private double referenceRtt = Double.NaN;
+    private volatile int limit;
+
+    /**
+     * Crée une limite adaptative.
+     *
+     * @param config Configuration des limites de concurrence
+     */
+    public AdaptiveConcurrencyLimit(NotificationProperties.ConcurrencyConfig config) {
+        this.minLimit = Math.max(config.getMinLimit(), 1);
+        this.maxLimit = Math.max(config.getMaxLimit(), minLimit);
+        this.tolerance = config.getTolerance();
+        this.backoffRatio = config.getBackoffRatio();
+        this.estimatedLimit = Math.min(Math.max(config.getInitialLimit(), minLimit), maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Réserve une place si la limite n'est pas atteinte.
+     *
+     * @return Le nombre d'envois en cours, place réservée comprise, ou 0 si la limite est atteinte
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Libère une place et ajuste la limite selon le résultat de l'envoi.
+     *
+     * @param rttNanos Durée de l'envoi, en nanosecondes
+     * @param inFlightAtStart Nombre d'envois en cours au démarrage de cet envoi
+     * @param failed true si l'envoi a échoué
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean failed) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart, failed);
+    }
+
+    /**
+     * Libère une place réservée sans qu'aucun envoi n'ait eu lieu ; la limite n'est pas ajustée.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return La limite de concurrence courante
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Nombre d'envois en cours
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean failed) {
+        if (failed) {
+            setLimit(estimatedLimit * backoffRatio);
+            return;
+        }
+
+        double rtt = Math.max(rttNanos, 1);
+        if (Double.isNaN(referenceRtt)) {
+            referenceRtt = rtt;
+        } else {
+            referenceRtt += (rtt - referenceRtt) * REFERENCE_WEIGHT;
+        }
+        // Après une dégradation durable, la référence se rapproche plus vite d'une latence redevenue basse
+        if (referenceRtt / rtt > 2) {
+            referenceRtt *= 0.95;
+        }
+
+        // Une limite à moitié utilisée ne dit rien de la capacité du fournisseur
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * referenceRtt / rtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setLimit(estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private void setLimit(double value) {
+        estimatedLimit = Math.min(Math.max(value, minLimit), maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.universalnotifier.core.limit;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.service.BlockingSendExecutor;
+import io.github.universalnotifier.core.service.NotificationProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Registre des fournisseurs soumis à une limite de concurrence adaptative.
+ * Il enveloppe chaque fournisseur (ou chaque instance d'un canal réparti entre plusieurs comptes)
+ * et conserve les limites créées pour qu'elles puissent être exposées comme métriques.
+ */
+public class ConcurrencyLimitRegistry implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitRegistry.class);
+
+    private final NotificationProperties.ConcurrencyConfig config;
+    private final Executor executor;
+    private final BlockingSendExecutor ownedExecutor;
+    private final Map<String, ConcurrencyLimitedNotificationProvider> providers = new ConcurrentHashMap<>();
+
+    /**
+     * Crée un registre de limites de concurrence avec son propre pool de fournisseurs bloquants,
+     * arrêté par {@link #close()}.
+     *
+     * @param config Configuration des limites de concurrence
+     */
+    public ConcurrencyLimitRegistry(NotificationProperties.ConcurrencyConfig config) {
+        this(config, new BlockingSendExecutor(new NotificationProperties.BlockingConfig()), true);
+    }
+
+    /**
+     * Crée un registre de limites de concurrence dont les envois en attente d'un fournisseur bloquant
+     * démarrent sur l'exécuteur fourni.
+     *
+     * @param config Configuration des limites de concurrence
+     * @param executor Exécuteur partagé par les fournisseurs limités, qui reste à la charge de l'appelant
+     */
+    public ConcurrencyLimitRegistry(NotificationProperties.ConcurrencyConfig config, Executor executor) {
+        this(config, executor, false);
+    }
+
+    private ConcurrencyLimitRegistry(NotificationProperties.ConcurrencyConfig config, Executor executor, boolean owned) {
+        this.config = config;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (BlockingSendExecutor) executor : null;
+    }
+
+    /**
+     * Enveloppe un fournisseur dans sa propre limite de concurrence adaptative.
+     *
+     * @param name Nom unique du fournisseur (par exemple "sms" ou "sms.compte-a")
+     * @param provider Fournisseur à envelopper
+     * @return Le fournisseur limité
+     */
+    public NotificationProvider wrap(String name, NotificationProvider provider) {
+        ConcurrencyLimitedNotificationProvider limited = new ConcurrencyLimitedNotificationProvider(name, provider, config, executor);
+        providers.put(name, limited);
+        logger.info("Limite de concurrence adaptative activée pour {} (limite initiale: {})", name, limited.getLimit());
+        return limited;
+    }
+
+    /**
+     * @return Les fournisseurs limités enregistrés
+     */
+    public Collection<ConcurrencyLimitedNotificationProvider> getProviders() {
+        return Collections.unmodifiableCollection(providers.values());
+    }
+
+    /**
+     * Arrête le pool de fournisseurs bloquants créé par le registre, s'il en a créé un.
+     * Les fournisseurs enveloppés ne sont pas fermés : ils appartiennent à ceux qui les ont obtenus.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package io.github.universalnotifier.core.limit;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.BlockingSendExecutor;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Fournisseur limitant le nombre d'envois simultanés vers le fournisseur qu'il enveloppe, selon une
+ * {@link AdaptiveConcurrencyLimit}. Les envois au-delà de la limite attendent dans une file bornée et
+ * démarrent dès qu'une place se libère ; lorsque la file est pleine, ils sont refusés par une
+ * {@link NotificationRejectedException}.
+ * <p>
+ * Un envoi en attente est démarré par le thread qui libère la place, souvent celui qui termine l'envoi
+ * précédent. Si le fournisseur enveloppé est bloquant, l'envoi est démarré sur un exécuteur : les envois
+ * en attente ne s'exécutent pas les uns après les autres dans ce seul thread.
+ */
+public class ConcurrencyLimitedNotificationProvider implements NotificationProvider, AutoCloseable {
+
+    private final String name;
+    private final NotificationProvider delegate;
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxQueued;
+    private final Duration retryAfter;
+    private final Executor executor;
+    private final BlockingSendExecutor ownedExecutor;
+    private final LongSupplier nanoClock;
+
+    private final Queue<Pending> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    /**
+     * Enveloppe un fournisseur dans une limite de concurrence adaptative, avec son propre pool de
+     * fournisseurs bloquants, arrêté par {@link #close()}.
+     *
+     * @param name Nom du fournisseur, utilisé dans les messages et les métriques
+     * @param delegate Fournisseur enveloppé
+     * @param config Configuration des limites de concurrence
+     */
+    public ConcurrencyLimitedNotificationProvider(String name, NotificationProvider delegate,
+                                                  NotificationProperties.ConcurrencyConfig config) {
+        this(name, delegate, config, new BlockingSendExecutor(new NotificationProperties.BlockingConfig()),
+                System::nanoTime, true);
+    }
+
+    /**
+     * Enveloppe un fournisseur dans une limite de concurrence adaptative, en démarrant les envois en attente
+     * d'un fournisseur bloquant sur l'exécuteur fourni.
+     *
+     * @param name Nom du fournisseur, utilisé dans les messages et les métriques
+     * @param delegate Fournisseur enveloppé
+     * @param config Configuration des limites de concurrence
+     * @param executor Exécuteur sur lequel démarrent les envois en attente d'un fournisseur bloquant,
+     *                 qui reste à la charge de l'appelant
+     */
+    public ConcurrencyLimitedNotificationProvider(String name, NotificationProvider delegate,
+                                                  NotificationProperties.ConcurrencyConfig config, Executor executor) {
+        this(name, delegate, config, executor, System::nanoTime);
+    }
+
+    ConcurrencyLimitedNotificationProvider(String name, NotificationProvider delegate,
+                                           NotificationProperties.ConcurrencyConfig config, Executor executor,
+                                           LongSupplier nanoClock) {
+        this(name, delegate, config, executor, nanoClock, false);
+    }
+
+    private ConcurrencyLimitedNotificationProvider(String name, NotificationProvider delegate,
+                                                   NotificationProperties.ConcurrencyConfig config, Executor executor,
+                                                   LongSupplier nanoClock, boolean ownsExecutor) {
+        this.name = name;
+        this.delegate = delegate;
+        this.limit = new AdaptiveConcurrencyLimit(config);
+        this.maxQueued = config.getMaxQueued();
+        this.retryAfter = config.getRetryAfter();
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (BlockingSendExecutor) executor : null;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public boolean supports(String type) {
+        return delegate.supports(type);
+    }
+
+    @Override
+    public void warmUp(int connections) {
+        delegate.warmUp(connections);
+    }
+
+    /**
+     * Libère les ressources du fournisseur enveloppé, s'il en détient, puis arrête le pool de fournisseurs
+     * bloquants si ce fournisseur l'a créé lui-même.
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            if (delegate instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        } finally {
+            if (ownedExecutor != null) {
+                ownedExecutor.close();
+            }
+        }
+    }
+
+    @Override
+    public void send(NotificationRequest request) {
+        try {
+            sendAsync(request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof NotificationException notificationException
+                    ? notificationException
+                    : new NotificationException("Erreur lors de l'envoi via " + name, e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        return submit(request.getPriority(), () -> delegate.sendAsync(request));
+    }
+
+    /**
+     * Le lot n'occupe qu'une place dans la limite : c'est un seul appel au fournisseur.
+     */
+    @Override
+    public List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> requests) {
+        if (requests.size() == 1) {
+            return List.of(sendAsync(requests.get(0)));
+        }
+
+        List<CompletableFuture<Void>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        submit(requests.get(0).getPriority(), () -> {
+            List<CompletableFuture<Void>> sent = delegate.sendBatchAsync(requests);
+            for (int i = 0; i < sent.size(); i++) {
+                CompletableFuture<Void> result = results.get(i);
+                sent.get(i).whenComplete((ignored, error) -> complete(result, error));
+            }
+            return CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]));
+        }).whenComplete((ignored, error) -> {
+            // Lot refusé ou en échec : les notifications sans résultat individuel reçoivent l'erreur du lot
+            if (error != null) {
+                results.forEach(result -> complete(result, error));
+            }
+        });
+        return results;
+    }
+
+    @Override
+    public ProviderCapabilities capabilities() {
+        return delegate.capabilities();
+    }
+
+    private CompletableFuture<Void> submit(NotificationPriority priority, Supplier<CompletableFuture<Void>> call) {
+        int inFlight = limit.tryAcquire();
+        if (inFlight > 0) {
+            return start(call, inFlight);
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return CompletableFuture.failedFuture(new NotificationRejectedException(
+                    "Limite de concurrence de " + name + " atteinte (" + limit.getLimit() + " envois en cours)",
+                    priority, retryAfter));
+        }
+        Pending pending = new Pending(call);
+        waiting.add(pending);
+        // Une place a pu se libérer entre la tentative d'acquisition et l'ajout dans la file
+        drain();
+        return pending.result;
+    }
+
+    /**
+     * @return Nom du fournisseur
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Le fournisseur enveloppé
+     */
+    public NotificationProvider getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return La limite de concurrence courante
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * @return Nombre d'envois en cours auprès du fournisseur
+     */
+    public int getInFlight() {
+        return limit.getInFlight();
+    }
+
+    /**
+     * @return Nombre d'envois en attente d'une place
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private CompletableFuture<Void> start(Supplier<CompletableFuture<Void>> call, int inFlight) {
+        long start = nanoClock.getAsLong();
+        CompletableFuture<Void> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((ignored, error) -> {
+            // Un destinataire invalide ne dit rien de la charge du fournisseur : la limite n'est pas réduite
+            boolean failed = error != null && NotificationErrorCode.of(error) != NotificationErrorCode.INVALID_RECIPIENT;
+            limit.release(nanoClock.getAsLong() - start, inFlight, failed);
+            drain();
+        });
+    }
+
+    /**
+     * Démarre les envois en attente tant que des places sont libres. Un seul thread draine la file à la fois :
+     * les appels concurrents, y compris ceux déclenchés par la fin d'un envoi démarré ici, sont absorbés par
+     * la boucle en cours au lieu de s'empiler récursivement.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            while (!waiting.isEmpty()) {
+                int inFlight = limit.tryAcquire();
+                if (inFlight == 0) {
+                    break;
+                }
+                Pending pending = waiting.poll();
+                if (pending == null) {
+                    limit.cancel();
+                    break;
+                }
+                queued.decrementAndGet();
+                startQueued(pending, inFlight);
+            }
+            missed = drainRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void startQueued(Pending pending, int inFlight) {
+        ProviderCapabilities capabilities = delegate.capabilities();
+        if (capabilities != null && capabilities.isNativeAsync()) {
+            start(pending.call, inFlight).whenComplete((ignored, error) -> complete(pending.result, error));
+            return;
+        }
+        try {
+            executor.execute(() ->
+                    start(pending.call, inFlight).whenComplete((ignored, error) -> complete(pending.result, error)));
+        } catch (RejectedExecutionException e) {
+            limit.cancel();
+            pending.result.completeExceptionally(NotificationException.stackless(NotificationErrorCode.TRANSIENT,
+                    "Impossible de démarrer un envoi en attente de " + name, e));
+            drain();
+        }
+    }
+
+    private static void complete(CompletableFuture<Void> result, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(
+                    error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        } else {
+            result.complete(null);
+        }
+    }
+
+    /**
+     * Envoi en attente d'une place.
+     */
+    private static final class Pending {
+
+        private final Supplier<CompletableFuture<Void>> call;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private Pending(Supplier<CompletableFuture<Void>> call) {
+            this.call = call;
+        }
+    }
+}
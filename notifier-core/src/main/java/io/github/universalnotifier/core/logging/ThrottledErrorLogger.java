@@ -0,0 +1,112 @@
+package io.github.universalnotifier.core.logging;
+
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Journalisation limitée des erreurs d'envoi.
+ * <p>
+ * Pendant une panne d'un fournisseur, chaque envoi échoue avec la même erreur : la journaliser à chaque fois
+ * coûte davantage que l'envoi lui-même. Pour chaque message et chaque {@link NotificationErrorCode catégorie},
+ * seule la première erreur d'un intervalle est journalisée ; les suivantes sont comptées, et leur nombre est
+ * indiqué avec la première erreur de l'intervalle suivant. Une erreur ignorée ne coûte qu'un incrément.
+ * <p>
+ * Les erreurs attendues (destinataire invalide, quota atteint) sont journalisées en avertissement.
+ */
+public class ThrottledErrorLogger {
+
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+    private static final NotificationErrorCode[] CODES = NotificationErrorCode.values();
+
+    private final Logger logger;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Window[]> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Crée un journal limité à une erreur identique toutes les 10 secondes.
+     *
+     * @param logger Journal dans lequel écrire
+     */
+    public ThrottledErrorLogger(Logger logger) {
+        this(logger, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Crée un journal limité à une erreur identique par intervalle.
+     *
+     * @param logger Journal dans lequel écrire
+     * @param interval Intervalle minimal entre deux journalisations d'une même erreur
+     */
+    public ThrottledErrorLogger(Logger logger, Duration interval) {
+        this(logger, interval, System::nanoTime);
+    }
+
+    ThrottledErrorLogger(Logger logger, Duration interval, LongSupplier nanoClock) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Journalise une erreur, sauf si la même erreur l'a déjà été pendant l'intervalle en cours.
+     *
+     * @param message Description de l'erreur, sans paramètre variable (il sert à regrouper les erreurs)
+     * @param error Erreur à journaliser
+     * @return true si l'erreur a été journalisée, false si elle a seulement été comptée
+     */
+    public boolean error(String message, Throwable error) {
+        NotificationErrorCode code = NotificationErrorCode.of(error);
+        Window window = windows.computeIfAbsent(message, key -> newWindows())[code.ordinal()];
+
+        long now = nanoClock.getAsLong();
+        long next = window.nextLogAt.get();
+        if (now - next < 0 || !window.nextLogAt.compareAndSet(next, now + intervalNanos)) {
+            window.suppressed.increment();
+            return false;
+        }
+
+        long suppressed = window.suppressed.sumThenReset();
+        boolean expected = code == NotificationErrorCode.INVALID_RECIPIENT || code == NotificationErrorCode.RATE_LIMITED;
+        if (suppressed == 0) {
+            if (expected) {
+                logger.warn("{} [{}]: {}", message, code, error.toString());
+            } else {
+                logger.error("{} [{}]", message, code, error);
+            }
+        } else if (expected) {
+            logger.warn("{} [{}]: {} ({} erreur(s) identique(s) non journalisée(s) depuis le précédent message)",
+                    message, code, error.toString(), suppressed);
+        } else {
+            logger.error("{} [{}] ({} erreur(s) identique(s) non journalisée(s) depuis le précédent message)",
+                    message, code, suppressed, error);
+        }
+        return true;
+    }
+
+    private Window[] newWindows() {
+        long now = nanoClock.getAsLong();
+        Window[] created = new Window[CODES.length];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new Window(now);
+        }
+        return created;
+    }
+
+    private static final class Window {
+
+        private final AtomicLong nextLogAt;
+        private final LongAdder suppressed = new LongAdder();
+
+        private Window(long now) {
+            this.nextLogAt = new AtomicLong(now);
+        }
+    }
+}
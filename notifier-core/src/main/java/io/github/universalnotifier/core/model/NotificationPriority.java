@@ -0,0 +1,30 @@
+package io.github.universalnotifier.core.model;
+
+/**
+ * Priorité d'une demande de notification.
+ * Chaque priorité dispose de sa propre file dans le dispatcher à couloirs,
+ * de sorte que les notifications urgentes (OTP, alertes) ne patientent pas
+ * derrière le trafic de masse (campagnes marketing).
+ */
+public enum NotificationPriority {
+
+    /**
+     * Notifications critiques : codes OTP, alertes de sécurité
+     */
+    CRITICAL,
+
+    /**
+     * Notifications transactionnelles importantes
+     */
+    HIGH,
+
+    /**
+     * Priorité par défaut
+     */
+    NORMAL,
+
+    /**
+     * Trafic de masse : campagnes, newsletters
+     */
+    LOW
+}
@@ -5,12 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Duration;
+import java.time.Instant;
+
 /**
  * Classe représentant une demande de notification.
  * Cette classe est utilisée pour envoyer des notifications à travers différents canaux.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class NotificationRequest {
@@ -39,4 +42,95 @@ public class NotificationRequest {
      * Peut être utilisé pour des options spécifiques aux fournisseurs
      */
     private Object additionalData;
+
+    /**
+     * Instant d'envoi souhaité (optionnel).
+     * Pris en compte par le {@code NotificationScheduler} ; null signifie un envoi immédiat.
+     */
+    private Instant sendAt;
+
+    /**
+     * Priorité de la notification (optionnelle, {@link NotificationPriority#NORMAL} par défaut)
+     */
+    private NotificationPriority priority;
+
+    /**
+     * Clé de regroupement (optionnelle).
+     * Les notifications de même type, même destinataire et même clé reçues dans la fenêtre
+     * de regroupement sont fusionnées en un seul résumé ; null signifie aucun regroupement.
+     */
+    private String coalescingKey;
+
+    /**
+     * Échéance de la notification (optionnelle).
+     * Une notification qui ne peut plus être remise avant cet instant est abandonnée, qu'elle soit en attente
+     * dans une file ou en cours d'envoi ; null signifie aucune échéance.
+     */
+    private Instant deadline;
+
+    /**
+     * Constructeur conservant la signature historique, pour une notification à envoyer immédiatement.
+     *
+     * @param type Type de notification
+     * @param to Destinataire de la notification
+     * @param subject Sujet de la notification
+     * @param message Contenu du message
+     * @param additionalData Données supplémentaires spécifiques au canal
+     */
+    public NotificationRequest(String type, String to, String subject, String message, Object additionalData) {
+        this(type, to, subject, message, additionalData, null, null, null, null);
+    }
+
+    /**
+     * Retourne la priorité de la notification.
+     *
+     * @return La priorité indiquée, ou {@link NotificationPriority#NORMAL} si aucune ne l'est
+     */
+    public NotificationPriority getPriority() {
+        return priority != null ? priority : NotificationPriority.NORMAL;
+    }
+
+    /**
+     * Retourne le temps restant avant l'échéance de la notification.
+     *
+     * @return Le temps restant, négatif si l'échéance est dépassée, ou null si la notification n'a pas d'échéance
+     */
+    public Duration remainingTime() {
+        return deadline != null ? Duration.between(Instant.now(), deadline) : null;
+    }
+
+    /**
+     * @return true si la notification a une échéance et que celle-ci est dépassée
+     */
+    public boolean hasExpired() {
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+
+    /**
+     * Builder de {@link NotificationRequest}, complété par Lombok.
+     */
+    public static class NotificationRequestBuilder {
+
+        /**
+         * Planifie l'envoi après le délai indiqué, à partir de maintenant.
+         *
+         * @param delay Délai avant l'envoi
+         * @return Ce builder
+         */
+        public NotificationRequestBuilder delay(Duration delay) {
+            this.sendAt = Instant.now().plus(delay);
+            return this;
+        }
+
+        /**
+         * Fixe l'échéance de la notification après le délai indiqué, à partir de maintenant.
+         *
+         * @param timeout Délai maximal de remise de la notification
+         * @return Ce builder
+         */
+        public NotificationRequestBuilder timeout(Duration timeout) {
+            this.deadline = Instant.now().plus(timeout);
+            return this;
+        }
+    }
 }
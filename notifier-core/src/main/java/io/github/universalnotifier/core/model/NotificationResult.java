@@ -0,0 +1,61 @@
+package io.github.universalnotifier.core.model;
+
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Résultat d'une tentative d'envoi de notification.
+ */
+@Value
+@Builder(toBuilder = true)
+public class NotificationResult {
+
+    /**
+     * true si le fournisseur a accepté la notification
+     */
+    boolean success;
+
+    /**
+     * Catégorie de l'erreur en cas d'échec, null sinon
+     */
+    NotificationErrorCode errorCode;
+
+    /**
+     * Message de l'erreur en cas d'échec, null sinon
+     */
+    String errorMessage;
+
+    /**
+     * Numéro de la tentative, à partir de 1
+     */
+    int attempt;
+
+    /**
+     * Instant de fin de la tentative
+     */
+    Instant completedAt;
+
+    /**
+     * Crée le résultat d'une tentative réussie.
+     *
+     * @param attempt Numéro de la tentative
+     * @return Le résultat
+     */
+    public static NotificationResult success(int attempt) {
+        return new NotificationResult(true, null, null, attempt, Instant.now());
+    }
+
+    /**
+     * Crée le résultat d'une tentative en échec.
+     *
+     * @param attempt Numéro de la tentative
+     * @param error Erreur de l'envoi
+     * @return Le résultat
+     */
+    public static NotificationResult failure(int attempt, Throwable error) {
+        return new NotificationResult(false, NotificationErrorCode.of(error), error.getMessage(), attempt, Instant.now());
+    }
+}
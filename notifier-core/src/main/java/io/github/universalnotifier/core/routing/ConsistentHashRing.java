@@ -0,0 +1,89 @@
+package io.github.universalnotifier.core.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anneau de hachage cohérent immuable.
+ * <p>
+ * Chaque nœud est placé en plusieurs points virtuels de l'anneau pour lisser la répartition ;
+ * une clé est attribuée au premier point situé après son empreinte. Les points sont conservés dans
+ * deux tableaux triés, parcourus par recherche dichotomique, sans allocation à la lecture.
+ *
+ * @param <T> Type des nœuds
+ */
+public final class ConsistentHashRing<T> {
+
+    /**
+     * Nombre de points virtuels par nœud par défaut.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final long[] points;
+    private final Object[] owners;
+
+    /**
+     * Construit un anneau à partir de nœuds identifiés par leur nom.
+     *
+     * @param nodes Nœuds indexés par un nom stable (l'empreinte des points virtuels en dépend)
+     * @param virtualNodes Nombre de points virtuels par nœud
+     * @throws IllegalArgumentException Si aucun nœud n'est fourni
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("L'anneau de hachage doit contenir au moins un nœud");
+        }
+
+        List<Point<T>> ring = new ArrayList<>(nodes.size() * virtualNodes);
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.add(new Point<>(hash(name + "#" + i), node));
+            }
+        });
+        ring.sort(Comparator.comparingLong(Point::hash));
+
+        this.points = new long[ring.size()];
+        this.owners = new Object[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i).hash();
+            owners[i] = ring.get(i).node();
+        }
+    }
+
+    /**
+     * Retourne le nœud responsable d'une clé.
+     *
+     * @param key Clé à placer sur l'anneau (null est traité comme une chaîne vide)
+     * @return Le nœud responsable
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String key) {
+        int index = Arrays.binarySearch(points, hash(key != null ? key : ""));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return (T) owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Empreinte 64 bits FNV-1a, suivie d'un brassage final pour mieux répartir les clés proches.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Point<T>(long hash, T node) {
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.universalnotifier.core.routing;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Pool d'expéditeurs (numéros de téléphone) soumis chacun à une limite de débit.
+ * <p>
+ * Chaque destinataire est attaché à un expéditeur préféré par hachage cohérent, afin de recevoir
+ * ses messages toujours du même numéro. Seulement si ce numéro a épuisé son débit, le message est confié
+ * à un autre expéditeur disponible, cherché dans un ordre propre au destinataire : ses messages de
+ * débordement partent eux aussi d'un même numéro de secours, et les débordements de tous les destinataires
+ * ne retombent pas sur le premier numéro du pool. Si aucun n'est disponible, l'expéditeur libéré le plus
+ * tôt est réservé, le préféré en cas d'égalité, et l'appelant doit attendre le délai indiqué. Le débit du pool croît ainsi avec le nombre d'expéditeurs.
+ * <p>
+ * Le débit de chaque expéditeur est suivi sans verrou, par une heure théorique du prochain envoi
+ * mise à jour par CAS.
+ */
+public class SenderPool {
+
+    private final Sender[] senders;
+    private final ConsistentHashRing<Sender> ring;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Crée un pool d'expéditeurs.
+     *
+     * @param senders Numéros des expéditeurs
+     * @param ratePerSecond Nombre maximal de messages par seconde et par expéditeur
+     * @throws IllegalArgumentException Si la liste est vide ou le débit n'est pas strictement positif
+     */
+    public SenderPool(List<String> senders, double ratePerSecond) {
+        this(senders, ratePerSecond, System::nanoTime);
+    }
+
+    SenderPool(List<String> senders, double ratePerSecond, LongSupplier nanoClock) {
+        if (senders.isEmpty()) {
+            throw new IllegalArgumentException("Le pool d'expéditeurs doit contenir au moins un numéro");
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Le débit par expéditeur doit être strictement positif");
+        }
+
+        long start = nanoClock.getAsLong();
+        this.senders = new Sender[senders.size()];
+        for (int i = 0; i < this.senders.length; i++) {
+            this.senders[i] = new Sender(senders.get(i), i, start);
+        }
+        Map<String, Sender> nodes = new LinkedHashMap<>();
+        for (Sender sender : this.senders) {
+            nodes.put(sender.number, sender);
+        }
+        this.ring = new ConsistentHashRing<>(nodes, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Crée un pool à partir d'une liste de numéros séparés par des virgules.
+     *
+     * @param senders Numéros séparés par des virgules
+     * @param ratePerSecond Nombre maximal de messages par seconde et par expéditeur
+     * @return Le pool d'expéditeurs
+     */
+    public static SenderPool parse(String senders, double ratePerSecond) {
+        return new SenderPool(Arrays.stream(senders.split(","))
+                .map(String::trim)
+                .filter(number -> !number.isEmpty())
+                .distinct()
+                .toList(), ratePerSecond);
+    }
+
+    /**
+     * Réserve un créneau d'envoi pour un destinataire.
+     *
+     * @param recipient Destinataire du message
+     * @return L'expéditeur retenu et le délai à respecter avant l'envoi
+     */
+    public Reservation reserve(String recipient) {
+        return reserve(recipient, Long.MAX_VALUE);
+    }
+
+    /**
+     * Réserve un créneau d'envoi pour un destinataire, à condition qu'il tombe dans le délai indiqué.
+     * Un créneau trop lointain n'est pas réservé : il reste disponible pour les envois suivants.
+     *
+     * @param recipient Destinataire du message
+     * @param maxDelayNanos Délai maximal accepté avant l'envoi, en nanosecondes
+     * @return L'expéditeur retenu et le délai à respecter avant l'envoi, ou null si aucun créneau ne tombe
+     *         dans le délai
+     */
+    public Reservation reserve(String recipient, long maxDelayNanos) {
+        long now = nanoClock.getAsLong();
+        Sender preferred = ring.get(recipient);
+        if (preferred.isAvailable(now)) {
+            Reservation reservation = preferred.tryReserve(now, intervalNanos, maxDelayNanos);
+            if (reservation != null) {
+                return reservation;
+            }
+        }
+
+        // L'expéditeur préféré est saturé : les autres sont parcourus dans un ordre stable pour ce destinataire
+        Sender earliest = preferred;
+        int others = senders.length - 1;
+        int offset = others > 0 ? Math.floorMod(mix(recipient.hashCode()), others) : 0;
+        for (int i = 0; i < others; i++) {
+            Sender sender = senders[(preferred.index + 1 + (offset + i) % others) % senders.length];
+            if (sender.isAvailable(now)) {
+                Reservation reservation = sender.tryReserve(now, intervalNanos, maxDelayNanos);
+                if (reservation != null) {
+                    return reservation;
+                }
+            }
+            if (sender.nextSlot.get() - earliest.nextSlot.get() < 0) {
+                earliest = sender;
+            }
+        }
+        return earliest.tryReserve(now, intervalNanos, maxDelayNanos);
+    }
+
+    /**
+     * Mélange les bits du hachage du destinataire, pour que des numéros voisins ne partagent pas le même
+     * expéditeur de secours.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    /**
+     * @return Débit total du pool, en messages par seconde
+     */
+    public double getRatePerSecond() {
+        return senders.length * (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    /**
+     * @return Les numéros des expéditeurs du pool
+     */
+    public List<String> getSenders() {
+        return Arrays.stream(senders).map(sender -> sender.number).toList();
+    }
+
+    /**
+     * Créneau d'envoi réservé.
+     *
+     * @param sender Numéro de l'expéditeur retenu
+     * @param delayNanos Délai à attendre avant l'envoi, en nanosecondes (0 si l'envoi peut partir immédiatement)
+     */
+    public record Reservation(String sender, long delayNanos) {
+    }
+
+    /**
+     * Expéditeur et heure théorique de son prochain créneau libre.
+     */
+    private static final class Sender {
+
+        private final String number;
+        private final int index;
+        private final AtomicLong nextSlot;
+
+        private Sender(String number, int index, long start) {
+            this.number = number;
+            this.index = index;
+            this.nextSlot = new AtomicLong(start);
+        }
+
+        private boolean isAvailable(long now) {
+            return nextSlot.get() - now <= 0;
+        }
+
+        /**
+         * Avance l'heure du prochain créneau par CAS, seulement si le créneau obtenu tombe dans le délai maximal.
+         */
+        private Reservation tryReserve(long now, long intervalNanos, long maxDelayNanos) {
+            while (true) {
+                long current = nextSlot.get();
+                long slot = current - now < 0 ? now : current;
+                if (slot - now > maxDelayNanos) {
+                    return null;
+                }
+                if (nextSlot.compareAndSet(current, slot + intervalNanos)) {
+                    return new Reservation(number, slot - now);
+                }
+            }
+        }
+    }
+}
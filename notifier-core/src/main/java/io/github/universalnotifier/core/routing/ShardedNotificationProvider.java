@@ -0,0 +1,216 @@
+package io.github.universalnotifier.core.routing;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Fournisseur répartissant les notifications d'un canal entre plusieurs instances nommées
+ * (sous-comptes Twilio, clés SendGrid...), chacune avec ses propres identifiants et son propre pool
+ * de connexions. Les limites de débit étant appliquées par compte, le débit du canal croît avec le
+ * nombre d'instances.
+ */
+public class ShardedNotificationProvider implements NotificationProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedNotificationProvider.class);
+
+    private final Map<String, NotificationProvider> instances;
+    private final NotificationProvider[] shards;
+    private final ShardingStrategy strategy;
+    private final ConsistentHashRing<NotificationProvider> ring;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Crée un fournisseur réparti entre les instances données.
+     *
+     * @param instances Instances indexées par leur nom, toutes du même canal
+     * @param strategy Stratégie de répartition
+     * @throws IllegalArgumentException Si aucune instance n'est fournie
+     */
+    public ShardedNotificationProvider(Map<String, NotificationProvider> instances, ShardingStrategy strategy) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une instance de fournisseur est requise");
+        }
+        this.instances = Collections.unmodifiableMap(new LinkedHashMap<>(instances));
+        this.shards = instances.values().toArray(new NotificationProvider[0]);
+        this.strategy = strategy;
+        this.ring = new ConsistentHashRing<>(this.instances, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+
+        logger.info("Fournisseur réparti entre {} instance(s) {} selon la stratégie {}",
+                instances.size(), instances.keySet(), strategy);
+    }
+
+    /**
+     * Crée le fournisseur d'un canal : une instance unique si le canal ne déclare pas d'instances nommées,
+     * un fournisseur réparti sinon.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param channel Nom du canal (email, sms, push, whatsapp, telegram)
+     * @param factory Fabrique d'une instance à partir de sa configuration
+     * @return Le fournisseur du canal
+     */
+    public static NotificationProvider create(NotificationProperties properties, String channel,
+                                              Function<NotificationProperties, NotificationProvider> factory) {
+        return create(properties, channel, factory, (name, provider) -> provider);
+    }
+
+    /**
+     * Crée le fournisseur d'un canal en enveloppant chaque instance, par exemple dans sa propre limite
+     * de concurrence : les limites des fournisseurs s'appliquent par compte.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param channel Nom du canal (email, sms, push, whatsapp, telegram)
+     * @param factory Fabrique d'une instance à partir de sa configuration
+     * @param decorator Enveloppe appliquée à chaque instance, à partir de son nom ("sms" ou "sms.compte-a")
+     * @return Le fournisseur du canal
+     */
+    public static NotificationProvider create(NotificationProperties properties, String channel,
+                                              Function<NotificationProperties, NotificationProvider> factory,
+                                              BiFunction<String, NotificationProvider, NotificationProvider> decorator) {
+        NotificationProperties.ProviderConfig config = properties.getChannel(channel);
+        if (config.getInstances().isEmpty()) {
+            return decorator.apply(channel, factory.apply(properties));
+        }
+
+        Map<String, NotificationProvider> instances = new LinkedHashMap<>();
+        for (String name : config.getInstances().keySet()) {
+            instances.put(name, decorator.apply(channel + "." + name, factory.apply(properties.forInstance(channel, name))));
+        }
+        return new ShardedNotificationProvider(instances, config.getSharding());
+    }
+
+    @Override
+    public boolean supports(String type) {
+        return shards[0].supports(type);
+    }
+
+    @Override
+    public void send(NotificationRequest request) {
+        select(request).send(request);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        return select(request).sendAsync(request);
+    }
+
+    /**
+     * Répartit le lot entre les instances, chacune recevant en un seul appel les notifications qui lui reviennent.
+     */
+    @Override
+    public List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> requests) {
+        if (shards.length == 1) {
+            return shards[0].sendBatchAsync(requests);
+        }
+
+        Map<NotificationProvider, List<Integer>> positions = new IdentityHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            positions.computeIfAbsent(select(requests.get(i)), shard -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<Void>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        positions.forEach((shard, indexes) -> {
+            List<CompletableFuture<Void>> sent = shard.sendBatchAsync(indexes.stream().map(requests::get).toList());
+            for (int i = 0; i < indexes.size(); i++) {
+                results.set(indexes.get(i), sent.get(i));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Capacités de la première instance ; le débit du canal est celui de toutes les instances réunies.
+     */
+    @Override
+    public ProviderCapabilities capabilities() {
+        ProviderCapabilities capabilities = shards[0].capabilities();
+        return capabilities.toBuilder()
+                .maxSendsPerSecond(capabilities.getMaxSendsPerSecond() * shards.length)
+                .build();
+    }
+
+    /**
+     * Préchauffe chaque instance ; toutes sont tentées même si l'une d'elles échoue.
+     */
+    @Override
+    public void warmUp(int connections) {
+        List<String> failures = new ArrayList<>();
+        RuntimeException firstFailure = null;
+        for (Map.Entry<String, NotificationProvider> instance : instances.entrySet()) {
+            try {
+                instance.getValue().warmUp(connections);
+            } catch (RuntimeException e) {
+                failures.add(instance.getKey());
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+        if (firstFailure != null) {
+            throw new NotificationException("Échec du préchauffage des instances " + failures, firstFailure);
+        }
+    }
+
+    /**
+     * Libère les ressources de chaque instance qui en détient ; toutes sont fermées même si l'une d'elles échoue.
+     */
+    @Override
+    public void close() throws Exception {
+        Exception firstFailure = null;
+        for (NotificationProvider shard : shards) {
+            if (!(shard instanceof AutoCloseable closeable)) {
+                continue;
+            }
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                if (firstFailure == null) {
+                    firstFailure = e;
+                } else {
+                    firstFailure.addSuppressed(e);
+                }
+            }
+        }
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    /**
+     * @return Les instances, indexées par leur nom
+     */
+    public Map<String, NotificationProvider> getInstances() {
+        return instances;
+    }
+
+    /**
+     * Choisit l'instance chargée d'une notification.
+     *
+     * @param request Notification à envoyer
+     * @return L'instance responsable
+     */
+    NotificationProvider select(NotificationRequest request) {
+        if (shards.length == 1) {
+            return shards[0];
+        }
+        return switch (strategy) {
+            case CONSISTENT_HASH -> ring.get(request.getTo());
+            case ROUND_ROBIN -> shards[Math.floorMod(next.getAndIncrement(), shards.length)];
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.universalnotifier.core.routing;
+
+/**
+ * Stratégie de répartition des notifications entre les instances nommées d'un même canal.
+ */
+public enum ShardingStrategy {
+
+    /**
+     * Hachage cohérent du destinataire : un destinataire est toujours servi par la même instance,
+     * et l'ajout d'une instance ne déplace qu'une fraction des destinataires.
+     */
+    CONSISTENT_HASH,
+
+    /**
+     * Tourniquet : chaque notification est confiée à l'instance suivante.
+     */
+    ROUND_ROBIN
+}
@@ -0,0 +1,177 @@
+package io.github.universalnotifier.core.scheduler;
+
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hiérarchique (hierarchical timing wheel).
+ * <p>
+ * La roue est composée de {@value #LEVELS} niveaux de {@value #WHEEL_SIZE} cases ; une case du niveau
+ * {@code n} couvre {@code 64^n} ticks. Une entrée est rangée au niveau le plus bas capable de contenir
+ * son échéance, puis redescend d'un niveau (cascade) lorsque la case qui la contient est atteinte.
+ * L'insertion et l'annulation sont en O(1), et l'avance d'un tick ne parcourt qu'une case par niveau.
+ * Avec un tick de 100 ms, la roue couvre plus de deux siècles sans débordement.
+ * <p>
+ * Cette classe n'est pas thread-safe : elle doit être manipulée par un seul thread
+ * (voir {@link NotificationScheduler}).
+ *
+ * @param <E> Type des entrées rangées dans la roue
+ */
+public class HierarchicalTimingWheel<E extends TimerEntry> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    private final TimerEntry[][] buckets = new TimerEntry[LEVELS][WHEEL_SIZE];
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * Crée une roue vide.
+     *
+     * @param tickMillis Durée d'un tick en millisecondes (résolution de la roue)
+     * @param startMillis Instant de départ, en millisecondes depuis l'epoch
+     */
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("La durée d'un tick doit être strictement positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (TimerEntry[] level : buckets) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                TimerEntry sentinel = new TimerEntry(0L);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Range une entrée dans la roue. Une entrée déjà échue sera déclenchée au prochain tick.
+     *
+     * @param entry Entrée à ranger (ne doit pas déjà être rangée)
+     */
+    public void add(E entry) {
+        if (entry.isScheduled()) {
+            throw new IllegalStateException("L'entrée est déjà rangée dans une roue");
+        }
+        long expirationTick = Math.max(ceilTick(entry.getDeadlineMillis()), currentTick + 1);
+        insert(entry, expirationTick);
+        size++;
+    }
+
+    /**
+     * Retire une entrée de la roue en O(1).
+     *
+     * @param entry Entrée à retirer
+     * @return true si l'entrée était rangée dans la roue
+     */
+    public boolean remove(E entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+        unlink(entry);
+        size--;
+        return true;
+    }
+
+    /**
+     * Fait avancer la roue jusqu'à l'instant indiqué et déclenche les entrées échues, dans l'ordre de leurs ticks.
+     *
+     * @param nowMillis Instant courant, en millisecondes depuis l'epoch
+     * @param expired Action appelée pour chaque entrée échue (l'entrée est déjà retirée de la roue)
+     */
+    @SuppressWarnings("unchecked")
+    public void advanceTo(long nowMillis, Consumer<? super E> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // Roue vide : inutile de parcourir les ticks un par un
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+            cascade();
+
+            TimerEntry sentinel = buckets[0][(int) (currentTick & WHEEL_MASK)];
+            while (sentinel.next != sentinel) {
+                TimerEntry entry = sentinel.next;
+                unlink(entry);
+                size--;
+                expired.accept((E) entry);
+            }
+        }
+    }
+
+    /**
+     * @return Nombre d'entrées actuellement rangées dans la roue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Durée d'un tick en millisecondes
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Redescend d'un niveau les entrées des cases atteintes, du niveau le plus haut au plus bas.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            TimerEntry sentinel = buckets[level][(int) ((currentTick >>> shift) & WHEEL_MASK)];
+            while (sentinel.next != sentinel) {
+                TimerEntry entry = sentinel.next;
+                unlink(entry);
+                insert(entry, ceilTick(entry.getDeadlineMillis()));
+            }
+        }
+    }
+
+    private void insert(TimerEntry entry, long expirationTick) {
+        long delta = Math.max(expirationTick - currentTick, 0L);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        int shift = WHEEL_BITS * level;
+        int slot;
+        if (delta >= (1L << (WHEEL_BITS * LEVELS))) {
+            // Au-delà de la portée de la roue : case la plus éloignée du dernier niveau,
+            // l'entrée sera replacée lors de sa cascade
+            slot = (int) (((currentTick >>> shift) - 1) & WHEEL_MASK);
+        } else {
+            slot = (int) ((Math.max(expirationTick, currentTick) >>> shift) & WHEEL_MASK);
+        }
+
+        TimerEntry sentinel = buckets[level][slot];
+        entry.prev = sentinel.prev;
+        entry.next = sentinel;
+        sentinel.prev.next = entry;
+        sentinel.prev = entry;
+    }
+
+    private static void unlink(TimerEntry entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+}
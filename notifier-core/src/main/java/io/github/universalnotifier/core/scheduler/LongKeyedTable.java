@@ -0,0 +1,213 @@
+package io.github.universalnotifier.core.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Table concurrente indexée par des clés {@code long}, sans boxing.
+ * <p>
+ * Les clés sont réparties sur des segments selon leurs bits de poids faible : des identifiants
+ * consécutifs tombent ainsi dans des segments différents et ne se disputent pas le même verrou.
+ * Chaque segment est une table à adressage ouvert (sondage linéaire) de deux tableaux parallèles,
+ * clés primitives et valeurs, qui ne crée aucun objet par entrée ; la suppression recompacte la
+ * séquence de sondage au lieu de laisser des marqueurs.
+ *
+ * @param <V> Type des valeurs
+ */
+final class LongKeyedTable<V> {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+    private final AtomicInteger size = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    LongKeyedTable() {
+        this.segments = new Segment[1 << SEGMENT_BITS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * Associe une valeur à une clé.
+     *
+     * @param key Clé
+     * @param value Valeur, non null
+     * @return Valeur précédemment associée à la clé, ou null
+     */
+    V put(long key, V value) {
+        V previous = segment(key).put(key >>> SEGMENT_BITS, value);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        return previous;
+    }
+
+    /**
+     * @param key Clé
+     * @return Valeur associée à la clé, ou null
+     */
+    V get(long key) {
+        return segment(key).get(key >>> SEGMENT_BITS);
+    }
+
+    /**
+     * Retire une clé.
+     *
+     * @param key Clé
+     * @return Valeur qui était associée à la clé, ou null
+     */
+    V remove(long key) {
+        V removed = segment(key).remove(key >>> SEGMENT_BITS, null);
+        if (removed != null) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * Retire une clé si elle est associée à la valeur indiquée (comparée par identité).
+     *
+     * @param key Clé
+     * @param value Valeur attendue
+     * @return true si la clé a été retirée
+     */
+    boolean remove(long key, V value) {
+        if (segment(key).remove(key >>> SEGMENT_BITS, value) != null) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return Nombre de clés
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * @return Copie des valeurs, segment par segment ; les modifications concurrentes peuvent ou non y figurer
+     */
+    List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (Segment<V> segment : segments) {
+            segment.collect(values);
+        }
+        return values;
+    }
+
+    private Segment<V> segment(long key) {
+        return segments[(int) key & SEGMENT_MASK];
+    }
+
+    /**
+     * Segment à adressage ouvert, protégé par son propre moniteur.
+     */
+    private static final class Segment<V> {
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int count;
+
+        synchronized V put(long key, V value) {
+            int index = find(key);
+            if (values[index] != null) {
+                V previous = valueAt(index);
+                values[index] = value;
+                return previous;
+            }
+            keys[index] = key;
+            values[index] = value;
+            // Facteur de charge de 1/2 : les séquences de sondage restent courtes
+            if (++count * 2 > keys.length) {
+                resize();
+            }
+            return null;
+        }
+
+        synchronized V get(long key) {
+            return valueAt(find(key));
+        }
+
+        synchronized V remove(long key, V expected) {
+            int index = find(key);
+            V current = valueAt(index);
+            if (current == null || (expected != null && current != expected)) {
+                return null;
+            }
+            delete(index);
+            count--;
+            return current;
+        }
+
+        synchronized void collect(List<V> into) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    into.add(valueAt(i));
+                }
+            }
+        }
+
+        /**
+         * @return Position de la clé, ou de la case libre où elle serait rangée
+         */
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (values[index] != null && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        /**
+         * Vide une case en ramenant les entrées suivantes de la même séquence de sondage.
+         */
+        private void delete(int index) {
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = (hole + 1) & mask;
+            while (values[next] != null) {
+                int home = hash(keys[next]) & mask;
+                // L'entrée peut combler le trou si sa position d'origine ne se situe pas entre le trou et elle
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            values[hole] = null;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = find(oldKeys[i]);
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V valueAt(int index) {
+            return (V) values[index];
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
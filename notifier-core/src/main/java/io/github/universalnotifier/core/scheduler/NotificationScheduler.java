@@ -0,0 +1,301 @@
+package io.github.universalnotifier.core.scheduler;
+
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Planificateur de notifications différées (rappels, envois à heure fixe).
+ * <p>
+ * Les notifications en attente sont rangées dans une {@link HierarchicalTimingWheel} manipulée
+ * par un unique thread : les appelants se contentent de déposer leurs ajouts et annulations dans
+ * des files sans verrou, ce qui rend {@link #schedule} et {@link #cancel} en O(1).
+ * À échéance, chaque notification est remise au pipeline d'envoi normal via
+ * {@link NotificationService#sendAsync(NotificationRequest)}.
+ */
+public class NotificationScheduler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationScheduler.class);
+
+    private final NotificationService notificationService;
+    private final Executor dispatchExecutor;
+    private final ExecutorService ownedExecutor;
+    private final Clock clock;
+    private final long tickNanos;
+    private final HierarchicalTimingWheel<ScheduledNotification> wheel;
+
+    // Indexées par identifiant primitif : ni boxing du Long ni nœud de table par notification
+    private final LongKeyedTable<ScheduledNotification> pending = new LongKeyedTable<>();
+    private final Queue<ScheduledNotification> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<ScheduledNotification> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Thread worker;
+
+    private volatile boolean running = true;
+    private volatile DeadLetterStore deadLetters;
+
+    /**
+     * Crée un planificateur disposant de son propre pool de threads d'envoi.
+     *
+     * @param notificationService Service vers lequel les notifications échues sont envoyées
+     * @param tick Résolution de la roue temporelle
+     * @param dispatchThreads Nombre de threads utilisés pour remettre les notifications échues
+     */
+    public NotificationScheduler(NotificationService notificationService, Duration tick, int dispatchThreads) {
+        this(notificationService, tick, newDispatchExecutor(dispatchThreads), Clock.systemUTC(), true);
+    }
+
+    /**
+     * Crée un planificateur utilisant l'exécuteur et l'horloge fournis.
+     *
+     * @param notificationService Service vers lequel les notifications échues sont envoyées
+     * @param tick Résolution de la roue temporelle
+     * @param dispatchExecutor Exécuteur utilisé pour remettre les notifications échues
+     * @param clock Horloge de référence
+     */
+    public NotificationScheduler(NotificationService notificationService, Duration tick, Executor dispatchExecutor, Clock clock) {
+        this(notificationService, tick, dispatchExecutor, clock, false);
+    }
+
+    private NotificationScheduler(NotificationService notificationService, Duration tick, Executor dispatchExecutor,
+                                  Clock clock, boolean ownsExecutor) {
+        this.notificationService = notificationService;
+        this.dispatchExecutor = dispatchExecutor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) dispatchExecutor : null;
+        this.clock = clock;
+        this.tickNanos = tick.toNanos();
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), clock.millis());
+
+        this.worker = new Thread(this::run, "notifier-scheduler");
+        this.worker.setDaemon(true);
+        this.worker.start();
+
+        logger.info("Planificateur de notifications démarré avec un tick de {} ms", tick.toMillis());
+    }
+
+    /**
+     * Conserve dans le stockage indiqué les notifications planifiées dont l'envoi échoue à l'échéance.
+     *
+     * @param deadLetters Stockage des lettres mortes, ou null pour seulement journaliser les échecs
+     */
+    public void setDeadLetterStore(DeadLetterStore deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Planifie une notification à l'instant indiqué par {@link NotificationRequest#getSendAt()}.
+     * Une notification sans instant d'envoi, ou dont l'instant est passé, est envoyée au prochain tick.
+     *
+     * @param request Notification à planifier
+     * @return Identifiant de la planification, utilisable avec {@link #cancel(long)}
+     * @throws NotificationException Si la demande est null ou si le planificateur est arrêté
+     */
+    public long schedule(NotificationRequest request) {
+        if (request == null) {
+            throw new NotificationException("La demande de notification ne peut pas être null");
+        }
+        Instant sendAt = request.getSendAt();
+        return schedule(request, sendAt != null ? sendAt.toEpochMilli() : clock.millis());
+    }
+
+    /**
+     * Planifie une notification après le délai indiqué.
+     *
+     * @param request Notification à planifier
+     * @param delay Délai avant l'envoi
+     * @return Identifiant de la planification, utilisable avec {@link #cancel(long)}
+     * @throws NotificationException Si la demande est null ou si le planificateur est arrêté
+     */
+    public long schedule(NotificationRequest request, Duration delay) {
+        if (request == null) {
+            throw new NotificationException("La demande de notification ne peut pas être null");
+        }
+        return schedule(request, clock.millis() + delay.toMillis());
+    }
+
+    /**
+     * Annule une notification planifiée.
+     *
+     * @param id Identifiant retourné par {@link #schedule(NotificationRequest)}
+     * @return true si la notification était en attente et ne sera pas envoyée
+     */
+    public boolean cancel(long id) {
+        ScheduledNotification entry = pending.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        cancellations.add(entry);
+        return true;
+    }
+
+    /**
+     * @return Nombre de notifications en attente d'échéance
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Arrête le planificateur. Les notifications encore en attente ne sont pas envoyées.
+     */
+    @Override
+    public void close() {
+        stopWorker();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        logger.info("Planificateur de notifications arrêté avec {} notification(s) en attente", pending.size());
+    }
+
+    /**
+     * Arrête progressivement le planificateur : les notifications échues déjà remises à ses threads d'envoi
+     * sont transmises au service dans la limite du délai, puis les notifications dont l'échéance n'est pas
+     * atteinte sont conservées comme lettres mortes si un stockage est défini. Leur instant d'envoi reste
+     * dans la demande, pour pouvoir les planifier à nouveau.
+     *
+     * @param timeout Durée maximale d'attente des threads d'envoi
+     */
+    public void shutdown(Duration timeout) {
+        stopWorker();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            try {
+                ownedExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int persisted = 0;
+        if (deadLetters != null) {
+            NotificationException interrupted = NotificationException.stackless(NotificationErrorCode.TRANSIENT,
+                    "Planificateur arrêté avant l'échéance de la notification", null);
+            for (ScheduledNotification entry : pending.values()) {
+                if (pending.remove(entry.id, entry)) {
+                    deadLetter(entry.request, interrupted);
+                    persisted++;
+                }
+            }
+        }
+        logger.info("Planificateur de notifications arrêté: {} notification(s) conservée(s) comme lettres mortes, "
+                + "{} perdue(s)", persisted, pending.size());
+    }
+
+    private void stopWorker() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long schedule(NotificationRequest request, long deadlineMillis) {
+        if (!running) {
+            throw new NotificationException("Le planificateur de notifications est arrêté");
+        }
+        long id = ids.incrementAndGet();
+        ScheduledNotification entry = new ScheduledNotification(id, deadlineMillis, request);
+        pending.put(id, entry);
+        additions.add(entry);
+        logger.debug("Notification {} planifiée pour {}", id, Instant.ofEpochMilli(deadlineMillis));
+        return id;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                ScheduledNotification entry;
+                while ((entry = additions.poll()) != null) {
+                    // Une entrée annulée avant d'avoir été rangée n'entre jamais dans la roue
+                    if (pending.get(entry.id) == entry) {
+                        wheel.add(entry);
+                    }
+                }
+                while ((entry = cancellations.poll()) != null) {
+                    wheel.remove(entry);
+                }
+                wheel.advanceTo(clock.millis(), this::fire);
+            } catch (RuntimeException e) {
+                logger.error("Erreur inattendue dans le planificateur de notifications", e);
+            }
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+
+    private void fire(ScheduledNotification entry) {
+        if (!pending.remove(entry.id, entry)) {
+            return;
+        }
+        try {
+            dispatchExecutor.execute(() -> notificationService.sendAsync(entry.request)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            logger.warn("Échec de l'envoi de la notification planifiée {}", entry.id, error);
+                            deadLetter(entry.request, error);
+                        }
+                    }));
+        } catch (RejectedExecutionException e) {
+            logger.error("Impossible de remettre la notification planifiée {} au pipeline d'envoi", entry.id, e);
+            deadLetter(entry.request, e);
+        }
+    }
+
+    private void deadLetter(NotificationRequest request, Throwable error) {
+        DeadLetterStore store = deadLetters;
+        if (store == null) {
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        try {
+            store.add(DeadLetter.of(request, cause));
+        } catch (RuntimeException e) {
+            logger.error("Impossible de conserver la notification planifiée en échec comme lettre morte", e);
+        }
+    }
+
+    private static ExecutorService newDispatchExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notifier-scheduler-dispatch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Notification en attente dans la roue temporelle.
+     */
+    private static final class ScheduledNotification extends TimerEntry {
+
+        private final long id;
+        private final NotificationRequest request;
+
+        private ScheduledNotification(long id, long deadlineMillis, NotificationRequest request) {
+            super(deadlineMillis);
+            this.id = id;
+            this.request = request;
+        }
+    }
+}
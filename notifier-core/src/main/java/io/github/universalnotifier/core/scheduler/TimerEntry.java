@@ -0,0 +1,36 @@
+package io.github.universalnotifier.core.scheduler;
+
+/**
+ * Entrée d'une {@link HierarchicalTimingWheel}.
+ * Chaque entrée est un nœud de liste doublement chaînée : elle ne porte que son échéance
+ * et ses deux voisins, ce qui rend l'insertion et la suppression en O(1) sans allocation
+ * supplémentaire. Les sous-classes ajoutent les données métier à déclencher.
+ */
+public class TimerEntry {
+
+    private final long deadlineMillis;
+
+    TimerEntry prev;
+    TimerEntry next;
+
+    /**
+     * @param deadlineMillis Échéance de l'entrée, en millisecondes depuis l'epoch
+     */
+    protected TimerEntry(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * @return Échéance de l'entrée, en millisecondes depuis l'epoch
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * @return true si l'entrée est actuellement rangée dans une roue
+     */
+    public boolean isScheduled() {
+        return next != null;
+    }
+}
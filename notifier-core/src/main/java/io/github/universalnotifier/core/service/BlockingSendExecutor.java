@@ -0,0 +1,127 @@
+package io.github.universalnotifier.core.service;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool borné sur lequel sont appelés les fournisseurs bloquants, ceux dont les capacités n'indiquent pas
+ * {@link ProviderCapabilities#isNativeAsync()}.
+ * <p>
+ * Leur {@link NotificationProvider#sendAsync} par défaut envoie dans le thread appelant : sans ce pool, un
+ * envoi SendGrid bloquerait le thread du dispatcher, de la roue temporelle, d'une diffusion ou de la requête
+ * HTTP qui l'a demandé. Au-delà du nombre de threads, les appels attendent dans une file bornée ; lorsqu'elle
+ * est pleine, ils sont refusés par une {@link NotificationRejectedException}. Les threads inactifs s'arrêtent
+ * d'eux-mêmes.
+ */
+public class BlockingSendExecutor implements Executor, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockingSendExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final int maxQueued;
+    private final Duration retryAfter;
+
+    /**
+     * Crée un pool d'appels bloquants.
+     *
+     * @param config Configuration des appels aux fournisseurs bloquants
+     */
+    public BlockingSendExecutor(NotificationProperties.BlockingConfig config) {
+        if (config.getThreads() < 1 || config.getMaxQueued() < 1) {
+            throw new IllegalArgumentException("Le pool des fournisseurs bloquants doit avoir au moins un thread et une place en file");
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(config.getMaxQueued()), runnable -> {
+            Thread thread = new Thread(runnable, "notifier-blocking-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxQueued = config.getMaxQueued();
+        this.retryAfter = config.getRetryAfter();
+    }
+
+    /**
+     * Appelle un fournisseur bloquant sur un thread du pool.
+     *
+     * @param priority Priorité de la notification, indiquée en cas de refus
+     * @param call Appel au fournisseur
+     * @return Un futur complété avec le résultat de l'appel, ou par une {@link NotificationRejectedException}
+     *         si la file du pool est pleine
+     */
+    public <T> CompletableFuture<T> submit(NotificationPriority priority, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                CompletableFuture<T> future;
+                try {
+                    future = call.get();
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(
+                                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(executor.isShutdown()
+                    ? new NotificationException("Le pool des fournisseurs bloquants est arrêté", e)
+                    : new NotificationRejectedException(
+                            "Trop d'envois en attente d'un fournisseur bloquant (" + maxQueued + ")", priority, retryAfter));
+        }
+        return result;
+    }
+
+    /**
+     * Exécute une tâche bloquante sur un thread du pool.
+     *
+     * @param task Tâche à exécuter
+     * @throws RejectedExecutionException Si la file du pool est pleine ou si le pool est arrêté
+     */
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * @return Nombre d'appels en attente d'un thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return Nombre d'appels en cours
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Arrête le pool : les appels déjà acceptés sont menés à terme, les suivants sont refusés.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        logger.info("Pool des fournisseurs bloquants arrêté");
+    }
+}
@@ -1,22 +1,51 @@
 package io.github.universalnotifier.core.service;
 
+import io.github.universalnotifier.core.coalescing.NotificationCoalescer;
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.dispatch.AdmissionController;
+import io.github.universalnotifier.core.dispatch.PriorityLaneDispatcher;
+import io.github.universalnotifier.core.dispatch.RecipientSequencer;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
+import io.github.universalnotifier.core.model.NotificationPriority;
 import io.github.universalnotifier.core.model.NotificationRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Implémentation principale du service de notification.
  * Cette classe orchestre l'envoi de notifications en utilisant
  * les différents fournisseurs disponibles selon le type demandé.
  */
-public class DefaultNotificationService implements NotificationService {
+public class DefaultNotificationService implements NotificationService, AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultNotificationService.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
 
     private final List<NotificationProvider> providers;
+    private final PriorityLaneDispatcher dispatcher;
+    private final NotificationCoalescer coalescer;
+    private final RecipientSequencer sequencer;
+    private final AdmissionController admission;
+    private final DeadLetterStore deadLetters;
+    private final BlockingSendExecutor blockingExecutor;
+    private final boolean ownsBlockingExecutor;
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     /**
      * Constructeur du service qui injecte la liste des fournisseurs disponibles.
@@ -25,11 +54,425 @@ public class DefaultNotificationService implements NotificationService {
      */
     @Autowired
     public DefaultNotificationService(List<NotificationProvider> providers) {
+        this(providers, NotificationServiceOptions.NONE);
+    }
+
+    /**
+     * Constructeur du service faisant passer les envois par les étapes facultatives configurées :
+     * dispatcher à couloirs de priorité, regroupement, séquencement par destinataire, contrôle d'admission,
+     * lettres mortes et pool des fournisseurs bloquants.
+     * <p>
+     * Sans pool fourni dans les options, le service crée le sien et l'arrête dans {@link #close()} ;
+     * un pool fourni reste à la charge de l'appelant.
+     *
+     * @param providers Liste des fournisseurs de notification (email, SMS, etc.)
+     * @param options Étapes facultatives du parcours d'envoi
+     */
+    public DefaultNotificationService(List<NotificationProvider> providers, NotificationServiceOptions options) {
         this.providers = providers;
+        this.dispatcher = options.getDispatcher();
+        this.coalescer = options.getCoalescer();
+        this.sequencer = options.getSequencer();
+        this.admission = options.getAdmission();
+        this.deadLetters = options.getDeadLetters();
+        this.ownsBlockingExecutor = options.getBlockingExecutor() == null;
+        this.blockingExecutor = ownsBlockingExecutor
+                ? new BlockingSendExecutor(new NotificationProperties.BlockingConfig())
+                : options.getBlockingExecutor();
+        if (dispatcher != null) {
+            dispatcher.setRequestHandler(this::sendQueued);
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Une notification regroupée en résumé n'attend pas la fin de la fenêtre de regroupement : l'appel rend la
+     * main dès qu'elle est acceptée, et comme pour {@link #enqueue(NotificationRequest)}, l'échec du résumé est
+     * journalisé puis conservé en lettre morte si ce stockage est activé.
+     */
     @Override
     public void send(NotificationRequest request) {
+        if (isCoalesced(request)) {
+            CompletableFuture<Void> accepted = deadLetterOnFailure(request, sendAsync(request));
+            if (accepted.isCompletedExceptionally()) {
+                join(accepted);
+            }
+            return;
+        }
+        if (dispatcher != null || sequencer != null || admission != null) {
+            // L'envoi synchrone attend son tour dans la file de sa priorité ou de son destinataire
+            join(sendAsync(request));
+            return;
+        }
+
+        NotificationProvider provider = resolveProvider(request);
+        if (exceedsMaxLength(provider, request)) {
+            join(dispatch(provider, request));
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        try {
+            provider.send(request);
+            logger.info("Notification envoyée avec succès via le fournisseur pour: {}", request.getType());
+        } catch (NotificationException e) {
+            // Déjà journalisé par le fournisseur ; l'appelant reçoit l'exception
+            logger.debug("Échec de l'envoi de la notification: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            errors.error("Échec de l'envoi de la notification", e);
+            throw new NotificationException("Échec de l'envoi de la notification", e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Arrête le pool des fournisseurs bloquants si le service l'a créé lui-même. Les étapes fournies
+     * dans les options (dispatcher, lettres mortes, pool) appartiennent à l'appelant et ne sont pas arrêtées.
+     */
+    @Override
+    public void close() {
+        if (ownsBlockingExecutor) {
+            blockingExecutor.close();
+        }
+    }
+
+    /**
+     * @return Nombre d'appels aux fournisseurs en cours, envois groupés comptés une fois
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Attend la fin des appels aux fournisseurs en cours, par exemple à l'arrêt de l'application
+     * une fois les files vidées.
+     *
+     * @param timeout Durée maximale d'attente
+     * @return true si plus aucun appel n'est en cours
+     */
+    public boolean awaitInFlight(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int remaining = inFlight.get();
+        if (remaining > 0) {
+            logger.warn("{} envoi(s) encore en cours après {} ms d'attente", remaining, timeout.toMillis());
+        }
+        return remaining == 0;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        NotificationProvider provider;
+        try {
+            provider = resolveProvider(request);
+        } catch (NotificationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return route(provider, request);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Avec un dispatcher, la notification est déposée dans la file de sa priorité sans passer par le contrôle
+     * d'admission : la capacité de la file et de son débordement hors tas borne le volume en attente. Les
+     * notifications regroupées en résumés ou trop longues pour leur fournisseur suivent le parcours habituel.
+     * Avec un stockage des lettres mortes, une notification déposée dont l'envoi échoue y est conservée.
+     */
+    @Override
+    public void enqueue(NotificationRequest request) {
+        NotificationProvider provider = resolveProvider(request);
+        if (dispatcher == null || isCoalesced(request) || exceedsMaxLength(provider, request)) {
+            deadLetterOnFailure(request, route(provider, request));
+            return;
+        }
+        dispatcher.enqueue(request);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les notifications destinées à un fournisseur acceptant les lots sont regroupées par priorité en lots
+     * de sa taille maximale ; chaque lot passe le contrôle d'admission et le dispatcher comme un seul envoi.
+     * Les autres notifications (regroupées en résumés, avec échéance, trop longues, ou dont l'ordre doit
+     * être conservé) sont envoyées une par une.
+     */
+    @Override
+    public List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> requests) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<BatchKey, List<Integer>> batches = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequest request = requests.get(i);
+            NotificationProvider provider;
+            try {
+                provider = resolveProvider(request);
+            } catch (NotificationException e) {
+                results.set(i, CompletableFuture.failedFuture(e));
+                continue;
+            }
+            if (isBatchable(provider, request)) {
+                batches.computeIfAbsent(new BatchKey(provider, request.getPriority()), key -> new ArrayList<>()).add(i);
+            } else {
+                results.set(i, route(provider, request));
+            }
+        }
+
+        batches.forEach((key, indexes) -> {
+            int batchSize = capabilities(key.provider()).getMaxBatchSize();
+            for (int start = 0; start < indexes.size(); start += batchSize) {
+                List<Integer> chunk = indexes.subList(start, Math.min(start + batchSize, indexes.size()));
+                List<CompletableFuture<Void>> sent =
+                        dispatchBatch(key, chunk.stream().map(requests::get).toList());
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.set(chunk.get(i), report(requests.get(chunk.get(i)), sent.get(i)));
+                }
+            }
+        });
+        return results;
+    }
+
+    private boolean isCoalesced(NotificationRequest request) {
+        return coalescer != null && request != null && request.getCoalescingKey() != null;
+    }
+
+    private CompletableFuture<Void> route(NotificationProvider provider, NotificationRequest request) {
+        if (isCoalesced(request)) {
+            return coalescer.submit(request, digest -> dispatch(provider, digest));
+        }
+        return dispatch(provider, request);
+    }
+
+    private boolean isBatchable(NotificationProvider provider, NotificationRequest request) {
+        ProviderCapabilities capabilities = capabilities(provider);
+        return capabilities.supportsBatching()
+                && !isCoalesced(request)
+                && request.getDeadline() == null
+                && !exceedsMaxLength(provider, request)
+                && !(sequencer != null && capabilities.isOrderSensitive());
+    }
+
+    private static ProviderCapabilities capabilities(NotificationProvider provider) {
+        ProviderCapabilities capabilities = provider.capabilities();
+        return capabilities != null ? capabilities : ProviderCapabilities.DEFAULT;
+    }
+
+    private static boolean exceedsMaxLength(NotificationProvider provider, NotificationRequest request) {
+        int maxLength = capabilities(provider).getMaxMessageLength();
+        return maxLength > 0 && request.getMessage().length() > maxLength;
+    }
+
+    private CompletableFuture<Void> dispatch(NotificationProvider provider, NotificationRequest request) {
+        if (!exceedsMaxLength(provider, request)) {
+            return dispatchOne(provider, request);
+        }
+
+        // Un message trop long pour le fournisseur est découpé en parties envoyées dans l'ordre
+        List<String> parts = MessageSplitter.split(request.getMessage(), capabilities(provider).getMaxMessageLength());
+        logger.debug("Message de {} caractères découpé en {} parties", request.getMessage().length(), parts.size());
+        CompletableFuture<Void> sent = CompletableFuture.completedFuture(null);
+        for (String part : parts) {
+            NotificationRequest partRequest = request.toBuilder().message(part).build();
+            sent = sent.thenCompose(ignored -> dispatchOne(provider, partRequest));
+        }
+        return sent;
+    }
+
+    private List<CompletableFuture<Void>> dispatchBatch(BatchKey key, List<NotificationRequest> batch) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        Supplier<CompletableFuture<Void>> call = () -> offload(key.provider(), key.priority(), () -> {
+            List<CompletableFuture<Void>> sent = key.provider().sendBatchAsync(batch);
+            for (int i = 0; i < sent.size(); i++) {
+                CompletableFuture<Void> result = results.get(i);
+                sent.get(i).whenComplete((ignored, error) -> complete(result, error));
+            }
+            return CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]));
+        });
+        Supplier<CompletableFuture<Void>> submit = () -> dispatcher != null
+                ? dispatcher.submit(key.priority(), () -> track(call))
+                : track(call);
+
+        CompletableFuture<Void> future = admission != null ? admission.submit(key.priority(), submit) : submit.get();
+        future.whenComplete((ignored, error) -> {
+            // Lot refusé ou en échec : les notifications sans résultat individuel reçoivent l'erreur du lot
+            if (error != null) {
+                results.forEach(result -> complete(result, error));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Appelle un fournisseur en comptant l'appel parmi les envois en cours jusqu'à sa réponse.
+     */
+    private CompletableFuture<Void> track(Supplier<CompletableFuture<Void>> call) {
+        inFlight.incrementAndGet();
+        CompletableFuture<Void> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((ignored, error) -> inFlight.decrementAndGet());
+        return future;
+    }
+
+    private static void complete(CompletableFuture<Void> result, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(
+                    error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        } else {
+            result.complete(null);
+        }
+    }
+
+    private CompletableFuture<Void> dispatchOne(NotificationProvider provider, NotificationRequest request) {
+        // Une notification refusée par le contrôle d'admission n'occupe aucune file
+        CompletableFuture<Void> future = admission != null
+                ? admission.submit(request.getPriority(), () -> sequence(provider, request))
+                : sequence(provider, request);
+
+        // L'échéance s'applique à tout le parcours : attente dans les files comprise
+        Duration remaining = request.remainingTime();
+        if (remaining != null) {
+            future = future.copy().orTimeout(Math.max(remaining.toNanos(), 0), TimeUnit.NANOSECONDS);
+        }
+        return report(request, future);
+    }
+
+    /**
+     * Journalise le résultat d'un envoi et le convertit en NotificationException en cas d'échec.
+     * Chaque échec n'est journalisé qu'une fois : une NotificationException venant d'un fournisseur l'a déjà été
+     * par celui-ci, seuls les dépassements d'échéance et les exceptions inattendues le sont ici.
+     */
+    private CompletableFuture<Void> report(NotificationRequest request, CompletableFuture<Void> future) {
+        return future.handle((ignored, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (cause instanceof TimeoutException) {
+                    cause = NotificationException.stackless(NotificationErrorCode.TIMEOUT,
+                            "Échéance de la notification dépassée avant la fin de son envoi", cause);
+                    errors.error("Échec de l'envoi asynchrone de la notification", cause);
+                } else if (!(cause instanceof NotificationException)) {
+                    errors.error("Échec de l'envoi asynchrone de la notification", cause);
+                } else {
+                    // Refus, ou échec déjà journalisé par le fournisseur qui l'a signalé
+                    logger.debug("Échec de l'envoi asynchrone de la notification: {}", cause.getMessage());
+                }
+                throw cause instanceof NotificationException notificationException
+                        ? notificationException
+                        : new NotificationException("Échec de l'envoi de la notification", cause);
+            }
+            logger.info("Notification envoyée avec succès via le fournisseur pour: {}", request.getType());
+            return null;
+        });
+    }
+
+    private CompletableFuture<Void> sequence(NotificationProvider provider, NotificationRequest request) {
+        // L'envoi suivant d'un destinataire n'entre dans la file de sa priorité qu'une fois le précédent terminé
+        return sequencer != null && capabilities(provider).isOrderSensitive()
+                ? sequencer.submit(request.getTo(), () -> submit(provider, request))
+                : submit(provider, request);
+    }
+
+    /**
+     * Envoie une notification déposée par {@link #enqueue(NotificationRequest)}, lorsqu'elle est retirée
+     * de sa file par un thread du dispatcher.
+     */
+    private CompletableFuture<Void> sendQueued(NotificationRequest request) {
+        NotificationProvider provider;
+        try {
+            provider = resolveProvider(request);
+        } catch (NotificationException e) {
+            errors.error("Échec de l'envoi asynchrone de la notification", e);
+            return deadLetterOnFailure(request, CompletableFuture.failedFuture(e));
+        }
+        CompletableFuture<Void> future = sequencer != null && capabilities(provider).isOrderSensitive()
+                ? sequencer.submit(request.getTo(), () -> invoke(provider, request))
+                : invoke(provider, request);
+        return deadLetterOnFailure(request, report(request, future));
+    }
+
+    /**
+     * Conserve en lettre morte une notification déposée dont l'envoi échoue : personne n'en suit le résultat,
+     * l'échec serait sinon seulement journalisé.
+     */
+    private CompletableFuture<Void> deadLetterOnFailure(NotificationRequest request, CompletableFuture<Void> future) {
+        if (deadLetters == null) {
+            return future;
+        }
+        future.whenComplete((ignored, error) -> {
+            if (error == null) {
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            try {
+                deadLetters.add(DeadLetter.of(request, cause));
+            } catch (RuntimeException e) {
+                errors.error("Impossible de conserver la notification en échec comme lettre morte", e);
+            }
+        });
+        return future;
+    }
+
+    private CompletableFuture<Void> submit(NotificationProvider provider, NotificationRequest request) {
+        return dispatcher != null
+                ? dispatcher.submit(request.getPriority(), () -> invoke(provider, request))
+                : invoke(provider, request);
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof NotificationException notificationException
+                    ? notificationException
+                    : new NotificationException("Échec de l'envoi de la notification", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> invoke(NotificationProvider provider, NotificationRequest request) {
+        // Une notification dont l'échéance est passée pendant son attente n'est pas transmise au fournisseur
+        if (request.hasExpired()) {
+            NotificationException expired = NotificationException.stackless(NotificationErrorCode.TIMEOUT,
+                    "Échéance de la notification dépassée avant son envoi", null);
+            errors.error("Échec de l'envoi asynchrone de la notification", expired);
+            return CompletableFuture.failedFuture(expired);
+        }
+        return track(() -> offload(provider, request.getPriority(), () -> provider.sendAsync(request)));
+    }
+
+    /**
+     * Appelle un fournisseur bloquant sur le pool qui leur est réservé, un fournisseur non bloquant
+     * directement : le thread appelant (dispatcher, roue temporelle, diffusion, requête HTTP) n'attend
+     * jamais la réponse d'une API.
+     */
+    private CompletableFuture<Void> offload(NotificationProvider provider, NotificationPriority priority,
+                                            Supplier<CompletableFuture<Void>> call) {
+        return capabilities(provider).isNativeAsync() ? call.get() : blockingExecutor.submit(priority, call);
+    }
+
+    /**
+     * Valide la demande puis recherche le fournisseur chargé de la traiter.
+     *
+     * @param request Demande de notification à valider
+     * @return Le fournisseur capable de traiter la demande
+     * @throws NotificationException Si la demande est invalide ou qu'aucun fournisseur n'est disponible
+     */
+    private NotificationProvider resolveProvider(NotificationRequest request) {
         if (request == null) {
             throw new NotificationException("La demande de notification ne peut pas être null");
         }
@@ -46,6 +489,11 @@ public class DefaultNotificationService implements NotificationService {
             throw new NotificationException("Le message de notification ne peut pas être vide");
         }
 
+        if (request.hasExpired()) {
+            throw NotificationException.stackless(NotificationErrorCode.TIMEOUT,
+                    "Échéance de la notification dépassée avant son envoi", null);
+        }
+
         logger.debug("Traitement de la demande de notification de type: {}", request.getType());
 
         // Recherche d'un fournisseur qui supporte ce type de notification
@@ -54,14 +502,7 @@ public class DefaultNotificationService implements NotificationService {
         if (provider == null) {
             throw new NotificationException("Aucun fournisseur disponible pour le type de notification: " + request.getType());
         }
-
-        try {
-            provider.send(request);
-            logger.info("Notification envoyée avec succès via le fournisseur pour: {}", request.getType());
-        } catch (Exception e) {
-            logger.error("Échec de l'envoi de la notification", e);
-            throw new NotificationException("Échec de l'envoi de la notification", e);
-        }
+        return provider;
     }
 
     /**
@@ -76,4 +517,10 @@ public class DefaultNotificationService implements NotificationService {
                 .findFirst()
                 .orElse(null);
     }
+
+    /**
+     * Notifications pouvant partager un lot : même fournisseur et même priorité.
+     */
+    private record BatchKey(NotificationProvider provider, NotificationPriority priority) {
+    }
 }
@@ -0,0 +1,38 @@
+package io.github.universalnotifier.core.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Découpe un message trop long pour son fournisseur en parties envoyées l'une après l'autre.
+ * Les coupures se font de préférence sur un espace, et jamais au milieu d'un caractère hors du plan
+ * multilingue de base (emoji).
+ */
+final class MessageSplitter {
+
+    private MessageSplitter() {
+    }
+
+    /**
+     * @param message Message à découper
+     * @param maxLength Longueur maximale d'une partie, en caractères
+     * @return Les parties du message, dans l'ordre
+     */
+    static List<String> split(String message, int maxLength) {
+        List<String> parts = new ArrayList<>();
+        String remaining = message;
+        while (remaining.length() > maxLength) {
+            int cut = remaining.lastIndexOf(' ', maxLength);
+            // Sans espace dans la seconde moitié, la coupure se fait à la longueur maximale
+            if (cut < maxLength / 2) {
+                cut = Character.isHighSurrogate(remaining.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+            }
+            parts.add(remaining.substring(0, cut).stripTrailing());
+            remaining = remaining.substring(cut).stripLeading();
+        }
+        if (!remaining.isEmpty()) {
+            parts.add(remaining);
+        }
+        return parts;
+    }
+}
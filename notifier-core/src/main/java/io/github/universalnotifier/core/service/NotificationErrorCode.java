@@ -0,0 +1,105 @@
+package io.github.universalnotifier.core.service;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Catégorie d'une erreur d'envoi, indépendante du fournisseur.
+ * Elle permet de décider d'une nouvelle tentative, d'ajuster les limites d'envoi
+ * et de regrouper les erreurs dans les journaux.
+ */
+public enum NotificationErrorCode {
+
+    /**
+     * Quota du fournisseur atteint, ou notification refusée par le délestage : à retenter plus tard.
+     */
+    RATE_LIMITED(true),
+
+    /**
+     * Destinataire invalide, désinscrit ou inconnu du fournisseur : une nouvelle tentative échouerait aussi.
+     */
+    INVALID_RECIPIENT(false),
+
+    /**
+     * Identifiants du fournisseur refusés ou insuffisants.
+     */
+    AUTHENTICATION(false),
+
+    /**
+     * Erreur passagère : fournisseur indisponible, erreur serveur ou réseau.
+     */
+    TRANSIENT(true),
+
+    /**
+     * Délai ou échéance de la notification dépassé.
+     */
+    TIMEOUT(true),
+
+    /**
+     * Erreur non classée.
+     */
+    UNKNOWN(false);
+
+    private final boolean retryable;
+
+    NotificationErrorCode(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    /**
+     * @return true si une nouvelle tentative ultérieure peut réussir
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Classe une erreur HTTP d'une API de fournisseur.
+     *
+     * @param statusCode Code de statut de la réponse
+     * @return La catégorie correspondante, {@link #UNKNOWN} pour les autres erreurs du client
+     */
+    public static NotificationErrorCode fromHttpStatus(int statusCode) {
+        if (statusCode == 429) {
+            return RATE_LIMITED;
+        }
+        if (statusCode == 401 || statusCode == 403) {
+            return AUTHENTICATION;
+        }
+        if (statusCode == 408 || statusCode == 504) {
+            return TIMEOUT;
+        }
+        if (statusCode >= 500) {
+            return TRANSIENT;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Retrouve la catégorie d'une erreur en parcourant ses causes : celle de la première
+     * {@link NotificationException} classée, sinon {@link #TIMEOUT} pour un délai dépassé
+     * et {@link #TRANSIENT} pour une erreur d'entrée-sortie.
+     *
+     * @param error Erreur à classer (éventuellement enveloppée dans une CompletionException)
+     * @return La catégorie de l'erreur
+     */
+    public static NotificationErrorCode of(Throwable error) {
+        // La profondeur est bornée pour ne pas boucler sur une chaîne de causes circulaire
+        for (int depth = 0; error != null && depth < 10; depth++, error = error.getCause()) {
+            if (error instanceof NotificationException notificationException
+                    && notificationException.getErrorCode() != UNKNOWN) {
+                return notificationException.getErrorCode();
+            }
+            if (error instanceof TimeoutException || error instanceof HttpTimeoutException
+                    || error instanceof SocketTimeoutException) {
+                return TIMEOUT;
+            }
+            if (error instanceof IOException) {
+                return TRANSIENT;
+            }
+        }
+        return UNKNOWN;
+    }
+}
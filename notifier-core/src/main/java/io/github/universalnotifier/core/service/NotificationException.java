@@ -4,25 +4,90 @@ package io.github.universalnotifier.core.service;
  * Exception dédiée aux erreurs liées à l'envoi des notifications.
  * Cette exception encapsule les erreurs provenant des différents
  * fournisseurs de notifications (email, SMS, push, etc.)
+ * <p>
+ * Chaque exception porte une {@link NotificationErrorCode catégorie d'erreur}. Les erreurs attendues
+ * des fournisseurs (destinataire invalide, quota atteint...) peuvent être créées sans trace de pile
+ * par {@link #stackless} : lors d'une panne, elles sont levées en masse et le parcours de la pile
+ * coûterait alors plus cher que l'envoi lui-même.
  */
 public class NotificationException extends RuntimeException {
 
+    private final NotificationErrorCode errorCode;
+
     /**
      * Crée une nouvelle exception avec le message spécifié.
      *
      * @param message Description de l'erreur
      */
     public NotificationException(String message) {
-        super(message);
+        this(NotificationErrorCode.UNKNOWN, message);
     }
 
     /**
      * Crée une nouvelle exception avec le message et la cause spécifiés.
+     * La catégorie de l'erreur est reprise de la cause.
      *
      * @param message Description de l'erreur
      * @param cause Exception originale ayant causé l'erreur
      */
     public NotificationException(String message, Throwable cause) {
+        this(NotificationErrorCode.of(cause), message, cause);
+    }
+
+    /**
+     * Crée une nouvelle exception classée.
+     *
+     * @param errorCode Catégorie de l'erreur
+     * @param message Description de l'erreur
+     */
+    public NotificationException(NotificationErrorCode errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Crée une nouvelle exception classée avec sa cause.
+     *
+     * @param errorCode Catégorie de l'erreur
+     * @param message Description de l'erreur
+     * @param cause Exception originale ayant causé l'erreur
+     */
+    public NotificationException(NotificationErrorCode errorCode, String message, Throwable cause) {
         super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Crée une exception dont la trace de pile est, au choix, capturée ou non.
+     *
+     * @param errorCode Catégorie de l'erreur
+     * @param message Description de l'erreur
+     * @param cause Exception originale ayant causé l'erreur, ou null
+     * @param writableStackTrace false pour ne pas capturer la trace de pile
+     */
+    protected NotificationException(NotificationErrorCode errorCode, String message, Throwable cause,
+                                    boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Crée une exception sans trace de pile, pour une erreur attendue d'un fournisseur.
+     * La cause éventuelle conserve sa propre trace.
+     *
+     * @param errorCode Catégorie de l'erreur
+     * @param message Description de l'erreur
+     * @param cause Exception originale ayant causé l'erreur, ou null
+     * @return L'exception, à lever par l'appelant
+     */
+    public static NotificationException stackless(NotificationErrorCode errorCode, String message, Throwable cause) {
+        return new NotificationException(errorCode, message, cause, false);
+    }
+
+    /**
+     * @return Catégorie de l'erreur
+     */
+    public NotificationErrorCode getErrorCode() {
+        return errorCode;
     }
 }
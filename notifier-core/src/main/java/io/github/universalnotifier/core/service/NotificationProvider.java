@@ -2,6 +2,10 @@ package io.github.universalnotifier.core.service;
 
 import io.github.universalnotifier.core.model.NotificationRequest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface pour les fournisseurs de notifications.
  * Chaque fournisseur (email, SMS, push) doit implémenter cette interface.
@@ -20,7 +24,63 @@ public interface NotificationProvider {
      * Envoie une notification via ce fournisseur.
      *
      * @param request Détails de la notification à envoyer
-     * @throws NotificationException Si l'envoi échoue
+     * @throws NotificationException Si l'envoi échoue ; le fournisseur journalise l'échec avant de la lever,
+     *                               le service de notification ne le journalise pas une seconde fois
      */
     void send(NotificationRequest request);
+
+    /**
+     * Initialise le fournisseur par anticipation (identifiants, SDK, sessions), ouvre des connexions
+     * vers son API et récupère ses jetons d'authentification, sans envoyer de notification.
+     * Les fournisseurs s'initialisent sinon au premier envoi ; l'implémentation par défaut ne fait rien.
+     *
+     * @param connections Nombre de connexions à ouvrir dans le pool du fournisseur
+     * @throws NotificationException Si l'initialisation échoue
+     */
+    default void warmUp(int connections) {
+    }
+
+    /**
+     * Envoie une notification de manière asynchrone via ce fournisseur.
+     * L'implémentation par défaut délègue à {@link #send(NotificationRequest)} dans le thread appelant ;
+     * les fournisseurs disposant d'une API non bloquante doivent la redéfinir.
+     *
+     * @param request Détails de la notification à envoyer
+     * @return Un futur complété lorsque le fournisseur a accepté la notification,
+     *         ou complété exceptionnellement avec une {@link NotificationException}
+     */
+    default CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        try {
+            send(request);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Envoie un lot de notifications, au plus {@link ProviderCapabilities#getMaxBatchSize()}.
+     * L'implémentation par défaut envoie chaque notification séparément via {@link #sendAsync(NotificationRequest)} ;
+     * les fournisseurs disposant d'une API d'envoi groupé doivent la redéfinir.
+     *
+     * @param requests Notifications à envoyer
+     * @return Un futur par notification, dans le même ordre, complété avec son résultat individuel
+     */
+    default List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> requests) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(requests.size());
+        for (NotificationRequest request : requests) {
+            results.add(sendAsync(request));
+        }
+        return results;
+    }
+
+    /**
+     * Décrit les capacités de ce fournisseur : envoi groupé, API non bloquante, débit, longueur des messages...
+     * L'implémentation par défaut retourne {@link ProviderCapabilities#DEFAULT}.
+     *
+     * @return Les capacités du fournisseur
+     */
+    default ProviderCapabilities capabilities() {
+        return ProviderCapabilities.DEFAULT;
+    }
 }
@@ -0,0 +1,45 @@
+package io.github.universalnotifier.core.service;
+
+import io.github.universalnotifier.core.model.NotificationPriority;
+
+import java.time.Duration;
+
+/**
+ * Exception levée lorsqu'une notification est refusée parce que le système de notification est saturé.
+ * La notification n'a pas été transmise au fournisseur : l'appelant peut la soumettre à nouveau après
+ * le délai indiqué, par exemple en répondant {@code 429 Too Many Requests} avec l'en-tête {@code Retry-After}.
+ * <p>
+ * Les refus étant nombreux précisément lorsque le système est saturé, l'exception est créée sans trace de pile.
+ */
+public class NotificationRejectedException extends NotificationException {
+
+    private final NotificationPriority priority;
+    private final Duration retryAfter;
+
+    /**
+     * Crée une nouvelle exception de refus.
+     *
+     * @param message Description du refus
+     * @param priority Priorité de la notification refusée
+     * @param retryAfter Délai conseillé avant une nouvelle tentative
+     */
+    public NotificationRejectedException(String message, NotificationPriority priority, Duration retryAfter) {
+        super(NotificationErrorCode.RATE_LIMITED, message, null, false);
+        this.priority = priority;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Priorité de la notification refusée
+     */
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return Délai conseillé avant une nouvelle tentative
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
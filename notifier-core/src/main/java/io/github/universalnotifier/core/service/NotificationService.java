@@ -2,6 +2,10 @@ package io.github.universalnotifier.core.service;
 
 import io.github.universalnotifier.core.model.NotificationRequest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface principale pour l'envoi de notifications.
  * Cette interface fournit une méthode unifiée pour envoyer des notifications
@@ -16,4 +20,48 @@ public interface NotificationService {
      * @throws NotificationException Si l'envoi de la notification échoue
      */
     void send(NotificationRequest request);
+
+    /**
+     * Envoie une notification de manière asynchrone.
+     * L'implémentation par défaut délègue à {@link #send(NotificationRequest)} dans le thread appelant.
+     *
+     * @param request La demande de notification contenant toutes les informations nécessaires
+     * @return Un futur complété lorsque la notification a été acceptée par le fournisseur,
+     *         ou complété exceptionnellement avec une {@link NotificationException}
+     */
+    default CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        try {
+            send(request);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Dépose une notification pour qu'elle soit envoyée sans que l'appelant en suive le résultat :
+     * les échecs sont seulement journalisés. Adapté aux campagnes de masse, dont les notifications en attente
+     * peuvent alors déborder hors du tas. L'implémentation par défaut délègue à {@link #sendAsync(NotificationRequest)}.
+     *
+     * @param request La demande de notification contenant toutes les informations nécessaires
+     * @throws NotificationException Si la demande est invalide ou ne peut pas être mise en file
+     */
+    default void enqueue(NotificationRequest request) {
+        sendAsync(request);
+    }
+
+    /**
+     * Envoie plusieurs notifications de manière asynchrone, en les regroupant en lots lorsque le fournisseur
+     * le permet. L'implémentation par défaut envoie chaque notification via {@link #sendAsync(NotificationRequest)}.
+     *
+     * @param requests Les demandes de notification
+     * @return Un futur par demande, dans le même ordre, complété avec son résultat individuel
+     */
+    default List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> requests) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(requests.size());
+        for (NotificationRequest request : requests) {
+            results.add(sendAsync(request));
+        }
+        return results;
+    }
 }
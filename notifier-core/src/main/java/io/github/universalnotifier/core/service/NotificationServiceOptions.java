@@ -0,0 +1,56 @@
+package io.github.universalnotifier.core.service;
+
+import io.github.universalnotifier.core.coalescing.NotificationCoalescer;
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.dispatch.AdmissionController;
+import io.github.universalnotifier.core.dispatch.PriorityLaneDispatcher;
+import io.github.universalnotifier.core.dispatch.RecipientSequencer;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Étapes facultatives du parcours d'envoi de {@link DefaultNotificationService}.
+ * Chaque étape absente (null) est simplement sautée : {@link #NONE} décrit un service qui appelle
+ * directement les fournisseurs, les fournisseurs bloquants sur un pool par défaut.
+ */
+@Value
+@Builder(toBuilder = true)
+public class NotificationServiceOptions {
+
+    /**
+     * Service sans étape facultative.
+     */
+    public static final NotificationServiceOptions NONE = NotificationServiceOptions.builder().build();
+
+    /**
+     * Dispatcher à couloirs de priorité, ou null pour appeler directement les fournisseurs.
+     */
+    PriorityLaneDispatcher dispatcher;
+
+    /**
+     * Étape de regroupement des notifications, ou null pour envoyer chaque notification.
+     */
+    NotificationCoalescer coalescer;
+
+    /**
+     * Séquenceur par destinataire, ou null si l'ordre des envois n'a pas à être conservé.
+     */
+    RecipientSequencer sequencer;
+
+    /**
+     * Contrôle d'admission, ou null pour admettre toutes les notifications.
+     */
+    AdmissionController admission;
+
+    /**
+     * Stockage des lettres mortes, ou null pour seulement journaliser les échecs.
+     */
+    DeadLetterStore deadLetters;
+
+    /**
+     * Pool sur lequel sont appelés les fournisseurs bloquants, ou null pour un pool par défaut
+     * ({@link NotificationProperties.BlockingConfig}).
+     */
+    BlockingSendExecutor blockingExecutor;
+}
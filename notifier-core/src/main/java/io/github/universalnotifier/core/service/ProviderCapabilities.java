@@ -0,0 +1,68 @@
+package io.github.universalnotifier.core.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Capacités publiées par un fournisseur de notifications.
+ * Le service de notification s'en sert pour choisir sa stratégie d'envoi : regroupement des envois en lots,
+ * découpage des messages trop longs, conservation de l'ordre par destinataire.
+ * <p>
+ * Les valeurs par défaut ({@link #DEFAULT}) décrivent un fournisseur bloquant, sans envoi groupé ni limite
+ * connue, pour lequel l'ordre des messages compte : c'est le comportement supposé d'un fournisseur tiers
+ * qui ne publie pas ses capacités.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ProviderCapabilities {
+
+    /**
+     * Capacités d'un fournisseur qui ne publie pas les siennes.
+     */
+    public static final ProviderCapabilities DEFAULT = ProviderCapabilities.builder().build();
+
+    /**
+     * Nombre maximal de notifications par appel de {@link NotificationProvider#sendBatchAsync} ;
+     * 1 si le fournisseur n'envoie pas de lots.
+     */
+    @Builder.Default
+    int maxBatchSize = 1;
+
+    /**
+     * true si {@link NotificationProvider#sendAsync} ne bloque pas le thread appelant.
+     */
+    @Builder.Default
+    boolean nativeAsync = false;
+
+    /**
+     * Débit maximal accepté par le fournisseur, en notifications par seconde ; 0 s'il est inconnu.
+     */
+    @Builder.Default
+    double maxSendsPerSecond = 0;
+
+    /**
+     * Longueur maximale d'un message, en caractères ; 0 si elle n'est pas limitée.
+     * Un message plus long est découpé en plusieurs envois successifs.
+     */
+    @Builder.Default
+    int maxMessageLength = 0;
+
+    /**
+     * true si le fournisseur déduplique lui-même une notification envoyée deux fois.
+     */
+    @Builder.Default
+    boolean idempotent = false;
+
+    /**
+     * true si l'ordre des notifications d'un même destinataire doit être conservé.
+     */
+    @Builder.Default
+    boolean orderSensitive = true;
+
+    /**
+     * @return true si le fournisseur accepte des lots de plusieurs notifications
+     */
+    public boolean supportsBatching() {
+        return maxBatchSize > 1;
+    }
+}
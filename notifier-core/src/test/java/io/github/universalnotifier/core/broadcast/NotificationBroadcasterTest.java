@@ -0,0 +1,194 @@
+package io.github.universalnotifier.core.broadcast;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour NotificationBroadcaster.
+ */
+public class NotificationBroadcasterTest {
+
+    private static final NotificationRequest TEMPLATE = NotificationRequest.builder()
+            .type("SMS")
+            .subject("Promotion")
+            .message("-20 % ce week-end")
+            .build();
+
+    private final RecordingService service = new RecordingService();
+    private final NotificationProperties.BroadcastConfig config = new NotificationProperties.BroadcastConfig();
+    private NotificationBroadcaster broadcaster;
+
+    @AfterEach
+    public void tearDown() {
+        if (broadcaster != null) {
+            broadcaster.close();
+        }
+    }
+
+    @Test
+    public void testEveryRecipientReceivesTheSharedContent() throws Exception {
+        service.autoComplete = true;
+        config.setBatchSize(4);
+        broadcaster = new NotificationBroadcaster(service, config);
+
+        Broadcast broadcast = broadcaster.broadcast(TEMPLATE, recipients(10));
+        broadcast.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(10, broadcast.getSucceededCount());
+        assertEquals(List.of(4, 4, 2), service.batches);
+        assertEquals(recipientsList(10), service.requests.stream().map(NotificationRequest::getTo).toList());
+        for (NotificationRequest request : service.requests) {
+            assertSame(TEMPLATE.getMessage(), request.getMessage());
+            assertSame(TEMPLATE.getSubject(), request.getSubject());
+        }
+    }
+
+    @Test
+    public void testRecipientsArePulledAsSendsComplete() throws Exception {
+        config.setWindow(5);
+        config.setBatchSize(2);
+        broadcaster = new NotificationBroadcaster(service, config);
+        AtomicInteger pulled = new AtomicInteger();
+        Iterator<String> recipients = IntStream.range(0, 100)
+                .peek(i -> pulled.incrementAndGet())
+                .mapToObj(i -> "+3361234" + i)
+                .iterator();
+
+        Broadcast broadcast = broadcaster.broadcast(TEMPLATE, recipients);
+        awaitSubmitted(broadcast, 5);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(5, pulled.get());
+        assertEquals(5, broadcast.getInFlightCount());
+
+        service.results.get(0).complete(null);
+        service.results.get(1).complete(null);
+        awaitSubmitted(broadcast, 7);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(7, pulled.get());
+        assertFalse(broadcast.isDone());
+    }
+
+    @Test
+    public void testStreamIsClosedAfterBroadcast() throws Exception {
+        service.autoComplete = true;
+        broadcaster = new NotificationBroadcaster(service, config);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Broadcast broadcast = broadcaster.broadcast(TEMPLATE,
+                recipientsList(3).stream().onClose(() -> closed.set(true)));
+        broadcast.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertTrue(closed.get());
+        assertEquals(3, broadcast.getSucceededCount());
+    }
+
+    @Test
+    public void testFailedSendsAreCounted() throws Exception {
+        service.failing = true;
+        broadcaster = new NotificationBroadcaster(service, config);
+
+        Broadcast broadcast = broadcaster.broadcast(TEMPLATE, recipients(3));
+        broadcast.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, broadcast.getSucceededCount());
+        assertEquals(3, broadcast.getFailedCount());
+    }
+
+    @Test
+    public void testRecipientSourceFailureSendsPulledRecipientsThenFails() throws Exception {
+        service.autoComplete = true;
+        broadcaster = new NotificationBroadcaster(service, config);
+        Stream<String> recipients = Stream.concat(recipientsList(2).stream(), Stream.of("").map(ignored -> {
+            throw new IllegalStateException("Curseur fermé");
+        }));
+
+        Broadcast broadcast = broadcaster.broadcast(TEMPLATE, recipients);
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> broadcast.getCompletion().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NotificationException.class, error.getCause());
+        assertEquals(2, broadcast.getSucceededCount());
+    }
+
+    @Test
+    public void testCancelledBroadcastStopsReadingRecipients() throws Exception {
+        config.setWindow(2);
+        config.setBatchSize(1);
+        broadcaster = new NotificationBroadcaster(service, config);
+
+        Broadcast broadcast = broadcaster.broadcast(TEMPLATE, recipients(100));
+        awaitSubmitted(broadcast, 2);
+        broadcast.cancel();
+        service.results.forEach(result -> result.complete(null));
+
+        broadcast.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(2, broadcast.getSubmittedCount());
+    }
+
+    private static Iterator<String> recipients(int count) {
+        return recipientsList(count).iterator();
+    }
+
+    private static List<String> recipientsList(int count) {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipients.add("+3361234" + i);
+        }
+        return recipients;
+    }
+
+    private static void awaitSubmitted(Broadcast broadcast, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (broadcast.getSubmittedCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "Diffusion bloquée à " + broadcast.getSubmittedCount());
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    private static class RecordingService implements NotificationService {
+
+        private final List<Integer> batches = new CopyOnWriteArrayList<>();
+        private final List<NotificationRequest> requests = new CopyOnWriteArrayList<>();
+        private final List<CompletableFuture<Void>> results = new CopyOnWriteArrayList<>();
+        private volatile boolean autoComplete;
+        private volatile boolean failing;
+
+        @Override
+        public void send(NotificationRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> batch) {
+            batches.add(batch.size());
+            requests.addAll(batch);
+            List<CompletableFuture<Void>> sent = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<Void> result = failing
+                        ? CompletableFuture.failedFuture(new NotificationException("503"))
+                        : autoComplete ? CompletableFuture.completedFuture(null) : new CompletableFuture<>();
+                results.add(result);
+                sent.add(result);
+            }
+            return sent;
+        }
+    }
+}
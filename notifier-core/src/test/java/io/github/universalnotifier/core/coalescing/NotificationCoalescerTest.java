@@ -0,0 +1,173 @@
+package io.github.universalnotifier.core.coalescing;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour NotificationCoalescer.
+ */
+public class NotificationCoalescerTest {
+
+    private NotificationProperties.CoalescingConfig config;
+    private NotificationCoalescer coalescer;
+    private List<NotificationRequest> sent;
+    private Function<NotificationRequest, CompletableFuture<Void>> sender;
+
+    @BeforeEach
+    public void setUp() {
+        config = new NotificationProperties.CoalescingConfig();
+        config.setWindow(Duration.ofMillis(100));
+        config.setTick(Duration.ofMillis(5));
+        sent = Collections.synchronizedList(new ArrayList<>());
+        sender = request -> {
+            sent.add(request);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    @Test
+    public void testBurstIsMergedIntoSingleDigest() throws Exception {
+        coalescer = newCoalescer();
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            results.add(coalescer.submit(request("+33612345678", "comment", "Commentaire " + i), sender));
+        }
+        results.add(coalescer.submit(NotificationRequest.builder()
+                .type("SMS")
+                .to("+33612345678")
+                .message("Commentaire urgent")
+                .coalescingKey("comment")
+                .priority(NotificationPriority.HIGH)
+                .build(), sender));
+        assertEquals(1, coalescer.getOpenDigestCount());
+        assertTrue(sent.isEmpty());
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, sent.size());
+        NotificationRequest digest = sent.get(0);
+        assertEquals("Commentaire 1\nCommentaire 2\nCommentaire 3\nCommentaire urgent", digest.getMessage());
+        assertEquals("+33612345678", digest.getTo());
+        assertEquals(NotificationPriority.HIGH, digest.getPriority());
+        assertEquals(0, coalescer.getOpenDigestCount());
+    }
+
+    @Test
+    public void testDifferentRecipientsAndKeysAreNotMerged() throws Exception {
+        coalescer = newCoalescer();
+
+        CompletableFuture.allOf(
+                coalescer.submit(request("+33612345678", "comment", "A"), sender),
+                coalescer.submit(request("+33698765432", "comment", "B"), sender),
+                coalescer.submit(request("+33612345678", "like", "C"), sender)
+        ).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testRequestWithoutKeyIsSentImmediately() {
+        coalescer = newCoalescer();
+
+        CompletableFuture<Void> result = coalescer.submit(request("+33612345678", null, "Code : 1234"), sender);
+
+        assertTrue(result.isDone());
+        assertEquals(1, sent.size());
+        assertEquals(0, coalescer.getOpenDigestCount());
+    }
+
+    @Test
+    public void testFullDigestIsSentBeforeWindowEnds() {
+        config.setWindow(Duration.ofMinutes(10));
+        config.setMaxDigestSize(2);
+        coalescer = newCoalescer();
+
+        CompletableFuture<Void> first = coalescer.submit(request("+33612345678", "comment", "A"), sender);
+        CompletableFuture<Void> second = coalescer.submit(request("+33612345678", "comment", "B"), sender);
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(1, sent.size());
+        assertEquals("A\nB", sent.get(0).getMessage());
+        assertEquals(0, coalescer.getOpenDigestCount());
+    }
+
+    @Test
+    public void testOpenDigestLimitFallsBackToDirectSend() {
+        config.setWindow(Duration.ofMinutes(10));
+        config.setMaxOpenDigests(1);
+        coalescer = newCoalescer();
+
+        coalescer.submit(request("+33612345678", "comment", "A"), sender);
+        CompletableFuture<Void> overflow = coalescer.submit(request("+33698765432", "comment", "B"), sender);
+
+        assertTrue(overflow.isDone());
+        assertEquals(1, sent.size());
+        assertEquals("B", sent.get(0).getMessage());
+        assertEquals(1, coalescer.getOpenDigestCount());
+    }
+
+    @Test
+    public void testCloseFlushesOpenDigests() {
+        config.setWindow(Duration.ofMinutes(10));
+        coalescer = newCoalescer();
+
+        CompletableFuture<Void> result = coalescer.submit(request("+33612345678", "comment", "A"), sender);
+        coalescer.close();
+
+        assertTrue(result.isDone());
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testSendFailureIsPropagatedToEveryRequest() {
+        config.setMaxDigestSize(2);
+        coalescer = newCoalescer();
+        Function<NotificationRequest, CompletableFuture<Void>> failing =
+                request -> CompletableFuture.failedFuture(new NotificationException("Erreur Twilio"));
+
+        CompletableFuture<Void> first = coalescer.submit(request("+33612345678", "comment", "A"), failing);
+        CompletableFuture<Void> second = coalescer.submit(request("+33612345678", "comment", "B"), failing);
+
+        assertInstanceOf(NotificationException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(NotificationException.class, assertThrows(CompletionException.class, second::join).getCause());
+    }
+
+    private NotificationCoalescer newCoalescer() {
+        return new NotificationCoalescer(config, new DefaultNotificationMerger(), Runnable::run, Clock.systemUTC());
+    }
+
+    private static NotificationRequest request(String to, String coalescingKey, String message) {
+        return NotificationRequest.builder()
+                .type("SMS")
+                .to(to)
+                .message(message)
+                .coalescingKey(coalescingKey)
+                .build();
+    }
+}
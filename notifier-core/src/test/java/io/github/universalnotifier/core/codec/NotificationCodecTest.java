@@ -0,0 +1,153 @@
+package io.github.universalnotifier.core.codec;
+
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour NotificationCodec.
+ */
+public class NotificationCodecTest {
+
+    private final NotificationCodec codec = new NotificationCodec();
+
+    @Test
+    public void testRoundTripKeepsEveryField() {
+        Map<String, Object> additionalData = new LinkedHashMap<>();
+        additionalData.put("templateId", "d-commande");
+        additionalData.put("total", 42.5);
+        additionalData.put("articles", List.of(1, 2L, true, "livre"));
+        additionalData.put("remise", null);
+        NotificationRequest request = NotificationRequest.builder()
+                .type("EMAIL")
+                .to("client@example.com")
+                .subject("Votre commande")
+                .message("Expédiée aujourd'hui 📦")
+                .additionalData(additionalData)
+                .sendAt(Instant.ofEpochSecond(1_700_000_000L, 123_456_789))
+                .deadline(Instant.ofEpochSecond(-1, 1))
+                .priority(NotificationPriority.HIGH)
+                .coalescingKey("commande-42")
+                .build();
+
+        assertEquals(request, codec.decodeRequest(codec.encode(request)));
+    }
+
+    @Test
+    public void testAbsentFieldsTakeNoSpace() {
+        NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null, "Code: 1234", null);
+
+        byte[] encoded = codec.encode(request);
+
+        // Version et nature, trois champs étiquetés précédés de leur longueur, puis la fin de l'enregistrement
+        assertEquals(2 + (2 + 3) + (2 + 12) + (2 + 10) + 1, encoded.length);
+        assertEquals(request, codec.decodeRequest(encoded));
+    }
+
+    @Test
+    public void testDictionaryReplacesRepeatedStrings() {
+        NotificationCodec dictionaryCodec = new NotificationCodec(new StringDictionary(100));
+        NotificationRequest request = NotificationRequest.builder()
+                .type("EMAIL")
+                .to("client@example.com")
+                .subject("Soldes d'été : -50 % sur toute la boutique")
+                .message("Bonjour")
+                .additionalData(Map.of("templateId", "d-soldes-ete-2026"))
+                .build();
+
+        dictionaryCodec.encode(request);
+        byte[] encoded = dictionaryCodec.encode(request);
+
+        assertTrue(encoded.length < codec.encode(request).length - 50, "Taille: " + encoded.length);
+        assertEquals(request, dictionaryCodec.decodeRequest(encoded));
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeRequest(encoded));
+    }
+
+    @Test
+    public void testFrozenDictionaryDoesNotGrow() {
+        StringDictionary dictionary = StringDictionary.of("EMAIL", "SMS");
+        NotificationCodec frozenCodec = new NotificationCodec(dictionary);
+        NotificationRequest request = new NotificationRequest("PUSH", "token", "Nouveau message", "Test", null);
+
+        NotificationRequest decoded = frozenCodec.decodeRequest(frozenCodec.encode(request));
+
+        assertEquals(request, decoded);
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void testDecodeReadsFromDirectBuffer() {
+        NotificationRequest first = new NotificationRequest("SMS", "+33612345678", null, "Premier", null);
+        NotificationRequest second = new NotificationRequest("SMS", "+33698765432", null, "Deuxième", null);
+        byte[] firstRecord = codec.encode(first);
+        byte[] secondRecord = codec.encode(second);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(firstRecord.length + secondRecord.length);
+        buffer.put(firstRecord).put(secondRecord).flip();
+
+        assertEquals(first, codec.decodeRequest(buffer));
+        assertEquals(second, codec.decodeRequest(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testResultRoundTrip() {
+        NotificationResult result = NotificationResult.builder()
+                .success(false)
+                .errorCode(NotificationErrorCode.INVALID_RECIPIENT)
+                .errorMessage("Numéro invalide")
+                .attempt(3)
+                .completedAt(Instant.ofEpochSecond(1_700_000_000L))
+                .build();
+
+        assertEquals(result, codec.decodeResult(codec.encode(result)));
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeRequest(codec.encode(result)));
+    }
+
+    @Test
+    public void testUnknownFieldsAreSkipped() {
+        byte[] encoded = codec.encode(new NotificationRequest("SMS", "+33612345678", null, "Test", null));
+        // Un champ 15 ajouté par une version plus récente, avant la fin de l'enregistrement
+        byte[] extended = new byte[encoded.length + 4];
+        System.arraycopy(encoded, 0, extended, 0, encoded.length - 1);
+        extended[encoded.length - 1] = (byte) (15 << 3 | 1);
+        extended[encoded.length] = 2;
+        extended[encoded.length + 1] = 'o';
+        extended[encoded.length + 2] = 'k';
+        extended[encoded.length + 3] = 0;
+
+        assertEquals("Test", codec.decodeRequest(extended).getMessage());
+    }
+
+    @Test
+    public void testUnsupportedVersionIsRejected() {
+        byte[] encoded = codec.encode(new NotificationRequest("SMS", "+33612345678", null, "Test", null));
+        encoded[0] = (byte) (NotificationCodec.FORMAT_VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeRequest(encoded));
+    }
+
+    @Test
+    public void testLongMessageRoundTrip() {
+        NotificationRequest request = new NotificationRequest("PUSH", "token", null, "é".repeat(100_000), null);
+
+        assertEquals(request, codec.decodeRequest(codec.encode(request)));
+    }
+
+    @Test
+    public void testNonJsonAdditionalDataIsNotEncodable() {
+        NotificationRequest request = new NotificationRequest("PUSH", "token", null, "Test", Map.of("date", Instant.EPOCH));
+
+        assertFalse(NotificationCodec.isEncodable(request));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(request));
+    }
+}
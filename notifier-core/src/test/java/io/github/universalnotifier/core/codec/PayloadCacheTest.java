@@ -0,0 +1,90 @@
+package io.github.universalnotifier.core.codec;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour PayloadCache.
+ */
+public class PayloadCacheTest {
+
+    private final AtomicInteger encodings = new AtomicInteger();
+
+    @Test
+    public void testContentIsCachedFromItsSecondUse() {
+        PayloadCache<String> cache = new PayloadCache<>(10);
+
+        cache.get(request("+33611111111", "Promo", "-20 %"), this::encode);
+        String second = cache.get(request("+33622222222", "Promo", "-20 %"), this::encode);
+        String third = cache.get(request("+33633333333", "Promo", "-20 %"), this::encode);
+        cache.get(request("+33611111111", "Promo", "-30 %"), this::encode);
+
+        assertSame(second, third);
+        assertEquals(3, encodings.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSingleUseContentDoesNotEvictSharedContent() {
+        PayloadCache<String> cache = new PayloadCache<>(1);
+        cache.get(request("+33611111111", "Promo", "-20 %"), this::encode);
+        cache.get(request("+33622222222", "Promo", "-20 %"), this::encode);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(request("+33611111111", null, "Votre code : " + i), this::encode);
+        }
+        cache.get(request("+33633333333", "Promo", "-20 %"), this::encode);
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        PayloadCache<String> cache = new PayloadCache<>(3);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(request("+33611111111", null, "Message " + i), this::encode);
+            cache.get(request("+33622222222", null, "Message " + i), this::encode);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(20, encodings.get());
+    }
+
+    @Test
+    public void testZeroSizeDisablesCache() {
+        PayloadCache<String> cache = new PayloadCache<>(0);
+
+        cache.get(request("+33611111111", null, "Bonjour"), this::encode);
+        cache.get(request("+33611111111", null, "Bonjour"), this::encode);
+
+        assertEquals(0, cache.size());
+        assertEquals(2, encodings.get());
+    }
+
+    @Test
+    public void testParseReadsProviderProperty() {
+        assertNotNull(PayloadCache.parse(null, "notifier.sms.twilio.payload-cache-size"));
+        assertNotNull(PayloadCache.parse("0", "notifier.sms.twilio.payload-cache-size"));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> PayloadCache.parse("-1", "notifier.sms.twilio.payload-cache-size"));
+        assertTrue(error.getMessage().contains("notifier.sms.twilio.payload-cache-size"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadCache.parse("beaucoup", "notifier.sms.twilio.payload-cache-size"));
+    }
+
+    private String encode(PayloadCache.Content content) {
+        encodings.incrementAndGet();
+        return content.subject() + "|" + content.message();
+    }
+
+    private static NotificationRequest request(String to, String subject, String message) {
+        return NotificationRequest.builder().type("SMS").to(to).subject(subject).message(message).build();
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour DeadLetterReplayer.
+ */
+public class DeadLetterReplayerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final InMemoryDeadLetterStore store = new InMemoryDeadLetterStore(1000);
+    private final NotificationProperties.DeadLetterConfig config = new NotificationProperties.DeadLetterConfig();
+
+    @Test
+    public void testMatchingDeadLettersAreReplayedAndRemoved() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("EMAIL", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.INVALID_RECIPIENT, NOW.minusSeconds(60)));
+
+        try (DeadLetterReplayer replayer = replayer()) {
+            DeadLetterReplay replay = replayer.replay(DeadLetterFilter.builder()
+                    .channel("SMS").errorCodes(Set.of(NotificationErrorCode.TRANSIENT)).build(), 1000);
+            replay.getCompletion().get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, replay.getSucceededCount());
+            assertEquals(0, replay.getFailedCount());
+        }
+        assertEquals(List.of(2L, 3L), store.find(DeadLetterFilter.all(), 0, 10).stream().map(DeadLetter::getId).toList());
+    }
+
+    @Test
+    public void testFailedReplayKeepsDeadLetter() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.failedFuture(
+                new NotificationException(NotificationErrorCode.TRANSIENT, "503", null)));
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+
+        try (DeadLetterReplayer replayer = replayer()) {
+            DeadLetterReplay replay = replayer.replay(DeadLetterFilter.all(), 1000);
+            replay.getCompletion().get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, replay.getFailedCount());
+        }
+        assertEquals(1, store.count());
+        // L'échec du renvoi est ajouté à l'historique de la lettre morte
+        DeadLetter kept = store.find(DeadLetterFilter.all(), 0, 10).get(0);
+        assertEquals(2, kept.getAttempts().size());
+        assertEquals(2, kept.getLastAttempt().getAttempt());
+        assertEquals(NOW, kept.getFailedAt());
+        verify(notificationService, times(1)).sendAsync(any(NotificationRequest.class));
+    }
+
+    @Test
+    public void testExpiredDeadLetterIsNotReplayed() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        DeadLetter expired = InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TIMEOUT, NOW.minusSeconds(60));
+        store.add(expired.toBuilder().request(expired.getRequest().toBuilder().deadline(NOW.minusSeconds(30)).build()).build());
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+
+        try (DeadLetterReplayer replayer = replayer()) {
+            DeadLetterReplay replay = replayer.replay(DeadLetterFilter.all(), 1000);
+            replay.getCompletion().get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, replay.getExpiredCount());
+            assertEquals(1, replay.getSucceededCount());
+            assertEquals(1, replay.getSubmittedCount());
+        }
+        assertEquals(List.of(1L), store.find(DeadLetterFilter.all(), 0, 10).stream().map(DeadLetter::getId).toList());
+    }
+
+    @Test
+    public void testReplayIsThrottled() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        for (int i = 0; i < 11; i++) {
+            store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+        }
+        config.setReplayBatchSize(3);
+
+        try (DeadLetterReplayer replayer = replayer()) {
+            long start = System.nanoTime();
+            DeadLetterReplay replay = replayer.replay(DeadLetterFilter.all(), 50);
+            replay.getCompletion().get(5, TimeUnit.SECONDS);
+
+            // 11 envois à 50 par seconde : 10 intervalles de 20 ms au moins
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+            assertEquals(11, replay.getSucceededCount());
+        }
+        assertEquals(0, store.count());
+    }
+
+    @Test
+    public void testDeadLettersRecordedAfterLaunchAreNotReplayed() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+        store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.plusSeconds(1)));
+
+        try (DeadLetterReplayer replayer = replayer()) {
+            DeadLetterReplay replay = replayer.replay(DeadLetterFilter.all());
+            replay.getCompletion().get(5, TimeUnit.SECONDS);
+
+            assertEquals(NOW, replay.getFilter().getTo());
+            assertEquals(1, replay.getSucceededCount());
+        }
+        verify(notificationService, times(1)).sendAsync(any(NotificationRequest.class));
+    }
+
+    @Test
+    public void testCancelStopsReplay() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        for (int i = 0; i < 100; i++) {
+            store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, NOW.minusSeconds(60)));
+        }
+
+        try (DeadLetterReplayer replayer = replayer()) {
+            DeadLetterReplay replay = replayer.replay(DeadLetterFilter.all(), 10);
+            replay.cancel();
+            replay.getCompletion().get(5, TimeUnit.SECONDS);
+
+            assertTrue(replay.getSubmittedCount() < 100);
+        }
+        assertThrows(NotificationException.class, () -> replayer().replay(DeadLetterFilter.all(), 0));
+    }
+
+    private DeadLetterReplayer replayer() {
+        return new DeadLetterReplayer(notificationService, store, config, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+}
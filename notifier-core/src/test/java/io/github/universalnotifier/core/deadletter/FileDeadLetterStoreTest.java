@@ -0,0 +1,296 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour FileDeadLetterStore et DeadLetterCodec.
+ */
+public class FileDeadLetterStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testDeadLettersSurviveReopening() {
+        Path file = directory.resolve("dead-letters.log");
+        NotificationRequest request = NotificationRequest.builder()
+                .type("PUSH").to("token").subject("Alerte").message("Stock bas")
+                .priority(NotificationPriority.HIGH)
+                .additionalData(Map.of("templateId", "stock", "quantity", 3))
+                .build();
+        List<NotificationResult> attempts = List.of(
+                NotificationResult.failure(1, new NotificationException(NotificationErrorCode.TRANSIENT, "503", null)),
+                NotificationResult.failure(2, new NotificationException(NotificationErrorCode.AUTHENTICATION, "401", null)));
+
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            store.add(DeadLetter.of(request, attempts));
+            store.add(DeadLetter.of(request, new NotificationException("Erreur")));
+            store.add(DeadLetter.of(request, new NotificationException("Erreur")));
+            store.remove(2);
+        }
+
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            List<DeadLetter> found = store.find(DeadLetterFilter.all(), 0, 10);
+            assertEquals(List.of(1L, 3L), found.stream().map(DeadLetter::getId).toList());
+            assertEquals(request, found.get(0).getRequest());
+            assertEquals(attempts, found.get(0).getAttempts());
+            assertEquals(NotificationErrorCode.AUTHENTICATION, found.get(0).getErrorCode());
+
+            // Les identifiants reprennent après le plus grand identifiant du journal
+            store.add(DeadLetter.of(request, new NotificationException("Erreur")));
+            assertEquals(4L, store.find(DeadLetterFilter.all(), 3, 10).get(0).getId());
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException {
+        Path file = directory.resolve("dead-letters.log");
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur")));
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur")));
+        }
+        // Arrêt brutal au milieu de l'écriture du second enregistrement
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            assertEquals(1, store.count());
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur")));
+        }
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            assertEquals(2, store.count());
+        }
+    }
+
+    @Test
+    public void testFailedWriteLeavesNoPartialRecord() {
+        Path file = directory.resolve("dead-letters.log");
+        FailingChannel[] channel = new FailingChannel[1];
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100,
+                opened -> channel[0] = new FailingChannel(opened))) {
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur")));
+            // Disque plein au milieu de l'écriture du second enregistrement
+            channel[0].failNextWrite = true;
+            assertThrows(NotificationException.class, () -> store.add(
+                    DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur"))));
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("PUSH"), new NotificationException("Erreur")));
+        }
+
+        // L'enregistrement partiel a été retiré : la lettre morte écrite après lui est relue
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            assertEquals(List.of("SMS", "PUSH"), store.find(DeadLetterFilter.all(), 0, 10).stream()
+                    .map(deadLetter -> deadLetter.getRequest().getType()).toList());
+        }
+    }
+
+    @Test
+    public void testPartialRecordIsRemovedBeforeNextWrite() {
+        Path file = directory.resolve("dead-letters.log");
+        FailingChannel[] channel = new FailingChannel[1];
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100,
+                opened -> channel[0] = new FailingChannel(opened))) {
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur")));
+            // Le journal ne peut pas non plus être tronqué aussitôt après l'échec
+            channel[0].failNextWrite = true;
+            channel[0].failNextTruncate = true;
+            assertThrows(NotificationException.class, () -> store.add(
+                    DeadLetter.of(InMemoryDeadLetterStoreTest.request("SMS"), new NotificationException("Erreur"))));
+            store.add(DeadLetter.of(InMemoryDeadLetterStoreTest.request("PUSH"), new NotificationException("Erreur")));
+        }
+
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 100)) {
+            assertEquals(2, store.count());
+        }
+    }
+
+    @Test
+    public void testJournalIsCompactedWhenRemovalsDominate() throws IOException {
+        Path file = directory.resolve("dead-letters.log");
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 5_000)) {
+            for (int i = 0; i < 1500; i++) {
+                store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, Instant.now()));
+            }
+            long fullSize = Files.size(file);
+            for (long id = 1; id <= 1200; id++) {
+                store.remove(id);
+            }
+
+            assertTrue(Files.size(file) < fullSize / 2);
+            store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, Instant.now()));
+        }
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 5_000)) {
+            assertEquals(301, store.count());
+            assertEquals(1201L, store.find(DeadLetterFilter.all(), 0, 1).get(0).getId());
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsHighestIdentifier() {
+        Path file = directory.resolve("dead-letters.log");
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 5_000)) {
+            for (int i = 0; i < 1500; i++) {
+                store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, Instant.now()));
+            }
+            // Les plus récentes sont supprimées : le journal compacté ne contient plus le plus grand identifiant
+            for (long id = 1500; id > 300; id--) {
+                store.remove(id);
+            }
+        }
+        try (FileDeadLetterStore store = new FileDeadLetterStore(file, 5_000)) {
+            assertEquals(300, store.count());
+            store.add(InMemoryDeadLetterStoreTest.deadLetter("SMS", NotificationErrorCode.TRANSIENT, Instant.now()));
+            assertEquals(1501L, store.find(DeadLetterFilter.all(), 300, 1).get(0).getId());
+        }
+    }
+
+    @Test
+    public void testNonEncodableNotificationIsRejected() {
+        NotificationRequest request = new NotificationRequest("PUSH", "token", null, "Test", Map.of("date", Instant.EPOCH));
+
+        try (FileDeadLetterStore store = new FileDeadLetterStore(directory.resolve("dead-letters.log"), 100)) {
+            assertThrows(NotificationException.class, () -> store.add(DeadLetter.of(request, new NotificationException("Erreur"))));
+            assertEquals(0, store.count());
+        }
+    }
+
+    /**
+     * Canal qui simule un disque plein : l'écriture suivante n'écrit que la moitié de l'enregistrement puis échoue.
+     */
+    private static final class FailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private boolean failNextWrite;
+        private boolean failNextTruncate;
+        private boolean writeFailing;
+
+        private FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (writeFailing) {
+                writeFailing = false;
+                throw new IOException("No space left on device");
+            }
+            if (failNextWrite) {
+                failNextWrite = false;
+                writeFailing = true;
+                ByteBuffer half = src.slice(src.position(), src.remaining() / 2);
+                int written = delegate.write(half);
+                src.position(src.position() + written);
+                return written;
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failNextTruncate) {
+                failNextTruncate = false;
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
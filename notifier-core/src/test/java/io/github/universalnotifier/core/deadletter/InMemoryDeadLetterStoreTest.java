@@ -0,0 +1,97 @@
+package io.github.universalnotifier.core.deadletter;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour InMemoryDeadLetterStore et DeadLetterFilter.
+ */
+public class InMemoryDeadLetterStoreTest {
+
+    @Test
+    public void testIdsFollowInsertionOrder() {
+        InMemoryDeadLetterStore store = new InMemoryDeadLetterStore(10);
+        store.add(deadLetter("SMS", NotificationErrorCode.TRANSIENT, Instant.parse("2026-10-19T10:00:00Z")));
+        store.add(deadLetter("EMAIL", NotificationErrorCode.TRANSIENT, Instant.parse("2026-10-19T09:00:00Z")));
+
+        List<DeadLetter> found = store.find(DeadLetterFilter.all(), 0, 10);
+
+        assertEquals(List.of(1L, 2L), found.stream().map(DeadLetter::getId).toList());
+        assertEquals(List.of(2L), store.find(DeadLetterFilter.all(), 1, 10).stream().map(DeadLetter::getId).toList());
+    }
+
+    @Test
+    public void testFilterByChannelErrorCodeAndTimeRange() {
+        InMemoryDeadLetterStore store = new InMemoryDeadLetterStore(10);
+        store.add(deadLetter("SMS", NotificationErrorCode.TRANSIENT, Instant.parse("2026-10-19T10:00:00Z")));
+        store.add(deadLetter("SMS", NotificationErrorCode.INVALID_RECIPIENT, Instant.parse("2026-10-19T10:05:00Z")));
+        store.add(deadLetter("EMAIL", NotificationErrorCode.TRANSIENT, Instant.parse("2026-10-19T10:10:00Z")));
+        store.add(deadLetter("SMS", NotificationErrorCode.RATE_LIMITED, Instant.parse("2026-10-19T11:00:00Z")));
+
+        assertEquals(3, store.find(DeadLetterFilter.builder().channel("sms").build(), 0, 10).size());
+        assertEquals(List.of(1L, 3L), ids(store.find(DeadLetterFilter.builder()
+                .errorCodes(Set.of(NotificationErrorCode.TRANSIENT)).build(), 0, 10)));
+        assertEquals(List.of(1L, 2L), ids(store.find(DeadLetterFilter.builder()
+                .channel("SMS")
+                .from(Instant.parse("2026-10-19T10:00:00Z"))
+                .to(Instant.parse("2026-10-19T11:00:00Z"))
+                .build(), 0, 10)));
+        assertEquals(List.of(1L), ids(store.find(DeadLetterFilter.all(), 0, 1)));
+    }
+
+    @Test
+    public void testOldestDeadLettersAreEvictedWhenFull() {
+        InMemoryDeadLetterStore store = new InMemoryDeadLetterStore(2);
+        for (int i = 0; i < 5; i++) {
+            store.add(DeadLetter.of(request("SMS"), new NotificationException("Erreur " + i)));
+        }
+
+        assertEquals(2, store.count());
+        assertEquals(3, store.getEvictedCount());
+        assertEquals(List.of(4L, 5L), ids(store.find(DeadLetterFilter.all(), 0, 10)));
+    }
+
+    @Test
+    public void testRemove() {
+        InMemoryDeadLetterStore store = new InMemoryDeadLetterStore(10);
+        store.add(DeadLetter.of(request("SMS"), new NotificationException("Erreur")));
+
+        assertTrue(store.remove(1));
+        assertFalse(store.remove(1));
+        assertEquals(0, store.count());
+    }
+
+    @Test
+    public void testDeadLetterExposesLastAttempt() {
+        DeadLetter deadLetter = DeadLetter.of(request("SMS"), List.of(
+                NotificationResult.failure(1, new NotificationException(NotificationErrorCode.TRANSIENT, "503", null)),
+                NotificationResult.failure(2, NotificationException.stackless(NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null))));
+
+        assertEquals("SMS", deadLetter.getChannel());
+        assertEquals(2, deadLetter.getLastAttempt().getAttempt());
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, deadLetter.getErrorCode());
+        assertThrows(IllegalArgumentException.class, () -> DeadLetter.of(request("SMS"), List.of()));
+    }
+
+    static DeadLetter deadLetter(String channel, NotificationErrorCode code, Instant failedAt) {
+        return DeadLetter.of(request(channel), List.of(NotificationResult.builder()
+                .errorCode(code).errorMessage("Erreur").attempt(1).completedAt(failedAt).build()));
+    }
+
+    static NotificationRequest request(String channel) {
+        return NotificationRequest.builder().type(channel).to("+33612345678").message("Test").build();
+    }
+
+    private static List<Long> ids(List<DeadLetter> deadLetters) {
+        return deadLetters.stream().map(DeadLetter::getId).toList();
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.universalnotifier.core.dispatch;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour AdmissionController.
+ */
+public class AdmissionControllerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    @Test
+    public void testLowPriorityIsShedFirstWhenInFlightGrows() {
+        NotificationProperties.AdmissionConfig config = config();
+        config.setMaxInFlight(10);
+        AdmissionController controller = new AdmissionController(config, queueDepth::get, clock::get);
+
+        // Six envois en cours : charge de 60 %, seuil des notifications LOW
+        for (int i = 0; i < 6; i++) {
+            controller.submit(NotificationPriority.NORMAL, CompletableFuture::new);
+        }
+
+        assertRejected(controller.submit(NotificationPriority.LOW, this::completed), NotificationPriority.LOW);
+        assertDoesNotThrow(controller.submit(NotificationPriority.NORMAL, this::completed)::join);
+        assertEquals(1, controller.getRejectedCount());
+    }
+
+    @Test
+    public void testCriticalIsNeverShed() {
+        NotificationProperties.AdmissionConfig config = config();
+        config.setMaxQueueDepth(100);
+        queueDepth.set(500);
+        AdmissionController controller = new AdmissionController(config, queueDepth::get, clock::get);
+
+        assertRejected(controller.submit(NotificationPriority.HIGH, this::completed), NotificationPriority.HIGH);
+        assertDoesNotThrow(controller.submit(NotificationPriority.CRITICAL, this::completed)::join);
+    }
+
+    @Test
+    public void testRejectionCarriesRetryAfter() {
+        NotificationProperties.AdmissionConfig config = config();
+        config.setMaxQueueDepth(10);
+        config.setRetryAfter(Duration.ofSeconds(30));
+        queueDepth.set(10);
+        AdmissionController controller = new AdmissionController(config, queueDepth::get, clock::get);
+
+        NotificationRejectedException rejection = assertRejected(
+                controller.submit(NotificationPriority.NORMAL, this::completed), NotificationPriority.NORMAL);
+        assertEquals(Duration.ofSeconds(30), rejection.getRetryAfter());
+    }
+
+    @Test
+    public void testLatencyLimitAdaptsToUsualLatency() {
+        AdmissionController controller = new AdmissionController(config(), queueDepth::get, clock::get);
+
+        // Latence habituelle de 100 ms : la latence acceptable vaut quatre fois cette valeur
+        for (int i = 0; i < 50; i++) {
+            complete(controller, NotificationPriority.NORMAL, 100);
+        }
+        assertEquals(400, controller.getLatencyLimit().toMillis(), 5);
+
+        // Le fournisseur ralentit à 800 ms : seules les notifications critiques sont encore admises
+        for (int i = 0; i < 20; i++) {
+            complete(controller, NotificationPriority.CRITICAL, 800);
+        }
+        controller.submit(NotificationPriority.CRITICAL, CompletableFuture::new);
+
+        assertRejected(controller.submit(NotificationPriority.HIGH, this::completed), NotificationPriority.HIGH);
+        assertDoesNotThrow(controller.submit(NotificationPriority.CRITICAL, this::completed)::join);
+        // Une latence dégradée n'est pas apprise comme latence habituelle
+        assertEquals(400, controller.getLatencyLimit().toMillis(), 5);
+    }
+
+    @Test
+    public void testLatencyIsIgnoredOnceTrafficHasDrained() {
+        AdmissionController controller = new AdmissionController(config(), queueDepth::get, clock::get);
+        for (int i = 0; i < 10; i++) {
+            complete(controller, NotificationPriority.NORMAL, 20_000);
+        }
+
+        // Plus aucun envoi en cours : une notification est de nouveau admise pour mesurer la latence
+        assertEquals(0, controller.getInFlightCount());
+        assertDoesNotThrow(controller.submit(NotificationPriority.LOW, this::completed)::join);
+    }
+
+    @Test
+    public void testFailedSendReleasesInFlightSlot() {
+        AdmissionController controller = new AdmissionController(config(), queueDepth::get, clock::get);
+
+        CompletableFuture<Void> result = controller.submit(NotificationPriority.NORMAL,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("Erreur fournisseur")));
+
+        assertThrows(CompletionException.class, result::join);
+        assertEquals(0, controller.getInFlightCount());
+    }
+
+    @Test
+    public void testDeferredNotificationIsAdmittedWhenLoadDrops() {
+        NotificationProperties.AdmissionConfig config = config();
+        config.setMaxInFlight(10);
+        config.setMaxDeferred(10);
+        AdmissionController controller = new AdmissionController(config, queueDepth::get, clock::get);
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            CompletableFuture<Void> pending = new CompletableFuture<>();
+            running.add(pending);
+            controller.submit(NotificationPriority.NORMAL, () -> pending);
+        }
+
+        AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<Void> deferred = controller.submit(NotificationPriority.LOW, () -> {
+            sent.incrementAndGet();
+            return completed();
+        });
+        assertFalse(deferred.isDone());
+        assertEquals(1, controller.getDeferredCount());
+        assertEquals(0, sent.get());
+
+        // Un envoi se termine : la charge repasse sous le seuil des notifications LOW
+        running.get(0).complete(null);
+        assertDoesNotThrow(deferred::join);
+        assertEquals(1, sent.get());
+        assertEquals(0, controller.getDeferredCount());
+        assertEquals(0, controller.getRejectedCount());
+    }
+
+    @Test
+    public void testDeferredNotificationIsRejectedAfterMaxDeferral() {
+        NotificationProperties.AdmissionConfig config = config();
+        config.setMaxQueueDepth(10);
+        config.setMaxDeferred(10);
+        config.setMaxDeferral(Duration.ofSeconds(1));
+        queueDepth.set(10);
+        AdmissionController controller = new AdmissionController(config, queueDepth::get, clock::get);
+
+        CompletableFuture<Void> deferred = controller.submit(NotificationPriority.NORMAL, this::completed);
+        assertFalse(deferred.isDone());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        controller.drainDeferred();
+
+        assertRejected(deferred, NotificationPriority.NORMAL);
+        assertEquals(0, controller.getDeferredCount());
+    }
+
+    @Test
+    public void testNotificationsBeyondMaxDeferredAreRejected() {
+        NotificationProperties.AdmissionConfig config = config();
+        config.setMaxQueueDepth(10);
+        config.setMaxDeferred(1);
+        queueDepth.set(10);
+        AdmissionController controller = new AdmissionController(config, queueDepth::get, clock::get);
+
+        CompletableFuture<Void> deferred = controller.submit(NotificationPriority.HIGH, this::completed);
+        assertRejected(controller.submit(NotificationPriority.HIGH, this::completed), NotificationPriority.HIGH);
+
+        // Une notification sous son seuil ne double pas les notifications différées plus prioritaires
+        queueDepth.set(0);
+        CompletableFuture<Void> later = controller.submit(NotificationPriority.LOW, this::completed);
+        assertDoesNotThrow(deferred::join);
+        assertDoesNotThrow(later::join);
+    }
+
+    private NotificationProperties.AdmissionConfig config() {
+        NotificationProperties.AdmissionConfig config = new NotificationProperties.AdmissionConfig();
+        config.setMinLatency(Duration.ofMillis(10));
+        return config;
+    }
+
+    private CompletableFuture<Void> completed() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void complete(AdmissionController controller, NotificationPriority priority, long latencyMillis) {
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        CompletableFuture<Void> result = controller.submit(priority, () -> pending);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        pending.complete(null);
+        result.join();
+    }
+
+    private static NotificationRejectedException assertRejected(CompletableFuture<Void> result,
+                                                                NotificationPriority priority) {
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        NotificationRejectedException rejection =
+                assertInstanceOf(NotificationRejectedException.class, exception.getCause());
+        assertEquals(priority, rejection.getPriority());
+        return rejection;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.universalnotifier.core.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour OffHeapSpillQueue.
+ */
+public class OffHeapSpillQueueTest {
+
+    @Test
+    public void testRecordsAreReturnedInOrderAcrossSegments() {
+        OffHeapSpillQueue queue = new OffHeapSpillQueue(1024, 64);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(queue.offer(record("notification-" + i)));
+        }
+        assertEquals(20, queue.size());
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("notification-" + i, queue.poll(OffHeapSpillQueueTest::string));
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll(OffHeapSpillQueueTest::string));
+    }
+
+    @Test
+    public void testOfferFailsWhenMemoryIsExhausted() {
+        OffHeapSpillQueue queue = new OffHeapSpillQueue(128, 64);
+
+        // Deux enregistrements de 4 + 26 octets par segment de 64 octets
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(new byte[26]));
+        }
+        assertFalse(queue.offer(new byte[26]));
+        assertFalse(queue.offer(new byte[61]));
+
+        queue.poll(OffHeapSpillQueueTest::string);
+        queue.poll(OffHeapSpillQueueTest::string);
+        assertTrue(queue.offer(new byte[26]));
+    }
+
+    @Test
+    public void testReadSegmentsAreReleased() {
+        OffHeapSpillQueue queue = new OffHeapSpillQueue(1024, 64);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(new byte[26]);
+        }
+        assertEquals(5 * 64, queue.allocatedBytes());
+
+        for (int i = 0; i < 10; i++) {
+            queue.poll(OffHeapSpillQueueTest::string);
+        }
+
+        // Seul un segment est conservé pour être réutilisé
+        assertEquals(64, queue.allocatedBytes());
+    }
+
+    @Test
+    public void testUnreadableRecordIsSkipped() {
+        OffHeapSpillQueue queue = new OffHeapSpillQueue(1024, 64);
+        queue.offer(record("illisible"));
+        queue.offer(record("suivante"));
+
+        assertThrows(IllegalArgumentException.class, () -> queue.poll(buffer -> {
+            throw new IllegalArgumentException("Enregistrement corrompu");
+        }));
+
+        // L'enregistrement illisible a été retiré : il ne bloque pas la tête de file
+        assertEquals(1, queue.size());
+        assertEquals("suivante", queue.poll(OffHeapSpillQueueTest::string));
+    }
+
+    @Test
+    public void testOfferFailsWhenDirectMemoryIsExhausted() {
+        OffHeapSpillQueue queue = new OffHeapSpillQueue(1024, 64, size -> {
+            throw new OutOfMemoryError("Direct buffer memory");
+        });
+
+        assertFalse(queue.offer(record("notification")));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.allocatedBytes());
+    }
+
+    private static String string(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    private static byte[] record(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
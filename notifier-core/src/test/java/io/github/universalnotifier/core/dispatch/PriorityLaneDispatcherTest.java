@@ -0,0 +1,287 @@
+package io.github.universalnotifier.core.dispatch;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterFilter;
+import io.github.universalnotifier.core.deadletter.InMemoryDeadLetterStore;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour PriorityLaneDispatcher.
+ */
+public class PriorityLaneDispatcherTest {
+
+    private PriorityLaneDispatcher dispatcher;
+
+    @AfterEach
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    public void testCriticalNotificationOvertakesQueuedBulkTraffic() throws Exception {
+        dispatcher = new PriorityLaneDispatcher(config(LaneSchedulingPolicy.STRICT));
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        // Occupe l'unique place d'envoi pour que les notifications suivantes restent en file
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.LOW, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(dispatcher.submit(NotificationPriority.LOW, record(order, "low")));
+        }
+        results.add(dispatcher.submit(NotificationPriority.CRITICAL, record(order, "critical")));
+        assertEquals(6, dispatcher.getQueuedCount());
+
+        blocker.complete(null);
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals("critical", order.get(0));
+        assertEquals(0, dispatcher.getQueuedCount());
+    }
+
+    @Test
+    public void testFullLaneRejectsSubmission() throws Exception {
+        NotificationProperties.DispatchConfig config = config(LaneSchedulingPolicy.STRICT);
+        config.getLow().setCapacity(1);
+        dispatcher = new PriorityLaneDispatcher(config);
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.LOW, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+
+        dispatcher.submit(NotificationPriority.LOW, () -> CompletableFuture.completedFuture(null));
+        CompletableFuture<Void> rejected = dispatcher.submit(NotificationPriority.LOW,
+                () -> CompletableFuture.completedFuture(null));
+
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(NotificationException.class, exception.getCause());
+
+        // Les autres files ne sont pas affectées
+        CompletableFuture<Void> critical = dispatcher.submit(NotificationPriority.CRITICAL,
+                () -> CompletableFuture.completedFuture(null));
+        blocker.complete(null);
+        critical.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testWeightedPolicyServesEveryLane() throws Exception {
+        dispatcher = new PriorityLaneDispatcher(config(LaneSchedulingPolicy.WEIGHTED));
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.HIGH, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(dispatcher.submit(NotificationPriority.CRITICAL, record(order, "critical")));
+            results.add(dispatcher.submit(NotificationPriority.LOW, record(order, "low")));
+        }
+
+        blocker.complete(null);
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Avec des poids 8 contre 1, la file basse est servie avant que la file critique soit vidée
+        assertTrue(order.indexOf("low") < order.lastIndexOf("critical"));
+        assertEquals("critical", order.get(0));
+    }
+
+    @Test
+    public void testTaskFailureIsPropagated() {
+        dispatcher = new PriorityLaneDispatcher(config(LaneSchedulingPolicy.STRICT));
+
+        CompletableFuture<Void> result = dispatcher.submit(NotificationPriority.NORMAL, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(0, dispatcher.getInFlightCount());
+    }
+
+    @Test
+    public void testEnqueuedNotificationsSpillOffHeapInOrder() throws Exception {
+        NotificationProperties.DispatchConfig config = config(LaneSchedulingPolicy.STRICT);
+        config.getLow().setCapacity(2);
+        config.getSpill().setEnabled(true);
+        dispatcher = new PriorityLaneDispatcher(config);
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.setRequestHandler(request -> {
+            sent.add(request.getTo());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.LOW, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+
+        for (int i = 0; i < 100; i++) {
+            dispatcher.enqueue(NotificationRequest.builder()
+                    .type("SMS").to("+33600000" + i).message("Campagne").priority(NotificationPriority.LOW).build());
+        }
+        assertEquals(100, dispatcher.getQueuedCount(NotificationPriority.LOW));
+        assertEquals(98, dispatcher.getSpilledCount(NotificationPriority.LOW));
+
+        blocker.complete(null);
+        waitUntil(() -> sent.size() == 100);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("+33600000" + i, sent.get(i));
+        }
+        assertEquals(0, dispatcher.getQueuedCount());
+    }
+
+    @Test
+    public void testUnencodableNotificationDoesNotOvertakeSpilledNotifications() throws Exception {
+        NotificationProperties.DispatchConfig config = config(LaneSchedulingPolicy.STRICT);
+        config.getLow().setCapacity(2);
+        config.getSpill().setEnabled(true);
+        dispatcher = new PriorityLaneDispatcher(config);
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.setRequestHandler(request -> {
+            sent.add(request.getTo());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.LOW, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+        for (int i = 1; i <= 4; i++) {
+            dispatcher.enqueue(NotificationRequest.builder()
+                    .type("SMS").to("+3360000000" + i).message("Campagne").priority(NotificationPriority.LOW).build());
+        }
+        assertEquals(2, dispatcher.getSpilledCount(NotificationPriority.LOW));
+
+        // Ses données ne peuvent pas déborder : placée en tête de file, elle passerait devant les précédentes
+        NotificationRequest unencodable = NotificationRequest.builder()
+                .type("PUSH").to("token").message("Test").priority(NotificationPriority.LOW)
+                .additionalData(Map.of("date", Instant.EPOCH)).build();
+        assertThrows(NotificationException.class, () -> dispatcher.enqueue(unencodable));
+
+        blocker.complete(null);
+        waitUntil(() -> sent.size() == 4);
+        assertEquals(List.of("+33600000001", "+33600000002", "+33600000003", "+33600000004"), sent);
+    }
+
+    @Test
+    public void testEnqueueIsRejectedWhenLaneIsFullWithoutSpill() throws Exception {
+        NotificationProperties.DispatchConfig config = config(LaneSchedulingPolicy.STRICT);
+        config.getNormal().setCapacity(1);
+        dispatcher = new PriorityLaneDispatcher(config);
+        dispatcher.setRequestHandler(request -> CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.NORMAL, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+
+        NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null, "Test", null);
+        dispatcher.enqueue(request);
+        assertThrows(NotificationException.class, () -> dispatcher.enqueue(request));
+        blocker.complete(null);
+    }
+
+    @Test
+    public void testShutdownSendsQueuedNotificationsBeforeStopping() throws Exception {
+        dispatcher = new PriorityLaneDispatcher(config(LaneSchedulingPolicy.STRICT));
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.setRequestHandler(request -> {
+            sent.add(request.getTo());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.NORMAL, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.enqueue(new NotificationRequest("SMS", "+3360000000" + i, null, "Test", null));
+        }
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS).execute(() -> blocker.complete(null));
+
+        dispatcher.shutdown(Duration.ofSeconds(5));
+
+        assertEquals(10, sent.size());
+        assertEquals(0, dispatcher.getInFlightCount());
+        assertThrows(NotificationException.class,
+                () -> dispatcher.enqueue(new NotificationRequest("SMS", "+33612345678", null, "Test", null)));
+    }
+
+    @Test
+    public void testShutdownKeepsUnsentNotificationsAsDeadLetters() throws Exception {
+        NotificationProperties.DispatchConfig config = config(LaneSchedulingPolicy.STRICT);
+        config.getLow().setCapacity(2);
+        config.getSpill().setEnabled(true);
+        dispatcher = new PriorityLaneDispatcher(config);
+        InMemoryDeadLetterStore deadLetters = new InMemoryDeadLetterStore(100);
+        dispatcher.setDeadLetterStore(deadLetters);
+        dispatcher.setRequestHandler(request -> CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        dispatcher.submit(NotificationPriority.LOW, () -> blocker);
+        waitUntil(() -> dispatcher.getInFlightCount() == 1);
+        CompletableFuture<Void> tracked = dispatcher.submit(NotificationPriority.LOW,
+                () -> CompletableFuture.completedFuture(null));
+        for (int i = 0; i < 5; i++) {
+            dispatcher.enqueue(NotificationRequest.builder()
+                    .type("SMS").to("+3360000000" + i).message("Campagne").priority(NotificationPriority.LOW).build());
+        }
+
+        dispatcher.shutdown(Duration.ofMillis(50));
+
+        // Les notifications déposées, en tas ou hors tas, sont conservées ; l'envoi suivi échoue
+        assertEquals(5, deadLetters.count());
+        List<DeadLetter> kept = deadLetters.find(DeadLetterFilter.all(), 0, 10);
+        assertEquals("+33600000000", kept.get(0).getRequest().getTo());
+        assertEquals(NotificationErrorCode.TRANSIENT, kept.get(0).getErrorCode());
+        CompletionException exception = assertThrows(CompletionException.class, tracked::join);
+        assertInstanceOf(NotificationException.class, exception.getCause());
+        assertEquals(0, dispatcher.getQueuedCount());
+        blocker.complete(null);
+    }
+
+    private static NotificationProperties.DispatchConfig config(LaneSchedulingPolicy policy) {
+        NotificationProperties.DispatchConfig config = new NotificationProperties.DispatchConfig();
+        config.setWorkers(1);
+        config.setMaxInFlight(1);
+        config.setPolicy(policy);
+        return config;
+    }
+
+    private static Supplier<CompletableFuture<Void>> record(List<String> order, String label) {
+        return () -> {
+            order.add(label);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition non atteinte dans le délai imparti");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.universalnotifier.core.dispatch;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour RecipientSequencer.
+ */
+public class RecipientSequencerTest {
+
+    @Test
+    public void testSameRecipientWaitsForPreviousSend() {
+        RecipientSequencer sequencer = new RecipientSequencer(16, Runnable::run);
+        CompletableFuture<Void> shipped = new CompletableFuture<>();
+        List<String> started = new ArrayList<>();
+
+        CompletableFuture<Void> first = sequencer.submit("+33612345678", () -> {
+            started.add("expédiée");
+            return shipped;
+        });
+        CompletableFuture<Void> second = sequencer.submit("+33612345678", () -> {
+            started.add("livrée");
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // Le second envoi ne démarre qu'une fois le premier terminé
+        assertEquals(List.of("expédiée"), started);
+        assertFalse(second.isDone());
+
+        shipped.complete(null);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(List.of("expédiée", "livrée"), started);
+    }
+
+    @Test
+    public void testOtherStripesAreNotBlocked() {
+        RecipientSequencer sequencer = new RecipientSequencer(16, Runnable::run);
+        String blocked = "+33612345678";
+        String other = recipientOnOtherStripe(sequencer, blocked);
+
+        sequencer.submit(blocked, CompletableFuture::new);
+        CompletableFuture<Void> result = sequencer.submit(other, () -> CompletableFuture.completedFuture(null));
+
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    public void testFailureReleasesStripe() {
+        RecipientSequencer sequencer = new RecipientSequencer(1, Runnable::run);
+
+        CompletableFuture<Void> failed = sequencer.submit("a", () -> {
+            throw new NotificationException("Refusé");
+        });
+        CompletableFuture<Void> next = sequencer.submit("a", () -> CompletableFuture.completedFuture(null));
+
+        CompletionException exception = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(NotificationException.class, exception.getCause());
+        assertDoesNotThrow(next::join);
+    }
+
+    @Test
+    public void testOrderIsKeptUnderConcurrency() throws Exception {
+        NotificationProperties.OrderingConfig config = new NotificationProperties.OrderingConfig();
+        config.setStripes(8);
+        config.setThreads(4);
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+
+        try (RecipientSequencer sequencer = new RecipientSequencer(config)) {
+            List<List<Integer>> received = new ArrayList<>();
+            List<CompletableFuture<?>> submissions = new ArrayList<>();
+            for (int r = 0; r < 20; r++) {
+                List<Integer> sequence = Collections.synchronizedList(new ArrayList<>());
+                received.add(sequence);
+                String recipient = "user" + r;
+                // Un seul producteur par destinataire : l'ordre de soumission est celui de la boucle
+                submissions.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        int index = i;
+                        sequencer.submit(recipient, () -> CompletableFuture.runAsync(() -> sequence.add(index)));
+                    }
+                }, submitters));
+            }
+            CompletableFuture.allOf(submissions.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+            for (List<Integer> sequence : received) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (sequence.size() < 100 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    expected.add(i);
+                }
+                assertEquals(expected, sequence);
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClosedSequencerRejectsSubmissions() {
+        RecipientSequencer sequencer = new RecipientSequencer(4, Runnable::run);
+        sequencer.close();
+
+        CompletableFuture<Void> result = sequencer.submit("a", () -> CompletableFuture.completedFuture(null));
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(NotificationException.class, exception.getCause());
+    }
+
+    @Test
+    public void testInvalidStripeCountIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RecipientSequencer(0, Runnable::run));
+    }
+
+    private static String recipientOnOtherStripe(RecipientSequencer sequencer, String recipient) {
+        for (int i = 0; ; i++) {
+            String candidate = "+3361234" + i;
+            if (sequencer.stripe(candidate) != sequencer.stripe(recipient)) {
+                return candidate;
+            }
+        }
+    }
+}
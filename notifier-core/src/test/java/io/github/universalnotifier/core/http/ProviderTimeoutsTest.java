@@ -0,0 +1,74 @@
+package io.github.universalnotifier.core.http;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour ProviderTimeouts.
+ */
+public class ProviderTimeoutsTest {
+
+    @Test
+    public void testDefaultTimeouts() {
+        ProviderTimeouts timeouts = ProviderTimeouts.from(Collections.emptyMap(), "notifier.sms.twilio");
+
+        assertEquals(Duration.ofSeconds(10), timeouts.getConnectTimeout());
+        assertEquals(Duration.ofSeconds(30), timeouts.getReadTimeout());
+        assertEquals(Duration.ofSeconds(40), timeouts.requestTimeout(request(null)));
+    }
+
+    @Test
+    public void testTimeoutsAreReadFromProperties() {
+        Map<String, String> config = new HashMap<>();
+        config.put(ProviderTimeouts.CONNECT_TIMEOUT, "500ms");
+        config.put(ProviderTimeouts.READ_TIMEOUT, "5s");
+
+        ProviderTimeouts timeouts = ProviderTimeouts.from(config, "notifier.email.sendgrid");
+
+        assertEquals(Duration.ofMillis(500), timeouts.getConnectTimeout());
+        assertEquals(Duration.ofSeconds(5), timeouts.getReadTimeout());
+    }
+
+    @Test
+    public void testRequestTimeoutIsBoundedByDeadline() {
+        ProviderTimeouts timeouts = ProviderTimeouts.from(Collections.emptyMap(), "notifier.sms.twilio");
+
+        Duration timeout = timeouts.requestTimeout(request(Instant.now().plusSeconds(2)));
+
+        assertTrue(timeout.compareTo(Duration.ofSeconds(2)) <= 0);
+        assertTrue(timeout.compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    public void testExpiredRequestIsRejected() {
+        ProviderTimeouts timeouts = ProviderTimeouts.from(Collections.emptyMap(), "notifier.sms.twilio");
+
+        assertThrows(NotificationException.class,
+                () -> timeouts.requestTimeout(request(Instant.now().minusMillis(1))));
+    }
+
+    @Test
+    public void testInvalidTimeoutThrowsException() {
+        Map<String, String> config = Collections.singletonMap(ProviderTimeouts.READ_TIMEOUT, "longtemps");
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> ProviderTimeouts.from(config, "notifier.push.firebase"));
+
+        assertTrue(exception.getMessage().contains("notifier.push.firebase.read-timeout"));
+    }
+
+    private static NotificationRequest request(Instant deadline) {
+        NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null, "Test", null);
+        request.setDeadline(deadline);
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.universalnotifier.core.limit;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour AdaptiveConcurrencyLimit.
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config(10));
+
+        saturate(limit, FAST, 50);
+
+        assertTrue(limit.getLimit() > 20, "Limite: " + limit.getLimit());
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyIncreases() {
+        NotificationProperties.ConcurrencyConfig config = config(10);
+        config.setMaxLimit(100);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config);
+        saturate(limit, FAST, 50);
+        int before = limit.getLimit();
+
+        // Le fournisseur ralentit : la latence décuple pour les envois suivants
+        for (int i = 0; i < 30; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < before / 2, "Limite: " + before + " -> " + limit.getLimit());
+    }
+
+    @Test
+    public void testFailuresBackOffMultiplicatively() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config(100));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire() > 0);
+            limit.release(FAST, 1, true);
+        }
+
+        // 100 × 0,9^5
+        assertEquals(59, limit.getLimit());
+    }
+
+    @Test
+    public void testLimitDoesNotGrowUnderLightLoad() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config(10));
+
+        for (int i = 0; i < 100; i++) {
+            int inFlight = limit.tryAcquire();
+            limit.release(FAST, inFlight, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void testAcquireStopsAtLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config(3));
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(3, limit.tryAcquire());
+        assertEquals(0, limit.tryAcquire());
+
+        limit.cancel();
+        assertEquals(3, limit.tryAcquire());
+    }
+
+    @Test
+    public void testLimitStaysWithinBounds() {
+        NotificationProperties.ConcurrencyConfig config = config(10);
+        config.setMinLimit(4);
+        config.setMaxLimit(12);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config);
+
+        saturate(limit, FAST, 200);
+        assertEquals(12, limit.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, 1, true);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    private static NotificationProperties.ConcurrencyConfig config(int initialLimit) {
+        NotificationProperties.ConcurrencyConfig config = new NotificationProperties.ConcurrencyConfig();
+        config.setInitialLimit(initialLimit);
+        return config;
+    }
+
+    /**
+     * Simule des envois remplissant la limite courante, chacun durant la latence indiquée.
+     */
+    private static void saturate(AdaptiveConcurrencyLimit limit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire() > 0) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos, acquired, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.universalnotifier.core.limit;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour ConcurrencyLimitedNotificationProvider.
+ */
+public class ConcurrencyLimitedNotificationProviderTest {
+
+    private final List<CompletableFuture<Void>> sends = new ArrayList<>();
+
+    @Test
+    public void testExcessSendsWaitForAFreeSlot() {
+        NotificationProvider delegate = pendingProvider();
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "sms", delegate, config(2, 10), Runnable::run, () -> 0L);
+
+        CompletableFuture<Void> first = provider.sendAsync(request("a"));
+        provider.sendAsync(request("b"));
+        CompletableFuture<Void> third = provider.sendAsync(request("c"));
+
+        assertEquals(2, provider.getInFlight());
+        assertEquals(1, provider.getQueued());
+        verify(delegate, times(2)).sendAsync(any());
+
+        sends.get(0).complete(null);
+
+        assertTrue(first.isDone());
+        assertEquals(0, provider.getQueued());
+        verify(delegate, times(3)).sendAsync(any());
+        assertFalse(third.isDone());
+        sends.get(2).complete(null);
+        assertDoesNotThrow(third::join);
+    }
+
+    @Test
+    public void testQueuedBlockingSendStartsOnExecutor() {
+        List<Runnable> started = new ArrayList<>();
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "email", pendingProvider(), config(1, 10), started::add, () -> 0L);
+
+        provider.sendAsync(request("a"));
+        CompletableFuture<Void> queued = provider.sendAsync(request("b"));
+        sends.get(0).complete(null);
+
+        // Le thread qui a terminé le premier envoi ne démarre pas lui-même le suivant
+        assertEquals(1, sends.size());
+        assertEquals(1, started.size());
+        started.get(0).run();
+        assertEquals(2, sends.size());
+        sends.get(1).complete(null);
+        assertDoesNotThrow(queued::join);
+    }
+
+    @Test
+    public void testQueuedNativeAsyncSendStartsInline() {
+        NotificationProvider delegate = pendingProvider();
+        when(delegate.capabilities()).thenReturn(ProviderCapabilities.builder().nativeAsync(true).build());
+        List<Runnable> started = new ArrayList<>();
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "sms", delegate, config(1, 10), started::add, () -> 0L);
+
+        provider.sendAsync(request("a"));
+        provider.sendAsync(request("b"));
+        sends.get(0).complete(null);
+
+        assertEquals(2, sends.size());
+        assertTrue(started.isEmpty());
+    }
+
+    @Test
+    public void testSendsAreRejectedWhenQueueIsFull() {
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "email", pendingProvider(), config(1, 1), Runnable::run, () -> 0L);
+
+        provider.sendAsync(request("a"));
+        provider.sendAsync(request("b"));
+        CompletableFuture<Void> rejected = provider.sendAsync(request("c"));
+
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        NotificationRejectedException rejection =
+                assertInstanceOf(NotificationRejectedException.class, exception.getCause());
+        assertEquals(NotificationPriority.NORMAL, rejection.getPriority());
+    }
+
+    @Test
+    public void testQueuedSendReceivesProviderFailure() {
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "sms", pendingProvider(), config(1, 10), Runnable::run, () -> 0L);
+
+        provider.sendAsync(request("a"));
+        CompletableFuture<Void> queued = provider.sendAsync(request("b"));
+        sends.get(0).complete(null);
+        sends.get(1).completeExceptionally(new NotificationException("Erreur Twilio"));
+
+        CompletionException exception = assertThrows(CompletionException.class, queued::join);
+        assertInstanceOf(NotificationException.class, exception.getCause());
+        assertEquals(0, provider.getInFlight());
+    }
+
+    @Test
+    public void testSynchronousSendGoesThroughLimit() {
+        NotificationProvider delegate = mock(NotificationProvider.class);
+        when(delegate.sendAsync(any())).thenReturn(CompletableFuture.failedFuture(new NotificationException("Refusé")));
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "push", delegate, config(5, 10));
+
+        assertThrows(NotificationException.class, () -> provider.send(request("a")));
+        assertEquals(0, provider.getInFlight());
+        // Un échec réduit la limite de 10 %
+        assertEquals(4, provider.getLimit());
+    }
+
+    @Test
+    public void testInvalidRecipientDoesNotReduceLimit() {
+        NotificationProvider delegate = mock(NotificationProvider.class);
+        when(delegate.sendAsync(any())).thenReturn(CompletableFuture.failedFuture(NotificationException.stackless(
+                NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null)));
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "sms", delegate, config(5, 10));
+
+        assertThrows(NotificationException.class, () -> provider.send(request("invalide")));
+        assertEquals(5, provider.getLimit());
+    }
+
+    @Test
+    public void testBatchOccupiesSingleSlot() {
+        NotificationProvider delegate = mock(NotificationProvider.class);
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        when(delegate.sendBatchAsync(anyList())).thenReturn(List.of(first, second));
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "push", delegate, config(5, 10), Runnable::run, () -> 0L);
+
+        List<CompletableFuture<Void>> results = provider.sendBatchAsync(List.of(request("a"), request("b")));
+
+        assertEquals(1, provider.getInFlight());
+        first.complete(null);
+        second.completeExceptionally(NotificationException.stackless(
+                NotificationErrorCode.INVALID_RECIPIENT, "Jeton invalide", null));
+        assertDoesNotThrow(() -> results.get(0).join());
+        CompletionException exception = assertThrows(CompletionException.class, () -> results.get(1).join());
+        assertEquals("Jeton invalide", exception.getCause().getMessage());
+        assertEquals(0, provider.getInFlight());
+    }
+
+    @Test
+    public void testRegistryKeepsWrappedProviders() {
+        ConcurrencyLimitRegistry registry = new ConcurrencyLimitRegistry(config(5, 10));
+        NotificationProvider delegate = mock(NotificationProvider.class);
+        when(delegate.supports("SMS")).thenReturn(true);
+
+        NotificationProvider wrapped = registry.wrap("sms.compte-a", delegate);
+
+        assertTrue(wrapped.supports("SMS"));
+        assertEquals(1, registry.getProviders().size());
+        assertEquals("sms.compte-a", registry.getProviders().iterator().next().getName());
+    }
+
+    @Test
+    public void testCloseStopsTheExecutorCreatedByTheProvider() throws Exception {
+        ConcurrencyLimitedNotificationProvider provider = new ConcurrencyLimitedNotificationProvider(
+                "email", pendingProvider(), config(1, 10));
+
+        provider.sendAsync(request("a"));
+        CompletableFuture<Void> queued = provider.sendAsync(request("b"));
+        provider.close();
+        sends.get(0).complete(null);
+
+        // Le pool arrêté ne démarre plus l'envoi en attente
+        CompletionException exception = assertThrows(CompletionException.class, queued::join);
+        assertEquals(NotificationErrorCode.TRANSIENT, ((NotificationException) exception.getCause()).getErrorCode());
+        assertEquals(1, sends.size());
+    }
+
+    @Test
+    public void testRegistryClosesOnlyTheExecutorItCreated() throws Exception {
+        ConcurrencyLimitRegistry registry = new ConcurrencyLimitRegistry(config(1, 10));
+        NotificationProvider wrapped = registry.wrap("email", pendingProvider());
+
+        wrapped.sendAsync(request("a"));
+        CompletableFuture<Void> queued = wrapped.sendAsync(request("b"));
+        registry.close();
+        sends.get(0).complete(null);
+
+        assertThrows(CompletionException.class, queued::join);
+        assertEquals(1, sends.size());
+
+        List<Runnable> started = new ArrayList<>();
+        ConcurrencyLimitRegistry shared = new ConcurrencyLimitRegistry(config(1, 10), started::add);
+        NotificationProvider sharedWrapped = shared.wrap("email", pendingProvider());
+        sharedWrapped.sendAsync(request("c"));
+        sharedWrapped.sendAsync(request("d"));
+        shared.close();
+        sends.get(1).complete(null);
+
+        // L'exécuteur fourni par l'appelant reste utilisable
+        assertEquals(1, started.size());
+    }
+
+    private NotificationProvider pendingProvider() {
+        NotificationProvider delegate = mock(NotificationProvider.class);
+        when(delegate.sendAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<Void> send = new CompletableFuture<>();
+            sends.add(send);
+            return send;
+        });
+        return delegate;
+    }
+
+    private static NotificationProperties.ConcurrencyConfig config(int limit, int maxQueued) {
+        NotificationProperties.ConcurrencyConfig config = new NotificationProperties.ConcurrencyConfig();
+        config.setInitialLimit(limit);
+        config.setMaxQueued(maxQueued);
+        return config;
+    }
+
+    private static NotificationRequest request(String to) {
+        return new NotificationRequest("SMS", to, null, "Test", null);
+    }
+}
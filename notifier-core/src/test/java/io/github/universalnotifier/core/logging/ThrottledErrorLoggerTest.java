@@ -0,0 +1,68 @@
+package io.github.universalnotifier.core.logging;
+
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour ThrottledErrorLogger.
+ */
+public class ThrottledErrorLoggerTest {
+
+    private final Logger logger = mock(Logger.class);
+    private final AtomicLong now = new AtomicLong();
+    private final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger, Duration.ofSeconds(10), now::get);
+
+    @Test
+    public void testIdenticalErrorsAreLoggedOncePerInterval() {
+        NotificationException failure = new NotificationException(NotificationErrorCode.TRANSIENT, "Twilio indisponible");
+
+        assertTrue(errors.error("Erreur lors de l'envoi du SMS via Twilio", failure));
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(errors.error("Erreur lors de l'envoi du SMS via Twilio", failure));
+        }
+
+        verify(logger, times(1)).error(anyString(), any(Object[].class));
+    }
+
+    @Test
+    public void testSuppressedCountIsReportedInNextInterval() {
+        NotificationException failure = new NotificationException(NotificationErrorCode.TRANSIENT, "Twilio indisponible");
+        errors.error("Erreur lors de l'envoi du SMS via Twilio", failure);
+        errors.error("Erreur lors de l'envoi du SMS via Twilio", failure);
+        errors.error("Erreur lors de l'envoi du SMS via Twilio", failure);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(errors.error("Erreur lors de l'envoi du SMS via Twilio", failure));
+        verify(logger).error(contains("non journalisée"), eq("Erreur lors de l'envoi du SMS via Twilio"),
+                eq(NotificationErrorCode.TRANSIENT), eq(2L), eq(failure));
+    }
+
+    @Test
+    public void testEachErrorCodeHasItsOwnInterval() {
+        errors.error("Erreur lors de l'envoi du SMS via Twilio",
+                new NotificationException(NotificationErrorCode.TRANSIENT, "Twilio indisponible"));
+
+        assertTrue(errors.error("Erreur lors de l'envoi du SMS via Twilio",
+                new NotificationException(NotificationErrorCode.AUTHENTICATION, "Identifiants refusés")));
+    }
+
+    @Test
+    public void testExpectedErrorsAreLoggedAsWarnings() {
+        errors.error("Erreur lors de l'envoi du SMS via Twilio", NotificationException.stackless(
+                NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null));
+
+        verify(logger).warn(anyString(), any(Object[].class));
+        verify(logger, never()).error(anyString(), any(Object[].class));
+    }
+}
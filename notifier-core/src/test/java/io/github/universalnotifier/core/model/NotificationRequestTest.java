@@ -2,6 +2,9 @@ package io.github.universalnotifier.core.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -87,4 +90,40 @@ public class NotificationRequestTest {
             return value;
         }
     }
+
+    @Test
+    public void testPriorityDefaultsToNormal() {
+        NotificationRequest request = new NotificationRequest("EMAIL", "user@example.com", "Sujet", "Message", null);
+        assertEquals(NotificationPriority.NORMAL, request.getPriority());
+
+        request.setPriority(NotificationPriority.CRITICAL);
+        assertEquals(NotificationPriority.CRITICAL, request.getPriority());
+    }
+
+    @Test
+    public void testTimeoutSetsDeadline() {
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33612345678")
+                .message("Code de connexion: 123456")
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        assertNotNull(request.getDeadline());
+        assertFalse(request.hasExpired());
+        Duration remaining = request.remainingTime();
+        assertTrue(remaining.compareTo(Duration.ofSeconds(30)) <= 0);
+        assertTrue(remaining.compareTo(Duration.ofSeconds(25)) > 0);
+    }
+
+    @Test
+    public void testRequestWithoutDeadlineNeverExpires() {
+        NotificationRequest request = new NotificationRequest("EMAIL", "user@example.com", "Sujet", "Message", null);
+        assertNull(request.remainingTime());
+        assertFalse(request.hasExpired());
+
+        request.setDeadline(Instant.now().minusSeconds(1));
+        assertTrue(request.hasExpired());
+        assertTrue(request.remainingTime().isNegative());
+    }
 }
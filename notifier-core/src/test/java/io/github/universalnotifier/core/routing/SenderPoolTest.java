@@ -0,0 +1,116 @@
+package io.github.universalnotifier.core.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SenderPool.
+ */
+public class SenderPoolTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    public void testRecipientKeepsSameSenderWhileAvailable() {
+        SenderPool pool = new SenderPool(List.of("+15550001", "+15550002", "+15550003"), 1.0, clock::get);
+
+        String sender = pool.reserve("+33612345678").sender();
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(SECOND);
+            SenderPool.Reservation reservation = pool.reserve("+33612345678");
+            assertEquals(sender, reservation.sender());
+            assertEquals(0, reservation.delayNanos());
+        }
+    }
+
+    @Test
+    public void testSaturatedSenderFallsBackToAnotherSender() {
+        SenderPool pool = new SenderPool(List.of("+15550001", "+15550002", "+15550003"), 1.0, clock::get);
+
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            SenderPool.Reservation reservation = pool.reserve("+33612345678");
+            assertEquals(0, reservation.delayNanos());
+            used.add(reservation.sender());
+        }
+
+        // Dans la même seconde, chaque expéditeur n'envoie qu'un message : les trois ont été utilisés
+        assertEquals(Set.of("+15550001", "+15550002", "+15550003"), used);
+    }
+
+    @Test
+    public void testSaturatedSenderFallsBackToSameSenderForRecipient() {
+        SenderPool pool = new SenderPool(List.of("+15550001", "+15550002", "+15550003", "+15550004"), 1.0, clock::get);
+
+        String preferred = pool.reserve("+33612345678").sender();
+        String fallback = pool.reserve("+33612345678").sender();
+        assertNotEquals(preferred, fallback);
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(SECOND);
+            assertEquals(preferred, pool.reserve("+33612345678").sender());
+            assertEquals(fallback, pool.reserve("+33612345678").sender());
+        }
+    }
+
+    @Test
+    public void testExhaustedPoolDelaysUntilEarliestSlot() {
+        SenderPool pool = new SenderPool(List.of("+15550001", "+15550002"), 2.0, clock::get);
+
+        pool.reserve("a");
+        pool.reserve("b");
+        SenderPool.Reservation third = pool.reserve("c");
+        SenderPool.Reservation fourth = pool.reserve("d");
+        SenderPool.Reservation fifth = pool.reserve("e");
+
+        assertEquals(SECOND / 2, third.delayNanos());
+        assertEquals(SECOND / 2, fourth.delayNanos());
+        assertNotEquals(third.sender(), fourth.sender());
+        assertEquals(SECOND, fifth.delayNanos());
+    }
+
+    @Test
+    public void testSlotBeyondMaxDelayIsNotReserved() {
+        SenderPool pool = new SenderPool(List.of("+15550001"), 1.0, clock::get);
+
+        pool.reserve("a");
+        assertNull(pool.reserve("b", SECOND / 2));
+        assertNull(pool.reserve("c", SECOND / 2));
+
+        // Les refus n'ont pas consommé de créneau : le suivant reste à une seconde
+        SenderPool.Reservation next = pool.reserve("d", SECOND);
+        assertNotNull(next);
+        assertEquals(SECOND, next.delayNanos());
+    }
+
+    @Test
+    public void testIdleSenderDoesNotAccumulateCredit() {
+        SenderPool pool = new SenderPool(List.of("+15550001"), 1.0, clock::get);
+
+        clock.addAndGet(60 * SECOND);
+        assertEquals(0, pool.reserve("a").delayNanos());
+        // Une longue inactivité ne permet pas de rafale : le message suivant attend l'intervalle complet
+        assertEquals(SECOND, pool.reserve("a").delayNanos());
+    }
+
+    @Test
+    public void testParseTrimsAndDeduplicatesSenders() {
+        SenderPool pool = SenderPool.parse(" +15550001, +15550002,,+15550001 ", 1.0);
+
+        assertEquals(List.of("+15550001", "+15550002"), pool.getSenders());
+    }
+
+    @Test
+    public void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SenderPool.parse(" , ", 1.0));
+        assertThrows(IllegalArgumentException.class, () -> SenderPool.parse("+15550001", 0));
+    }
+}
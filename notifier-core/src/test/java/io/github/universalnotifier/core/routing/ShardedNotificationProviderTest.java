@@ -0,0 +1,136 @@
+package io.github.universalnotifier.core.routing;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour ShardedNotificationProvider.
+ */
+public class ShardedNotificationProviderTest {
+
+    @Test
+    public void testConsistentHashKeepsRecipientOnSameInstance() {
+        ShardedNotificationProvider provider = new ShardedNotificationProvider(instances(4), ShardingStrategy.CONSISTENT_HASH);
+
+        NotificationProvider first = provider.select(request("+33612345678"));
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, provider.select(request("+33612345678")));
+        }
+    }
+
+    @Test
+    public void testConsistentHashSpreadsRecipients() {
+        Map<String, NotificationProvider> instances = instances(4);
+        ShardedNotificationProvider provider = new ShardedNotificationProvider(instances, ShardingStrategy.CONSISTENT_HASH);
+
+        Map<NotificationProvider, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            counts.merge(provider.select(request("+336" + (10_000_000 + i))), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        // Avec 160 points virtuels par instance, chaque instance reçoit une part proche de 25 %
+        counts.values().forEach(count -> assertTrue(count > 1_800 && count < 3_200, "Répartition déséquilibrée: " + counts));
+    }
+
+    @Test
+    public void testAddingInstanceMovesOnlyAFractionOfRecipients() {
+        Map<String, NotificationProvider> instances = instances(4);
+        ShardedNotificationProvider before = new ShardedNotificationProvider(instances, ShardingStrategy.CONSISTENT_HASH);
+        Map<String, NotificationProvider> grown = new LinkedHashMap<>(instances);
+        grown.put("account-5", mock(NotificationProvider.class));
+        ShardedNotificationProvider after = new ShardedNotificationProvider(grown, ShardingStrategy.CONSISTENT_HASH);
+
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            NotificationRequest request = request("user" + i + "@example.com");
+            if (before.select(request) != after.select(request)) {
+                moved++;
+            }
+        }
+
+        // Idéalement 1/5 des destinataires changent d'instance
+        assertTrue(moved > 1_200 && moved < 2_800, "Destinataires déplacés: " + moved);
+    }
+
+    @Test
+    public void testRoundRobinCyclesThroughInstances() {
+        Map<String, NotificationProvider> instances = instances(3);
+        ShardedNotificationProvider provider = new ShardedNotificationProvider(instances, ShardingStrategy.ROUND_ROBIN);
+        NotificationRequest request = request("+33612345678");
+
+        for (int i = 0; i < 6; i++) {
+            provider.send(request);
+        }
+
+        instances.values().forEach(instance -> verify(instance, times(2)).send(request));
+    }
+
+    @Test
+    public void testWarmUpTriesEveryInstance() {
+        Map<String, NotificationProvider> instances = instances(3);
+        doThrow(new NotificationException("Clé refusée")).when(instances.get("account-1")).warmUp(anyInt());
+        ShardedNotificationProvider provider = new ShardedNotificationProvider(instances, ShardingStrategy.ROUND_ROBIN);
+
+        NotificationException exception = assertThrows(NotificationException.class, () -> provider.warmUp(2));
+
+        assertTrue(exception.getMessage().contains("account-1"));
+        instances.values().forEach(instance -> verify(instance).warmUp(2));
+    }
+
+    @Test
+    public void testCreateBuildsOneProviderPerNamedInstance() {
+        NotificationProperties properties = new NotificationProperties();
+        NotificationProperties.ProviderConfig sms = properties.getSms();
+        sms.setProvider("twilio");
+        sms.getProperties().put("twilio", Map.of("from", "+33100000000", "auth-token", "shared"));
+        sms.getInstances().put("account-a", Map.of("account-sid", "AC-A"));
+        sms.getInstances().put("account-b", Map.of("account-sid", "AC-B", "from", "+33200000000"));
+
+        List<Map<String, String>> configs = new ArrayList<>();
+        NotificationProvider provider = ShardedNotificationProvider.create(properties, "sms", instanceProperties -> {
+            configs.add(instanceProperties.getSms().getActiveProviderProperties());
+            return mock(NotificationProvider.class);
+        });
+
+        assertInstanceOf(ShardedNotificationProvider.class, provider);
+        assertEquals(List.of("account-a", "account-b"),
+                List.copyOf(((ShardedNotificationProvider) provider).getInstances().keySet()));
+        // Les propriétés de l'instance complètent ou remplacent celles du fournisseur actif
+        assertEquals(Map.of("account-sid", "AC-A", "from", "+33100000000", "auth-token", "shared"), configs.get(0));
+        assertEquals(Map.of("account-sid", "AC-B", "from", "+33200000000", "auth-token", "shared"), configs.get(1));
+    }
+
+    @Test
+    public void testCreateWithoutInstancesUsesSingleProvider() {
+        NotificationProperties properties = new NotificationProperties();
+        NotificationProvider single = mock(NotificationProvider.class);
+
+        assertSame(single, ShardedNotificationProvider.create(properties, "email", instanceProperties -> single));
+    }
+
+    private static Map<String, NotificationProvider> instances(int count) {
+        Map<String, NotificationProvider> instances = new LinkedHashMap<>();
+        for (int i = 1; i <= count; i++) {
+            instances.put("account-" + i, mock(NotificationProvider.class));
+        }
+        return instances;
+    }
+
+    private static NotificationRequest request(String to) {
+        return new NotificationRequest("SMS", to, null, "Message", null);
+    }
+}
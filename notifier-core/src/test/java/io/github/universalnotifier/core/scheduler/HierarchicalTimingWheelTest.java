@@ -0,0 +1,106 @@
+package io.github.universalnotifier.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour HierarchicalTimingWheel.
+ */
+public class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    public void testEntryFiresAtItsTick() {
+        HierarchicalTimingWheel<TestEntry> wheel = new HierarchicalTimingWheel<>(10, START);
+        List<TestEntry> fired = new ArrayList<>();
+        TestEntry entry = new TestEntry(START + 35);
+        wheel.add(entry);
+
+        wheel.advanceTo(START + 30, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advanceTo(START + 40, fired::add);
+        assertEquals(List.of(entry), fired);
+        assertEquals(0, wheel.size());
+        assertFalse(entry.isScheduled());
+    }
+
+    @Test
+    public void testEntriesCascadeFromUpperLevelsInOrder() {
+        HierarchicalTimingWheel<TestEntry> wheel = new HierarchicalTimingWheel<>(1000, 0);
+        List<TestEntry> fired = new ArrayList<>();
+
+        // Échéances réparties sur plusieurs niveaux de la roue (secondes, heures, jours)
+        long[] deadlines = {86_400_000L, 5_000L, 3_600_000L, 64_000L, 4_096_000L, 200_000L};
+        for (long deadline : deadlines) {
+            wheel.add(new TestEntry(deadline));
+        }
+        assertEquals(deadlines.length, wheel.size());
+
+        for (long now = 0; now <= 86_400_000L; now += 1000) {
+            long current = now;
+            wheel.advanceTo(now, entry -> {
+                // Une entrée n'est jamais déclenchée avant son échéance, ni plus d'un tick après
+                assertTrue(entry.getDeadlineMillis() <= current);
+                assertTrue(current - entry.getDeadlineMillis() < 1000);
+                fired.add(entry);
+            });
+        }
+
+        assertEquals(deadlines.length, fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(fired.get(i - 1).getDeadlineMillis() <= fired.get(i).getDeadlineMillis());
+        }
+    }
+
+    @Test
+    public void testRemovedEntryNeverFires() {
+        HierarchicalTimingWheel<TestEntry> wheel = new HierarchicalTimingWheel<>(10, START);
+        List<TestEntry> fired = new ArrayList<>();
+        TestEntry kept = new TestEntry(START + 100_000);
+        TestEntry removed = new TestEntry(START + 100_000);
+        wheel.add(kept);
+        wheel.add(removed);
+
+        assertTrue(wheel.remove(removed));
+        assertFalse(wheel.remove(removed));
+
+        wheel.advanceTo(START + 200_000, fired::add);
+        assertEquals(List.of(kept), fired);
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextTick() {
+        HierarchicalTimingWheel<TestEntry> wheel = new HierarchicalTimingWheel<>(10, START);
+        List<TestEntry> fired = new ArrayList<>();
+        wheel.add(new TestEntry(START - 5_000));
+
+        wheel.advanceTo(START + 10, fired::add);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    public void testManyEntries() {
+        HierarchicalTimingWheel<TestEntry> wheel = new HierarchicalTimingWheel<>(1, 0);
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            wheel.add(new TestEntry((i * 7919L) % 100_000));
+        }
+
+        int[] fired = {0};
+        wheel.advanceTo(100_000, entry -> fired[0]++);
+        assertEquals(count, fired[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    private static final class TestEntry extends TimerEntry {
+        private TestEntry(long deadlineMillis) {
+            super(deadlineMillis);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.universalnotifier.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour LongKeyedTable.
+ */
+public class LongKeyedTableTest {
+
+    @Test
+    public void testPutGetAndRemove() {
+        LongKeyedTable<String> table = new LongKeyedTable<>();
+
+        assertNull(table.put(42, "a"));
+        assertEquals("a", table.put(42, "b"));
+        assertEquals("b", table.get(42));
+        assertEquals(1, table.size());
+
+        assertEquals("b", table.remove(42));
+        assertNull(table.get(42));
+        assertNull(table.remove(42));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testConditionalRemoveComparesIdentity() {
+        LongKeyedTable<String> table = new LongKeyedTable<>();
+        String value = new String("a");
+        table.put(1, value);
+
+        assertFalse(table.remove(1, new String("a")));
+        assertTrue(table.remove(1, value));
+        assertFalse(table.remove(1, value));
+    }
+
+    @Test
+    public void testKeysSurviveGrowthAndRemovalsInProbeSequences() {
+        LongKeyedTable<Long> table = new LongKeyedTable<>();
+        Random random = new Random(7);
+        Set<Long> expected = new HashSet<>();
+
+        // Identifiants consécutifs puis quelconques, retirés dans le désordre
+        for (long id = 1; id <= 20_000; id++) {
+            table.put(id, id);
+            expected.add(id);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            long key = random.nextLong();
+            table.put(key, key);
+            expected.add(key);
+        }
+        for (Long key : Set.copyOf(expected)) {
+            if (random.nextBoolean()) {
+                assertEquals(key, table.remove(key));
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        assertEquals(expected, new HashSet<>(table.values()));
+        for (Long key : expected) {
+            assertEquals(key, table.get(key));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.universalnotifier.core.scheduler;
+
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterFilter;
+import io.github.universalnotifier.core.deadletter.InMemoryDeadLetterStore;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour NotificationScheduler.
+ */
+public class NotificationSchedulerTest {
+
+    private NotificationService notificationService;
+    private NotificationScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        notificationService = mock(NotificationService.class);
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        scheduler = new NotificationScheduler(notificationService, Duration.ofMillis(5), Runnable::run, Clock.systemUTC());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    public void testScheduledNotificationIsDispatchedWhenDue() throws InterruptedException {
+        CountDownLatch sent = new CountDownLatch(1);
+        when(notificationService.sendAsync(any())).thenAnswer(invocation -> {
+            sent.countDown();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33612345678")
+                .message("Rappel")
+                .delay(Duration.ofMillis(50))
+                .build();
+
+        scheduler.schedule(request);
+        assertEquals(1, scheduler.getPendingCount());
+
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        verify(notificationService).sendAsync(request);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testCancelledNotificationIsNeverDispatched() throws InterruptedException {
+        NotificationRequest request = new NotificationRequest("EMAIL", "test@example.com", "Sujet", "Message", null);
+
+        long id = scheduler.schedule(request, Duration.ofMillis(100));
+        assertTrue(scheduler.cancel(id));
+        assertFalse(scheduler.cancel(id));
+
+        Thread.sleep(300);
+        verify(notificationService, never()).sendAsync(any());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testShutdownKeepsPendingNotificationsAsDeadLetters() {
+        InMemoryDeadLetterStore deadLetters = new InMemoryDeadLetterStore(10);
+        scheduler.setDeadLetterStore(deadLetters);
+        Instant sendAt = Instant.now().plus(Duration.ofHours(1));
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33612345678")
+                .message("Rappel")
+                .sendAt(sendAt)
+                .build();
+        scheduler.schedule(request);
+
+        scheduler.shutdown(Duration.ofSeconds(1));
+
+        verify(notificationService, never()).sendAsync(any());
+        assertEquals(0, scheduler.getPendingCount());
+        DeadLetter kept = deadLetters.find(DeadLetterFilter.all(), 0, 10).get(0);
+        assertEquals(sendAt, kept.getRequest().getSendAt());
+        assertEquals(NotificationErrorCode.TRANSIENT, kept.getErrorCode());
+    }
+}
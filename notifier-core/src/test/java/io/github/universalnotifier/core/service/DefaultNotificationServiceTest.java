@@ -1,17 +1,36 @@
 package io.github.universalnotifier.core.service;
 
+import io.github.universalnotifier.core.coalescing.DefaultNotificationMerger;
+import io.github.universalnotifier.core.coalescing.NotificationCoalescer;
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterFilter;
+import io.github.universalnotifier.core.deadletter.InMemoryDeadLetterStore;
+import io.github.universalnotifier.core.dispatch.AdmissionController;
+import io.github.universalnotifier.core.dispatch.PriorityLaneDispatcher;
+import io.github.universalnotifier.core.dispatch.RecipientSequencer;
+import io.github.universalnotifier.core.model.NotificationPriority;
 import io.github.universalnotifier.core.model.NotificationRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -175,4 +194,330 @@ public class DefaultNotificationServiceTest {
                 notificationService.send(request)
         );
     }
+
+    @Test
+    public void testSendThroughPriorityLaneDispatcher() {
+        when(smsProvider.sendAsync(any())).thenCallRealMethod();
+        NotificationProperties.DispatchConfig config = new NotificationProperties.DispatchConfig();
+        config.setWorkers(1);
+
+        try (PriorityLaneDispatcher dispatcher = new PriorityLaneDispatcher(config)) {
+            DefaultNotificationService service = new DefaultNotificationService(
+                    Arrays.asList(emailProvider, smsProvider, pushProvider),
+                    NotificationServiceOptions.builder().dispatcher(dispatcher).build());
+            NotificationRequest request = NotificationRequest.builder()
+                    .type("SMS")
+                    .to("+33612345678")
+                    .message("Code de connexion")
+                    .priority(NotificationPriority.CRITICAL)
+                    .build();
+
+            service.send(request);
+
+            verify(smsProvider).send(request);
+        }
+    }
+
+    @Test
+    public void testDispatcherPropagatesProviderFailure() {
+        when(smsProvider.sendAsync(any())).thenCallRealMethod();
+        doThrow(new RuntimeException("Erreur Twilio")).when(smsProvider).send(any());
+        NotificationProperties.DispatchConfig config = new NotificationProperties.DispatchConfig();
+        config.setWorkers(1);
+
+        try (PriorityLaneDispatcher dispatcher = new PriorityLaneDispatcher(config)) {
+            DefaultNotificationService service = new DefaultNotificationService(
+                    Arrays.asList(emailProvider, smsProvider, pushProvider),
+                    NotificationServiceOptions.builder().dispatcher(dispatcher).build());
+            NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null, "Test", null);
+
+            assertThrows(NotificationException.class, () -> service.send(request));
+        }
+    }
+
+    @Test
+    public void testEnqueuedNotificationIsSentByDispatcher() {
+        when(smsProvider.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        NotificationProperties.DispatchConfig config = new NotificationProperties.DispatchConfig();
+        config.setWorkers(1);
+        config.getSpill().setEnabled(true);
+        config.getNormal().setCapacity(1);
+
+        try (PriorityLaneDispatcher dispatcher = new PriorityLaneDispatcher(config)) {
+            DefaultNotificationService service = new DefaultNotificationService(
+                    Arrays.asList(emailProvider, smsProvider, pushProvider),
+                    NotificationServiceOptions.builder().dispatcher(dispatcher).build());
+
+            for (int i = 0; i < 20; i++) {
+                service.enqueue(new NotificationRequest("SMS", "+3361234567" + (i % 10), null, "Promo " + i, null));
+            }
+
+            verify(smsProvider, timeout(5000).times(20)).sendAsync(any());
+            assertThrows(NotificationException.class,
+                    () -> service.enqueue(new NotificationRequest("FAX", "+33612345678", null, "Test", null)));
+        }
+    }
+
+    @Test
+    public void testFailedEnqueuedNotificationBecomesDeadLetter() {
+        NotificationRequest failing = new NotificationRequest("SMS", "+33612345678", null, "Promo", null);
+        NotificationRequest sent = new NotificationRequest("SMS", "+33698765432", null, "Promo", null);
+        when(smsProvider.sendAsync(failing)).thenReturn(CompletableFuture.failedFuture(
+                NotificationException.stackless(NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null)));
+        when(smsProvider.sendAsync(sent)).thenReturn(CompletableFuture.completedFuture(null));
+        InMemoryDeadLetterStore deadLetters = new InMemoryDeadLetterStore(10);
+        DefaultNotificationService service = new DefaultNotificationService(
+                Arrays.asList(emailProvider, smsProvider, pushProvider),
+                NotificationServiceOptions.builder().deadLetters(deadLetters).build());
+
+        service.enqueue(failing);
+        service.enqueue(sent);
+        // Un envoi dont l'appelant suit le résultat n'est pas conservé
+        assertThrows(CompletionException.class, () -> service.sendAsync(failing).join());
+
+        List<DeadLetter> found = deadLetters.find(DeadLetterFilter.all(), 0, 10);
+        assertEquals(1, found.size());
+        assertEquals(failing, found.get(0).getRequest());
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, found.get(0).getErrorCode());
+    }
+
+    @Test
+    public void testAwaitInFlightWaitsForProviderResponses() {
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null, "Test", null);
+        when(smsProvider.sendAsync(request)).thenReturn(pending);
+
+        CompletableFuture<Void> result = notificationService.sendAsync(request);
+        assertEquals(1, notificationService.getInFlightCount());
+        assertFalse(notificationService.awaitInFlight(Duration.ofMillis(20)));
+
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS).execute(() -> pending.complete(null));
+        assertTrue(notificationService.awaitInFlight(Duration.ofSeconds(5)));
+        assertEquals(0, notificationService.getInFlightCount());
+        assertDoesNotThrow(result::join);
+    }
+
+    @Test
+    public void testBlockingProviderDoesNotRunOnCallerThread() {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> sender = new CompletableFuture<>();
+        when(emailProvider.sendAsync(any())).thenAnswer(invocation -> {
+            sender.complete(Thread.currentThread());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        CompletableFuture<Void> result = notificationService.sendAsync(
+                new NotificationRequest("EMAIL", "test@example.com", "Sujet", "Message", null));
+
+        assertDoesNotThrow(result::join);
+        assertNotSame(caller, sender.join());
+        assertTrue(sender.join().getName().startsWith("notifier-blocking-"));
+    }
+
+    @Test
+    public void testNativeAsyncProviderIsCalledDirectly() {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> sender = new CompletableFuture<>();
+        when(smsProvider.capabilities()).thenReturn(ProviderCapabilities.builder().nativeAsync(true).build());
+        when(smsProvider.sendAsync(any())).thenAnswer(invocation -> {
+            sender.complete(Thread.currentThread());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        notificationService.sendAsync(new NotificationRequest("SMS", "+33612345678", null, "Message", null)).join();
+
+        assertSame(caller, sender.join());
+    }
+
+    @Test
+    public void testSaturatedBlockingPoolRejectsNotification() {
+        NotificationProperties.BlockingConfig config = new NotificationProperties.BlockingConfig();
+        config.setThreads(1);
+        config.setMaxQueued(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        when(emailProvider.sendAsync(any())).thenAnswer(invocation -> {
+            release.join();
+            return CompletableFuture.completedFuture(null);
+        });
+        try (BlockingSendExecutor executor = new BlockingSendExecutor(config)) {
+            DefaultNotificationService service = new DefaultNotificationService(
+                    Arrays.asList(emailProvider, smsProvider, pushProvider),
+                    NotificationServiceOptions.builder().blockingExecutor(executor).build());
+            NotificationRequest request = new NotificationRequest("EMAIL", "test@example.com", "Sujet", "Message", null);
+
+            CompletableFuture<Void> running = service.sendAsync(request);
+            CompletableFuture<Void> queued = service.sendAsync(request);
+            CompletableFuture<Void> rejected = service.sendAsync(request);
+
+            CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+            assertInstanceOf(NotificationRejectedException.class, exception.getCause());
+            release.complete(null);
+            assertDoesNotThrow(running::join);
+            assertDoesNotThrow(queued::join);
+        }
+    }
+
+    @Test
+    public void testCloseStopsOnlyTheBlockingPoolCreatedByTheService() {
+        when(emailProvider.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        NotificationRequest request = new NotificationRequest("EMAIL", "test@example.com", "Sujet", "Message", null);
+        List<NotificationProvider> providers = Arrays.asList(emailProvider, smsProvider, pushProvider);
+
+        DefaultNotificationService owner = new DefaultNotificationService(providers);
+        owner.close();
+        CompletionException exception = assertThrows(CompletionException.class, () -> owner.sendAsync(request).join());
+        assertInstanceOf(NotificationException.class, exception.getCause());
+        verify(emailProvider, never()).sendAsync(any());
+
+        // Un pool fourni par l'appelant survit à la fermeture du service
+        try (BlockingSendExecutor executor = new BlockingSendExecutor(new NotificationProperties.BlockingConfig())) {
+            DefaultNotificationService service = new DefaultNotificationService(providers,
+                    NotificationServiceOptions.builder().blockingExecutor(executor).build());
+            service.close();
+            assertDoesNotThrow(() -> service.sendAsync(request).join());
+        }
+    }
+
+    @Test
+    public void testSynchronousCoalescedSendReturnsOnAcceptance() {
+        when(smsProvider.capabilities()).thenReturn(ProviderCapabilities.builder().nativeAsync(true).build());
+        when(smsProvider.sendAsync(any())).thenReturn(CompletableFuture.failedFuture(new NotificationException("Erreur Twilio")));
+        InMemoryDeadLetterStore deadLetters = new InMemoryDeadLetterStore(10);
+        NotificationProperties.CoalescingConfig config = new NotificationProperties.CoalescingConfig();
+        config.setWindow(Duration.ofMinutes(10));
+        try (NotificationCoalescer coalescer = new NotificationCoalescer(config, new DefaultNotificationMerger(),
+                Runnable::run, Clock.systemUTC())) {
+            DefaultNotificationService service = new DefaultNotificationService(
+                    Arrays.asList(emailProvider, smsProvider, pushProvider),
+                    NotificationServiceOptions.builder().coalescer(coalescer).deadLetters(deadLetters).build());
+            NotificationRequest request = NotificationRequest.builder()
+                    .type("SMS")
+                    .to("+33612345678")
+                    .message("Nouveau message")
+                    .coalescingKey("messages")
+                    .build();
+
+            // L'appel n'attend pas les dix minutes de la fenêtre de regroupement
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> service.send(request));
+            verify(smsProvider, never()).sendAsync(any());
+        }
+
+        // Le résumé envoyé à la fermeture échoue : personne n'en suit le résultat, il devient une lettre morte
+        verify(smsProvider).sendAsync(any());
+        assertEquals(1, deadLetters.count());
+    }
+
+    @Test
+    public void testSequencerKeepsOrderForSameRecipient() {
+        CompletableFuture<Void> shipped = new CompletableFuture<>();
+        NotificationRequest first = new NotificationRequest("SMS", "+33612345678", null, "Commande expédiée", null);
+        NotificationRequest second = new NotificationRequest("SMS", "+33612345678", null, "Commande livrée", null);
+        when(smsProvider.sendAsync(first)).thenReturn(shipped);
+        when(smsProvider.sendAsync(second)).thenReturn(CompletableFuture.completedFuture(null));
+
+        DefaultNotificationService service = new DefaultNotificationService(
+                Arrays.asList(emailProvider, smsProvider, pushProvider),
+                NotificationServiceOptions.builder().sequencer(new RecipientSequencer(16, Runnable::run)).build());
+
+        CompletableFuture<Void> firstResult = service.sendAsync(first);
+        CompletableFuture<Void> secondResult = service.sendAsync(second);
+
+        verify(smsProvider, never()).sendAsync(second);
+        shipped.complete(null);
+
+        assertDoesNotThrow(firstResult::join);
+        assertDoesNotThrow(secondResult::join);
+        InOrder inOrder = inOrder(smsProvider);
+        inOrder.verify(smsProvider).sendAsync(first);
+        inOrder.verify(smsProvider).sendAsync(second);
+    }
+
+    @Test
+    public void testSaturatedServiceRejectsLowPriority() {
+        NotificationProperties.AdmissionConfig config = new NotificationProperties.AdmissionConfig();
+        config.setMaxQueueDepth(10);
+        DefaultNotificationService service = new DefaultNotificationService(
+                Arrays.asList(emailProvider, smsProvider, pushProvider),
+                NotificationServiceOptions.builder().admission(new AdmissionController(config, () -> 7)).build());
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33612345678")
+                .message("Promotion")
+                .priority(NotificationPriority.LOW)
+                .build();
+
+        NotificationRejectedException exception = assertThrows(NotificationRejectedException.class,
+                () -> service.send(request));
+        assertEquals(NotificationPriority.LOW, exception.getPriority());
+        verify(smsProvider, never()).sendAsync(any());
+        verify(smsProvider, never()).send(any());
+    }
+
+    @Test
+    public void testExpiredRequestIsNotSent() {
+        NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null, "Code: 123456", null);
+        request.setDeadline(Instant.now().minusSeconds(1));
+
+        NotificationException exception = assertThrows(NotificationException.class, () -> notificationService.send(request));
+        assertTrue(exception.getMessage().contains("Échéance"));
+        verify(smsProvider, never()).send(any());
+        verify(smsProvider, never()).sendAsync(any());
+    }
+
+    @Test
+    public void testDeadlineBoundsAsynchronousSend() {
+        when(smsProvider.sendAsync(any())).thenReturn(new CompletableFuture<>());
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33612345678")
+                .message("Code: 123456")
+                .timeout(Duration.ofMillis(50))
+                .build();
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> notificationService.sendAsync(request).join());
+        assertInstanceOf(NotificationException.class, exception.getCause());
+        assertInstanceOf(TimeoutException.class, exception.getCause().getCause());
+    }
+
+    @Test
+    public void testLongMessageIsSplitForProvider() {
+        when(smsProvider.capabilities()).thenReturn(ProviderCapabilities.builder().maxMessageLength(20).build());
+        when(smsProvider.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        NotificationRequest request = new NotificationRequest("SMS", "+33612345678", null,
+                "Votre commande 1234 a été expédiée aujourd'hui", null);
+
+        notificationService.send(request);
+
+        ArgumentCaptor<NotificationRequest> captor = ArgumentCaptor.forClass(NotificationRequest.class);
+        verify(smsProvider, times(3)).sendAsync(captor.capture());
+        verify(smsProvider, never()).send(any());
+        assertEquals(List.of("Votre commande 1234", "a été expédiée", "aujourd'hui"),
+                captor.getAllValues().stream().map(NotificationRequest::getMessage).toList());
+    }
+
+    @Test
+    public void testBatchIsChunkedForProvider() {
+        when(pushProvider.capabilities()).thenReturn(ProviderCapabilities.builder().maxBatchSize(2).build());
+        when(pushProvider.sendBatchAsync(anyList())).thenAnswer(invocation -> {
+            List<NotificationRequest> batch = invocation.getArgument(0);
+            return batch.stream().map(request -> CompletableFuture.<Void>completedFuture(null)).toList();
+        });
+        when(emailProvider.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        List<CompletableFuture<Void>> results = notificationService.sendBatchAsync(List.of(
+                new NotificationRequest("PUSH", "token-1", "Titre", "Message", null),
+                new NotificationRequest("EMAIL", "user@example.com", "Sujet", "Message", null),
+                new NotificationRequest("PUSH", "token-2", "Titre", "Message", null),
+                new NotificationRequest("PUSH", "token-3", "Titre", "Message", null),
+                new NotificationRequest("FAX", "0123456789", null, "Message", null)));
+
+        assertEquals(5, results.size());
+        assertDoesNotThrow(() -> results.get(0).join());
+        assertDoesNotThrow(() -> results.get(3).join());
+        assertThrows(CompletionException.class, () -> results.get(4).join());
+        verify(pushProvider, times(2)).sendBatchAsync(anyList());
+        verify(pushProvider, never()).sendAsync(any());
+        verify(emailProvider).sendAsync(any());
+    }
 }
@@ -0,0 +1,36 @@
+package io.github.universalnotifier.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour MessageSplitter.
+ */
+public class MessageSplitterTest {
+
+    @Test
+    public void testSplitsOnWhitespace() {
+        List<String> parts = MessageSplitter.split("Votre commande 1234 a été expédiée aujourd'hui", 20);
+
+        assertEquals(List.of("Votre commande 1234", "a été expédiée", "aujourd'hui"), parts);
+        assertTrue(parts.stream().allMatch(part -> part.length() <= 20));
+    }
+
+    @Test
+    public void testLongWordIsCutWithoutBreakingSurrogatePairs() {
+        String message = "abcdefghi😀jklmnop";
+
+        List<String> parts = MessageSplitter.split(message, 10);
+
+        assertEquals("abcdefghi", parts.get(0));
+        assertEquals(message, String.join("", parts));
+    }
+
+    @Test
+    public void testShortMessageIsKept() {
+        assertEquals(List.of("Bonjour"), MessageSplitter.split("Bonjour", 160));
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.universalnotifier.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour NotificationErrorCode et la classification des NotificationException.
+ */
+public class NotificationErrorCodeTest {
+
+    @Test
+    public void testHttpStatusClassification() {
+        assertEquals(NotificationErrorCode.RATE_LIMITED, NotificationErrorCode.fromHttpStatus(429));
+        assertEquals(NotificationErrorCode.AUTHENTICATION, NotificationErrorCode.fromHttpStatus(401));
+        assertEquals(NotificationErrorCode.TIMEOUT, NotificationErrorCode.fromHttpStatus(504));
+        assertEquals(NotificationErrorCode.TRANSIENT, NotificationErrorCode.fromHttpStatus(503));
+        assertEquals(NotificationErrorCode.UNKNOWN, NotificationErrorCode.fromHttpStatus(400));
+    }
+
+    @Test
+    public void testWrappedExceptionKeepsCauseErrorCode() {
+        NotificationException cause = new NotificationException(NotificationErrorCode.RATE_LIMITED, "Quota atteint");
+
+        NotificationException wrapped = new NotificationException("Échec de l'envoi de la notification",
+                new CompletionException(cause));
+
+        assertEquals(NotificationErrorCode.RATE_LIMITED, wrapped.getErrorCode());
+        assertEquals(NotificationErrorCode.RATE_LIMITED, NotificationErrorCode.of(new CompletionException(wrapped)));
+    }
+
+    @Test
+    public void testIoErrorsAreClassified() {
+        assertEquals(NotificationErrorCode.TIMEOUT, NotificationErrorCode.of(new HttpTimeoutException("request timed out")));
+        assertEquals(NotificationErrorCode.TRANSIENT, NotificationErrorCode.of(new IOException("Connection reset")));
+        assertEquals(NotificationErrorCode.UNKNOWN, NotificationErrorCode.of(new IllegalStateException()));
+        assertEquals(NotificationErrorCode.UNKNOWN, new NotificationException("Erreur").getErrorCode());
+    }
+
+    @Test
+    public void testStacklessExceptionHasNoStackTrace() {
+        NotificationException exception = NotificationException.stackless(
+                NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null);
+
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, exception.getErrorCode());
+        assertFalse(exception.getErrorCode().isRetryable());
+        assertTrue(new NotificationException("Erreur").getStackTrace().length > 0);
+    }
+}
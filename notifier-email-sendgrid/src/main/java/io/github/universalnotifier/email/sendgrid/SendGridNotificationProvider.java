@@ -1,5 +1,7 @@
 package io.github.universalnotifier.email.sendgrid;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.sendgrid.Client;
 import com.sendgrid.Method;
 import com.sendgrid.Request;
 import com.sendgrid.Response;
@@ -7,15 +9,27 @@ import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import io.github.universalnotifier.core.codec.PayloadCache;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.http.ProviderTimeouts;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
 import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClients;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Fournisseur de notification par email utilisant l'API SendGrid.
@@ -24,13 +38,29 @@ import java.util.Map;
 public class SendGridNotificationProvider implements NotificationProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(SendGridNotificationProvider.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
 
     private static final String TYPE = "EMAIL";
     private static final String API_KEY = "api-key";
     private static final String FROM_EMAIL = "from";
+    private static final String MAX_CONNECTIONS = "max-connections";
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final String PAYLOAD_CACHE_SIZE = "payload-cache-size";
+
+    /**
+     * Le client SendGrid est bloquant ; l'ordre des emails reçus n'est pas garanti par les boîtes de réception.
+     */
+    private static final ProviderCapabilities CAPABILITIES = ProviderCapabilities.builder()
+            .orderSensitive(false)
+            .build();
 
     private final String apiKey;
     private final String fromEmail;
+    private final int maxConnections;
+    private final ProviderTimeouts timeouts;
+    private final PayloadCache<String> payloads;
+
+    private volatile SendGrid client;
 
     /**
      * Constructeur du fournisseur SendGrid utilisant les propriétés configurées.
@@ -51,6 +81,17 @@ public class SendGridNotificationProvider implements NotificationProvider {
             throw new IllegalArgumentException("La propriété 'notifier.email.sendgrid.from' est requise pour l'utilisation de SendGrid");
         }
 
+        String maxConnectionsValue = config.get(MAX_CONNECTIONS);
+        try {
+            this.maxConnections = maxConnectionsValue == null || maxConnectionsValue.isEmpty()
+                    ? DEFAULT_MAX_CONNECTIONS : Integer.parseInt(maxConnectionsValue.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La propriété 'notifier.email.sendgrid.max-connections' doit être un entier");
+        }
+
+        this.timeouts = ProviderTimeouts.from(config, "notifier.email.sendgrid");
+        this.payloads = PayloadCache.parse(config.get(PAYLOAD_CACHE_SIZE), "notifier.email.sendgrid.payload-cache-size");
+
         logger.info("Fournisseur de notification SendGrid initialisé avec l'adresse d'expéditeur: {}", fromEmail);
     }
 
@@ -59,38 +100,136 @@ public class SendGridNotificationProvider implements NotificationProvider {
         return TYPE.equalsIgnoreCase(type);
     }
 
+    @Override
+    public ProviderCapabilities capabilities() {
+        return CAPABILITIES;
+    }
+
     @Override
     public void send(NotificationRequest request) {
+        // Une notification dont l'échéance est passée n'est pas envoyée
+        timeouts.requestTimeout(request);
         try {
             logger.debug("Préparation d'un email à envoyer à: {}", request.getTo());
 
-            SendGrid sg = new SendGrid(apiKey);
-
-            Email from = new Email(fromEmail);
-            Email to = new Email(request.getTo());
-            String subject = request.getSubject() != null ? request.getSubject() : "";
-            Content content = new Content("text/plain", request.getMessage());
-
-            Mail mail = new Mail(from, subject, to, content);
+            SendGrid sg = client();
 
             Request sendgridRequest = new Request();
             sendgridRequest.setMethod(Method.POST);
             sendgridRequest.setEndpoint("mail/send");
-            sendgridRequest.setBody(mail.build());
+            sendgridRequest.setBody(withRecipient(payloads.get(request, this::encodeContent), request.getTo()));
 
             Response response = sg.api(sendgridRequest);
 
             int statusCode = response.getStatusCode();
             if (statusCode < 200 || statusCode >= 300) {
-                logger.error("Échec de l'envoi d'email. Code de statut: {}. Corps: {}",
-                        statusCode, response.getBody());
-                throw new NotificationException("Échec de l'envoi d'email via SendGrid. Code de statut: " + statusCode);
+                // Erreur attendue (adresse refusée, quota...) : pas de trace de pile
+                NotificationException failure = NotificationException.stackless(
+                        NotificationErrorCode.fromHttpStatus(statusCode),
+                        "Échec de l'envoi d'email via SendGrid. Code de statut: " + statusCode
+                                + ". Corps: " + response.getBody(), null);
+                errors.error("Échec de l'envoi d'email via SendGrid", failure);
+                throw failure;
             }
 
             logger.info("Email envoyé avec succès à {}. Code de statut: {}", request.getTo(), statusCode);
         } catch (IOException e) {
-            logger.error("Erreur lors de l'envoi d'email via SendGrid", e);
-            throw new NotificationException("Erreur lors de l'envoi d'email via SendGrid", e);
+            errors.error("Erreur lors de l'envoi d'email via SendGrid", e);
+            throw NotificationException.stackless(NotificationErrorCode.of(e),
+                    "Erreur lors de l'envoi d'email via SendGrid", e);
+        }
+    }
+
+    /**
+     * Sérialise la partie de l'email commune à tous ses destinataires : expéditeur, sujet et contenu.
+     */
+    private String encodeContent(PayloadCache.Content content) {
+        Mail mail = new Mail();
+        mail.setFrom(new Email(fromEmail));
+        mail.setSubject(content.subject() != null ? content.subject() : "");
+        mail.addContent(new Content("text/plain", content.message()));
+        try {
+            return mail.build();
+        } catch (IOException e) {
+            throw new NotificationException("Erreur lors de la construction de l'email SendGrid", e);
+        }
+    }
+
+    /**
+     * Ajoute le destinataire en tête de l'email encodé, sans le resérialiser.
+     *
+     * @param content Objet JSON de l'email sans destinataire
+     * @param to Adresse du destinataire
+     * @return Le corps de la requête
+     */
+    static String withRecipient(String content, String to) {
+        StringBuilder json = new StringBuilder(content.length() + to.length() + 48)
+                .append("{\"personalizations\":[{\"to\":[{\"email\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(to, json);
+        return json.append("\"}]}],").append(content, 1, content.length()).toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Les connexions sont ouvertes en lisant simultanément les droits de la clé d'API ({@code GET /v3/scopes}),
+     * ce qui vérifie aussi la clé sans envoyer d'email.
+     */
+    @Override
+    public void warmUp(int connections) {
+        SendGrid sg = client();
+        int calls = Math.max(1, Math.min(connections, maxConnections));
+        ExecutorService executor = Executors.newFixedThreadPool(calls);
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[calls];
+            for (int i = 0; i < calls; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> readScopes(sg), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+            logger.debug("{} connexion(s) ouverte(s) vers l'API SendGrid", calls);
+        } catch (CompletionException e) {
+            throw new NotificationException("Échec du préchauffage de SendGrid", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void readScopes(SendGrid sg) {
+        Request request = new Request();
+        request.setMethod(Method.GET);
+        request.setEndpoint("scopes");
+        try {
+            Response response = sg.api(request);
+            if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+                throw new NotificationException("Préchauffage SendGrid refusé. Code de statut: " + response.getStatusCode());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retourne le client SendGrid, créé au premier appel puis réutilisé : ses connexions restent
+     * dans un pool au lieu d'être rouvertes (DNS, TCP, TLS) à chaque email.
+     */
+    private SendGrid client() {
+        SendGrid sg = client;
+        if (sg == null) {
+            synchronized (this) {
+                sg = client;
+                if (sg == null) {
+                    sg = new SendGrid(apiKey, new Client(HttpClients.custom()
+                            .setMaxConnPerRoute(maxConnections)
+                            .setMaxConnTotal(maxConnections)
+                            .setDefaultRequestConfig(RequestConfig.custom()
+                                    .setConnectTimeout((int) timeouts.getConnectTimeout().toMillis())
+                                    .setSocketTimeout((int) timeouts.getReadTimeout().toMillis())
+                                    .build())
+                            .build()));
+                    client = sg;
+                }
+            }
         }
+        return sg;
     }
 }
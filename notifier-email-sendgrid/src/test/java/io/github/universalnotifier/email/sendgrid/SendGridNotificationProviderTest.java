@@ -1,21 +1,27 @@
 package io.github.universalnotifier.email.sendgrid;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sendgrid.Method;
 import com.sendgrid.Request;
 import com.sendgrid.Response;
 import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
 import io.github.universalnotifier.core.config.NotificationProperties;
 import io.github.universalnotifier.core.model.NotificationRequest;
 import io.github.universalnotifier.core.service.NotificationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedConstruction;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -172,4 +178,92 @@ public class SendGridNotificationProviderTest {
             assertThrows(NotificationException.class, () -> provider.send(request));
         }
     }
+
+    @Test
+    public void testClientIsReusedAcrossSends() {
+        NotificationRequest request = NotificationRequest.builder()
+                .type("EMAIL")
+                .to("recipient@example.com")
+                .message("Test Message Content")
+                .build();
+
+        try (MockedConstruction<SendGrid> mockedSendGrid = mockConstruction(
+                SendGrid.class,
+                (mock, context) -> {
+                    Response response = new Response();
+                    response.setStatusCode(202);
+                    when(mock.api(any(Request.class))).thenReturn(response);
+                })) {
+
+            provider.send(request);
+            provider.send(request);
+
+            // Un seul client, et donc un seul pool de connexions, pour tous les envois
+            assertEquals(1, mockedSendGrid.constructed().size());
+        }
+    }
+
+    @Test
+    public void testEncodedContentIsSharedBetweenRecipients() throws IOException {
+        try (MockedConstruction<SendGrid> mockedSendGrid = mockConstruction(
+                SendGrid.class,
+                (mock, context) -> {
+                    Response response = new Response();
+                    response.setStatusCode(202);
+                    when(mock.api(any(Request.class))).thenReturn(response);
+                })) {
+
+            for (String to : List.of("alice@example.com", "bob\"@example.com")) {
+                provider.send(NotificationRequest.builder()
+                        .type("EMAIL")
+                        .to(to)
+                        .subject("Promotion")
+                        .message("-20 % ce week-end")
+                        .build());
+            }
+
+            ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+            verify(mockedSendGrid.constructed().get(0), times(2)).api(captor.capture());
+            // Le corps assemblé est celui qu'aurait sérialisé le SDK pour chaque destinataire
+            ObjectMapper mapper = new ObjectMapper();
+            assertEquals(mapper.readTree(new Mail(new Email("test@example.com"), "Promotion",
+                            new Email("bob\"@example.com"), new Content("text/plain", "-20 % ce week-end")).build()),
+                    mapper.readTree(captor.getAllValues().get(1).getBody()));
+            assertTrue(captor.getAllValues().get(0).getBody().contains("alice@example.com"));
+        }
+    }
+
+    @Test
+    public void testWarmUpReadsScopesWithoutSendingEmail() throws IOException {
+        try (MockedConstruction<SendGrid> mockedSendGrid = mockConstruction(
+                SendGrid.class,
+                (mock, context) -> {
+                    Response response = new Response();
+                    response.setStatusCode(200);
+                    when(mock.api(any(Request.class))).thenReturn(response);
+                })) {
+
+            provider.warmUp(3);
+
+            SendGrid sendGrid = mockedSendGrid.constructed().get(0);
+            ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+            verify(sendGrid, times(3)).api(captor.capture());
+            assertTrue(captor.getAllValues().stream().allMatch(request ->
+                    request.getMethod() == Method.GET && request.getEndpoint().equals("scopes")));
+        }
+    }
+
+    @Test
+    public void testWarmUpFailsWhenApiKeyIsRejected() {
+        try (MockedConstruction<SendGrid> mockedSendGrid = mockConstruction(
+                SendGrid.class,
+                (mock, context) -> {
+                    Response response = new Response();
+                    response.setStatusCode(401);
+                    when(mock.api(any(Request.class))).thenReturn(response);
+                })) {
+
+            assertThrows(NotificationException.class, () -> provider.warmUp(1));
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.model.NotificationRequest;
+
+/**
+ * Notification réclamée par un nœud : elle lui est réservée jusqu'à la fin de son bail.
+ *
+ * @param id Identifiant de la ligne
+ * @param bucket Tranche de la ligne, utilisée pour cibler sa partition
+ * @param request Notification à envoyer
+ * @param attempts Nombre de tentatives, celle-ci comprise
+ */
+public record ClaimedNotification(long id, int bucket, NotificationRequest request, int attempts) {
+}
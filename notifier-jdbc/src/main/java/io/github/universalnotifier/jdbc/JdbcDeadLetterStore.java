@@ -0,0 +1,118 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterCodec;
+import io.github.universalnotifier.core.deadletter.DeadLetterFilter;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stockage des lettres mortes dans une table, partagé par tous les nœuds d'une application.
+ * <p>
+ * Le canal, la catégorie d'erreur et l'instant d'abandon sont stockés en colonnes pour filtrer les lettres
+ * mortes en base ; la lettre morte elle-même est encodée par le {@link DeadLetterCodec}.
+ */
+public class JdbcDeadLetterStore implements DeadLetterStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcDeadLetterStore.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeadLetterCodec codec = new DeadLetterCodec();
+    private final String table;
+    private final String insertSql;
+
+    /**
+     * Crée un stockage dans la base de données fournie.
+     *
+     * @param dataSource Source de données partagée par les nœuds
+     * @param config Configuration des lettres mortes
+     */
+    public JdbcDeadLetterStore(DataSource dataSource, NotificationProperties.DeadLetterConfig config) {
+        if (!JdbcNotificationQueue.TABLE_NAME.matcher(config.getTable()).matches()) {
+            throw new IllegalArgumentException("Nom de table invalide: " + config.getTable());
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.table = config.getTable();
+        this.insertSql = "INSERT INTO " + table + " (channel, error_code, failed_at, payload) VALUES (?, ?, ?, ?)";
+    }
+
+    /**
+     * Crée la table des lettres mortes et son index s'ils n'existent pas (PostgreSQL, H2).
+     */
+    public void initializeSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                + " channel VARCHAR(64) NOT NULL,"
+                + " error_code VARCHAR(32) NOT NULL,"
+                + " failed_at TIMESTAMP NOT NULL,"
+                + " payload " + JdbcNotificationQueue.binaryType(jdbcTemplate) + " NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table.replace('.', '_') + "_failed_at ON " + table
+                + " (failed_at)");
+        logger.info("Table des lettres mortes {} prête", table);
+    }
+
+    @Override
+    public void add(DeadLetter deadLetter) {
+        byte[] payload = codec.encode(deadLetter);
+        try {
+            jdbcTemplate.update(insertSql, deadLetter.getChannel(), deadLetter.getErrorCode().name(),
+                    Timestamp.from(deadLetter.getFailedAt()), payload);
+        } catch (DataAccessException e) {
+            throw new NotificationException(NotificationErrorCode.TRANSIENT, "Échec de l'enregistrement de la lettre morte", e);
+        }
+    }
+
+    @Override
+    public List<DeadLetter> find(DeadLetterFilter filter, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, payload FROM ").append(table).append(" WHERE id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (filter.getChannel() != null) {
+            sql.append(" AND UPPER(channel) = ?");
+            args.add(filter.getChannel().toUpperCase());
+        }
+        if (filter.getErrorCodes() != null) {
+            if (filter.getErrorCodes().isEmpty()) {
+                return List.of();
+            }
+            sql.append(" AND error_code IN (").append(String.join(", ", Collections.nCopies(filter.getErrorCodes().size(), "?"))).append(")");
+            filter.getErrorCodes().forEach(code -> args.add(code.name()));
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND failed_at >= ?");
+            args.add(Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND failed_at < ?");
+            args.add(Timestamp.from(filter.getTo()));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (resultSet, rowNum) -> codec.decode(resultSet.getLong("id"), resultSet.getBytes("payload")),
+                args.toArray());
+    }
+
+    @Override
+    public boolean remove(long id) {
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE id = ?", id) > 0;
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count != null ? count : 0;
+    }
+}
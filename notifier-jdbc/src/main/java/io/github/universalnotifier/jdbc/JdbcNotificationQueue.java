@@ -0,0 +1,362 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.codec.NotificationCodec;
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * File de notifications stockée dans une table, partagée par tous les nœuds d'une application.
+ * <p>
+ * Chaque nœud réclame des lots de notifications par {@code SELECT ... FOR UPDATE SKIP LOCKED} : les lignes
+ * verrouillées par un autre nœud sont ignorées au lieu d'être attendues, ce qui permet d'ajouter des nœuds
+ * sans qu'ils se gênent. Une notification réclamée est réservée par un bail limité dans le temps ; si le nœud
+ * s'arrête avant de l'avoir envoyée, elle est reprise par un autre nœud à l'expiration du bail.
+ * <p>
+ * Les notifications envoyées sont marquées comme terminées puis supprimées par {@link #cleanup()}, tranche
+ * par tranche de leur date de dépôt. Une table PostgreSQL partitionnée selon la colonne {@code bucket} peut
+ * ainsi voir ses anciennes partitions vidées ou détachées sans toucher à la partition active.
+ * <p>
+ * Les notifications sont stockées encodées par le {@link NotificationCodec}, sans dictionnaire,
+ * pour rester lisibles par tous les nœuds.
+ */
+public class JdbcNotificationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcNotificationQueue.class);
+
+    static final int READY = 0;
+    static final int LEASED = 1;
+    static final int DONE = 2;
+    static final int FAILED = 3;
+
+    static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final NotificationProperties.QueueConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationCodec codec = new NotificationCodec();
+    private final Clock clock;
+    private final String nodeId;
+    private final String table;
+
+    private final String insertSql;
+    private final String claimReadySql;
+    private final String claimExpiredSql;
+    private final String leaseSql;
+    private final String exhaustSql;
+    private final String completeSql;
+    private final String retrySql;
+    private final String failSql;
+
+    /**
+     * Crée une file stockée dans la base de données fournie.
+     *
+     * @param dataSource Source de données partagée par les nœuds
+     * @param config Configuration de la file
+     */
+    public JdbcNotificationQueue(DataSource dataSource, NotificationProperties.QueueConfig config) {
+        this(dataSource, config, Clock.systemUTC());
+    }
+
+    JdbcNotificationQueue(DataSource dataSource, NotificationProperties.QueueConfig config, Clock clock) {
+        if (!TABLE_NAME.matcher(config.getTable()).matches()) {
+            throw new IllegalArgumentException("Nom de table invalide: " + config.getTable());
+        }
+        this.config = config;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.clock = clock;
+        this.nodeId = config.getNodeId() != null ? config.getNodeId() : defaultNodeId();
+        this.table = config.getTable();
+
+        this.insertSql = "INSERT INTO " + table + " (bucket, priority, status, available_at, attempts, payload)"
+                + " VALUES (?, ?, " + READY + ", ?, 0, ?)";
+        // Deux requêtes plutôt qu'un OR, chacune servie par son index : les lignes prêtes, les plus prioritaires
+        // et les plus anciennes d'abord, et les lignes dont le bail a expiré, les plus anciennement expirées d'abord
+        this.claimReadySql = "SELECT id, bucket, attempts, payload FROM " + table
+                + " WHERE status = " + READY + " AND available_at <= ?"
+                + " ORDER BY priority, id LIMIT ? FOR UPDATE SKIP LOCKED";
+        this.claimExpiredSql = "SELECT id, bucket, attempts, payload FROM " + table
+                + " WHERE status = " + LEASED + " AND lease_until < ?"
+                + " ORDER BY lease_until LIMIT ? FOR UPDATE SKIP LOCKED";
+        this.leaseSql = "UPDATE " + table + " SET status = " + LEASED + ", lease_owner = ?, lease_until = ?,"
+                + " attempts = attempts + 1 WHERE id = ? AND bucket = ?";
+        this.exhaustSql = "UPDATE " + table + " SET status = " + FAILED + ", lease_owner = NULL, lease_until = NULL,"
+                + " last_error = ? WHERE id = ? AND bucket = ?";
+        this.completeSql = "UPDATE " + table + " SET status = " + DONE + ", lease_owner = NULL, lease_until = NULL"
+                + " WHERE id = ? AND bucket = ? AND status = " + LEASED + " AND lease_owner = ?";
+        this.retrySql = "UPDATE " + table + " SET status = " + READY + ", available_at = ?, lease_owner = NULL,"
+                + " lease_until = NULL, last_error = ?"
+                + " WHERE id = ? AND bucket = ? AND status = " + LEASED + " AND lease_owner = ?";
+        this.failSql = "UPDATE " + table + " SET status = " + FAILED + ", lease_owner = NULL, lease_until = NULL,"
+                + " last_error = ? WHERE id = ? AND bucket = ? AND status = " + LEASED + " AND lease_owner = ?";
+    }
+
+    /**
+     * Crée la table de la file et ses index s'ils n'existent pas (PostgreSQL, H2).
+     * Pour une table partitionnée, créez-la plutôt vous-même (voir le README).
+     */
+    public void initializeSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY,"
+                + " bucket INTEGER NOT NULL,"
+                + " priority SMALLINT NOT NULL,"
+                + " status SMALLINT NOT NULL,"
+                + " available_at TIMESTAMP NOT NULL,"
+                + " lease_owner VARCHAR(128),"
+                + " lease_until TIMESTAMP,"
+                + " attempts INTEGER NOT NULL,"
+                + " last_error VARCHAR(" + MAX_ERROR_LENGTH + "),"
+                + " payload " + binaryType(jdbcTemplate) + " NOT NULL,"
+                + " PRIMARY KEY (id, bucket))");
+        // Le premier index sert le tri des lignes prêtes, le second la recherche des baux expirés
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table.replace('.', '_') + "_ready ON " + table
+                + " (status, priority, id, available_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table.replace('.', '_') + "_lease ON " + table
+                + " (status, lease_until)");
+        logger.info("Table de la file de notifications {} prête", table);
+    }
+
+    /**
+     * @return Type des colonnes binaires selon la base : BYTEA sur PostgreSQL, VARBINARY ailleurs
+     */
+    static String binaryType(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product) ? "BYTEA" : "VARBINARY(1000000)";
+    }
+
+    /**
+     * Écrit une notification dans la file. Une notification planifiée ({@code sendAt}) n'est réclamée
+     * qu'à partir de son instant d'envoi.
+     *
+     * @param request Notification à envoyer
+     * @throws NotificationException Si la notification n'est pas encodable ou que l'écriture échoue
+     */
+    public void enqueue(NotificationRequest request) {
+        enqueueAll(List.of(request));
+    }
+
+    /**
+     * Écrit plusieurs notifications dans la file, en une requête par lot.
+     *
+     * @param requests Notifications à envoyer
+     * @throws NotificationException Si une notification n'est pas encodable ou que l'écriture échoue
+     */
+    public void enqueueAll(Collection<NotificationRequest> requests) {
+        Instant now = clock.instant();
+        int bucket = bucket(now);
+        List<Object[]> rows = new ArrayList<>(requests.size());
+        for (NotificationRequest request : requests) {
+            if (!NotificationCodec.isEncodable(request)) {
+                throw new NotificationException("Les données supplémentaires de la notification ne peuvent pas être "
+                        + "stockées dans la file: " + request.getAdditionalData().getClass().getName());
+            }
+            Instant availableAt = request.getSendAt() != null && request.getSendAt().isAfter(now) ? request.getSendAt() : now;
+            rows.add(new Object[]{bucket, request.getPriority().ordinal(), Timestamp.from(availableAt), codec.encode(request)});
+        }
+        try {
+            jdbcTemplate.batchUpdate(insertSql, rows);
+        } catch (DataAccessException e) {
+            throw new NotificationException(NotificationErrorCode.TRANSIENT,
+                    "Échec de l'écriture des notifications dans la file", e);
+        }
+    }
+
+    /**
+     * Réclame des notifications à envoyer : celles dont le bail a expiré, puis les prêtes, les plus prioritaires
+     * d'abord. Les lignes verrouillées par un autre nœud sont ignorées.
+     * <p>
+     * Une notification dont le bail a expiré après sa dernière tentative autorisée est marquée en échec définitif
+     * au lieu d'être reprise. Les notifications sont décodées après la pose des baux, hors de la transaction : une
+     * ligne illisible est marquée en échec définitif et ne bloque pas celles qui la suivent.
+     *
+     * @param maxCount Nombre maximal de notifications à réclamer
+     * @return Les notifications réclamées, réservées à ce nœud pour la durée du bail
+     */
+    public List<ClaimedNotification> claim(int maxCount) {
+        if (maxCount <= 0) {
+            return List.of();
+        }
+        List<LeasedRow> leased = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.from(clock.instant());
+            List<LeasedRow> rows = new ArrayList<>();
+            List<Object[]> exhausted = new ArrayList<>();
+            for (LeasedRow row : jdbcTemplate.query(claimExpiredSql, LeasedRow.MAPPER, now, maxCount)) {
+                if (row.attempts() > config.getMaxAttempts()) {
+                    exhausted.add(new Object[]{"Bail expiré après " + (row.attempts() - 1) + " tentative(s)",
+                            row.id(), row.bucket()});
+                } else {
+                    rows.add(row);
+                }
+            }
+            if (!exhausted.isEmpty()) {
+                jdbcTemplate.batchUpdate(exhaustSql, exhausted);
+            }
+            if (rows.size() < maxCount) {
+                rows.addAll(jdbcTemplate.query(claimReadySql, LeasedRow.MAPPER, now, maxCount - rows.size()));
+            }
+            if (!rows.isEmpty()) {
+                Timestamp leaseUntil = Timestamp.from(clock.instant().plus(config.getLease()));
+                jdbcTemplate.batchUpdate(leaseSql, rows.stream()
+                        .map(row -> new Object[]{nodeId, leaseUntil, row.id(), row.bucket()})
+                        .toList());
+            }
+            return rows;
+        });
+        if (leased == null || leased.isEmpty()) {
+            return List.of();
+        }
+
+        List<ClaimedNotification> claimed = new ArrayList<>(leased.size());
+        for (LeasedRow row : leased) {
+            NotificationRequest request;
+            try {
+                request = codec.decodeRequest(row.payload());
+            } catch (RuntimeException e) {
+                logger.warn("Notification {} illisible, marquée en échec définitif: {}", row.id(), e.getMessage());
+                jdbcTemplate.update(failSql, truncate("Notification illisible: " + e.getMessage()),
+                        row.id(), row.bucket(), nodeId);
+                continue;
+            }
+            claimed.add(new ClaimedNotification(row.id(), row.bucket(), request, row.attempts()));
+        }
+        return claimed;
+    }
+
+    /**
+     * Marque des notifications comme envoyées. Une notification dont le bail a expiré et qui a été reprise
+     * par un autre nœud n'est pas modifiée.
+     *
+     * @param notifications Notifications envoyées par ce nœud
+     */
+    public void complete(Collection<ClaimedNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(completeSql, notifications.stream()
+                .map(notification -> new Object[]{notification.id(), notification.bucket(), nodeId})
+                .toList());
+    }
+
+    /**
+     * Enregistre l'échec d'un envoi : la notification est remise en file après un délai croissant si l'erreur
+     * est passagère et que des tentatives restent, ou marquée en échec définitif sinon.
+     *
+     * @param notification Notification dont l'envoi a échoué
+     * @param error Erreur de l'envoi
+     * @return true si la notification sera retentée
+     */
+    public boolean fail(ClaimedNotification notification, Throwable error) {
+        String message = truncate(error.getMessage() != null ? error.getMessage() : error.getClass().getName());
+
+        boolean retry = NotificationErrorCode.of(error).isRetryable()
+                && notification.attempts() < config.getMaxAttempts()
+                && !notification.request().hasExpired();
+        if (retry) {
+            Instant availableAt = clock.instant().plus(config.getRetryDelay().multipliedBy(notification.attempts()));
+            jdbcTemplate.update(retrySql, Timestamp.from(availableAt), message,
+                    notification.id(), notification.bucket(), nodeId);
+        } else {
+            jdbcTemplate.update(failSql, message, notification.id(), notification.bucket(), nodeId);
+        }
+        return retry;
+    }
+
+    /**
+     * Supprime les notifications envoyées des tranches antérieures à la tranche courante, de la plus ancienne
+     * à la plus récente et par lots bornés, pour ne jamais verrouiller longtemps la table.
+     *
+     * @return Le nombre de lignes supprimées
+     */
+    public int cleanup() {
+        int currentBucket = bucket(clock.instant());
+        List<Integer> buckets = jdbcTemplate.queryForList("SELECT DISTINCT bucket FROM " + table
+                + " WHERE status = " + DONE + " AND bucket < ? ORDER BY bucket", Integer.class, currentBucket);
+
+        String deleteSql = "DELETE FROM " + table + " WHERE bucket = ? AND id IN (SELECT id FROM " + table
+                + " WHERE bucket = ? AND status = " + DONE + " LIMIT ?)";
+        int deleted = 0;
+        for (int bucket : buckets) {
+            int count;
+            do {
+                count = jdbcTemplate.update(deleteSql, bucket, bucket, config.getCleanupBatchSize());
+                deleted += count;
+            } while (count >= config.getCleanupBatchSize());
+        }
+        if (deleted > 0) {
+            logger.debug("{} notification(s) envoyée(s) supprimée(s) de la file", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * @param status État des lignes à compter
+     * @return Le nombre de lignes de la table dans cet état
+     */
+    int count(int status) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE status = ?",
+                Integer.class, status);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @return Identifiant de ce nœud dans les baux
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private int bucket(Instant instant) {
+        return (int) (instant.getEpochSecond() / Math.max(config.getBucket().toSeconds(), 1));
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "inconnu";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+    }
+
+    /**
+     * Ligne réclamée, avant le décodage de sa notification.
+     *
+     * @param attempts Nombre de tentatives, celle-ci comprise
+     */
+    private record LeasedRow(long id, int bucket, byte[] payload, int attempts) {
+
+        static final RowMapper<LeasedRow> MAPPER = (resultSet, rowNum) -> new LeasedRow(
+                resultSet.getLong("id"),
+                resultSet.getInt("bucket"),
+                resultSet.getBytes("payload"),
+                resultSet.getInt("attempts") + 1);
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consommateur de la {@link JdbcNotificationQueue} sur un nœud.
+ * <p>
+ * Un thread réclame des lots de notifications dans la limite du nombre d'envois en cours autorisé, les
+ * transmet au service de notification local, puis confirme par lots celles qui ont été envoyées. Chaque nœud
+ * ne réclame que ce qu'il peut envoyer : le débit total croît avec le nombre de nœuds. Un second thread
+ * supprime périodiquement les notifications envoyées.
+ */
+public class JdbcQueueWorker implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcQueueWorker.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
+
+    private final JdbcNotificationQueue queue;
+    private final NotificationService notificationService;
+    private final NotificationProperties.QueueConfig config;
+    private final DeadLetterStore deadLetters;
+    private final Semaphore permits;
+    private final Queue<ClaimedNotification> completed = new ConcurrentLinkedQueue<>();
+    private final Thread poller;
+    private final ScheduledExecutorService cleaner;
+
+    private volatile boolean running = true;
+
+    /**
+     * Crée et démarre le consommateur de la file.
+     *
+     * @param queue File partagée
+     * @param notificationService Service de notification local, utilisé pour chaque envoi
+     * @param config Configuration de la file
+     */
+    public JdbcQueueWorker(JdbcNotificationQueue queue, NotificationService notificationService,
+                           NotificationProperties.QueueConfig config) {
+        this(queue, notificationService, config, null);
+    }
+
+    /**
+     * Crée et démarre le consommateur de la file, en conservant comme lettres mortes les notifications
+     * en échec définitif.
+     *
+     * @param queue File partagée
+     * @param notificationService Service de notification local, utilisé pour chaque envoi
+     * @param config Configuration de la file
+     * @param deadLetters Stockage des lettres mortes, ou null pour seulement marquer les échecs dans la table
+     */
+    public JdbcQueueWorker(JdbcNotificationQueue queue, NotificationService notificationService,
+                           NotificationProperties.QueueConfig config, DeadLetterStore deadLetters) {
+        this.queue = queue;
+        this.notificationService = notificationService;
+        this.config = config;
+        this.deadLetters = deadLetters;
+        this.permits = new Semaphore(config.getMaxInFlight());
+
+        this.poller = new Thread(this::poll, "notifier-jdbc-queue");
+        poller.setDaemon(true);
+        poller.start();
+
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notifier-jdbc-queue-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long cleanupMillis = config.getCleanupInterval().toMillis();
+        cleaner.scheduleWithFixedDelay(this::cleanup, cleanupMillis, cleanupMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("Consommateur de la file {} démarré sur le nœud {} ({} envois simultanés au plus)",
+                config.getTable(), queue.getNodeId(), config.getMaxInFlight());
+    }
+
+    /**
+     * @return Nombre de notifications réclamées par ce nœud et en cours d'envoi
+     */
+    public int getInFlightCount() {
+        return config.getMaxInFlight() - permits.availablePermits();
+    }
+
+    /**
+     * Arrête progressivement le consommateur : il cesse de réclamer des notifications, attend la fin des envois
+     * en cours dans la limite du délai, puis confirme celles qui ont été envoyées. Les notifications encore
+     * en cours restent dans la table et seront reprises par un autre nœud à l'expiration de leur bail.
+     *
+     * @param timeout Durée maximale d'attente des envois en cours
+     */
+    public void shutdown(Duration timeout) {
+        stopPoller();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (getInFlightCount() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        close();
+    }
+
+    /**
+     * Arrête le consommateur. Les notifications en cours d'envoi sont confirmées si elles se terminent
+     * avant l'arrêt ; les autres seront reprises par un autre nœud à l'expiration de leur bail.
+     */
+    @Override
+    public void close() {
+        stopPoller();
+        cleaner.shutdownNow();
+        try {
+            flushCompleted();
+        } catch (RuntimeException e) {
+            errors.error("Échec de la confirmation des notifications envoyées", e);
+        }
+        logger.info("Consommateur de la file {} arrêté avec {} envoi(s) en cours", config.getTable(), getInFlightCount());
+    }
+
+    private void stopPoller() {
+        running = false;
+        poller.interrupt();
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                flushCompleted();
+
+                // Au moins une place, puis toutes celles disponibles dans la limite d'un lot
+                permits.acquire();
+                int count = 1 + drainPermits(config.getBatchSize() - 1);
+                List<ClaimedNotification> claimed;
+                try {
+                    claimed = queue.claim(count);
+                } catch (RuntimeException e) {
+                    permits.release(count);
+                    throw e;
+                }
+                permits.release(count - claimed.size());
+
+                claimed.forEach(this::send);
+                if (claimed.isEmpty()) {
+                    Thread.sleep(config.getPollInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                errors.error("Échec de la lecture de la file de notifications", e);
+                sleepAfterError();
+            }
+        }
+    }
+
+    private int drainPermits(int max) {
+        int acquired = 0;
+        while (acquired < max && permits.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private void send(ClaimedNotification notification) {
+        CompletableFuture<Void> sent;
+        try {
+            sent = notificationService.sendAsync(notification.request());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((ignored, error) -> {
+            permits.release();
+            if (error == null) {
+                completed.add(notification);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            boolean retried;
+            try {
+                retried = queue.fail(notification, cause);
+            } catch (RuntimeException e) {
+                // Le bail expirera et la notification sera reprise
+                errors.error("Échec de l'enregistrement de l'échec d'une notification de la file", e);
+                return;
+            }
+            if (!retried && deadLetters != null) {
+                try {
+                    deadLetters.add(DeadLetter.of(notification.request(),
+                            List.of(NotificationResult.failure(notification.attempts(), cause))));
+                } catch (RuntimeException e) {
+                    errors.error("Impossible de conserver la notification en échec comme lettre morte", e);
+                }
+            }
+        });
+    }
+
+    private void flushCompleted() {
+        List<ClaimedNotification> batch = new ArrayList<>();
+        for (ClaimedNotification notification; (notification = completed.poll()) != null; ) {
+            batch.add(notification);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            queue.complete(batch);
+        } catch (RuntimeException e) {
+            // Sans confirmation, les notifications seraient renvoyées à l'expiration de leur bail
+            completed.addAll(batch);
+            throw e;
+        }
+    }
+
+    private void cleanup() {
+        try {
+            queue.cleanup();
+        } catch (RuntimeException e) {
+            errors.error("Échec du nettoyage de la file de notifications", e);
+        }
+    }
+
+    private void sleepAfterError() {
+        try {
+            Thread.sleep(config.getPollInterval().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetter;
+import io.github.universalnotifier.core.deadletter.DeadLetterFilter;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.model.NotificationResult;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour JdbcDeadLetterStore, sur une base H2 embarquée.
+ */
+public class JdbcDeadLetterStoreTest {
+
+    private JdbcDeadLetterStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new JdbcDeadLetterStore(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""),
+                new NotificationProperties.DeadLetterConfig());
+        store.initializeSchema();
+    }
+
+    @Test
+    public void testDeadLetterRoundTrip() {
+        NotificationRequest request = NotificationRequest.builder()
+                .type("PUSH").to("token").message("Stock bas").additionalData(Map.of("templateId", "stock"))
+                .build();
+        List<NotificationResult> attempts = List.of(
+                result(NotificationErrorCode.TRANSIENT, "2026-10-19T10:00:00Z", 1),
+                result(NotificationErrorCode.AUTHENTICATION, "2026-10-19T10:01:00Z", 2));
+
+        store.add(DeadLetter.of(request, attempts));
+
+        DeadLetter found = store.find(DeadLetterFilter.all(), 0, 10).get(0);
+        assertTrue(found.getId() > 0);
+        assertEquals(request, found.getRequest());
+        assertEquals(attempts, found.getAttempts());
+        assertEquals(1, store.count());
+        assertTrue(store.remove(found.getId()));
+        assertEquals(0, store.count());
+    }
+
+    @Test
+    public void testFilterIsAppliedInDatabase() {
+        store.add(deadLetter("SMS", NotificationErrorCode.TRANSIENT, "2026-10-19T10:00:00Z"));
+        store.add(deadLetter("SMS", NotificationErrorCode.INVALID_RECIPIENT, "2026-10-19T10:05:00Z"));
+        store.add(deadLetter("EMAIL", NotificationErrorCode.TRANSIENT, "2026-10-19T10:10:00Z"));
+        store.add(deadLetter("SMS", NotificationErrorCode.RATE_LIMITED, "2026-10-19T11:00:00Z"));
+
+        List<DeadLetter> all = store.find(DeadLetterFilter.all(), 0, 10);
+        assertEquals(4, all.size());
+        assertEquals(3, store.find(DeadLetterFilter.builder().channel("sms").build(), 0, 10).size());
+        assertEquals(2, store.find(DeadLetterFilter.builder()
+                .errorCodes(Set.of(NotificationErrorCode.TRANSIENT, NotificationErrorCode.RATE_LIMITED))
+                .channel("SMS").build(), 0, 10).size());
+        assertEquals(List.of(all.get(1).getId(), all.get(2).getId()), store.find(DeadLetterFilter.builder()
+                .from(Instant.parse("2026-10-19T10:05:00Z"))
+                .to(Instant.parse("2026-10-19T11:00:00Z"))
+                .build(), 0, 10).stream().map(DeadLetter::getId).toList());
+        assertEquals(List.of(all.get(3).getId()),
+                store.find(DeadLetterFilter.all(), all.get(2).getId(), 10).stream().map(DeadLetter::getId).toList());
+        assertTrue(store.find(DeadLetterFilter.builder().errorCodes(Set.of()).build(), 0, 10).isEmpty());
+    }
+
+    private static DeadLetter deadLetter(String channel, NotificationErrorCode code, String failedAt) {
+        return DeadLetter.of(NotificationRequest.builder().type(channel).to("+33612345678").message("Test").build(),
+                List.of(result(code, failedAt, 1)));
+    }
+
+    private static NotificationResult result(NotificationErrorCode code, String completedAt, int attempt) {
+        return NotificationResult.builder()
+                .errorCode(code).errorMessage("Erreur").attempt(attempt).completedAt(Instant.parse(completedAt)).build();
+    }
+}
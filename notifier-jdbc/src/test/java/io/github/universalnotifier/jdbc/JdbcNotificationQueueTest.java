@@ -0,0 +1,288 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour JdbcNotificationQueue, sur une base H2 embarquée.
+ */
+public class JdbcNotificationQueueTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-10-19T10:00:00Z"));
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        queue("initialisation").initializeSchema();
+    }
+
+    @Test
+    public void testClaimReturnsMostUrgentNotificationsFirst() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        queue.enqueueAll(List.of(request("+33600000001", NotificationPriority.LOW),
+                request("+33600000002", NotificationPriority.NORMAL),
+                request("+33600000003", NotificationPriority.CRITICAL)));
+
+        List<ClaimedNotification> claimed = queue.claim(2);
+
+        assertEquals(List.of("+33600000003", "+33600000002"), claimed.stream().map(c -> c.request().getTo()).toList());
+        assertEquals(NotificationPriority.CRITICAL, claimed.get(0).request().getPriority());
+        assertEquals(1, claimed.get(0).attempts());
+        assertEquals(2, queue.count(JdbcNotificationQueue.LEASED));
+    }
+
+    @Test
+    public void testNodesClaimDisjointNotifications() throws Exception {
+        List<NotificationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(request("+336" + String.format("%08d", i), NotificationPriority.NORMAL));
+        }
+        queue("producteur").enqueueAll(requests);
+
+        ExecutorService nodes = Executors.newFixedThreadPool(4);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int node = 0; node < 4; node++) {
+            JdbcNotificationQueue queue = queue("noeud-" + node);
+            results.add(nodes.submit(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (List<ClaimedNotification> batch = queue.claim(10); !batch.isEmpty(); batch = queue.claim(10)) {
+                    batch.forEach(claimed -> ids.add(claimed.id()));
+                }
+                return ids;
+            }));
+        }
+        List<Long> claimed = new ArrayList<>();
+        for (Future<List<Long>> result : results) {
+            claimed.addAll(result.get());
+        }
+        nodes.shutdown();
+
+        assertEquals(200, claimed.size());
+        assertEquals(200, new HashSet<>(claimed).size());
+    }
+
+    @Test
+    public void testExpiredLeaseIsReclaimedByAnotherNode() {
+        JdbcNotificationQueue nodeA = queue("noeud-a");
+        JdbcNotificationQueue nodeB = queue("noeud-b");
+        nodeA.enqueue(request("+33612345678", NotificationPriority.NORMAL));
+        ClaimedNotification claimedByA = nodeA.claim(10).get(0);
+
+        assertTrue(nodeB.claim(10).isEmpty());
+
+        // Le nœud A s'est arrêté : son bail expire
+        clock.advance(Duration.ofMinutes(6));
+        List<ClaimedNotification> claimedByB = nodeB.claim(10);
+        assertEquals(1, claimedByB.size());
+        assertEquals(2, claimedByB.get(0).attempts());
+
+        // La confirmation tardive du nœud A n'écrase pas le bail du nœud B
+        nodeA.complete(List.of(claimedByA));
+        assertEquals(1, nodeA.count(JdbcNotificationQueue.LEASED));
+        nodeB.complete(claimedByB);
+        assertEquals(1, nodeB.count(JdbcNotificationQueue.DONE));
+    }
+
+    @Test
+    public void testExpiredLeaseAfterLastAttemptIsNotReclaimed() {
+        NotificationProperties.QueueConfig config = config("noeud-a");
+        config.setMaxAttempts(2);
+        JdbcNotificationQueue queue = new JdbcNotificationQueue(dataSource, config, clock);
+        queue.enqueue(request("+33612345678", NotificationPriority.NORMAL));
+
+        // Deux nœuds s'arrêtent successivement pendant l'envoi
+        assertEquals(1, queue.claim(10).get(0).attempts());
+        clock.advance(Duration.ofMinutes(6));
+        assertEquals(2, queue.claim(10).get(0).attempts());
+        clock.advance(Duration.ofMinutes(6));
+
+        assertTrue(queue.claim(10).isEmpty());
+        assertEquals(1, queue.count(JdbcNotificationQueue.FAILED));
+    }
+
+    @Test
+    public void testUndecodableNotificationDoesNotBlockTheQueue() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        new JdbcTemplate(dataSource).update("INSERT INTO notifier_queue (bucket, priority, status, available_at, attempts, payload)"
+                + " VALUES (0, 0, 0, ?, 0, ?)", Timestamp.from(clock.instant()), new byte[]{42, 42, 42});
+        queue.enqueue(request("+33612345678", NotificationPriority.NORMAL));
+
+        List<ClaimedNotification> claimed = queue.claim(10);
+
+        assertEquals(List.of("+33612345678"), claimed.stream().map(c -> c.request().getTo()).toList());
+        assertEquals(1, queue.count(JdbcNotificationQueue.FAILED));
+        assertTrue(queue.claim(10).isEmpty());
+    }
+
+    @Test
+    public void testCleanupRemovesSentNotificationsOfPastBuckets() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        queue.enqueueAll(List.of(request("+33600000001", NotificationPriority.NORMAL),
+                request("+33600000002", NotificationPriority.NORMAL)));
+        queue.complete(queue.claim(1));
+
+        // La tranche courante n'est pas nettoyée
+        assertEquals(0, queue.cleanup());
+
+        clock.advance(Duration.ofHours(1));
+        assertEquals(1, queue.cleanup());
+        assertEquals(0, queue.count(JdbcNotificationQueue.DONE));
+        assertEquals(1, queue.count(JdbcNotificationQueue.READY));
+    }
+
+    @Test
+    public void testCleanupDeletesInBoundedBatches() {
+        NotificationProperties.QueueConfig config = config("noeud-a");
+        config.setCleanupBatchSize(3);
+        JdbcNotificationQueue queue = new JdbcNotificationQueue(dataSource, config, clock);
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(request("+3360000000" + i, NotificationPriority.NORMAL));
+        }
+        queue.complete(queue.claim(10));
+
+        clock.advance(Duration.ofHours(1));
+
+        assertEquals(10, queue.cleanup());
+    }
+
+    @Test
+    public void testTransientFailureIsRetriedLater() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        queue.enqueue(request("+33612345678", NotificationPriority.NORMAL));
+        ClaimedNotification claimed = queue.claim(10).get(0);
+
+        assertTrue(queue.fail(claimed, new NotificationException(NotificationErrorCode.TRANSIENT, "Erreur 503")));
+
+        assertTrue(queue.claim(10).isEmpty());
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals(2, queue.claim(10).get(0).attempts());
+    }
+
+    @Test
+    public void testPermanentFailureIsNotRetried() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        queue.enqueue(request("+33612345678", NotificationPriority.NORMAL));
+        ClaimedNotification claimed = queue.claim(10).get(0);
+
+        assertFalse(queue.fail(claimed, NotificationException.stackless(
+                NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null)));
+
+        clock.advance(Duration.ofHours(1));
+        assertTrue(queue.claim(10).isEmpty());
+        assertEquals(1, queue.count(JdbcNotificationQueue.FAILED));
+    }
+
+    @Test
+    public void testFailureAfterLastAttemptIsPermanent() {
+        NotificationProperties.QueueConfig config = config("noeud-a");
+        config.setMaxAttempts(1);
+        JdbcNotificationQueue queue = new JdbcNotificationQueue(dataSource, config, clock);
+        queue.enqueue(request("+33612345678", NotificationPriority.NORMAL));
+
+        assertFalse(queue.fail(queue.claim(10).get(0), new NotificationException(NotificationErrorCode.TRANSIENT, "503")));
+        assertEquals(1, queue.count(JdbcNotificationQueue.FAILED));
+    }
+
+    @Test
+    public void testScheduledNotificationIsClaimedAtItsSendTime() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        queue.enqueue(NotificationRequest.builder()
+                .type("SMS").to("+33612345678").message("Rappel")
+                .sendAt(clock.instant().plus(Duration.ofMinutes(10)))
+                .build());
+
+        assertTrue(queue.claim(10).isEmpty());
+        clock.advance(Duration.ofMinutes(10));
+        assertEquals("Rappel", queue.claim(10).get(0).request().getMessage());
+    }
+
+    @Test
+    public void testNonEncodableNotificationIsRejected() {
+        JdbcNotificationQueue queue = queue("noeud-a");
+        NotificationRequest request = new NotificationRequest("PUSH", "token", null, "Test", Map.of("date", Instant.EPOCH));
+
+        assertThrows(NotificationException.class, () -> queue.enqueue(request));
+    }
+
+    @Test
+    public void testInvalidTableNameIsRejected() {
+        NotificationProperties.QueueConfig config = config("noeud-a");
+        config.setTable("notifier_queue; DROP TABLE users");
+
+        assertThrows(IllegalArgumentException.class, () -> new JdbcNotificationQueue(dataSource, config, clock));
+    }
+
+    private JdbcNotificationQueue queue(String nodeId) {
+        return new JdbcNotificationQueue(dataSource, config(nodeId), clock);
+    }
+
+    private static NotificationProperties.QueueConfig config(String nodeId) {
+        NotificationProperties.QueueConfig config = new NotificationProperties.QueueConfig();
+        config.setNodeId(nodeId);
+        return config;
+    }
+
+    private static NotificationRequest request(String to, NotificationPriority priority) {
+        return NotificationRequest.builder().type("SMS").to(to).message("Test").priority(priority).build();
+    }
+
+    /**
+     * Horloge avancée manuellement par les tests.
+     */
+    static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
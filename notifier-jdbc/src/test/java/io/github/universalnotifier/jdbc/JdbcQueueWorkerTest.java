@@ -0,0 +1,116 @@
+package io.github.universalnotifier.jdbc;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetterFilter;
+import io.github.universalnotifier.core.deadletter.InMemoryDeadLetterStore;
+import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour JdbcQueueWorker.
+ */
+public class JdbcQueueWorkerTest {
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private NotificationProperties.QueueConfig config;
+    private JdbcNotificationQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        config = new NotificationProperties.QueueConfig();
+        config.setNodeId("noeud-a");
+        config.setBatchSize(10);
+        config.setMaxInFlight(20);
+        config.setPollInterval(Duration.ofMillis(20));
+        queue = new JdbcNotificationQueue(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""), config);
+        queue.initializeSchema();
+    }
+
+    @Test
+    public void testQueuedNotificationsAreSentAndCompleted() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        queue.enqueueAll(requests(50));
+
+        try (JdbcQueueWorker worker = new JdbcQueueWorker(queue, notificationService, config)) {
+            await(() -> queue.count(JdbcNotificationQueue.DONE) == 50);
+            await(() -> worker.getInFlightCount() == 0);
+        }
+        verify(notificationService, times(50)).sendAsync(any(NotificationRequest.class));
+    }
+
+    @Test
+    public void testInFlightNotificationsAreBounded() throws Exception {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        when(notificationService.sendAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            synchronized (pending) {
+                pending.add(future);
+            }
+            return future;
+        });
+        queue.enqueueAll(requests(50));
+
+        try (JdbcQueueWorker worker = new JdbcQueueWorker(queue, notificationService, config)) {
+            await(() -> worker.getInFlightCount() == 20);
+            Thread.sleep(100);
+            assertEquals(20, queue.count(JdbcNotificationQueue.LEASED));
+
+            // Chaque envoi terminé libère une place pour la suite de la file
+            while (queue.count(JdbcNotificationQueue.DONE) < 50) {
+                synchronized (pending) {
+                    pending.forEach(future -> future.complete(null));
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    public void testFailedNotificationsAreRecorded() throws Exception {
+        when(notificationService.sendAsync(any())).thenReturn(CompletableFuture.failedFuture(
+                NotificationException.stackless(NotificationErrorCode.INVALID_RECIPIENT, "Numéro invalide", null)));
+        queue.enqueueAll(requests(5));
+        InMemoryDeadLetterStore deadLetters = new InMemoryDeadLetterStore(10);
+
+        try (JdbcQueueWorker ignored = new JdbcQueueWorker(queue, notificationService, config, deadLetters)) {
+            await(() -> deadLetters.count() == 5);
+        }
+        assertEquals(5, queue.count(JdbcNotificationQueue.FAILED));
+        assertEquals(0, queue.count(JdbcNotificationQueue.DONE));
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT,
+                deadLetters.find(DeadLetterFilter.all(), 0, 1).get(0).getErrorCode());
+    }
+
+    private static List<NotificationRequest> requests(int count) {
+        List<NotificationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(NotificationRequest.builder().type("SMS").to("+336" + String.format("%08d", i)).message("Test").build());
+        }
+        return requests;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition non atteinte dans le délai imparti");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.universalnotifier.push.firebase;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Passerelle entre les {@link ApiFuture} du SDK Firebase Admin et les {@link CompletableFuture} du JDK.
+ */
+final class ApiFutureBridge {
+
+    private ApiFutureBridge() {
+    }
+
+    /**
+     * Convertit un {@link ApiFuture} en {@link CompletableFuture} sans bloquer de thread.
+     * L'annulation du futur retourné, ou son expiration ({@link CompletableFuture#orTimeout}),
+     * est propagée au futur Firebase.
+     *
+     * @param apiFuture Futur retourné par le SDK Firebase
+     * @param <T> Type du résultat
+     * @return Un futur complété avec le même résultat ou la même erreur
+     */
+    static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+        }, MoreExecutors.directExecutor());
+
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled() || error instanceof TimeoutException) {
+                apiFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+}
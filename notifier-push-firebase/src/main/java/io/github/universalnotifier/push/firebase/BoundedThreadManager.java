@@ -0,0 +1,46 @@
+package io.github.universalnotifier.push.firebase;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.ThreadManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gestionnaire de threads Firebase à taille fixe.
+ * Par défaut, le SDK Firebase Admin exécute ses appels asynchrones sur un pool
+ * de threads non borné ; ce gestionnaire limite ce pool à un nombre fixe de threads démons.
+ */
+class BoundedThreadManager extends ThreadManager {
+
+    private final int threads;
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * @param threads Nombre de threads du pool utilisé par Firebase
+     */
+    BoundedThreadManager(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    protected ExecutorService getExecutor(FirebaseApp app) {
+        return Executors.newFixedThreadPool(threads, getThreadFactory());
+    }
+
+    @Override
+    protected void releaseExecutor(FirebaseApp app, ExecutorService executor) {
+        executor.shutdownNow();
+    }
+
+    @Override
+    protected ThreadFactory getThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "notifier-firebase-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
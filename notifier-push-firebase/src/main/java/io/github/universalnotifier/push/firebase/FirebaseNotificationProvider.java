@@ -3,74 +3,102 @@ package io.github.universalnotifier.push.firebase;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
 import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import io.github.universalnotifier.core.codec.PayloadCache;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.http.ProviderTimeouts;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
 import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Fournisseur de notification par push utilisant Firebase Cloud Messaging.
  * Cette classe implémente la logique d'envoi de notifications push via FCM.
  */
-public class FirebaseNotificationProvider implements NotificationProvider {
+public class FirebaseNotificationProvider implements NotificationProvider, AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseNotificationProvider.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
 
     private static final String TYPE = "PUSH";
     private static final String CREDENTIALS_FILE = "credentials-file";
+    private static final String THREADS = "threads";
+    private static final String MAX_IN_FLIGHT = "max-in-flight";
+    private static final String PAYLOAD_CACHE_SIZE = "payload-cache-size";
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 500;
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    /**
+     * Nombre maximal de messages acceptés par un appel sendEach de FCM.
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private static final ProviderCapabilities CAPABILITIES = ProviderCapabilities.builder()
+            .maxBatchSize(MAX_BATCH_SIZE)
+            .nativeAsync(true)
+            .orderSensitive(false)
+            .build();
+
     private static final AtomicBoolean initialized = new AtomicBoolean(false);
+    private static volatile GoogleCredentials credentials;
 
     private final ResourceLoader resourceLoader;
-
+    private final String credentialsPath;
+    private final int threads;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ProviderTimeouts timeouts;
+    private final PayloadCache<Notification> notifications;
 
     /**
      * Constructeur du fournisseur Firebase utilisant les propriétés configurées.
+     * Firebase n'est initialisé qu'au premier envoi, ou lors du préchauffage.
      *
      * @param properties Configuration des propriétés de notification
      * @param resourceLoader Chargeur de ressources Spring pour accéder au fichier de clés
-     * @throws NotificationException si l'initialisation de Firebase échoue
+     * @throws IllegalArgumentException si des propriétés requises sont manquantes
      */
     public FirebaseNotificationProvider(NotificationProperties properties, ResourceLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
 
         Map<String, String> config = properties.getPush().getActiveProviderProperties();
 
-        String credentialsPath = config.get(CREDENTIALS_FILE);
+        this.credentialsPath = config.get(CREDENTIALS_FILE);
         if (credentialsPath == null || credentialsPath.isEmpty()) {
             throw new IllegalArgumentException("La propriété 'notifier.push.firebase.credentials-file' est requise pour l'utilisation de Firebase");
         }
 
-        // Initialiser Firebase s'il ne l'est pas déjà (pour éviter les initialisations multiples)
-        if (!initialized.getAndSet(true)) {
-            try {
-                Resource resource = resourceLoader.getResource(credentialsPath);
-                InputStream serviceAccount = resource.getInputStream();
-
-                FirebaseOptions options = FirebaseOptions.builder()
-                        .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                        .build();
-
-                FirebaseApp.initializeApp(options);
-
-                logger.info("Firebase Cloud Messaging initialisé avec succès");
-            } catch (IOException e) {
-                logger.error("Erreur lors de l'initialisation de Firebase", e);
-                throw new NotificationException("Erreur lors de l'initialisation de Firebase", e);
-            }
-        }
+        this.threads = intProperty(config, THREADS, DEFAULT_THREADS);
+        this.maxInFlight = intProperty(config, MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeouts = ProviderTimeouts.from(config, "notifier.push.firebase");
+        this.notifications = PayloadCache.parse(config.get(PAYLOAD_CACHE_SIZE), "notifier.push.firebase.payload-cache-size");
     }
 
     @Override
@@ -78,32 +106,288 @@ public class FirebaseNotificationProvider implements NotificationProvider {
         return TYPE.equalsIgnoreCase(type);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Le jeton OAuth du compte de service est récupéré par anticipation : c'est l'étape la plus coûteuse
+     * du premier envoi. Le SDK gérant lui-même ses connexions, le nombre de connexions n'est pas utilisé.
+     */
+    @Override
+    public void warmUp(int connections) {
+        ensureInitialized();
+        try {
+            credentials.refreshIfExpired();
+            logger.debug("Jeton d'accès Firebase récupéré par anticipation");
+        } catch (IOException e) {
+            throw new NotificationException("Erreur lors de la récupération du jeton d'accès Firebase", e);
+        }
+    }
+
     @Override
     public void send(NotificationRequest request) {
+        timeouts.requestTimeout(request);
+        ensureInitialized();
         try {
             logger.debug("Préparation d'une notification push à envoyer au token: {}", request.getTo());
 
-            // Extraction du titre depuis le sujet (s'il existe)
-            String title = request.getSubject();
-            String body = request.getMessage();
-
-            // Construction de la notification Firebase
-            Message message = Message.builder()
-                    .setToken(request.getTo())
-                    .setNotification(Notification.builder()
-                            .setTitle(title)
-                            .setBody(body)
-                            .build())
-                    .build();
-
             // Envoi de la notification
-            String messageId = FirebaseMessaging.getInstance().send(message);
+            String messageId = FirebaseMessaging.getInstance().send(buildMessage(request));
 
             logger.info("Notification push envoyée avec succès au token {}. ID du message: {}",
                     request.getTo(), messageId);
         } catch (Exception e) {
-            logger.error("Erreur lors de l'envoi de notification push via Firebase", e);
-            throw new NotificationException("Erreur lors de l'envoi de notification push via Firebase", e);
+            NotificationException failure = failure(e);
+            errors.error("Erreur lors de l'envoi de notification push via Firebase", failure);
+            throw failure;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        logger.debug("Préparation d'une notification push asynchrone à envoyer au token: {}", request.getTo());
+
+        Message message = buildMessage(request);
+        Duration timeout;
+        try {
+            timeout = timeouts.requestTimeout(request);
+            ensureInitialized();
+        } catch (NotificationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(rejection(request));
+        }
+
+        CompletableFuture<String> future;
+        try {
+            // L'appel est abandonné, et la place libérée, si FCM ne répond pas avant l'échéance de la notification
+            future = ApiFutureBridge.toCompletableFuture(FirebaseMessaging.getInstance().sendAsync(message))
+                    .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(failure(e));
+        }
+
+        return future.handle((messageId, error) -> {
+            inFlight.release();
+            if (error != null) {
+                NotificationException failure = failure(error);
+                errors.error("Erreur lors de l'envoi de notification push via Firebase", failure);
+                throw failure;
+            }
+            logger.info("Notification push envoyée avec succès au token {}. ID du message: {}",
+                    request.getTo(), messageId);
+            return null;
+        });
+    }
+
+    @Override
+    public ProviderCapabilities capabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> sendBatchAsync(List<NotificationRequest> requests) {
+        try {
+            return sendEachAsync(requests);
+        } catch (NotificationException e) {
+            return requests.stream().map(request -> CompletableFuture.<Void>failedFuture(e)).toList();
+        }
+    }
+
+    /**
+     * Envoie un lot de notifications push via {@code sendEachAsync}.
+     * Les demandes sont découpées en paquets de {@value #MAX_BATCH_SIZE} messages au plus,
+     * chaque paquet occupant une seule place dans la limite de requêtes en vol.
+     *
+     * @param requests Demandes de notification à envoyer
+     * @return Un futur par demande, dans le même ordre, complété avec le résultat individuel de FCM
+     * @throws NotificationException Si l'initialisation de Firebase échoue
+     */
+    public List<CompletableFuture<Void>> sendEachAsync(List<NotificationRequest> requests) {
+        ensureInitialized();
+        List<CompletableFuture<Void>> results = new ArrayList<>(requests.size());
+        for (int start = 0; start < requests.size(); start += MAX_BATCH_SIZE) {
+            results.addAll(sendChunk(requests.subList(start, Math.min(start + MAX_BATCH_SIZE, requests.size()))));
+        }
+        return results;
+    }
+
+    private List<CompletableFuture<Void>> sendChunk(List<NotificationRequest> chunk) {
+        List<Message> messages = new ArrayList<>(chunk.size());
+        List<CompletableFuture<Void>> results = new ArrayList<>(chunk.size());
+        for (NotificationRequest request : chunk) {
+            messages.add(buildMessage(request));
+            results.add(new CompletableFuture<>());
+        }
+
+        if (!inFlight.tryAcquire()) {
+            for (int i = 0; i < chunk.size(); i++) {
+                results.get(i).completeExceptionally(rejection(chunk.get(i)));
+            }
+            return results;
+        }
+
+        CompletableFuture<BatchResponse> batch;
+        try {
+            batch = ApiFutureBridge.toCompletableFuture(FirebaseMessaging.getInstance().sendEachAsync(messages));
+        } catch (RuntimeException e) {
+            batch = CompletableFuture.failedFuture(e);
+        }
+
+        batch.whenComplete((response, error) -> {
+            inFlight.release();
+            if (error != null) {
+                NotificationException failure = failure(error);
+                errors.error("Erreur lors de l'envoi d'un lot de notifications push via Firebase", failure);
+                results.forEach(result -> result.completeExceptionally(failure));
+                return;
+            }
+
+            List<SendResponse> responses = response.getResponses();
+            for (int i = 0; i < results.size(); i++) {
+                SendResponse sendResponse = responses.get(i);
+                if (sendResponse.isSuccessful()) {
+                    results.get(i).complete(null);
+                } else {
+                    results.get(i).completeExceptionally(failure(sendResponse.getException()));
+                }
+            }
+            logger.info("Lot de notifications push envoyé: {} succès, {} échecs",
+                    response.getSuccessCount(), response.getFailureCount());
+        });
+        return results;
+    }
+
+    /**
+     * Arrête l'application Firebase et libère son pool de threads. Un envoi ultérieur l'initialiserait
+     * à nouveau.
+     */
+    @Override
+    public void close() {
+        synchronized (FirebaseNotificationProvider.class) {
+            if (!initialized.get()) {
+                return;
+            }
+            try {
+                FirebaseApp.getInstance().delete();
+                logger.info("Application Firebase arrêtée");
+            } catch (IllegalStateException e) {
+                logger.debug("Application Firebase déjà arrêtée");
+            }
+            credentials = null;
+            initialized.set(false);
+        }
+    }
+
+    /**
+     * Initialise l'application Firebase si elle ne l'est pas déjà (pour éviter les initialisations multiples).
+     * En cas d'échec, l'initialisation sera retentée au prochain appel.
+     *
+     * @throws NotificationException si l'initialisation de Firebase échoue
+     */
+    private void ensureInitialized() {
+        if (initialized.get()) {
+            return;
+        }
+        synchronized (FirebaseNotificationProvider.class) {
+            if (initialized.get()) {
+                return;
+            }
+            try (InputStream serviceAccount = resourceLoader.getResource(credentialsPath).getInputStream()) {
+                GoogleCredentials serviceCredentials = GoogleCredentials.fromStream(serviceAccount);
+                FirebaseOptions.Builder builder = FirebaseOptions.builder()
+                        .setCredentials(serviceCredentials);
+                builder.setConnectTimeout((int) timeouts.getConnectTimeout().toMillis());
+                builder.setReadTimeout((int) timeouts.getReadTimeout().toMillis());
+                // Pool de threads borné au lieu du pool non borné du SDK
+                builder.setThreadManager(new BoundedThreadManager(threads));
+
+                FirebaseApp.initializeApp(builder.build());
+                credentials = serviceCredentials;
+                initialized.set(true);
+
+                logger.info("Firebase Cloud Messaging initialisé avec succès");
+            } catch (IOException e) {
+                logger.error("Erreur lors de l'initialisation de Firebase", e);
+                throw new NotificationException("Erreur lors de l'initialisation de Firebase", e);
+            }
+        }
+    }
+
+    /**
+     * Construit le message Firebase correspondant à la demande.
+     *
+     * @param request Demande de notification
+     * @return Le message FCM à envoyer
+     */
+    private Message buildMessage(NotificationRequest request) {
+        // La notification Firebase, immuable, est partagée par tous les destinataires d'un même contenu
+        return Message.builder()
+                .setToken(request.getTo())
+                .setNotification(notifications.get(request, content -> Notification.builder()
+                        .setTitle(content.subject())
+                        .setBody(content.message())
+                        .build()))
+                .build();
+    }
+
+    /**
+     * Enveloppe une erreur de FCM dans une exception sans trace de pile, classée d'après le code d'erreur FCM.
+     * Lors d'une panne, toutes les notifications d'un lot échouent : leur trace de pile serait coûteuse et inutile.
+     *
+     * @param error Erreur retournée par le SDK Firebase
+     * @return L'exception à transmettre à l'appelant
+     */
+    private static NotificationException failure(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof NotificationException notificationException) {
+            return notificationException;
+        }
+        NotificationErrorCode code = NotificationErrorCode.of(error);
+        if (error instanceof FirebaseMessagingException messagingException
+                && messagingException.getMessagingErrorCode() != null) {
+            code = errorCode(messagingException.getMessagingErrorCode());
+        }
+        return NotificationException.stackless(code, "Erreur lors de l'envoi de notification push via Firebase", error);
+    }
+
+    private static NotificationErrorCode errorCode(MessagingErrorCode code) {
+        switch (code) {
+            case UNREGISTERED, INVALID_ARGUMENT:
+                // Jeton d'appareil expiré, désinstallé ou mal formé
+                return NotificationErrorCode.INVALID_RECIPIENT;
+            case QUOTA_EXCEEDED:
+                return NotificationErrorCode.RATE_LIMITED;
+            case SENDER_ID_MISMATCH, THIRD_PARTY_AUTH_ERROR:
+                return NotificationErrorCode.AUTHENTICATION;
+            case UNAVAILABLE, INTERNAL:
+                return NotificationErrorCode.TRANSIENT;
+            default:
+                return NotificationErrorCode.UNKNOWN;
+        }
+    }
+
+    /**
+     * Refus d'une notification lorsque toutes les places parmi les requêtes en vol sont prises.
+     * Les envois asynchrones n'attendent pas qu'une place se libère : le thread appelant n'est jamais bloqué.
+     */
+    private NotificationRejectedException rejection(NotificationRequest request) {
+        return new NotificationRejectedException(
+                "Trop d'envois en cours vers Firebase (" + maxInFlight + ")", request.getPriority(), DEFAULT_RETRY_AFTER);
+    }
+
+    private static int intProperty(Map<String, String> config, String key, int defaultValue) {
+        String value = config.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La propriété 'notifier.push.firebase." + key + "' doit être un entier");
         }
     }
 }
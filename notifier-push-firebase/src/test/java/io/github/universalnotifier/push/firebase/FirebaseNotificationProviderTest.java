@@ -1,13 +1,20 @@
 package io.github.universalnotifier.push.firebase;
 
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.SendResponse;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.model.NotificationPriority;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,8 +29,12 @@ import org.springframework.core.io.ResourceLoader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -199,9 +210,223 @@ public class FirebaseNotificationProviderTest {
 
         try (MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class)) {
             // Pas besoin de mocker fromStream ici, car IOException sera levée avant
-            assertThrows(NotificationException.class, () -> {
-                new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+            assertThrows(NotificationException.class, () -> provider.warmUp(1));
+        }
+    }
+
+    @Test
+    public void testConstructorDoesNotInitializeFirebase() {
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class)) {
+            new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+
+            // Le fichier de clés n'est lu qu'au premier envoi ou lors du préchauffage
+            verify(resourceLoader, never()).getResource(anyString());
+            mockedFirebaseApp.verify(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)), never());
+        }
+    }
+
+    @Test
+    public void testWarmUpInitializesFirebaseOnce() throws IOException {
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class);
+             MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class);
+             MockedStatic<FirebaseOptions> mockedFirebaseOptions = mockStatic(FirebaseOptions.class)) {
+
+            FirebaseOptions.Builder mockBuilder = mock(FirebaseOptions.Builder.class);
+            mockedFirebaseOptions.when(FirebaseOptions::builder).thenReturn(mockBuilder);
+            when(mockBuilder.setCredentials(any(GoogleCredentials.class))).thenReturn(mockBuilder);
+            when(mockBuilder.build()).thenReturn(mock(FirebaseOptions.class));
+            mockedFirebaseApp.when(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)))
+                    .thenReturn(mock(FirebaseApp.class));
+
+            GoogleCredentials mockCredentials = mock(GoogleCredentials.class);
+            mockedGoogleCredentials.when(() -> GoogleCredentials.fromStream(any(InputStream.class)))
+                    .thenReturn(mockCredentials);
+
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+            provider.warmUp(2);
+            provider.warmUp(2);
+
+            mockedFirebaseApp.verify(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)), times(1));
+            // Le jeton d'accès est récupéré par anticipation, sans envoi de message
+            verify(mockCredentials, times(2)).refreshIfExpired();
+        }
+    }
+
+    @Test
+    public void testSendAsyncUsesFirebaseAsyncApi() {
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class);
+             MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class);
+             MockedStatic<FirebaseMessaging> mockedFirebaseMessaging = mockStatic(FirebaseMessaging.class)) {
+
+            mockedGoogleCredentials.when(() -> GoogleCredentials.fromStream(any(InputStream.class)))
+                    .thenReturn(mock(GoogleCredentials.class));
+            mockedFirebaseApp.when(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)))
+                    .thenReturn(mock(FirebaseApp.class));
+
+            // Mock de l'API asynchrone de FirebaseMessaging
+            FirebaseMessaging messaging = mock(FirebaseMessaging.class);
+            mockedFirebaseMessaging.when(FirebaseMessaging::getInstance).thenReturn(messaging);
+            when(messaging.sendAsync(any(Message.class))).thenReturn(ApiFutures.immediateFuture("message-id"));
+
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+
+            NotificationRequest request = NotificationRequest.builder()
+                    .type("PUSH")
+                    .to("device-token-123")
+                    .subject("Test Title")
+                    .message("Test push message")
+                    .build();
+
+            assertDoesNotThrow(() -> provider.sendAsync(request).join());
+            verify(messaging).sendAsync(any(Message.class));
+            verify(messaging, never()).sendAsync(any(Message.class), anyBoolean());
+        }
+    }
+
+    @Test
+    public void testSendAsyncPropagatesFirebaseFailure() {
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class);
+             MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class);
+             MockedStatic<FirebaseMessaging> mockedFirebaseMessaging = mockStatic(FirebaseMessaging.class)) {
+
+            mockedGoogleCredentials.when(() -> GoogleCredentials.fromStream(any(InputStream.class)))
+                    .thenReturn(mock(GoogleCredentials.class));
+            mockedFirebaseApp.when(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)))
+                    .thenReturn(mock(FirebaseApp.class));
+
+            FirebaseMessaging messaging = mock(FirebaseMessaging.class);
+            mockedFirebaseMessaging.when(FirebaseMessaging::getInstance).thenReturn(messaging);
+            when(messaging.sendAsync(any(Message.class)))
+                    .thenReturn(ApiFutures.immediateFailedFuture(new IllegalStateException("Token invalide")));
+
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+
+            NotificationRequest request = NotificationRequest.builder()
+                    .type("PUSH")
+                    .to("invalid-token")
+                    .message("Test push message")
+                    .build();
+
+            CompletionException exception = assertThrows(CompletionException.class, () -> provider.sendAsync(request).join());
+            assertInstanceOf(NotificationException.class, exception.getCause());
+
+            // La place réservée doit être libérée même en cas d'échec
+            when(messaging.sendAsync(any(Message.class))).thenReturn(ApiFutures.immediateFuture("message-id"));
+            for (int i = 0; i < 600; i++) {
+                provider.sendAsync(request).join();
+            }
+        }
+    }
+
+    @Test
+    public void testSendsBeyondMaxInFlightAreRejectedWithoutBlocking() {
+        configMap.put("max-in-flight", "1");
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class);
+             MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class);
+             MockedStatic<FirebaseMessaging> mockedFirebaseMessaging = mockStatic(FirebaseMessaging.class)) {
+
+            mockedGoogleCredentials.when(() -> GoogleCredentials.fromStream(any(InputStream.class)))
+                    .thenReturn(mock(GoogleCredentials.class));
+            mockedFirebaseApp.when(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)))
+                    .thenReturn(mock(FirebaseApp.class));
+
+            // FCM ne répond pas : l'unique place reste prise
+            FirebaseMessaging messaging = mock(FirebaseMessaging.class);
+            mockedFirebaseMessaging.when(FirebaseMessaging::getInstance).thenReturn(messaging);
+            SettableApiFuture<String> pending = SettableApiFuture.create();
+            when(messaging.sendAsync(any(Message.class))).thenReturn(pending);
+
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+            NotificationRequest request = NotificationRequest.builder()
+                    .type("PUSH")
+                    .to("device-token-123")
+                    .message("Test push message")
+                    .priority(NotificationPriority.HIGH)
+                    .build();
+
+            CompletableFuture<Void> first = provider.sendAsync(request);
+            CompletionException exception = assertThrows(CompletionException.class, () -> provider.sendAsync(request).join());
+            NotificationRejectedException rejection = assertInstanceOf(NotificationRejectedException.class, exception.getCause());
+            assertEquals(NotificationErrorCode.RATE_LIMITED, rejection.getErrorCode());
+            assertEquals(NotificationPriority.HIGH, rejection.getPriority());
+            assertNotNull(rejection.getRetryAfter());
+
+            List<CompletableFuture<Void>> batch = provider.sendEachAsync(List.of(request, request));
+            batch.forEach(result -> {
+                CompletionException failure = assertThrows(CompletionException.class, result::join);
+                assertInstanceOf(NotificationRejectedException.class, failure.getCause());
+            });
+            verify(messaging, never()).sendEachAsync(anyList());
+
+            // La place libérée, les envois sont de nouveau acceptés
+            pending.set("message-id");
+            assertDoesNotThrow(first::join);
+            when(messaging.sendAsync(any(Message.class))).thenReturn(ApiFutures.immediateFuture("message-id"));
+            assertDoesNotThrow(() -> provider.sendAsync(request).join());
+        }
+    }
+
+    @Test
+    public void testSendEachAsyncSplitsIntoFcmBatches() {
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class);
+             MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class);
+             MockedStatic<FirebaseMessaging> mockedFirebaseMessaging = mockStatic(FirebaseMessaging.class)) {
+
+            mockedGoogleCredentials.when(() -> GoogleCredentials.fromStream(any(InputStream.class)))
+                    .thenReturn(mock(GoogleCredentials.class));
+            mockedFirebaseApp.when(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class)))
+                    .thenReturn(mock(FirebaseApp.class));
+
+            FirebaseMessaging messaging = mock(FirebaseMessaging.class);
+            mockedFirebaseMessaging.when(FirebaseMessaging::getInstance).thenReturn(messaging);
+            when(messaging.sendEachAsync(anyList())).thenAnswer(invocation -> {
+                List<Message> messages = invocation.getArgument(0);
+                List<SendResponse> responses = new ArrayList<>();
+                for (int i = 0; i < messages.size(); i++) {
+                    SendResponse response = mock(SendResponse.class);
+                    when(response.isSuccessful()).thenReturn(true);
+                    responses.add(response);
+                }
+                BatchResponse batch = mock(BatchResponse.class);
+                when(batch.getResponses()).thenReturn(responses);
+                return ApiFutures.immediateFuture(batch);
             });
+
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+
+            List<NotificationRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 1200; i++) {
+                requests.add(NotificationRequest.builder().type("PUSH").to("token-" + i).message("Message").build());
+            }
+
+            List<CompletableFuture<Void>> results = provider.sendEachAsync(requests);
+
+            assertEquals(1200, results.size());
+            results.forEach(result -> assertDoesNotThrow(result::join));
+            // 1200 messages = 3 appels sendEachAsync (500 + 500 + 200)
+            verify(messaging, times(3)).sendEachAsync(anyList());
+        }
+    }
+
+    @Test
+    public void testCloseDeletesFirebaseApp() {
+        try (MockedStatic<FirebaseApp> mockedFirebaseApp = mockStatic(FirebaseApp.class);
+             MockedStatic<GoogleCredentials> mockedGoogleCredentials = mockStatic(GoogleCredentials.class)) {
+
+            mockedGoogleCredentials.when(() -> GoogleCredentials.fromStream(any(InputStream.class)))
+                    .thenReturn(mock(GoogleCredentials.class));
+            FirebaseApp app = mock(FirebaseApp.class);
+            mockedFirebaseApp.when(() -> FirebaseApp.initializeApp(any(FirebaseOptions.class))).thenReturn(app);
+            mockedFirebaseApp.when(FirebaseApp::getInstance).thenReturn(app);
+
+            FirebaseNotificationProvider provider = new FirebaseNotificationProvider(notificationProperties, resourceLoader);
+            provider.warmUp(1);
+            provider.close();
+            // Déjà arrêtée : le second appel est sans effet
+            provider.close();
+
+            verify(app, times(1)).delete();
         }
     }
 }
@@ -1,16 +1,23 @@
 package io.github.universalnotifier.sms.twilio;
 
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import io.github.universalnotifier.core.codec.PayloadCache;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.http.NotifierHttpClients;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
 import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+import io.github.universalnotifier.twilio.TwilioMessageSender;
+import io.github.universalnotifier.twilio.TwilioMessagesClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Fournisseur de notification par SMS utilisant l'API Twilio.
@@ -19,13 +26,17 @@ import java.util.Map;
 public class TwilioNotificationProvider implements NotificationProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(TwilioNotificationProvider.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
 
     private static final String TYPE = "SMS";
-    private static final String ACCOUNT_SID = "account-sid";
-    private static final String AUTH_TOKEN = "auth-token";
-    private static final String FROM_PHONE = "from";
+    private static final String PROPERTY_PREFIX = "notifier.sms.twilio";
+    private static final double DEFAULT_RATE_PER_SENDER = 1.0;
+    private static final int MAX_MESSAGE_LENGTH = 1600;
+    private static final String PAYLOAD_CACHE_SIZE = "payload-cache-size";
 
-    private final String fromPhone;
+    private final TwilioMessageSender sender;
+    private final ProviderCapabilities capabilities;
+    private final PayloadCache<byte[]> payloads;
 
     /**
      * Constructeur du fournisseur Twilio utilisant les propriétés configurées.
@@ -34,27 +45,34 @@ public class TwilioNotificationProvider implements NotificationProvider {
      * @throws IllegalArgumentException si des propriétés requises sont manquantes
      */
     public TwilioNotificationProvider(NotificationProperties properties) {
+        this(properties, NotifierHttpClients.shared());
+    }
+
+    /**
+     * Constructeur permettant de fournir le client HTTP utilisé par le chemin d'envoi asynchrone.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param httpClient Client HTTP utilisé pour les appels non bloquants à l'API Twilio
+     * @throws IllegalArgumentException si des propriétés requises sont manquantes
+     */
+    TwilioNotificationProvider(NotificationProperties properties, HttpClient httpClient) {
         Map<String, String> config = properties.getSms().getActiveProviderProperties();
 
-        String accountSid = config.get(ACCOUNT_SID);
-        if (accountSid == null || accountSid.isEmpty()) {
-            throw new IllegalArgumentException("La propriété 'notifier.sms.twilio.account-sid' est requise pour l'utilisation de Twilio");
-        }
+        this.sender = new TwilioMessageSender(config, PROPERTY_PREFIX, "", DEFAULT_RATE_PER_SENDER, httpClient);
+        this.payloads = PayloadCache.parse(config.get(PAYLOAD_CACHE_SIZE), PROPERTY_PREFIX + ".payload-cache-size");
 
-        String authToken = config.get(AUTH_TOKEN);
-        if (authToken == null || authToken.isEmpty()) {
-            throw new IllegalArgumentException("La propriété 'notifier.sms.twilio.auth-token' est requise pour l'utilisation de Twilio");
-        }
+        // Twilio concatène lui-même les segments d'un message jusqu'à 1600 caractères
+        this.capabilities = ProviderCapabilities.builder()
+                .nativeAsync(true)
+                .maxMessageLength(MAX_MESSAGE_LENGTH)
+                .maxSendsPerSecond(sender.getRatePerSender())
+                .build();
 
-        this.fromPhone = config.get(FROM_PHONE);
-        if (fromPhone == null || fromPhone.isEmpty()) {
-            throw new IllegalArgumentException("La propriété 'notifier.sms.twilio.from' est requise pour l'utilisation de Twilio");
+        if (sender.getMessagingServiceSid() != null) {
+            logger.info("Fournisseur de notification Twilio initialisé avec le Messaging Service: {}", sender.getMessagingServiceSid());
+        } else {
+            logger.info("Fournisseur de notification Twilio initialisé avec les numéros d'expéditeur: {}", sender.getSenders());
         }
-
-        // Initialisation de l'API Twilio avec les identifiants
-        Twilio.init(accountSid, authToken);
-
-        logger.info("Fournisseur de notification Twilio initialisé avec le numéro d'expéditeur: {}", fromPhone);
     }
 
     @Override
@@ -62,21 +80,53 @@ public class TwilioNotificationProvider implements NotificationProvider {
         return TYPE.equalsIgnoreCase(type);
     }
 
+    @Override
+    public ProviderCapabilities capabilities() {
+        return capabilities;
+    }
+
+    @Override
+    public void warmUp(int connections) {
+        sender.warmUp(connections);
+    }
+
     @Override
     public void send(NotificationRequest request) {
+        logger.debug("Préparation d'un SMS à envoyer à: {}", request.getTo());
+        try {
+            String sid = sender.create(request.getTo(), request.getMessage(), sender.getTimeouts().requestTimeout(request));
+            logger.info("SMS envoyé avec succès à {}. SID du message: {}", request.getTo(), sid);
+        } catch (NotificationException e) {
+            errors.error("Erreur lors de l'envoi du SMS via Twilio", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        logger.debug("Préparation d'un SMS asynchrone à envoyer à: {}", request.getTo());
+
+        Duration timeout;
         try {
-            logger.debug("Préparation d'un SMS à envoyer à: {}", request.getTo());
-
-            Message message = Message.creator(
-                    new PhoneNumber(request.getTo()),    // Numéro de destination
-                    new PhoneNumber(fromPhone),          // Numéro d'expéditeur
-                    request.getMessage()                  // Contenu du message
-            ).create();
-
-            logger.info("SMS envoyé avec succès à {}. SID du message: {}", request.getTo(), message.getSid());
-        } catch (Exception e) {
-            logger.error("Erreur lors de l'envoi du SMS via Twilio", e);
-            throw new NotificationException("Erreur lors de l'envoi du SMS via Twilio", e);
+            timeout = sender.getTimeouts().requestTimeout(request);
+        } catch (NotificationException e) {
+            return CompletableFuture.failedFuture(e);
         }
+
+        // Le contenu encodé est partagé par tous les destinataires d'un même message
+        byte[] body = payloads.get(request, content -> TwilioMessagesClient.encodeBody(content.message()));
+        return sender.createAsync(request.getTo(), body, timeout)
+                .handle((sid, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        errors.error("Erreur lors de l'envoi asynchrone du SMS via Twilio", cause);
+                        throw cause instanceof NotificationException notificationException
+                                ? notificationException
+                                : NotificationException.stackless(NotificationErrorCode.of(cause),
+                                        "Erreur lors de l'envoi du SMS via Twilio", cause);
+                    }
+                    logger.info("SMS envoyé avec succès à {}. SID du message: {}", request.getTo(), sid);
+                    return null;
+                });
     }
 }
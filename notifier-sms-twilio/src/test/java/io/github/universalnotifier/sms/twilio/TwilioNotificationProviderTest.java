@@ -5,18 +5,32 @@ import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import io.github.universalnotifier.core.config.NotificationProperties;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.twilio.TwilioMessagesClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -60,15 +74,42 @@ public class TwilioNotificationProviderTest {
     }
 
     @Test
-    public void testConstructorInitializesTwilio() {
+    public void testWarmUpDoesNotTouchGlobalTwilioState() {
         try (MockedStatic<Twilio> mockedTwilio = mockStatic(Twilio.class)) {
-            // Supprime l'instance existante et en crée une nouvelle pour ce test
-            new TwilioNotificationProvider(notificationProperties);
+            HttpClient httpClient = mockHttpClient(200, "{}");
+            TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+            provider.warmUp(1);
+
+            // Chaque compte dispose de son propre client : Twilio.init() n'est jamais appelé
+            mockedTwilio.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    public void testWarmUpOpensConnectionsWithoutSendingMessages() {
+        try (MockedStatic<Twilio> mockedTwilio = mockStatic(Twilio.class)) {
+            HttpClient httpClient = mockHttpClient(200, "{}");
+            TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+            provider.warmUp(3);
+
+            // Trois lectures simultanées de la ressource du compte, aucune création de message
+            ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+            verify(httpClient, times(3)).sendAsync(captor.capture(), any());
+            assertTrue(captor.getAllValues().stream().allMatch(request -> request.method().equals("GET")));
+            assertEquals("https://api.twilio.com/2010-04-01/Accounts/test-account-sid.json",
+                    captor.getValue().uri().toString());
+        }
+    }
 
-            // Vérifie que Twilio.init() est appelé avec les bons paramètres
-            mockedTwilio.verify(() -> Twilio.init(
-                    eq("test-account-sid"),
-                    eq("test-auth-token")));
+    @Test
+    public void testWarmUpFailsWhenCredentialsAreRejected() {
+        try (MockedStatic<Twilio> mockedTwilio = mockStatic(Twilio.class)) {
+            TwilioNotificationProvider provider = new TwilioNotificationProvider(
+                    notificationProperties, mockHttpClient(401, "{}"));
+
+            assertThrows(NotificationException.class, () -> provider.warmUp(1));
         }
     }
 
@@ -105,6 +146,54 @@ public class TwilioNotificationProviderTest {
         assertTrue(exception.getMessage().contains("from"));
     }
 
+    @Test
+    public void testMessagingServiceReplacesFromNumber() {
+        configMap.remove("from");
+        configMap.put("messaging-service-sid", "MG123");
+
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33687654321")
+                .message("Test SMS message")
+                .build();
+
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        assertDoesNotThrow(() -> provider.sendAsync(request).join());
+        verify(httpClient).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    public void testSenderPoolSpreadsBurstWithoutWaiting() {
+        configMap.put("from", "+33123456789, +33123456790, +33123456791");
+
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        // Un message par seconde et par numéro : trois numéros absorbent trois messages simultanés
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<Void> future = provider.sendAsync(NotificationRequest.builder()
+                    .type("SMS")
+                    .to("+33687654321")
+                    .message("Test SMS message " + i)
+                    .build());
+            assertTrue(future.isDone());
+        }
+        verify(httpClient, times(3)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    public void testInvalidRatePerSenderThrowsException() {
+        configMap.put("rate-per-sender", "fast");
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new TwilioNotificationProvider(notificationProperties);
+        });
+
+        assertTrue(exception.getMessage().contains("rate-per-sender"));
+    }
+
     @Test
     public void testSendSmsMessage() {
         NotificationRequest request = NotificationRequest.builder()
@@ -143,4 +232,142 @@ public class TwilioNotificationProviderTest {
         // Vérification de l'exception
         assertThrows(NotificationException.class, () -> providerSpy.send(request));
     }
+
+    @Test
+    public void testSendAsyncPostsToMessagesResource() {
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33687654321")
+                .message("Test SMS message")
+                .build();
+
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        assertDoesNotThrow(() -> provider.sendAsync(request).join());
+
+        // Vérifie que l'appel cible la ressource Messages du compte configuré
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(captor.capture(), any());
+        assertEquals("https://api.twilio.com/2010-04-01/Accounts/test-account-sid/Messages.json",
+                captor.getValue().uri().toString());
+        assertEquals("POST", captor.getValue().method());
+    }
+
+    @Test
+    public void testSendAsyncTimeoutIsBoundedByDeadline() {
+        configMap.put("read-timeout", "5s");
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33687654321")
+                .message("Code: 123456")
+                .timeout(Duration.ofSeconds(2))
+                .build();
+
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        assertDoesNotThrow(() -> provider.sendAsync(request).join());
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(captor.capture(), any());
+        Duration timeout = captor.getValue().timeout().orElseThrow();
+        assertTrue(timeout.compareTo(Duration.ofSeconds(2)) <= 0, "Délai: " + timeout);
+    }
+
+    @Test
+    public void testSendAsyncFailsWhenTwilioRejectsMessage() {
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("invalid")
+                .message("Test SMS message")
+                .build();
+
+        HttpClient httpClient = mockHttpClient(400, "{\"code\":21211,\"message\":\"Invalid 'To' Phone Number\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> provider.sendAsync(request).join());
+        assertInstanceOf(NotificationException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().contains("21211"));
+    }
+
+    @Test
+    public void testRejectedRecipientIsClassifiedWithoutStackTrace() {
+        NotificationRequest request = NotificationRequest.builder()
+                .type("SMS")
+                .to("+33600000000")
+                .message("Test SMS message")
+                .build();
+
+        HttpClient httpClient = mockHttpClient(400, "{\"code\":21610,\"message\":\"Attempt to send to unsubscribed recipient\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> provider.sendAsync(request).join());
+        NotificationException failure = assertInstanceOf(NotificationException.class, exception.getCause());
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, failure.getErrorCode());
+        assertEquals(0, failure.getStackTrace().length);
+        assertEquals(NotificationErrorCode.RATE_LIMITED, TwilioMessagesClient.errorCode(429, 20429));
+    }
+
+    @Test
+    public void testSendAsyncSplicesEncodedBodyAfterRecipient() {
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioNotificationProvider provider = new TwilioNotificationProvider(notificationProperties, httpClient);
+
+        for (String to : List.of("+33611111111", "+33622222222")) {
+            provider.sendAsync(NotificationRequest.builder()
+                    .type("SMS")
+                    .to(to)
+                    .message("Soldes & remises : -20 %")
+                    .build()).join();
+        }
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).sendAsync(captor.capture(), any());
+        HttpRequest second = captor.getAllValues().get(1);
+        String expected = "To=%2B33622222222&From=%2B33123456789&Body=Soldes+%26+remises+%3A+-20+%25";
+        assertEquals(expected, body(second));
+        assertEquals(expected.length(), second.bodyPublisher().orElseThrow().contentLength());
+    }
+
+    private static String body(HttpRequest request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                bytes.writeBytes(chunk);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return bytes.toString(StandardCharsets.US_ASCII);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpClient mockHttpClient(int statusCode, String body) {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(body);
+        doReturn(CompletableFuture.completedFuture(response))
+                .when(httpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        return httpClient;
+    }
 }
@@ -1,42 +1,439 @@
 package io.github.universalnotifier.starter;
 
+import io.github.universalnotifier.core.broadcast.NotificationBroadcaster;
+import io.github.universalnotifier.core.coalescing.DefaultNotificationMerger;
+import io.github.universalnotifier.core.coalescing.NotificationCoalescer;
+import io.github.universalnotifier.core.coalescing.NotificationMerger;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.deadletter.DeadLetterReplayer;
+import io.github.universalnotifier.core.deadletter.DeadLetterStore;
+import io.github.universalnotifier.core.deadletter.FileDeadLetterStore;
+import io.github.universalnotifier.core.deadletter.InMemoryDeadLetterStore;
+import io.github.universalnotifier.core.dispatch.AdmissionController;
+import io.github.universalnotifier.core.dispatch.PriorityLaneDispatcher;
+import io.github.universalnotifier.core.dispatch.RecipientSequencer;
+import io.github.universalnotifier.core.limit.ConcurrencyLimitRegistry;
+import io.github.universalnotifier.core.limit.ConcurrencyLimitedNotificationProvider;
+import io.github.universalnotifier.core.routing.ShardedNotificationProvider;
+import io.github.universalnotifier.core.scheduler.NotificationScheduler;
+import io.github.universalnotifier.core.service.BlockingSendExecutor;
 import io.github.universalnotifier.core.service.DefaultNotificationService;
 import io.github.universalnotifier.core.service.NotificationProvider;
 import io.github.universalnotifier.core.service.NotificationService;
+import io.github.universalnotifier.core.service.NotificationServiceOptions;
 import io.github.universalnotifier.email.sendgrid.SendGridNotificationProvider;
+import io.github.universalnotifier.jdbc.JdbcDeadLetterStore;
+import io.github.universalnotifier.jdbc.JdbcNotificationQueue;
+import io.github.universalnotifier.jdbc.JdbcQueueWorker;
 import io.github.universalnotifier.push.firebase.FirebaseNotificationProvider;
 import io.github.universalnotifier.sms.twilio.TwilioNotificationProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.core.io.ResourceLoader;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * Configuration automatique du système de notification universel.
  * Cette classe configure tous les beans nécessaires pour le fonctionnement
  * du système de notification en fonction des propriétés définies.
  */
-@Configuration
+@AutoConfiguration
 @EnableConfigurationProperties(NotificationProperties.class)
+@ImportRuntimeHints(NotifierRuntimeHints.class)
 public class NotifierAutoConfiguration {
 
     /**
      * Crée le service principal de notification qui va orchestrer les différents fournisseurs.
      *
      * @param providers Liste des fournisseurs de notification disponibles
+     * @param dispatcher Dispatcher à couloirs de priorité, s'il est activé
+     * @param coalescer Étape de regroupement des notifications, si elle est activée
+     * @param sequencer Séquenceur par destinataire, si l'ordonnancement est activé
+     * @param admission Contrôle d'admission, s'il est activé
+     * @param deadLetters Stockage des lettres mortes, s'il est activé
+     * @param blockingExecutor Pool sur lequel sont appelés les fournisseurs bloquants
      * @return Le service de notification configuré
      */
     @Bean
     @ConditionalOnMissingBean
-    public NotificationService notificationService(List<NotificationProvider> providers) {
-        return new DefaultNotificationService(providers);
+    public NotificationService notificationService(List<NotificationProvider> providers,
+                                                   ObjectProvider<PriorityLaneDispatcher> dispatcher,
+                                                   ObjectProvider<NotificationCoalescer> coalescer,
+                                                   ObjectProvider<RecipientSequencer> sequencer,
+                                                   ObjectProvider<AdmissionController> admission,
+                                                   ObjectProvider<DeadLetterStore> deadLetters,
+                                                   BlockingSendExecutor blockingExecutor) {
+        return new DefaultNotificationService(providers, NotificationServiceOptions.builder()
+                .dispatcher(dispatcher.getIfAvailable())
+                .coalescer(coalescer.getIfAvailable())
+                .sequencer(sequencer.getIfAvailable())
+                .admission(admission.getIfAvailable())
+                .deadLetters(deadLetters.getIfAvailable())
+                .blockingExecutor(blockingExecutor)
+                .build());
+    }
+
+    /**
+     * Crée le pool borné sur lequel sont appelés les fournisseurs sans API non bloquante.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @return Le pool des fournisseurs bloquants
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public BlockingSendExecutor blockingSendExecutor(NotificationProperties properties) {
+        return new BlockingSendExecutor(properties.getBlocking());
+    }
+
+    /**
+     * Crée le contrôle d'admission qui déleste les notifications les moins prioritaires en cas de saturation.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param dispatcher Dispatcher à couloirs de priorité, dont la profondeur des files est surveillée s'il est activé
+     * @return Le contrôle d'admission configuré
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "notifier.admission", name = "enabled", havingValue = "true")
+    public AdmissionController admissionController(NotificationProperties properties,
+                                                   ObjectProvider<PriorityLaneDispatcher> dispatcher) {
+        PriorityLaneDispatcher lanes = dispatcher.getIfAvailable();
+        return new AdmissionController(properties.getAdmission(), lanes != null ? lanes::getQueuedCount : () -> 0);
+    }
+
+    /**
+     * Crée l'étape de regroupement des notifications en résumés.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param merger Fonction de fusion personnalisée, si un bean est déclaré
+     * @return L'étape de regroupement configurée
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "notifier.coalescing", name = "enabled", havingValue = "true")
+    public NotificationCoalescer notificationCoalescer(NotificationProperties properties,
+                                                       ObjectProvider<NotificationMerger> merger) {
+        return new NotificationCoalescer(properties.getCoalescing(), merger.getIfAvailable(DefaultNotificationMerger::new));
+    }
+
+    /**
+     * Crée le dispatcher à couloirs de priorité utilisé par le service de notification.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param deadLetters Stockage des lettres mortes, s'il est activé
+     * @return Le dispatcher configuré
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "notifier.dispatch", name = "enabled", havingValue = "true")
+    public PriorityLaneDispatcher priorityLaneDispatcher(NotificationProperties properties,
+                                                         ObjectProvider<DeadLetterStore> deadLetters) {
+        PriorityLaneDispatcher dispatcher = new PriorityLaneDispatcher(properties.getDispatch());
+        dispatcher.setDeadLetterStore(deadLetters.getIfAvailable());
+        return dispatcher;
+    }
+
+    /**
+     * Crée le séquenceur qui conserve l'ordre des envois adressés à un même destinataire.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @return Le séquenceur configuré
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "notifier.ordering", name = "enabled", havingValue = "true")
+    public RecipientSequencer recipientSequencer(NotificationProperties properties) {
+        return new RecipientSequencer(properties.getOrdering());
+    }
+
+    /**
+     * Crée le planificateur de notifications différées, qui remet les notifications échues au service principal.
+     *
+     * @param notificationService Service de notification utilisé à l'échéance
+     * @param properties Configuration des propriétés de notification
+     * @param deadLetters Stockage des lettres mortes, s'il est activé
+     * @return Le planificateur configuré
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "notifier.scheduler", name = "enabled", havingValue = "true")
+    public NotificationScheduler notificationScheduler(NotificationService notificationService, NotificationProperties properties,
+                                                       ObjectProvider<DeadLetterStore> deadLetters) {
+        NotificationProperties.SchedulerConfig config = properties.getScheduler();
+        NotificationScheduler scheduler = new NotificationScheduler(notificationService, config.getTick(), config.getDispatchThreads());
+        scheduler.setDeadLetterStore(deadLetters.getIfAvailable());
+        return scheduler;
+    }
+
+    /**
+     * Crée le composant de diffusion d'une notification à de nombreux destinataires lus à la demande.
+     *
+     * @param notificationService Service de notification utilisé pour chaque destinataire
+     * @param properties Configuration des propriétés de notification
+     * @return Le composant de diffusion
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public NotificationBroadcaster notificationBroadcaster(NotificationService notificationService,
+                                                           NotificationProperties properties) {
+        return new NotificationBroadcaster(notificationService, properties.getBroadcast());
+    }
+
+    /**
+     * Crée l'arrêt progressif des composants d'envoi : les diffusions et les renvois de lettres mortes sont interrompus,
+     * les notifications planifiées non échues et celles restées en file sont conservées comme lettres mortes,
+     * les résumés ouverts sont envoyés, puis les envois en cours sont attendus.
+     *
+     * @param notificationService Service de notification
+     * @param properties Configuration des propriétés de notification
+     * @param broadcaster Composant de diffusion
+     * @param replayer Composant de renvoi des lettres mortes, s'il est activé
+     * @param scheduler Planificateur de notifications différées, s'il est activé
+     * @param coalescer Étape de regroupement des notifications, si elle est activée
+     * @param dispatcher Dispatcher à couloirs de priorité, s'il est activé
+     * @return L'arrêt progressif
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "notifier.shutdown", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public NotifierShutdown notifierShutdown(NotificationService notificationService, NotificationProperties properties,
+                                             ObjectProvider<NotificationBroadcaster> broadcaster,
+                                             ObjectProvider<DeadLetterReplayer> replayer,
+                                             ObjectProvider<NotificationScheduler> scheduler,
+                                             ObjectProvider<NotificationCoalescer> coalescer,
+                                             ObjectProvider<PriorityLaneDispatcher> dispatcher) {
+        NotifierShutdown shutdown = new NotifierShutdown("des notifications", NotifierShutdown.PHASE,
+                properties.getShutdown().getTimeout());
+        broadcaster.ifAvailable(component -> shutdown.stage("diffusions", remaining -> component.close()));
+        replayer.ifAvailable(component -> shutdown.stage("renvoi des lettres mortes", remaining -> component.close()));
+        scheduler.ifAvailable(component -> shutdown.stage("planificateur", component::shutdown));
+        coalescer.ifAvailable(component -> shutdown.stage("regroupement", remaining -> component.close()));
+        dispatcher.ifAvailable(component -> shutdown.stage("dispatcher", component::shutdown));
+        if (notificationService instanceof DefaultNotificationService service) {
+            shutdown.stage("envois en cours", service::awaitInFlight);
+        }
+        return shutdown;
+    }
+
+    /**
+     * Préchauffe les fournisseurs une fois l'application démarrée, au lieu d'attendre le premier envoi.
+     *
+     * @param providers Liste des fournisseurs de notification disponibles
+     * @param properties Configuration des propriétés de notification
+     * @return Le composant de préchauffage
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "notifier.warm-up", name = "enabled", havingValue = "true")
+    public ProviderWarmUp providerWarmUp(List<NotificationProvider> providers, NotificationProperties properties) {
+        return new ProviderWarmUp(providers, properties.getWarmUp());
+    }
+
+    /**
+     * Crée le registre des limites de concurrence adaptatives, qui enveloppe chaque fournisseur.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param blockingExecutor Pool sur lequel démarrent les envois en attente des fournisseurs bloquants
+     * @return Le registre configuré
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "notifier.concurrency", name = "enabled", havingValue = "true")
+    public ConcurrencyLimitRegistry concurrencyLimitRegistry(NotificationProperties properties,
+                                                             BlockingSendExecutor blockingExecutor) {
+        return new ConcurrencyLimitRegistry(properties.getConcurrency(), blockingExecutor);
+    }
+
+    /**
+     * Retourne l'enveloppe appliquée à chaque fournisseur : sa limite de concurrence adaptative si le registre
+     * est activé, aucune sinon.
+     */
+    private static BiFunction<String, NotificationProvider, NotificationProvider> limited(
+            ObjectProvider<ConcurrencyLimitRegistry> limits) {
+        ConcurrencyLimitRegistry registry = limits.getIfAvailable();
+        return registry != null ? registry::wrap : (name, provider) -> provider;
+    }
+
+    /**
+     * Exposition des limites de concurrence comme métriques Micrometer.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "notifier.concurrency", name = "enabled", havingValue = "true")
+    public static class ConcurrencyMetricsConfiguration {
+
+        /**
+         * Publie, pour chaque fournisseur limité, sa limite courante, ses envois en cours et ses envois en attente.
+         *
+         * @param registry Registre des limites de concurrence
+         * @param providers Fournisseurs de notification, créés avant l'enregistrement des métriques
+         * @return Le binder des métriques
+         */
+        @Bean
+        public MeterBinder notifierConcurrencyMetrics(ConcurrencyLimitRegistry registry, List<NotificationProvider> providers) {
+            return meterRegistry -> {
+                for (ConcurrencyLimitedNotificationProvider provider : registry.getProviders()) {
+                    Gauge.builder("notifier.provider.concurrency.limit", provider, ConcurrencyLimitedNotificationProvider::getLimit)
+                            .description("Limite de concurrence adaptative du fournisseur")
+                            .tag("provider", provider.getName())
+                            .register(meterRegistry);
+                    Gauge.builder("notifier.provider.concurrency.in-flight", provider, ConcurrencyLimitedNotificationProvider::getInFlight)
+                            .description("Envois en cours auprès du fournisseur")
+                            .tag("provider", provider.getName())
+                            .register(meterRegistry);
+                    Gauge.builder("notifier.provider.concurrency.queued", provider, ConcurrencyLimitedNotificationProvider::getQueued)
+                            .description("Envois en attente d'une place auprès du fournisseur")
+                            .tag("provider", provider.getName())
+                            .register(meterRegistry);
+                }
+            };
+        }
+    }
+
+    /**
+     * Configuration de la file de notifications partagée en base de données.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.github.universalnotifier.jdbc.JdbcNotificationQueue")
+    @ConditionalOnProperty(prefix = "notifier.queue", name = "enabled", havingValue = "true")
+    public static class JdbcQueueConfiguration {
+
+        /**
+         * Crée la file partagée, en créant sa table si la configuration le demande.
+         *
+         * @param dataSource Source de données de l'application
+         * @param properties Configuration des propriétés de notification
+         * @return La file configurée
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public JdbcNotificationQueue jdbcNotificationQueue(DataSource dataSource, NotificationProperties properties) {
+            JdbcNotificationQueue queue = new JdbcNotificationQueue(dataSource, properties.getQueue());
+            if (properties.getQueue().isInitializeSchema()) {
+                queue.initializeSchema();
+            }
+            return queue;
+        }
+
+        /**
+         * Crée le consommateur qui envoie, depuis ce nœud, les notifications de la file.
+         *
+         * @param queue File partagée
+         * @param notificationService Service de notification utilisé pour chaque envoi
+         * @param properties Configuration des propriétés de notification
+         * @param deadLetters Stockage des lettres mortes, s'il est activé
+         * @return Le consommateur démarré
+         */
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public JdbcQueueWorker jdbcQueueWorker(JdbcNotificationQueue queue, NotificationService notificationService,
+                                               NotificationProperties properties, ObjectProvider<DeadLetterStore> deadLetters) {
+            return new JdbcQueueWorker(queue, notificationService, properties.getQueue(), deadLetters.getIfAvailable());
+        }
+
+        /**
+         * Crée l'arrêt progressif du consommateur, qui précède celui des autres composants d'envoi :
+         * le nœud cesse de réclamer des notifications puis confirme celles qu'il a envoyées.
+         *
+         * @param worker Consommateur de la file
+         * @param properties Configuration des propriétés de notification
+         * @return L'arrêt progressif du consommateur
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "notifier.shutdown", name = "enabled", havingValue = "true", matchIfMissing = true)
+        public NotifierShutdown jdbcQueueShutdown(JdbcQueueWorker worker, NotificationProperties properties) {
+            return new NotifierShutdown("de la file partagée", NotifierShutdown.PHASE + 1,
+                    properties.getShutdown().getTimeout())
+                    .stage("consommateur", worker::shutdown);
+        }
+    }
+
+    /**
+     * Configuration des lettres mortes : leur stockage et leur renvoi.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "notifier.dead-letter", name = "enabled", havingValue = "true")
+    public static class DeadLetterConfiguration {
+
+        /**
+         * Crée le stockage en mémoire des lettres mortes, utilisé par défaut.
+         *
+         * @param properties Configuration des propriétés de notification
+         * @return Le stockage configuré
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "notifier.dead-letter", name = "store", havingValue = "memory", matchIfMissing = true)
+        public DeadLetterStore inMemoryDeadLetterStore(NotificationProperties properties) {
+            return new InMemoryDeadLetterStore(properties.getDeadLetter().getMaxSize());
+        }
+
+        /**
+         * Crée le stockage des lettres mortes dans un journal sur disque.
+         *
+         * @param properties Configuration des propriétés de notification
+         * @return Le stockage configuré
+         */
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "notifier.dead-letter", name = "store", havingValue = "file")
+        public DeadLetterStore fileDeadLetterStore(NotificationProperties properties) {
+            NotificationProperties.DeadLetterConfig config = properties.getDeadLetter();
+            return new FileDeadLetterStore(Path.of(config.getFile()), config.getMaxSize());
+        }
+
+        /**
+         * Crée le composant de renvoi des lettres mortes.
+         *
+         * @param notificationService Service par lequel les lettres mortes sont renvoyées
+         * @param store Stockage des lettres mortes
+         * @param properties Configuration des propriétés de notification
+         * @return Le composant de renvoi
+         */
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public DeadLetterReplayer deadLetterReplayer(NotificationService notificationService, DeadLetterStore store,
+                                                     NotificationProperties properties) {
+            return new DeadLetterReplayer(notificationService, store, properties.getDeadLetter());
+        }
+
+        /**
+         * Configuration du stockage des lettres mortes en base de données.
+         */
+        @Configuration
+        @ConditionalOnClass(name = "io.github.universalnotifier.jdbc.JdbcDeadLetterStore")
+        @ConditionalOnProperty(prefix = "notifier.dead-letter", name = "store", havingValue = "jdbc")
+        public static class JdbcDeadLetterConfiguration {
+
+            /**
+             * Crée le stockage des lettres mortes, en créant sa table si la configuration le demande.
+             *
+             * @param dataSource Source de données de l'application
+             * @param properties Configuration des propriétés de notification
+             * @return Le stockage configuré
+             */
+            @Bean
+            @ConditionalOnMissingBean
+            public DeadLetterStore jdbcDeadLetterStore(DataSource dataSource, NotificationProperties properties) {
+                JdbcDeadLetterStore store = new JdbcDeadLetterStore(dataSource, properties.getDeadLetter());
+                if (properties.getDeadLetter().isInitializeSchema()) {
+                    store.initializeSchema();
+                }
+                return store;
+            }
+        }
     }
 
     /**
@@ -51,12 +448,14 @@ public class NotifierAutoConfiguration {
          * Crée le fournisseur de notification SendGrid.
          *
          * @param properties Configuration des propriétés de notification
+         * @param limits Registre des limites de concurrence, s'il est activé
          * @return Le fournisseur SendGrid configuré
          */
         @Bean
         @ConditionalOnMissingBean
-        public NotificationProvider sendGridNotificationProvider(NotificationProperties properties) {
-            return new SendGridNotificationProvider(properties);
+        public NotificationProvider sendGridNotificationProvider(NotificationProperties properties,
+                                                                 ObjectProvider<ConcurrencyLimitRegistry> limits) {
+            return ShardedNotificationProvider.create(properties, "email", SendGridNotificationProvider::new, limited(limits));
         }
     }
 
@@ -72,12 +471,14 @@ public class NotifierAutoConfiguration {
          * Crée le fournisseur de notification Twilio.
          *
          * @param properties Configuration des propriétés de notification
+         * @param limits Registre des limites de concurrence, s'il est activé
          * @return Le fournisseur Twilio configuré
          */
         @Bean
         @ConditionalOnMissingBean
-        public NotificationProvider twilioNotificationProvider(NotificationProperties properties) {
-            return new TwilioNotificationProvider(properties);
+        public NotificationProvider twilioNotificationProvider(NotificationProperties properties,
+                                                               ObjectProvider<ConcurrencyLimitRegistry> limits) {
+            return ShardedNotificationProvider.create(properties, "sms", TwilioNotificationProvider::new, limited(limits));
         }
     }
 
@@ -94,12 +495,14 @@ public class NotifierAutoConfiguration {
          *
          * @param properties Configuration des propriétés de notification
          * @param resourceLoader Chargeur de ressources Spring
+         * @param limits Registre des limites de concurrence, s'il est activé
          * @return Le fournisseur Firebase configuré
          */
         @Bean
         @ConditionalOnMissingBean
-        public NotificationProvider firebaseNotificationProvider(NotificationProperties properties, ResourceLoader resourceLoader) {
-            return new FirebaseNotificationProvider(properties, resourceLoader);
+        public NotificationProvider firebaseNotificationProvider(NotificationProperties properties, ResourceLoader resourceLoader,
+                                                                 ObjectProvider<ConcurrencyLimitRegistry> limits) {
+            return limited(limits).apply("push", new FirebaseNotificationProvider(properties, resourceLoader));
         }
     }
 }
@@ -0,0 +1,48 @@
+package io.github.universalnotifier.starter;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Indications d'exécution pour les images natives GraalVM.
+ * <p>
+ * Les SDK des fournisseurs (dé)sérialisent leurs modèles par réflexion (Jackson pour Twilio et SendGrid,
+ * le parseur JSON de google-http-client pour Firebase). Les types sont référencés par leur nom afin de
+ * ne pas exiger la présence des modules optionnels ; un type absent du classpath est simplement ignoré.
+ */
+public class NotifierRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> REFLECTIVE_TYPES = List.of(
+            // Twilio
+            "com.twilio.rest.api.v2010.account.Message",
+            "com.twilio.exception.RestException",
+            // SendGrid
+            "com.sendgrid.helpers.mail.Mail",
+            "com.sendgrid.helpers.mail.objects.Email",
+            "com.sendgrid.helpers.mail.objects.Content",
+            "com.sendgrid.helpers.mail.objects.Personalization",
+            // Firebase Cloud Messaging
+            "com.google.firebase.messaging.Message",
+            "com.google.firebase.messaging.Notification",
+            "com.google.firebase.messaging.MulticastMessage",
+            "com.google.auth.oauth2.ServiceAccountCredentials",
+            "com.google.api.client.json.GenericJson",
+            "com.google.api.client.json.webtoken.JsonWebSignature$Header",
+            "com.google.api.client.json.webtoken.JsonWebToken$Payload");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : REFLECTIVE_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type, builder -> builder.withMembers(
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS));
+        }
+
+        // Fichier de version lu par le SDK Firebase à l'initialisation
+        hints.resources().registerPattern("admin_sdk.properties");
+    }
+}
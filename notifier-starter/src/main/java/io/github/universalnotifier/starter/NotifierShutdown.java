@@ -0,0 +1,104 @@
+package io.github.universalnotifier.starter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrêt progressif des composants d'envoi de notifications.
+ * <p>
+ * À l'arrêt du contexte Spring, les étapes enregistrées sont exécutées dans l'ordre et se partagent le délai
+ * configuré : chaque étape cesse d'admettre de nouvelles notifications, envoie celles qui sont en attente
+ * ou les conserve, puis attend les envois en cours. La phase est inférieure à celle de l'arrêt du serveur web :
+ * les requêtes entrantes sont terminées avant que les files ne soient vidées. Les composants ne sont fermés
+ * qu'ensuite, à la destruction de leur bean.
+ */
+public class NotifierShutdown implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotifierShutdown.class);
+
+    /**
+     * Phase de l'arrêt progressif, inférieure à celles de l'arrêt du serveur web
+     * ({@code DEFAULT_PHASE - 1024} et {@code DEFAULT_PHASE - 2048}).
+     */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /**
+     * Étape de l'arrêt progressif.
+     */
+    @FunctionalInterface
+    public interface Stage {
+
+        /**
+         * @param remaining Temps restant avant l'expiration du délai d'arrêt
+         */
+        void drain(Duration remaining);
+    }
+
+    private final String name;
+    private final int phase;
+    private final Duration timeout;
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private volatile boolean running;
+
+    /**
+     * @param name Nom de l'arrêt, pour la journalisation
+     * @param phase Phase Spring de l'arrêt ; les phases les plus hautes sont arrêtées en premier
+     * @param timeout Durée maximale de l'arrêt, toutes étapes confondues
+     */
+    public NotifierShutdown(String name, int phase, Duration timeout) {
+        this.name = name;
+        this.phase = phase;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Ajoute une étape, exécutée après celles déjà ajoutées.
+     *
+     * @param stageName Nom de l'étape, pour la journalisation
+     * @param stage Étape
+     * @return Cet arrêt
+     */
+    public NotifierShutdown stage(String stageName, Stage stage) {
+        stages.put(stageName, stage);
+        return this;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        logger.info("Arrêt progressif {} : {} étape(s), {} ms au plus", name, stages.size(), timeout.toMillis());
+        stages.forEach((stageName, stage) -> {
+            Duration remaining = Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0));
+            try {
+                stage.drain(remaining);
+            } catch (RuntimeException e) {
+                logger.error("Échec de l'étape '{}' de l'arrêt progressif {}", stageName, name, e);
+            }
+        });
+        running = false;
+        logger.info("Arrêt progressif {} terminé en {} ms", name,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return phase;
+    }
+}
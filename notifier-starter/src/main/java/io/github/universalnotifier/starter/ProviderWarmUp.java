@@ -0,0 +1,111 @@
+package io.github.universalnotifier.starter;
+
+import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.service.NotificationProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préchauffe les fournisseurs de notification une fois l'application démarrée.
+ * <p>
+ * {@link ApplicationReadyEvent} étant publié avant que l'application ne se déclare prête à recevoir
+ * du trafic, le préchauffage se termine (ou atteint son délai maximal) avant le passage de la sonde
+ * de disponibilité. Les fournisseurs sont préchauffés en parallèle et, si un intervalle est configuré,
+ * le préchauffage est renouvelé périodiquement pour garder les connexions ouvertes.
+ * Un échec n'empêche pas le démarrage : le fournisseur retentera son initialisation au premier envoi.
+ */
+public class ProviderWarmUp implements ApplicationListener<ApplicationReadyEvent>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderWarmUp.class);
+
+    private final List<NotificationProvider> providers;
+    private final NotificationProperties.WarmUpConfig config;
+    private final ExecutorService executor;
+    private ScheduledExecutorService refresher;
+
+    /**
+     * @param providers Fournisseurs de notification à préchauffer
+     * @param config Configuration du préchauffage
+     */
+    public ProviderWarmUp(List<NotificationProvider> providers, NotificationProperties.WarmUpConfig config) {
+        this.providers = providers;
+        this.config = config;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "notifier-warm-up-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        warmUp();
+
+        Duration interval = config.getRefreshInterval();
+        if (interval != null && !interval.isZero() && !interval.isNegative()) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notifier-warm-up-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::warmUp, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Préchauffe tous les fournisseurs en parallèle et attend au plus le délai configuré.
+     */
+    void warmUp() {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] tasks = providers.stream()
+                .map(provider -> CompletableFuture.runAsync(() -> warmUp(provider), executor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(tasks).get(config.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            logger.info("{} fournisseur(s) préchauffé(s) en {} ms", providers.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            logger.warn("Préchauffage des fournisseurs interrompu après {} ms", config.getTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Les échecs individuels sont journalisés par warmUp(provider)
+        }
+    }
+
+    private void warmUp(NotificationProvider provider) {
+        long start = System.nanoTime();
+        try {
+            provider.warmUp(config.getConnections());
+            logger.debug("Fournisseur {} préchauffé en {} ms", provider.getClass().getSimpleName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            logger.warn("Échec du préchauffage du fournisseur {}, il sera initialisé au premier envoi",
+                    provider.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Arrête le renouvellement périodique du préchauffage.
+     */
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,254 @@
+package io.github.universalnotifier.telegram.bot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index borné des identifiants de chat Telegram par nom d'utilisateur.
+ * <p>
+ * L'API Bot n'envoie un message qu'à un identifiant de chat ; le bot apprend celui d'un utilisateur
+ * lorsque ce dernier lui écrit. L'index conserve au plus un nombre fixe d'utilisateurs : au-delà, celui
+ * résolu ou vu le moins récemment est écarté, de même que ceux qui n'ont pas écrit au bot depuis la durée
+ * de validité. Avec un fichier, l'index est enregistré périodiquement et à la fermeture, puis relu au
+ * démarrage.
+ */
+public class TelegramChatIdResolver implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramChatIdResolver.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Path file;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+    private final ScheduledExecutorService flusher;
+
+    private boolean dirty;
+
+    /**
+     * Crée un index conservé en mémoire seulement.
+     *
+     * @param maxSize Nombre maximal d'utilisateurs indexés
+     * @param ttl Durée de validité d'une entrée depuis le dernier message de l'utilisateur
+     */
+    public TelegramChatIdResolver(int maxSize, Duration ttl) {
+        this(maxSize, ttl, null, null, Clock.systemUTC());
+    }
+
+    /**
+     * Crée un index enregistré dans un fichier.
+     *
+     * @param maxSize Nombre maximal d'utilisateurs indexés
+     * @param ttl Durée de validité d'une entrée depuis le dernier message de l'utilisateur
+     * @param file Fichier de l'index, relu s'il existe
+     * @param flushInterval Intervalle entre deux enregistrements de l'index modifié
+     */
+    public TelegramChatIdResolver(int maxSize, Duration ttl, Path file, Duration flushInterval) {
+        this(maxSize, ttl, file, flushInterval, Clock.systemUTC());
+    }
+
+    TelegramChatIdResolver(int maxSize, Duration ttl, Path file, Duration flushInterval, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La taille de l'index des chats Telegram doit être positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.file = file;
+        this.clock = clock;
+        // Ordre d'accès : l'entrée la plus ancienne est la moins récemment utilisée
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TelegramChatIdResolver.this.maxSize;
+            }
+        };
+
+        if (file != null) {
+            load();
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notifier-telegram-chat-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = flushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Indique si un destinataire désigne un utilisateur par son nom ({@code @username}).
+     *
+     * @param to Destinataire d'une notification
+     * @return true s'il commence par {@code @}
+     */
+    public static boolean isUsername(String to) {
+        return to != null && to.length() > 1 && to.charAt(0) == '@';
+    }
+
+    /**
+     * Enregistre l'identifiant du chat d'un utilisateur qui a écrit au bot.
+     *
+     * @param username Nom d'utilisateur, avec ou sans {@code @}
+     * @param chatId Identifiant du chat
+     */
+    public synchronized void record(String username, long chatId) {
+        entries.put(normalize(username), new Entry(chatId, clock.millis()));
+        dirty = true;
+    }
+
+    /**
+     * Recherche l'identifiant du chat d'un utilisateur.
+     *
+     * @param username Nom d'utilisateur, avec ou sans {@code @}
+     * @return L'identifiant du chat, ou null si l'utilisateur est inconnu ou n'a pas écrit au bot récemment
+     */
+    public synchronized Long resolve(String username) {
+        String key = normalize(username);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, clock.millis())) {
+            entries.remove(key);
+            dirty = true;
+            return null;
+        }
+        return entry.chatId;
+    }
+
+    /**
+     * @return Nombre d'utilisateurs indexés, entrées expirées comprises tant qu'elles n'ont pas été écartées
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Enregistre l'index dans son fichier s'il a été modifié depuis le dernier enregistrement.
+     *
+     * @throws IOException Si le fichier ne peut pas être écrit
+     */
+    public void flush() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Map<String, Entry> snapshot;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            snapshot = new LinkedHashMap<>(entries);
+            dirty = false;
+        }
+
+        long now = clock.millis();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeByte(FORMAT_VERSION);
+                // Du moins au plus récemment utilisé, pour retrouver le même ordre à la relecture
+                for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                    if (!isExpired(entry.getValue(), now)) {
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(entry.getValue().chatId);
+                        out.writeLong(entry.getValue().seenAt);
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Enregistre une dernière fois l'index et arrête son enregistrement périodique.
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.warn("Impossible d'enregistrer l'index des chats Telegram dans {}", file, e);
+        }
+    }
+
+    private void load() {
+        long now = clock.millis();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                logger.warn("Version {} de l'index des chats Telegram {} non supportée : index ignoré", version, file);
+                return;
+            }
+            while (true) {
+                String username;
+                try {
+                    username = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                Entry entry = new Entry(in.readLong(), in.readLong());
+                if (!isExpired(entry, now)) {
+                    entries.put(username, entry);
+                    loaded++;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            logger.warn("Index des chats Telegram {} illisible : {} entrée(s) relue(s)", file, loaded, e);
+        }
+        logger.info("Index des chats Telegram relu depuis {} : {} utilisateur(s)", file, entries.size());
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.seenAt > ttlMillis;
+    }
+
+    private static String normalize(String username) {
+        String name = username.charAt(0) == '@' ? username.substring(1) : username;
+        // Les noms d'utilisateur Telegram ne distinguent pas la casse
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(long chatId, long seenAt) {
+    }
+}
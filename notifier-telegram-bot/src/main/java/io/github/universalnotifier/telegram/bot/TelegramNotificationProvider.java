@@ -1,41 +1,95 @@
 package io.github.universalnotifier.telegram.bot;
 
+import io.github.universalnotifier.core.codec.PayloadCache;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.http.ProviderTimeouts;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
 import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+import org.apache.http.client.config.RequestConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.generics.BotSession;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Fournisseur de notification Telegram utilisant l'API Bot.
  * Cette classe implémente la logique d'envoi de messages via un bot Telegram.
+ * <p>
+ * Le destinataire est un identifiant de chat, ou un nom d'utilisateur ({@code @username}) résolu grâce
+ * aux messages que l'utilisateur a envoyés au bot (voir {@link TelegramChatIdResolver}).
+ * <p>
+ * Les envois ne bloquent pas l'appelant : ils passent par une fenêtre qui respecte la limite de débit
+ * de Telegram et borne le nombre de requêtes en cours (voir {@link TelegramSendWindow}). Une diffusion
+ * vers des milliers de chats se termine ainsi dans le temps minimal permis par l'API.
  */
-public class TelegramNotificationProvider implements NotificationProvider {
+public class TelegramNotificationProvider implements NotificationProvider, AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(TelegramNotificationProvider.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
 
     private static final String TYPE = "TELEGRAM";
     private static final String BOT_TOKEN = "bot-token";
     private static final String BOT_USERNAME = "bot-username";
+    private static final String CHAT_INDEX_SIZE = "chat-index-size";
+    private static final String CHAT_INDEX_TTL = "chat-index-ttl";
+    private static final String CHAT_INDEX_FILE = "chat-index-file";
+    private static final String CHAT_INDEX_FLUSH_INTERVAL = "chat-index-flush-interval";
+    private static final String MAX_IN_FLIGHT = "max-in-flight";
+    private static final String MESSAGES_PER_SECOND = "messages-per-second";
+    private static final String RATE_LIMIT_RETRIES = "rate-limit-retries";
+    private static final String MAX_PENDING = "max-pending";
+    private static final String PAYLOAD_CACHE_SIZE = "payload-cache-size";
+
+    private static final int DEFAULT_CHAT_INDEX_SIZE = 100_000;
+    private static final Duration DEFAULT_CHAT_INDEX_TTL = Duration.ofDays(30);
+    private static final Duration DEFAULT_CHAT_INDEX_FLUSH_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * L'API Bot limite un message à 4096 caractères et un bot à environ 30 messages par seconde.
+     */
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+    private static final double DEFAULT_MESSAGES_PER_SECOND = 30;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 30;
+    private static final int DEFAULT_RATE_LIMIT_RETRIES = 3;
+    private static final int DEFAULT_MAX_PENDING = 10_000;
+    private static final int MAX_BATCH_SIZE = 100;
 
     private final TelegramBot bot;
-    private boolean botRegistered = false;
+    private final ProviderTimeouts timeouts;
+    private final TelegramChatIdResolver chatIds;
+    private final TelegramSendWindow window;
+    private final ProviderCapabilities capabilities;
+    private final PayloadCache<String> texts;
+    private volatile BotSession session;
 
     /**
      * Constructeur du fournisseur Telegram utilisant les propriétés configurées.
      *
+     * Le bot n'est enregistré qu'au premier envoi, ou lors du préchauffage.
+     *
      * @param properties Configuration des propriétés de notification
-     * @throws NotificationException si l'initialisation du bot Telegram échoue
+     * @throws IllegalArgumentException si des propriétés requises sont manquantes
      */
     public TelegramNotificationProvider(NotificationProperties properties) {
         Map<String, String> config = properties.getTelegram().getActiveProviderProperties();
@@ -50,16 +104,69 @@ public class TelegramNotificationProvider implements NotificationProvider {
             throw new IllegalArgumentException("La propriété 'notifier.telegram.bot.bot-username' est requise pour l'utilisation de Telegram");
         }
 
-        this.bot = new TelegramBot(botToken, botUsername);
+        this.timeouts = ProviderTimeouts.from(config, "notifier.telegram.bot");
+        int maxInFlight = integer(config, MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT);
+        double messagesPerSecond = number(config, MESSAGES_PER_SECOND, DEFAULT_MESSAGES_PER_SECOND);
+
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setRequestConfig(RequestConfig.custom()
+                .setConnectTimeout((int) timeouts.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) timeouts.getReadTimeout().toMillis())
+                .build());
+        // Les envois asynchrones du bot s'exécutent sur ce nombre de threads : un par requête en cours
+        options.setMaxThreads(maxInFlight);
+        this.chatIds = chatIdResolver(config);
+        this.bot = new TelegramBot(options, botToken, botUsername, chatIds);
+        this.window = new TelegramSendWindow(this::executeAsync, maxInFlight, messagesPerSecond,
+                integer(config, RATE_LIMIT_RETRIES, DEFAULT_RATE_LIMIT_RETRIES),
+                integer(config, MAX_PENDING, DEFAULT_MAX_PENDING));
+        this.capabilities = ProviderCapabilities.builder()
+                .maxBatchSize(MAX_BATCH_SIZE)
+                .nativeAsync(true)
+                .maxMessageLength(MAX_MESSAGE_LENGTH)
+                .maxSendsPerSecond(messagesPerSecond)
+                .build();
+        this.texts = PayloadCache.parse(config.get(PAYLOAD_CACHE_SIZE), "notifier.telegram.bot.payload-cache-size");
+    }
+
+    private static TelegramChatIdResolver chatIdResolver(Map<String, String> config) {
+        int size = integer(config, CHAT_INDEX_SIZE, DEFAULT_CHAT_INDEX_SIZE);
+        Duration ttl = duration(config, CHAT_INDEX_TTL, DEFAULT_CHAT_INDEX_TTL);
+        String file = config.get(CHAT_INDEX_FILE);
+        if (file == null || file.isEmpty()) {
+            return new TelegramChatIdResolver(size, ttl);
+        }
+        return new TelegramChatIdResolver(size, ttl, Path.of(file),
+                duration(config, CHAT_INDEX_FLUSH_INTERVAL, DEFAULT_CHAT_INDEX_FLUSH_INTERVAL));
+    }
 
+    private static int integer(Map<String, String> config, String key, int defaultValue) {
+        String value = config.get(key);
         try {
-            TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
-            botsApi.registerBot(this.bot);
-            botRegistered = true;
-            logger.info("Bot Telegram '{}' enregistré avec succès", botUsername);
-        } catch (TelegramApiException e) {
-            logger.error("Erreur lors de l'initialisation du bot Telegram", e);
-            throw new NotificationException("Erreur lors de l'initialisation du bot Telegram", e);
+            return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La propriété 'notifier.telegram.bot." + key + "' doit être un entier");
+        }
+    }
+
+    private static double number(Map<String, String> config, String key, double defaultValue) {
+        String value = config.get(key);
+        try {
+            return value == null || value.isEmpty() ? defaultValue : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La propriété 'notifier.telegram.bot." + key + "' doit être un nombre");
+        }
+    }
+
+    private static Duration duration(Map<String, String> config, String key, Duration defaultValue) {
+        String value = config.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return DurationStyle.detectAndParse(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("La propriété 'notifier.telegram.bot." + key + "' doit être une durée: " + value, e);
         }
     }
 
@@ -68,31 +175,183 @@ public class TelegramNotificationProvider implements NotificationProvider {
         return TYPE.equalsIgnoreCase(type);
     }
 
+    @Override
+    public ProviderCapabilities capabilities() {
+        return capabilities;
+    }
+
+    @Override
+    public void warmUp(int connections) {
+        ensureRegistered();
+    }
+
     @Override
     public void send(NotificationRequest request) {
-        if (!botRegistered) {
-            throw new NotificationException("Le bot Telegram n'est pas correctement initialisé");
+        try {
+            sendAsync(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw new NotificationException("Erreur lors de l'envoi du message Telegram", e.getCause());
         }
+    }
 
+    /**
+     * Place le message dans la fenêtre d'envoi sans attendre la réponse de l'API Bot.
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        SendMessage message;
         try {
-            logger.debug("Préparation d'un message Telegram à envoyer à: {}", request.getTo());
+            timeouts.requestTimeout(request);
+            ensureRegistered();
+            message = message(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        logger.debug("Message Telegram à envoyer à: {}", request.getTo());
+        return window.submit(message, request.getPriority(), request.remainingTime()).handle((sent, error) -> {
+            if (error != null) {
+                throw failure(error);
+            }
+            logger.debug("Message Telegram envoyé avec succès au chat ID: {}", request.getTo());
+            return null;
+        });
+    }
 
-            SendMessage message = new SendMessage();
-            message.setChatId(request.getTo());
+    /**
+     * Diffuse un même message à plusieurs chats. Chaque envoi passe par la fenêtre d'envoi : le futur
+     * de chaque chat est complété dès la réponse de l'API Bot, sans attendre les autres.
+     *
+     * @param recipients Identifiants de chat ou noms d'utilisateur ({@code @username})
+     * @param subject Sujet affiché en gras en tête du message, ou null
+     * @param text Texte du message
+     * @return Un futur par destinataire, dans le même ordre
+     */
+    public List<CompletableFuture<Void>> broadcast(List<String> recipients, String subject, String text) {
+        List<NotificationRequest> requests = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            requests.add(NotificationRequest.builder()
+                    .type(TYPE)
+                    .to(recipient)
+                    .subject(subject)
+                    .message(text)
+                    .build());
+        }
+        return sendBatchAsync(requests);
+    }
 
-            // Si un sujet est fourni, l'ajouter en gras au début du message
-            if (request.getSubject() != null && !request.getSubject().isEmpty()) {
-                message.setText("*" + request.getSubject() + "*\n\n" + request.getMessage());
-                message.enableMarkdown(true);
-            } else {
-                message.setText(request.getMessage());
-            }
+    private SendMessage message(NotificationRequest request) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId(request.getTo()));
 
-            bot.execute(message);
-            logger.info("Message Telegram envoyé avec succès au chat ID: {}", request.getTo());
-        } catch (Exception e) {
-            logger.error("Erreur lors de l'envoi du message Telegram", e);
-            throw new NotificationException("Erreur lors de l'envoi du message Telegram", e);
+        // Le texte mis en forme est partagé par tous les destinataires d'un même contenu
+        message.setText(texts.get(request, TelegramNotificationProvider::text));
+        message.enableMarkdown(hasSubject(request.getSubject()));
+        return message;
+    }
+
+    /**
+     * Met en forme le texte d'un message : le sujet éventuel est ajouté en gras au début du message.
+     */
+    static String text(PayloadCache.Content content) {
+        return hasSubject(content.subject()) ? "*" + content.subject() + "*\n\n" + content.message() : content.message();
+    }
+
+    private static boolean hasSubject(String subject) {
+        return subject != null && !subject.isEmpty();
+    }
+
+    private CompletableFuture<Message> executeAsync(SendMessage message) {
+        try {
+            return bot.executeAsync(message);
+        } catch (TelegramApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static NotificationException failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof NotificationException e) {
+            return e;
+        }
+        NotificationException failure;
+        if (cause instanceof TelegramApiRequestException e) {
+            failure = NotificationException.stackless(errorCode(e.getErrorCode() != null ? e.getErrorCode() : 0),
+                    "Erreur lors de l'envoi du message Telegram", e);
+        } else {
+            failure = new NotificationException("Erreur lors de l'envoi du message Telegram", cause);
+        }
+        errors.error("Erreur lors de l'envoi du message Telegram", failure);
+        return failure;
+    }
+
+    /**
+     * Arrête la fenêtre d'envoi et la session du bot, puis enregistre l'index des chats s'il est conservé
+     * dans un fichier. Les requêtes déjà transmises à l'API Bot se terminent normalement.
+     */
+    @Override
+    public void close() {
+        window.close();
+        BotSession current = session;
+        if (current != null && current.isRunning()) {
+            current.stop();
+            logger.info("Session du bot Telegram '{}' arrêtée", bot.getBotUsername());
+        }
+        bot.onClosing();
+        chatIds.close();
+    }
+
+    /**
+     * Résout un destinataire {@code @username} en identifiant de chat. Un nom inconnu de l'index est transmis
+     * tel quel : l'API Bot accepte le nom public d'un canal ou d'un supergroupe.
+     */
+    private String chatId(String to) {
+        if (!TelegramChatIdResolver.isUsername(to)) {
+            return to;
+        }
+        Long chatId = chatIds.resolve(to);
+        if (chatId == null) {
+            logger.debug("Utilisateur Telegram {} absent de l'index des chats : nom transmis tel quel", to);
+            return to;
+        }
+        return chatId.toString();
+    }
+
+    /**
+     * Classe une erreur de l'API Bot. Telegram répond 400 à un chat inconnu et 403 lorsque
+     * l'utilisateur a bloqué le bot : le destinataire est alors injoignable.
+     */
+    private static NotificationErrorCode errorCode(int errorCode) {
+        if (errorCode == 400 || errorCode == 403) {
+            return NotificationErrorCode.INVALID_RECIPIENT;
+        }
+        return NotificationErrorCode.fromHttpStatus(errorCode);
+    }
+
+    /**
+     * Enregistre le bot auprès de l'API Telegram, une seule fois.
+     * En cas d'échec, l'enregistrement sera retenté au prochain appel.
+     *
+     * @throws NotificationException si l'initialisation du bot Telegram échoue
+     */
+    private void ensureRegistered() {
+        if (session != null) {
+            return;
+        }
+        synchronized (this) {
+            if (session != null) {
+                return;
+            }
+            try {
+                TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
+                session = botsApi.registerBot(this.bot);
+                logger.info("Bot Telegram '{}' enregistré avec succès", bot.getBotUsername());
+            } catch (TelegramApiException e) {
+                logger.error("Erreur lors de l'initialisation du bot Telegram", e);
+                throw new NotificationException("Erreur lors de l'initialisation du bot Telegram", e);
+            }
         }
     }
 
@@ -103,12 +362,13 @@ public class TelegramNotificationProvider implements NotificationProvider {
 
         private final String botToken;
         private final String botUsername;
-        private final Map<String, String> chatIdToUsername = new ConcurrentHashMap<>();
+        private final TelegramChatIdResolver chatIds;
 
-        public TelegramBot(String botToken, String botUsername) {
-            super(botToken);
+        public TelegramBot(DefaultBotOptions options, String botToken, String botUsername, TelegramChatIdResolver chatIds) {
+            super(options, botToken);
             this.botToken = botToken;
             this.botUsername = botUsername;
+            this.chatIds = chatIds;
         }
 
         @Override
@@ -118,12 +378,12 @@ public class TelegramNotificationProvider implements NotificationProvider {
 
         @Override
         public void onUpdateReceived(Update update) {
-            // Stocker la correspondance chatId -> username pour référence future
-            if (update.hasMessage() && update.getMessage().hasFrom()) {
-                String chatId = update.getMessage().getChatId().toString();
+            // Indexer le chat privé de l'utilisateur pour pouvoir lui écrire par son nom ; l'identifiant
+            // d'un groupe ne doit pas être associé à l'un de ses membres
+            if (update.hasMessage() && update.getMessage().isUserMessage() && update.getMessage().getFrom() != null) {
                 String username = update.getMessage().getFrom().getUserName();
                 if (username != null) {
-                    chatIdToUsername.put(chatId, username);
+                    chatIds.record(username, update.getMessage().getChatId());
                 }
             }
         }
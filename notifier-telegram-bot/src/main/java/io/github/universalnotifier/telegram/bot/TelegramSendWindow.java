@@ -0,0 +1,260 @@
+package io.github.universalnotifier.telegram.bot;
+
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Fenêtre d'envoi des messages Telegram : les messages sont transmis à l'API Bot sans bloquer l'appelant,
+ * au rythme autorisé par Telegram et dans la limite d'un nombre de requêtes en cours.
+ * <p>
+ * Un seul thread espace les envois ; les réponses arrivent sur les threads du bot et complètent le futur
+ * de chaque message dès qu'elles sont reçues. Une réponse 429 suspend tous les envois pendant le délai
+ * {@code retry_after} indiqué par Telegram, puis le message est renvoyé en tête de file.
+ * <p>
+ * La file d'attente est bornée : au-delà, les messages sont refusés par une {@link NotificationRejectedException}.
+ * Un message dont l'échéance est dépassée lorsque vient son tour échoue sans être envoyé.
+ */
+final class TelegramSendWindow implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramSendWindow.class);
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Function<SendMessage, CompletableFuture<Message>> sender;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final long intervalNanos;
+    private final int maxRetries;
+    private final int maxPending;
+    private final Deque<Pending> pending = new ConcurrentLinkedDeque<>();
+    // Taille de la file, tenue à part : celle de ConcurrentLinkedDeque se calcule en la parcourant
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong pausedUntil = new AtomicLong(System.nanoTime());
+    private final ScheduledExecutorService scheduler;
+
+    // Modifié uniquement par le thread d'envoi
+    private long nextSendAt = System.nanoTime();
+
+    /**
+     * @param sender Envoi non bloquant d'un message à l'API Bot
+     * @param maxInFlight Nombre maximal de requêtes en cours
+     * @param messagesPerSecond Nombre maximal de messages par seconde, tous chats confondus
+     * @param maxRetries Nombre maximal de renvois d'un message refusé par la limite de débit (429)
+     * @param maxPending Nombre maximal de messages en attente de leur tour d'envoi
+     */
+    TelegramSendWindow(Function<SendMessage, CompletableFuture<Message>> sender, int maxInFlight,
+                       double messagesPerSecond, int maxRetries, int maxPending) {
+        if (maxInFlight < 1 || messagesPerSecond <= 0 || maxRetries < 0 || maxPending < 1) {
+            throw new IllegalArgumentException("Fenêtre d'envoi Telegram invalide: " + maxInFlight
+                    + " requête(s) en cours, " + messagesPerSecond + " message(s) par seconde, "
+                    + maxPending + " message(s) en attente");
+        }
+        this.sender = sender;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / messagesPerSecond);
+        this.maxRetries = maxRetries;
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notifier-telegram-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Place un message sans échéance dans la fenêtre d'envoi.
+     *
+     * @param message Message à envoyer
+     * @return Un futur complété avec le message envoyé, ou exceptionnellement avec l'erreur de l'API Bot
+     */
+    CompletableFuture<Message> submit(SendMessage message) {
+        return submit(message, NotificationPriority.NORMAL, null);
+    }
+
+    /**
+     * Place un message dans la fenêtre d'envoi.
+     *
+     * @param message Message à envoyer
+     * @param priority Priorité de la notification, indiquée en cas de refus
+     * @param remaining Temps restant avant l'échéance de la notification, ou null si elle n'en a pas
+     * @return Un futur complété avec le message envoyé, ou exceptionnellement avec l'erreur de l'API Bot,
+     *         une {@link NotificationRejectedException} si la file est pleine, ou une erreur
+     *         {@link NotificationErrorCode#TIMEOUT} si l'échéance est dépassée avant l'envoi
+     */
+    CompletableFuture<Message> submit(SendMessage message, NotificationPriority priority, Duration remaining) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            return CompletableFuture.failedFuture(new NotificationRejectedException(
+                    "Trop de messages Telegram en attente d'envoi (" + maxPending + ")", priority, DEFAULT_RETRY_AFTER));
+        }
+        Pending entry = new Pending(message, remaining != null ? System.nanoTime() + remaining.toNanos() : null);
+        pending.add(entry);
+        requestDrain();
+        return entry.result;
+    }
+
+    /**
+     * @return Nombre de requêtes en cours auprès de l'API Bot
+     */
+    int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * @return Nombre de messages en attente de leur tour d'envoi
+     */
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Arrête la fenêtre : les messages en attente échouent, les requêtes en cours se terminent normalement.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        int abandoned = 0;
+        for (Pending entry; (entry = poll()) != null; abandoned++) {
+            entry.result.completeExceptionally(
+                    new NotificationException("Envoi Telegram abandonné : le fournisseur est arrêté"));
+        }
+        if (abandoned > 0) {
+            logger.warn("{} message(s) Telegram en attente abandonné(s) à l'arrêt", abandoned);
+        }
+    }
+
+    private void requestDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Fenêtre fermée : close() fait échouer les messages en attente
+                drainScheduled.set(false);
+                close();
+            }
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        while (!pending.isEmpty()) {
+            long now = System.nanoTime();
+            long wait = Math.max(pausedUntil.get(), nextSendAt) - now;
+            if (wait > 0) {
+                // Un autre passage déjà programmé reprendra l'envoi à sa place
+                if (drainScheduled.compareAndSet(false, true)) {
+                    scheduler.schedule(this::drain, wait, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+            // Fenêtre pleine : la prochaine réponse relancera l'envoi
+            if (!inFlight.tryAcquire()) {
+                return;
+            }
+            Pending entry = poll();
+            if (entry == null) {
+                inFlight.release();
+                return;
+            }
+            if (entry.hasExpired(now)) {
+                inFlight.release();
+                entry.result.completeExceptionally(NotificationException.stackless(NotificationErrorCode.TIMEOUT,
+                        "Échéance de la notification dépassée avant son envoi", null));
+                continue;
+            }
+            nextSendAt = now + intervalNanos;
+            send(entry);
+        }
+    }
+
+    private void send(Pending entry) {
+        CompletableFuture<Message> sent;
+        try {
+            sent = sender.apply(entry.message);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((message, error) -> {
+            inFlight.release();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof TelegramApiRequestException e && isRateLimited(e) && entry.retries < maxRetries) {
+                Duration retryAfter = retryAfter(e);
+                logger.debug("Limite de débit Telegram atteinte : envois suspendus pendant {}", retryAfter);
+                long resumeAt = System.nanoTime() + retryAfter.toNanos();
+                pausedUntil.accumulateAndGet(resumeAt, Math::max);
+                entry.retries++;
+                pendingCount.incrementAndGet();
+                pending.addFirst(entry);
+            } else if (cause != null) {
+                entry.result.completeExceptionally(cause);
+            } else {
+                entry.result.complete(message);
+            }
+            requestDrain();
+        });
+    }
+
+    private Pending poll() {
+        Pending entry = pending.poll();
+        if (entry != null) {
+            pendingCount.decrementAndGet();
+        }
+        return entry;
+    }
+
+    private static boolean isRateLimited(TelegramApiRequestException e) {
+        return e.getErrorCode() != null && e.getErrorCode() == 429;
+    }
+
+    /**
+     * @return Le délai imposé par Telegram avant un nouvel envoi, ou une seconde s'il n'est pas indiqué
+     */
+    static Duration retryAfter(TelegramApiRequestException e) {
+        if (e.getParameters() != null && e.getParameters().getRetryAfter() != null) {
+            return Duration.ofSeconds(e.getParameters().getRetryAfter());
+        }
+        return DEFAULT_RETRY_AFTER;
+    }
+
+    private static final class Pending {
+
+        private final SendMessage message;
+        private final Long deadlineNanos;
+        private final CompletableFuture<Message> result = new CompletableFuture<>();
+        private int retries;
+
+        private Pending(SendMessage message, Long deadlineNanos) {
+            this.message = message;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private boolean hasExpired(long now) {
+            return deadlineNanos != null && now - deadlineNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.universalnotifier.telegram.bot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour TelegramChatIdResolver.
+ */
+public class TelegramChatIdResolverTest {
+
+    @TempDir
+    Path directory;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    public void testUsernameIsResolvedIgnoringCaseAndAt() {
+        TelegramChatIdResolver resolver = new TelegramChatIdResolver(10, Duration.ofDays(1), null, null, clock);
+        resolver.record("Alice_Dupont", 123456789L);
+
+        assertEquals(123456789L, resolver.resolve("@alice_dupont"));
+        assertEquals(123456789L, resolver.resolve("ALICE_DUPONT"));
+        assertNull(resolver.resolve("@bob"));
+        assertTrue(TelegramChatIdResolver.isUsername("@alice"));
+        assertFalse(TelegramChatIdResolver.isUsername("123456789"));
+        assertFalse(TelegramChatIdResolver.isUsername("@"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUserIsEvicted() {
+        TelegramChatIdResolver resolver = new TelegramChatIdResolver(2, Duration.ofDays(1), null, null, clock);
+        resolver.record("alice", 1);
+        resolver.record("bob", 2);
+        resolver.resolve("@alice");
+        resolver.record("carol", 3);
+
+        assertEquals(2, resolver.size());
+        assertEquals(1L, resolver.resolve("@alice"));
+        assertNull(resolver.resolve("@bob"));
+        assertEquals(3L, resolver.resolve("@carol"));
+    }
+
+    @Test
+    public void testEntryExpiresWithoutNewMessage() {
+        TelegramChatIdResolver resolver = new TelegramChatIdResolver(10, Duration.ofDays(30), null, null, clock);
+        resolver.record("alice", 1);
+        clock.advance(Duration.ofDays(20));
+        resolver.record("alice", 1);
+        clock.advance(Duration.ofDays(20));
+
+        assertEquals(1L, resolver.resolve("@alice"));
+        clock.advance(Duration.ofDays(11));
+        assertNull(resolver.resolve("@alice"));
+        assertEquals(0, resolver.size());
+    }
+
+    @Test
+    public void testIndexSurvivesRestart() throws Exception {
+        Path file = directory.resolve("telegram-chats.idx");
+        try (TelegramChatIdResolver resolver = new TelegramChatIdResolver(10, Duration.ofDays(30), file, Duration.ofHours(1), clock)) {
+            resolver.record("alice", 1);
+            resolver.record("bob", -1001234567890L);
+            clock.advance(Duration.ofDays(29));
+            resolver.record("carol", 3);
+        }
+        assertTrue(Files.exists(file));
+
+        clock.advance(Duration.ofDays(2));
+        try (TelegramChatIdResolver resolver = new TelegramChatIdResolver(10, Duration.ofDays(30), file, Duration.ofHours(1), clock)) {
+            // Les entrées expirées pendant l'arrêt ne sont pas relues
+            assertEquals(1, resolver.size());
+            assertEquals(3L, resolver.resolve("@carol"));
+        }
+    }
+
+    @Test
+    public void testTruncatedIndexKeepsCompleteEntries() throws Exception {
+        Path file = directory.resolve("telegram-chats.idx");
+        try (TelegramChatIdResolver resolver = new TelegramChatIdResolver(10, Duration.ofDays(30), file, Duration.ofHours(1), clock)) {
+            resolver.record("alice", 1);
+            resolver.record("bob", 2);
+        }
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 4));
+
+        try (TelegramChatIdResolver resolver = new TelegramChatIdResolver(10, Duration.ofDays(30), file, Duration.ofHours(1), clock)) {
+            assertEquals(1L, resolver.resolve("@alice"));
+            assertNull(resolver.resolve("@bob"));
+        }
+    }
+
+    /**
+     * Horloge avancée manuellement par les tests.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-19T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
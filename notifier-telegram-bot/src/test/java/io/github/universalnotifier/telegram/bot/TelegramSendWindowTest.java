@@ -0,0 +1,190 @@
+package io.github.universalnotifier.telegram.bot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.universalnotifier.core.model.NotificationPriority;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import io.github.universalnotifier.core.service.NotificationRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour TelegramSendWindow.
+ */
+public class TelegramSendWindowTest {
+
+    private final BlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+    private TelegramSendWindow window;
+
+    @AfterEach
+    public void tearDown() {
+        if (window != null) {
+            window.close();
+        }
+    }
+
+    @Test
+    public void testEachMessageCompletesWhenItsResponseArrives() throws Exception {
+        window = new TelegramSendWindow(this::record, 10, 1000, 0, 100);
+        CompletableFuture<Message> first = window.submit(message("1"));
+        CompletableFuture<Message> second = window.submit(message("2"));
+
+        Call firstCall = nextCall();
+        Call secondCall = nextCall();
+        secondCall.response.complete(new Message());
+
+        // Les réponses sont traitées sur le thread d'envoi : on attend le futur plutôt que de le sonder
+        assertNotNull(second.get(1, TimeUnit.SECONDS));
+        assertFalse(first.isDone());
+        firstCall.response.complete(new Message());
+        assertNotNull(first.get(1, TimeUnit.SECONDS));
+        assertEquals(0, window.getInFlightCount());
+    }
+
+    @Test
+    public void testInFlightRequestsAreBounded() throws Exception {
+        window = new TelegramSendWindow(this::record, 2, 1000, 0, 100);
+        for (int i = 0; i < 5; i++) {
+            window.submit(message(String.valueOf(i)));
+        }
+
+        Call first = nextCall();
+        nextCall();
+        assertNull(calls.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, window.getInFlightCount());
+        assertEquals(3, window.getPendingCount());
+
+        first.response.complete(new Message());
+        assertEquals("2", nextCall().message.getChatId());
+    }
+
+    @Test
+    public void testSendsArePacedAtTheConfiguredRate() throws Exception {
+        window = new TelegramSendWindow(this::succeed, 10, 20, 0, 100);
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            sent.add(window.submit(message(String.valueOf(i))));
+        }
+        CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+        // 5 envois à 20 par seconde : au moins 4 intervalles de 50 ms
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 190);
+    }
+
+    @Test
+    public void testRateLimitedMessageIsRetriedAfterRetryAfter() throws Exception {
+        window = new TelegramSendWindow(this::record, 10, 1000, 1, 100);
+        long start = System.nanoTime();
+        CompletableFuture<Message> sent = window.submit(message("1"));
+
+        nextCall().response.completeExceptionally(rateLimited(1));
+        Call retry = nextCall();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 900);
+        assertEquals("1", retry.message.getChatId());
+        retry.response.complete(new Message());
+        assertNotNull(sent.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRateLimitedMessageFailsOnceRetriesAreExhausted() throws Exception {
+        window = new TelegramSendWindow(this::record, 10, 1000, 0, 100);
+        CompletableFuture<Message> sent = window.submit(message("1"));
+
+        nextCall().response.completeExceptionally(rateLimited(1));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> sent.get(1, TimeUnit.SECONDS));
+        TelegramApiRequestException cause = assertInstanceOf(TelegramApiRequestException.class, error.getCause());
+        assertEquals(Duration.ofSeconds(1), TelegramSendWindow.retryAfter(cause));
+    }
+
+    @Test
+    public void testSubmissionsBeyondMaxPendingAreRejected() throws Exception {
+        window = new TelegramSendWindow(this::record, 1, 1000, 0, 2);
+        window.submit(message("1"));
+        nextCall();
+        window.submit(message("2"));
+        window.submit(message("3"));
+
+        CompletableFuture<Message> rejected = window.submit(message("4"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(NotificationRejectedException.class, error.getCause());
+        assertEquals(2, window.getPendingCount());
+    }
+
+    @Test
+    public void testExpiredMessageFailsWithoutBeingSent() throws Exception {
+        window = new TelegramSendWindow(this::record, 1, 1000, 0, 100);
+        window.submit(message("1"));
+        Call first = nextCall();
+        CompletableFuture<Message> expired = window.submit(message("2"), NotificationPriority.NORMAL, Duration.ofMillis(10));
+        window.submit(message("3"));
+
+        Thread.sleep(50);
+        first.response.complete(new Message());
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> expired.get(1, TimeUnit.SECONDS));
+        NotificationException cause = assertInstanceOf(NotificationException.class, error.getCause());
+        assertEquals(NotificationErrorCode.TIMEOUT, cause.getErrorCode());
+        assertEquals("3", nextCall().message.getChatId());
+    }
+
+    @Test
+    public void testPendingMessagesFailOnClose() throws Exception {
+        window = new TelegramSendWindow(this::record, 1, 1000, 0, 100);
+        window.submit(message("1"));
+        CompletableFuture<Message> pending = window.submit(message("2"));
+        nextCall();
+
+        window.close();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> pending.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(NotificationException.class, error.getCause());
+    }
+
+    private CompletableFuture<Message> record(SendMessage message) {
+        Call call = new Call(message, new CompletableFuture<>());
+        calls.add(call);
+        return call.response;
+    }
+
+    private CompletableFuture<Message> succeed(SendMessage message) {
+        return CompletableFuture.completedFuture(new Message());
+    }
+
+    private Call nextCall() throws InterruptedException {
+        Call call = calls.poll(5, TimeUnit.SECONDS);
+        assertNotNull(call, "Aucun envoi à l'API Bot");
+        return call;
+    }
+
+    private static SendMessage message(String chatId) {
+        return new SendMessage(chatId, "Bonjour");
+    }
+
+    private static TelegramApiRequestException rateLimited(int retryAfter) throws Exception {
+        ApiResponse<?> response = new ObjectMapper().readValue("{\"ok\":false,\"error_code\":429,"
+                + "\"description\":\"Too Many Requests\",\"parameters\":{\"retry_after\":" + retryAfter + "}}",
+                ApiResponse.class);
+        return new TelegramApiRequestException("Too Many Requests", response);
+    }
+
+    private record Call(SendMessage message, CompletableFuture<Message> response) {
+    }
+}
@@ -0,0 +1,283 @@
+package io.github.universalnotifier.twilio;
+
+import com.twilio.exception.ApiException;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import io.github.universalnotifier.core.http.ProviderTimeouts;
+import io.github.universalnotifier.core.routing.SenderPool;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.apache.http.client.config.RequestConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Création des messages Twilio d'un compte, partagée par les fournisseurs SMS et WhatsApp.
+ * <p>
+ * Lit la configuration commune du compte (identifiants, numéros d'expéditeur ou Messaging Service, débit par
+ * numéro, délais), réserve le créneau d'envoi dans le pool d'expéditeurs avant l'échéance de la notification,
+ * puis crée le message : sans bloquer via {@link TwilioMessagesClient}, ou de façon synchrone via le client du
+ * SDK Twilio, créé au premier envoi synchrone. Les numéros sont préfixés par le préfixe d'adresse du canal
+ * ({@code whatsapp:} pour WhatsApp) ; le pool réserve sur les numéros bruts.
+ */
+public class TwilioMessageSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwilioMessageSender.class);
+
+    private static final String ACCOUNT_SID = "account-sid";
+    private static final String AUTH_TOKEN = "auth-token";
+    private static final String FROM_PHONE = "from";
+    private static final String MESSAGING_SERVICE_SID = "messaging-service-sid";
+    private static final String RATE_PER_SENDER = "rate-per-sender";
+    private static final String MAX_SENDER_WAIT = "max-sender-wait";
+    private static final Duration DEFAULT_MAX_SENDER_WAIT = Duration.ofSeconds(1);
+
+    private final String accountSid;
+    private final String authToken;
+    private final String addressPrefix;
+    private final SenderPool senders;
+    private final Duration maxSenderWait;
+    private final String messagingServiceSid;
+    private final TwilioMessagesClient messagesClient;
+    private final ProviderTimeouts timeouts;
+
+    private volatile TwilioRestClient restClient;
+
+    /**
+     * Crée l'émetteur d'un compte Twilio à partir de la configuration d'un fournisseur.
+     *
+     * @param config Propriétés du fournisseur
+     * @param propertyPrefix Préfixe des propriétés, pour les messages d'erreur (par exemple {@code notifier.sms.twilio})
+     * @param addressPrefix Préfixe des numéros du canal, vide pour les SMS
+     * @param defaultRatePerSender Débit par expéditeur lorsque {@code rate-per-sender} n'est pas renseigné
+     * @param httpClient Client HTTP utilisé pour les appels non bloquants à l'API Twilio
+     * @throws IllegalArgumentException si des propriétés requises sont manquantes ou invalides
+     */
+    public TwilioMessageSender(Map<String, String> config, String propertyPrefix, String addressPrefix,
+                               double defaultRatePerSender, HttpClient httpClient) {
+        this.accountSid = config.get(ACCOUNT_SID);
+        if (accountSid == null || accountSid.isEmpty()) {
+            throw new IllegalArgumentException("La propriété '" + propertyPrefix + ".account-sid' est requise pour l'utilisation de Twilio");
+        }
+
+        this.authToken = config.get(AUTH_TOKEN);
+        if (authToken == null || authToken.isEmpty()) {
+            throw new IllegalArgumentException("La propriété '" + propertyPrefix + ".auth-token' est requise pour l'utilisation de Twilio");
+        }
+
+        // Un Messaging Service choisit lui-même l'expéditeur ; sinon, les numéros "from" forment un pool
+        String messagingService = config.get(MESSAGING_SERVICE_SID);
+        this.messagingServiceSid = messagingService == null || messagingService.isEmpty() ? null : messagingService;
+
+        String fromPhones = config.get(FROM_PHONE);
+        if (messagingServiceSid == null && (fromPhones == null || fromPhones.isEmpty())) {
+            throw new IllegalArgumentException("La propriété '" + propertyPrefix + ".from' (ou '" + propertyPrefix
+                    + ".messaging-service-sid') est requise pour l'utilisation de Twilio");
+        }
+        this.senders = messagingServiceSid == null
+                ? SenderPool.parse(fromPhones, rateProperty(config.get(RATE_PER_SENDER), propertyPrefix, defaultRatePerSender))
+                : null;
+
+        this.addressPrefix = addressPrefix;
+        this.maxSenderWait = ProviderTimeouts.duration(config, MAX_SENDER_WAIT, propertyPrefix, DEFAULT_MAX_SENDER_WAIT);
+        this.timeouts = ProviderTimeouts.from(config, propertyPrefix);
+        this.messagesClient = new TwilioMessagesClient(httpClient, accountSid, authToken);
+    }
+
+    /**
+     * @return Délais des appels à l'API Twilio
+     */
+    public ProviderTimeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return Débit maximal de chaque expéditeur, ou 0 si le Messaging Service choisit l'expéditeur
+     */
+    public double getRatePerSender() {
+        return senders != null ? senders.getRatePerSecond() : 0;
+    }
+
+    /**
+     * @return SID du Messaging Service, ou null si les messages partent du pool d'expéditeurs
+     */
+    public String getMessagingServiceSid() {
+        return messagingServiceSid;
+    }
+
+    /**
+     * @return Numéros du pool d'expéditeurs, vide si le Messaging Service choisit l'expéditeur
+     */
+    public List<String> getSenders() {
+        return senders != null ? senders.getSenders() : List.of();
+    }
+
+    /**
+     * Crée le client du SDK et ouvre des connexions vers l'API Twilio, sans envoyer de message.
+     *
+     * @param connections Nombre de connexions à ouvrir
+     * @throws NotificationException Si les identifiants sont refusés
+     */
+    public void warmUp(int connections) {
+        restClient();
+        try {
+            messagesClient.preconnect(connections).join();
+            logger.debug("{} connexion(s) ouverte(s) vers l'API Twilio", connections);
+        } catch (CompletionException e) {
+            throw new NotificationException("Échec du préchauffage de Twilio", e.getCause());
+        }
+    }
+
+    /**
+     * Crée un message sans bloquer : via le Messaging Service s'il est configuré, sinon depuis l'expéditeur
+     * du pool réservé pour ce destinataire, une fois son créneau d'envoi atteint. Le délai de la requête est
+     * réduit de l'attente de ce créneau, pour respecter l'échéance de la notification.
+     *
+     * @param to Numéro de destination, sans préfixe
+     * @param body Contenu du message, encodé par {@link TwilioMessagesClient#encodeBody(String)}
+     * @param timeout Délai restant avant l'échéance de la notification
+     * @return Un futur contenant le SID du message créé
+     */
+    public CompletableFuture<String> createAsync(String to, byte[] body, Duration timeout) {
+        if (messagingServiceSid != null) {
+            return messagesClient.createFromService(addressPrefix + to, messagingServiceSid, body, timeout);
+        }
+
+        SenderPool.Reservation reservation;
+        try {
+            reservation = reserveBeforeDeadline(to, timeout);
+        } catch (NotificationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        String from = addressPrefix + reservation.sender();
+        if (reservation.delayNanos() <= 0) {
+            return messagesClient.create(addressPrefix + to, from, body, timeout);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(reservation.delayNanos(), TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> messagesClient.create(addressPrefix + to, from, body,
+                        timeout.minusNanos(reservation.delayNanos())));
+    }
+
+    /**
+     * Crée un message en bloquant le thread appelant, via le client du SDK Twilio. L'attente du créneau d'envoi
+     * est bornée par {@code max-sender-wait}.
+     *
+     * @param to Numéro de destination, sans préfixe
+     * @param message Contenu du message
+     * @param timeout Délai restant avant l'échéance de la notification
+     * @return SID du message créé
+     * @throws NotificationException Si le message n'a pas pu être créé ; les refus de Twilio sont classés
+     */
+    public String create(String to, String message, Duration timeout) {
+        TwilioRestClient client = restClient();
+        try {
+            Message created;
+            if (messagingServiceSid != null) {
+                created = Message.creator(
+                        new PhoneNumber(addressPrefix + to),  // Numéro de destination
+                        messagingServiceSid,                  // Le Messaging Service choisit l'expéditeur
+                        message                               // Contenu du message
+                ).create(client);
+            } else {
+                SenderPool.Reservation reservation = reserveBlocking(to, timeout);
+                TimeUnit.NANOSECONDS.sleep(reservation.delayNanos());
+                created = Message.creator(
+                        new PhoneNumber(addressPrefix + to),                    // Numéro de destination
+                        new PhoneNumber(addressPrefix + reservation.sender()),  // Numéro d'expéditeur retenu dans le pool
+                        message                                                 // Contenu du message
+                ).create(client);
+            }
+            return created.getSid();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotificationException("Envoi interrompu avant son créneau d'envoi", e);
+        } catch (ApiException e) {
+            throw NotificationException.stackless(
+                    TwilioMessagesClient.errorCode(e.getStatusCode() != null ? e.getStatusCode() : 0,
+                            e.getCode() != null ? e.getCode() : 0),
+                    "Échec de l'envoi via Twilio: " + e.getMessage(), e);
+        } catch (NotificationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new NotificationException("Échec de l'envoi via Twilio", e);
+        }
+    }
+
+    /**
+     * Réserve un créneau dans le pool d'expéditeurs, seulement s'il tombe avant l'échéance de la notification :
+     * un envoi abandonné ne consomme pas le créneau.
+     */
+    private SenderPool.Reservation reserveBeforeDeadline(String to, Duration timeout) {
+        SenderPool.Reservation reservation = senders.reserve(to, timeout.toNanos() - 1);
+        if (reservation == null) {
+            throw NotificationException.stackless(NotificationErrorCode.TIMEOUT,
+                    "Aucun numéro d'expéditeur disponible avant l'échéance de la notification", null);
+        }
+        return reservation;
+    }
+
+    /**
+     * Réserve un créneau pour le chemin synchrone, qui l'attend en bloquant son thread : au-delà de l'attente
+     * maximale configurée, l'envoi échoue immédiatement avec {@link NotificationErrorCode#RATE_LIMITED} plutôt
+     * que d'immobiliser le thread jusqu'à l'échéance de la notification.
+     */
+    private SenderPool.Reservation reserveBlocking(String to, Duration timeout) {
+        if (timeout.compareTo(maxSenderWait) <= 0) {
+            return reserveBeforeDeadline(to, timeout);
+        }
+        SenderPool.Reservation reservation = senders.reserve(to, maxSenderWait.toNanos());
+        if (reservation == null) {
+            throw NotificationException.stackless(NotificationErrorCode.RATE_LIMITED,
+                    "Aucun numéro d'expéditeur disponible dans l'attente maximale de " + maxSenderWait.toMillis() + " ms", null);
+        }
+        return reservation;
+    }
+
+    private static double rateProperty(String value, String propertyPrefix, double defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("La propriété '" + propertyPrefix + ".rate-per-sender' doit être un nombre: " + value, e);
+        }
+    }
+
+    /**
+     * Retourne le client du SDK Twilio propre à ce compte, créé au premier appel.
+     * Contrairement à {@code Twilio.init}, il ne modifie pas l'état global du SDK : plusieurs comptes
+     * peuvent ainsi coexister dans la même application.
+     */
+    private TwilioRestClient restClient() {
+        TwilioRestClient client = restClient;
+        if (client == null) {
+            synchronized (this) {
+                client = restClient;
+                if (client == null) {
+                    RequestConfig requestConfig = RequestConfig.custom()
+                            .setConnectTimeout((int) timeouts.getConnectTimeout().toMillis())
+                            .setSocketTimeout((int) timeouts.getReadTimeout().toMillis())
+                            .build();
+                    client = new TwilioRestClient.Builder(accountSid, authToken)
+                            .httpClient(new NetworkHttpClient(requestConfig))
+                            .build();
+                    restClient = client;
+                    logger.debug("Client Twilio initialisé pour le compte {}", accountSid);
+                }
+            }
+        }
+        return client;
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.universalnotifier.twilio;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client non bloquant de la ressource Messages de l'API REST Twilio, partagé par les fournisseurs SMS et WhatsApp.
+ * Les appels passent par un {@link HttpClient} partagé : aucun thread n'est
+ * bloqué pendant l'attente de la réponse de Twilio.
+ */
+public class TwilioMessagesClient {
+
+    private static final String API_BASE_URL = "https://api.twilio.com/2010-04-01/Accounts/";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final URI accountUri;
+    private final URI messagesUri;
+    private final String authorization;
+
+    /**
+     * Crée un client pour le compte Twilio indiqué.
+     *
+     * @param httpClient Client HTTP (partagé) utilisé pour les appels
+     * @param accountSid SID du compte Twilio
+     * @param authToken Jeton d'authentification du compte
+     */
+    public TwilioMessagesClient(HttpClient httpClient, String accountSid, String authToken) {
+        this.httpClient = httpClient;
+        this.accountUri = URI.create(API_BASE_URL + accountSid + ".json");
+        this.messagesUri = URI.create(API_BASE_URL + accountSid + "/Messages.json");
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((accountSid + ":" + authToken).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Crée un message Twilio sans bloquer le thread appelant.
+     *
+     * @param to Numéro de destination, préfixé par {@code whatsapp:} pour un message WhatsApp
+     * @param from Numéro d'expéditeur
+     * @param body Contenu du message, encodé par {@link #encodeBody(String)}
+     * @param timeout Délai maximal de la requête, au-delà duquel le futur échoue
+     * @return Un futur contenant le SID du message créé
+     */
+    public CompletableFuture<String> create(String to, String from, byte[] body, Duration timeout) {
+        return post(formParam("To", to) + "&" + formParam("From", from), body, timeout);
+    }
+
+    /**
+     * Crée un message Twilio envoyé par un Messaging Service, qui choisit lui-même le numéro d'expéditeur.
+     *
+     * @param to Numéro de destination
+     * @param messagingServiceSid SID du Messaging Service
+     * @param body Contenu du message, encodé par {@link #encodeBody(String)}
+     * @param timeout Délai maximal de la requête, au-delà duquel le futur échoue
+     * @return Un futur contenant le SID du message créé
+     */
+    public CompletableFuture<String> createFromService(String to, String messagingServiceSid, byte[] body, Duration timeout) {
+        return post(formParam("To", to) + "&" + formParam("MessagingServiceSid", messagingServiceSid), body, timeout);
+    }
+
+    /**
+     * Encode le contenu d'un message en fin de formulaire. Le résultat ne dépend pas du destinataire :
+     * il peut être partagé par tous les envois d'un même message.
+     *
+     * @param body Contenu du message
+     * @return Le paramètre {@code Body} du formulaire, précédé de son séparateur
+     */
+    public static byte[] encodeBody(String body) {
+        return ("&" + formParam("Body", body)).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Envoie le formulaire sans recopier le contenu encodé : les paramètres du destinataire et le contenu sont
+     * publiés l'un après l'autre, avec la longueur totale du corps.
+     */
+    private CompletableFuture<String> post(String recipient, byte[] body, Duration timeout) {
+        byte[] head = recipient.getBytes(StandardCharsets.US_ASCII);
+        HttpRequest request = HttpRequest.newBuilder(messagesUri)
+                .timeout(timeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofByteArrays(List.of(head, body)), head.length + body.length))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(TwilioMessagesClient::readMessageSid);
+    }
+
+    /**
+     * Ouvre des connexions vers l'API Twilio en lisant la ressource du compte, sans envoyer de message.
+     * Les requêtes sont émises simultanément pour que chacune occupe sa propre connexion du pool.
+     *
+     * @param connections Nombre de requêtes simultanées
+     * @return Un futur complété une fois toutes les réponses reçues, en erreur si les identifiants sont refusés
+     */
+    public CompletableFuture<Void> preconnect(int connections) {
+        HttpRequest request = HttpRequest.newBuilder(accountUri)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[Math.max(connections, 1)];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                            throw new NotificationException("Préchauffage Twilio refusé. Code de statut: "
+                                    + response.statusCode());
+                        }
+                    });
+        }
+        return CompletableFuture.allOf(calls);
+    }
+
+    private static String readMessageSid(HttpResponse<String> response) {
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new NotificationException("Réponse Twilio illisible. Code de statut: " + response.statusCode(), e);
+        }
+
+        int statusCode = response.statusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            // Erreur attendue (destinataire invalide, quota...) : pas de trace de pile
+            throw NotificationException.stackless(errorCode(statusCode, json.path("code").asInt()),
+                    "Échec de l'envoi via Twilio. Code de statut: " + statusCode
+                    + ". Code d'erreur: " + json.path("code").asText()
+                    + ". Message: " + json.path("message").asText(), null);
+        }
+        return json.path("sid").asText();
+    }
+
+    /**
+     * Classe une erreur de l'API Twilio d'après son code de statut HTTP et son code d'erreur Twilio.
+     *
+     * @param statusCode Code de statut HTTP
+     * @param twilioCode Code d'erreur Twilio, 0 s'il est absent
+     * @return La catégorie de l'erreur
+     */
+    public static NotificationErrorCode errorCode(int statusCode, int twilioCode) {
+        switch (twilioCode) {
+            case 21211, 21408, 21610, 21612, 21614, 63003:
+                // Numéro invalide, non joignable, désinscrit ou sans compte WhatsApp
+                return NotificationErrorCode.INVALID_RECIPIENT;
+            case 14107, 20429, 63018:
+                return NotificationErrorCode.RATE_LIMITED;
+            case 20003:
+                return NotificationErrorCode.AUTHENTICATION;
+            default:
+                return NotificationErrorCode.fromHttpStatus(statusCode);
+        }
+    }
+
+    private static String formParam(String name, String value) {
+        return name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.universalnotifier.twilio;
+
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TwilioMessageSender.
+ */
+public class TwilioMessageSenderTest {
+
+    private static final String PREFIX = "notifier.whatsapp.twilio";
+
+    private final Map<String, String> config = new HashMap<>(Map.of(
+            "account-sid", "AC123",
+            "auth-token", "token",
+            "from", "+14155238886"));
+
+    @Test
+    public void testMissingPropertiesNameTheProviderProperty() {
+        config.remove("from");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new TwilioMessageSender(config, PREFIX, "whatsapp:", 80, mock(HttpClient.class)));
+        assertTrue(exception.getMessage().contains("notifier.whatsapp.twilio.from"));
+
+        config.put("from", "+14155238886");
+        config.put("rate-per-sender", "fast");
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new TwilioMessageSender(config, PREFIX, "whatsapp:", 80, mock(HttpClient.class)));
+        assertTrue(exception.getMessage().contains("notifier.whatsapp.twilio.rate-per-sender"));
+    }
+
+    @Test
+    public void testAddressPrefixIsAppliedToRecipientAndSender() {
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioMessageSender sender = new TwilioMessageSender(config, PREFIX, "whatsapp:", 80, httpClient);
+
+        assertEquals("SM123", sender.createAsync("+33612345678",
+                TwilioMessagesClient.encodeBody("Bonjour"), Duration.ofSeconds(5)).join());
+
+        assertEquals("To=whatsapp%3A%2B33612345678&From=whatsapp%3A%2B14155238886&Body=Bonjour", body(sentRequest(httpClient)));
+    }
+
+    @Test
+    public void testMessagingServiceChoosesTheSender() {
+        config.remove("from");
+        config.put("messaging-service-sid", "MG123");
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioMessageSender sender = new TwilioMessageSender(config, PREFIX, "whatsapp:", 80, httpClient);
+
+        sender.createAsync("+33612345678", TwilioMessagesClient.encodeBody("Bonjour"), Duration.ofSeconds(5)).join();
+
+        assertEquals(0, sender.getRatePerSender());
+        assertEquals(List.of(), sender.getSenders());
+        assertEquals("To=whatsapp%3A%2B33612345678&MessagingServiceSid=MG123&Body=Bonjour", body(sentRequest(httpClient)));
+    }
+
+    @Test
+    public void testNoSlotBeforeDeadlineFailsWithoutCallingTwilio() {
+        config.put("rate-per-sender", "1");
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioMessageSender sender = new TwilioMessageSender(config, PREFIX, "", 1, httpClient);
+        byte[] body = TwilioMessagesClient.encodeBody("Code: 123456");
+
+        sender.createAsync("+33612345678", body, Duration.ofMillis(500)).join();
+        // Le créneau suivant du seul numéro tombe dans une seconde, après l'échéance
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> sender.createAsync("+33612345678", body, Duration.ofMillis(500)).join());
+
+        NotificationException failure = assertInstanceOf(NotificationException.class, exception.getCause());
+        assertEquals(NotificationErrorCode.TIMEOUT, failure.getErrorCode());
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), any());
+    }
+
+    @Test
+    public void testBlockingSendDoesNotWaitBeyondMaxSenderWait() {
+        config.put("max-sender-wait", "100ms");
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        TwilioMessageSender sender = new TwilioMessageSender(config, PREFIX, "", 1, httpClient);
+
+        sender.createAsync("+33612345678", TwilioMessagesClient.encodeBody("Bonjour"), Duration.ofSeconds(5)).join();
+
+        // Le créneau suivant tombe dans une seconde, au-delà des 100 ms d'attente autorisées : refus sans attendre
+        NotificationException failure = assertThrows(NotificationException.class,
+                () -> sender.create("+33612345678", "Bonjour", Duration.ofSeconds(5)));
+        assertEquals(NotificationErrorCode.RATE_LIMITED, failure.getErrorCode());
+    }
+
+    private static HttpRequest sentRequest(HttpClient httpClient) {
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(captor.capture(), any());
+        return captor.getValue();
+    }
+
+    private static String body(HttpRequest request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                bytes.writeBytes(chunk);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return bytes.toString(StandardCharsets.US_ASCII);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpClient mockHttpClient(int statusCode, String body) {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(body);
+        doReturn(CompletableFuture.completedFuture(response))
+                .when(httpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        return httpClient;
+    }
+}
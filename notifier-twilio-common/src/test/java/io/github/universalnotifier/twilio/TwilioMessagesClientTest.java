@@ -0,0 +1,72 @@
+package io.github.universalnotifier.twilio;
+
+import io.github.universalnotifier.core.service.NotificationErrorCode;
+import io.github.universalnotifier.core.service.NotificationException;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TwilioMessagesClient.
+ */
+public class TwilioMessagesClientTest {
+
+    @Test
+    public void testEncodeBodyIsFormEncoded() {
+        assertEquals("&Body=Votre+code+%3A+123456",
+                new String(TwilioMessagesClient.encodeBody("Votre code : 123456"), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testErrorCodesCoverSmsAndWhatsApp() {
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, TwilioMessagesClient.errorCode(400, 21610));
+        // Destinataire sans compte WhatsApp
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, TwilioMessagesClient.errorCode(400, 63003));
+        assertEquals(NotificationErrorCode.RATE_LIMITED, TwilioMessagesClient.errorCode(429, 63018));
+        assertEquals(NotificationErrorCode.AUTHENTICATION, TwilioMessagesClient.errorCode(401, 20003));
+        assertEquals(NotificationErrorCode.TRANSIENT, TwilioMessagesClient.errorCode(503, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateReturnsMessageSid() {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(201);
+        when(response.body()).thenReturn("{\"sid\":\"SM123\"}");
+        when(httpClient.sendAsync(any(), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+        TwilioMessagesClient client = new TwilioMessagesClient(httpClient, "AC123", "token");
+
+        String sid = client.create("whatsapp:+33612345678", "whatsapp:+14155238886",
+                TwilioMessagesClient.encodeBody("Bonjour"), Duration.ofSeconds(5)).join();
+
+        assertEquals("SM123", sid);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRejectedMessageIsClassified() {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(400);
+        when(response.body()).thenReturn("{\"code\":21211,\"message\":\"Invalid 'To' Phone Number\"}");
+        when(httpClient.sendAsync(any(), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+        TwilioMessagesClient client = new TwilioMessagesClient(httpClient, "AC123", "token");
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> client.create("+33600000000",
+                "+15005550006", TwilioMessagesClient.encodeBody("Bonjour"), Duration.ofSeconds(5)).join());
+        NotificationException failure = assertInstanceOf(NotificationException.class, exception.getCause());
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, failure.getErrorCode());
+    }
+}
@@ -1,16 +1,22 @@
 package io.github.universalnotifier.whatsapp.twilio;
 
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
 import io.github.universalnotifier.core.config.NotificationProperties;
+import io.github.universalnotifier.core.http.NotifierHttpClients;
+import io.github.universalnotifier.core.logging.ThrottledErrorLogger;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
 import io.github.universalnotifier.core.service.NotificationProvider;
+import io.github.universalnotifier.core.service.ProviderCapabilities;
+import io.github.universalnotifier.twilio.TwilioMessageSender;
+import io.github.universalnotifier.twilio.TwilioMessagesClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Fournisseur de notification WhatsApp utilisant l'API Twilio.
@@ -19,13 +25,17 @@ import java.util.Map;
 public class WhatsAppNotificationProvider implements NotificationProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(WhatsAppNotificationProvider.class);
+    private static final ThrottledErrorLogger errors = new ThrottledErrorLogger(logger);
 
     private static final String TYPE = "WHATSAPP";
-    private static final String ACCOUNT_SID = "account-sid";
-    private static final String AUTH_TOKEN = "auth-token";
-    private static final String FROM_PHONE = "from";
+    private static final String PROPERTY_PREFIX = "notifier.whatsapp.twilio";
+    // Le format pour WhatsApp via Twilio est "whatsapp:+numéro"
+    private static final String ADDRESS_PREFIX = "whatsapp:";
+    private static final double DEFAULT_RATE_PER_SENDER = 80.0;
+    private static final int MAX_MESSAGE_LENGTH = 1600;
 
-    private final String fromPhone;
+    private final TwilioMessageSender sender;
+    private final ProviderCapabilities capabilities;
 
     /**
      * Constructeur du fournisseur WhatsApp via Twilio utilisant les propriétés configurées.
@@ -34,27 +44,33 @@ public class WhatsAppNotificationProvider implements NotificationProvider {
      * @throws IllegalArgumentException si des propriétés requises sont manquantes
      */
     public WhatsAppNotificationProvider(NotificationProperties properties) {
+        this(properties, NotifierHttpClients.shared());
+    }
+
+    /**
+     * Constructeur permettant de fournir le client HTTP utilisé par le chemin d'envoi asynchrone.
+     *
+     * @param properties Configuration des propriétés de notification
+     * @param httpClient Client HTTP utilisé pour les appels non bloquants à l'API Twilio
+     * @throws IllegalArgumentException si des propriétés requises sont manquantes
+     */
+    WhatsAppNotificationProvider(NotificationProperties properties, HttpClient httpClient) {
         Map<String, String> config = properties.getWhatsapp().getActiveProviderProperties();
 
-        String accountSid = config.get(ACCOUNT_SID);
-        if (accountSid == null || accountSid.isEmpty()) {
-            throw new IllegalArgumentException("La propriété 'notifier.whatsapp.twilio.account-sid' est requise pour l'utilisation de WhatsApp via Twilio");
-        }
+        this.sender = new TwilioMessageSender(config, PROPERTY_PREFIX, ADDRESS_PREFIX, DEFAULT_RATE_PER_SENDER, httpClient);
 
-        String authToken = config.get(AUTH_TOKEN);
-        if (authToken == null || authToken.isEmpty()) {
-            throw new IllegalArgumentException("La propriété 'notifier.whatsapp.twilio.auth-token' est requise pour l'utilisation de WhatsApp via Twilio");
-        }
+        // Twilio concatène lui-même les segments d'un message jusqu'à 1600 caractères
+        this.capabilities = ProviderCapabilities.builder()
+                .nativeAsync(true)
+                .maxMessageLength(MAX_MESSAGE_LENGTH)
+                .maxSendsPerSecond(sender.getRatePerSender())
+                .build();
 
-        this.fromPhone = config.get(FROM_PHONE);
-        if (fromPhone == null || fromPhone.isEmpty()) {
-            throw new IllegalArgumentException("La propriété 'notifier.whatsapp.twilio.from' est requise pour l'utilisation de WhatsApp via Twilio");
+        if (sender.getMessagingServiceSid() != null) {
+            logger.info("Fournisseur de notification WhatsApp via Twilio initialisé avec le Messaging Service: {}", sender.getMessagingServiceSid());
+        } else {
+            logger.info("Fournisseur de notification WhatsApp via Twilio initialisé avec les numéros d'expéditeur: {}", sender.getSenders());
         }
-
-        // Initialisation de l'API Twilio avec les identifiants
-        Twilio.init(accountSid, authToken);
-
-        logger.info("Fournisseur de notification WhatsApp via Twilio initialisé avec le numéro d'expéditeur: {}", fromPhone);
     }
 
     @Override
@@ -62,25 +78,51 @@ public class WhatsAppNotificationProvider implements NotificationProvider {
         return TYPE.equalsIgnoreCase(type);
     }
 
+    @Override
+    public ProviderCapabilities capabilities() {
+        return capabilities;
+    }
+
+    @Override
+    public void warmUp(int connections) {
+        sender.warmUp(connections);
+    }
+
     @Override
     public void send(NotificationRequest request) {
+        logger.debug("Préparation d'un message WhatsApp à envoyer à: {}", request.getTo());
+        try {
+            String sid = sender.create(request.getTo(), request.getMessage(), sender.getTimeouts().requestTimeout(request));
+            logger.info("Message WhatsApp envoyé avec succès à {}. SID du message: {}", request.getTo(), sid);
+        } catch (NotificationException e) {
+            errors.error("Erreur lors de l'envoi du message WhatsApp via Twilio", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(NotificationRequest request) {
+        logger.debug("Préparation d'un message WhatsApp asynchrone à envoyer à: {}", request.getTo());
+
+        Duration timeout;
         try {
-            logger.debug("Préparation d'un message WhatsApp à envoyer à: {}", request.getTo());
-
-            // Le format pour WhatsApp via Twilio est "whatsapp:+numéro"
-            String fromWhatsApp = "whatsapp:" + fromPhone;
-            String toWhatsApp = "whatsapp:" + request.getTo();
-
-            Message message = Message.creator(
-                    new PhoneNumber(toWhatsApp),      // Numéro de destination formaté pour WhatsApp
-                    new PhoneNumber(fromWhatsApp),    // Numéro d'expéditeur formaté pour WhatsApp
-                    request.getMessage()               // Contenu du message
-            ).create();
-
-            logger.info("Message WhatsApp envoyé avec succès à {}. SID du message: {}", request.getTo(), message.getSid());
-        } catch (Exception e) {
-            logger.error("Erreur lors de l'envoi du message WhatsApp via Twilio", e);
-            throw new NotificationException("Erreur lors de l'envoi du message WhatsApp via Twilio", e);
+            timeout = sender.getTimeouts().requestTimeout(request);
+        } catch (NotificationException e) {
+            return CompletableFuture.failedFuture(e);
         }
+
+        return sender.createAsync(request.getTo(), TwilioMessagesClient.encodeBody(request.getMessage()), timeout)
+                .handle((sid, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        errors.error("Erreur lors de l'envoi asynchrone du message WhatsApp via Twilio", cause);
+                        throw cause instanceof NotificationException notificationException
+                                ? notificationException
+                                : NotificationException.stackless(NotificationErrorCode.of(cause),
+                                        "Erreur lors de l'envoi du message WhatsApp via Twilio", cause);
+                    }
+                    logger.info("Message WhatsApp envoyé avec succès à {}. SID du message: {}", request.getTo(), sid);
+                    return null;
+                });
     }
 }
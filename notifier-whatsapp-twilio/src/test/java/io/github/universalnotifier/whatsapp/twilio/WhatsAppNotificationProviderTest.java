@@ -1,26 +1,38 @@
 package io.github.universalnotifier.whatsapp.twilio;
 
 import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
 import com.twilio.type.PhoneNumber;
 import io.github.universalnotifier.core.config.NotificationProperties;
 import io.github.universalnotifier.core.model.NotificationRequest;
+import io.github.universalnotifier.core.service.NotificationErrorCode;
 import io.github.universalnotifier.core.service.NotificationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 public class WhatsAppNotificationProviderTest {
 
     @Mock
@@ -43,8 +55,6 @@ public class WhatsAppNotificationProviderTest {
         when(notificationProperties.getWhatsapp()).thenReturn(providerConfig);
         when(providerConfig.getActiveProviderProperties()).thenReturn(configMap);
 
-        // Créer une instance de provider sans appeler réellement Twilio.init()
-        // car nous allons le tester séparément
         provider = new WhatsAppNotificationProvider(notificationProperties);
     }
 
@@ -58,15 +68,12 @@ public class WhatsAppNotificationProviderTest {
     }
 
     @Test
-    public void testConstructorInitializesTwilio() {
+    public void testWarmUpDoesNotTouchGlobalTwilioState() {
         try (MockedStatic<Twilio> mockedTwilio = mockStatic(Twilio.class)) {
-            // Supprime l'instance existante et en crée une nouvelle pour ce test
-            new WhatsAppNotificationProvider(notificationProperties);
+            new WhatsAppNotificationProvider(notificationProperties, mockHttpClient(200, "{}")).warmUp(1);
 
-            // Vérifie que Twilio.init() est appelé avec les bons paramètres
-            mockedTwilio.verify(() -> Twilio.init(
-                    eq("test-account-sid"),
-                    eq("test-auth-token")));
+            // Chaque compte dispose de son propre client : Twilio.init() n'est jamais appelé
+            mockedTwilio.verifyNoInteractions();
         }
     }
 
@@ -78,7 +85,7 @@ public class WhatsAppNotificationProviderTest {
             new WhatsAppNotificationProvider(notificationProperties);
         });
 
-        assertTrue(exception.getMessage().contains("account-sid"));
+        assertTrue(exception.getMessage().contains("notifier.whatsapp.twilio.account-sid"));
     }
 
     @Test
@@ -103,6 +110,12 @@ public class WhatsAppNotificationProviderTest {
         assertTrue(exception.getMessage().contains("from"));
     }
 
+    @Test
+    public void testDefaultRatePerSenderIsAdvertised() {
+        assertEquals(80.0, provider.capabilities().getMaxSendsPerSecond());
+        assertTrue(provider.capabilities().isNativeAsync());
+    }
+
     @Test
     public void testSendWhatsAppMessage() {
         NotificationRequest request = NotificationRequest.builder()
@@ -113,14 +126,14 @@ public class WhatsAppNotificationProviderTest {
 
         try (MockedStatic<Message> mockedMessage = mockStatic(Message.class)) {
             // Mock pour Message.creator()
-            Message.Creator creator = mock(Message.Creator.class);
+            MessageCreator creator = mock(MessageCreator.class);
             Message message = mock(Message.class);
 
             mockedMessage.when(() -> Message.creator(
                     any(PhoneNumber.class),
                     any(PhoneNumber.class),
                     anyString())).thenReturn(creator);
-            when(creator.create()).thenReturn(message);
+            when(creator.create(any(TwilioRestClient.class))).thenReturn(message);
             when(message.getSid()).thenReturn("test-sid");
 
             // Test de l'envoi de message
@@ -128,8 +141,8 @@ public class WhatsAppNotificationProviderTest {
 
             // Vérifier que la méthode creator est appelée avec le bon préfixe "whatsapp:"
             mockedMessage.verify(() -> Message.creator(
-                    argThat(phone -> phone.toString().equals("whatsapp:+33687654321")),
-                    argThat(phone -> phone.toString().equals("whatsapp:+33123456789")),
+                    argThat((PhoneNumber phone) -> phone.toString().equals("whatsapp:+33687654321")),
+                    argThat((PhoneNumber phone) -> phone.toString().equals("whatsapp:+33123456789")),
                     eq("Test message")));
         }
     }
@@ -144,16 +157,63 @@ public class WhatsAppNotificationProviderTest {
 
         try (MockedStatic<Message> mockedMessage = mockStatic(Message.class)) {
             // Mock pour Message.creator() qui déclenche une exception
-            Message.Creator creator = mock(Message.Creator.class);
+            MessageCreator creator = mock(MessageCreator.class);
 
             mockedMessage.when(() -> Message.creator(
                     any(PhoneNumber.class),
                     any(PhoneNumber.class),
                     anyString())).thenReturn(creator);
-            when(creator.create()).thenThrow(new RuntimeException("Test exception"));
+            when(creator.create(any(TwilioRestClient.class))).thenThrow(new RuntimeException("Test exception"));
 
             // Test de l'exception
             assertThrows(NotificationException.class, () -> provider.send(request));
         }
     }
+
+    @Test
+    public void testSendAsyncPostsWhatsAppAddresses() {
+        HttpClient httpClient = mockHttpClient(201, "{\"sid\":\"SM123\"}");
+        WhatsAppNotificationProvider asyncProvider = new WhatsAppNotificationProvider(notificationProperties, httpClient);
+
+        assertDoesNotThrow(() -> asyncProvider.sendAsync(NotificationRequest.builder()
+                .type("WHATSAPP")
+                .to("+33687654321")
+                .message("Test message")
+                .build()).join());
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(captor.capture(), any());
+        assertEquals("https://api.twilio.com/2010-04-01/Accounts/test-account-sid/Messages.json",
+                captor.getValue().uri().toString());
+        // Destinataire et expéditeur préfixés par "whatsapp:"
+        String expected = "To=whatsapp%3A%2B33687654321&From=whatsapp%3A%2B33123456789&Body=Test+message";
+        assertEquals(expected.length(), captor.getValue().bodyPublisher().orElseThrow().contentLength());
+    }
+
+    @Test
+    public void testRecipientWithoutWhatsAppIsClassified() {
+        HttpClient httpClient = mockHttpClient(400, "{\"code\":63003,\"message\":\"Channel could not find To address\"}");
+        WhatsAppNotificationProvider asyncProvider = new WhatsAppNotificationProvider(notificationProperties, httpClient);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> asyncProvider.sendAsync(
+                NotificationRequest.builder()
+                        .type("WHATSAPP")
+                        .to("+33600000000")
+                        .message("Test message")
+                        .build()).join());
+
+        NotificationException failure = assertInstanceOf(NotificationException.class, exception.getCause());
+        assertEquals(NotificationErrorCode.INVALID_RECIPIENT, failure.getErrorCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpClient mockHttpClient(int statusCode, String body) {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(body);
+        doReturn(CompletableFuture.completedFuture(response))
+                .when(httpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        return httpClient;
+    }
 }